@@ -0,0 +1,52 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time per pick of a full draft as the item pool grows from 20 to 1M items.
+ * Every draft uses the whole pool, so a pool of n items makes n picks. The battles run
+ * without a listener, so no output is produced while timing.
+ *
+ * Run with: java -cp out BattleScalingBenchmark [participants]
+ */
+public class BattleScalingBenchmark {
+
+    private static final int[] POOL_SIZES = {20, 200, 2_000, 20_000, 200_000, 1_000_000};
+
+    public static void main(String[] args) {
+        int participants = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        PrintStream console = System.out;
+
+        console.printf("%12s %12s %14s%n", "pool size", "picks", "ns per pick");
+        for (int poolSize : POOL_SIZES) {
+            // Warm up on the same pool size, then measure the best of three runs
+            runDraft(poolSize, participants);
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                best = Math.min(best, runDraft(poolSize, participants));
+            }
+            int picks = poolSize / participants * participants;
+            console.printf("%12d %12d %14.1f%n", poolSize, picks, (double) best / picks);
+        }
+    }
+
+    // Runs one full draft and returns its duration in nanoseconds
+    private static long runDraft(int poolSize, int participants) {
+        BattleConfig config = new BattleConfig(poolSize, poolSize / participants, participants, 1, 2, 2);
+        List<RPGCharacter> characters = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            characters.add(config.createCharacter("Player " + (i + 1), 2, 2));
+        }
+        List<Gear> items = GameBenchmarks.createPool(poolSize, new int[] {1, 1, 1}, new Random(poolSize));
+        Battle battle = new Battle(characters, items, config);
+        battle.setListener(BattleListener.NONE);
+        long start = System.nanoTime();
+        battle.startBattle();
+        return System.nanoTime() - start;
+    }
+}
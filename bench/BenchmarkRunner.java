@@ -0,0 +1,257 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A small JMH-style benchmark harness. Each benchmark case is warmed up, then measured over a
+ * number of fixed-length iterations, and reported as the mean time per operation with a 99.9%
+ * error margin. Results can be saved as a baseline and later compared against it, so a slower
+ * pick, draft, equip or compare shows up as a regression before it is deployed.
+ *
+ * Run with: java -cp out BenchmarkRunner [--filter text] [--warmup n] [--iterations n]
+ * [--save file] [--compare file]
+ *
+ * A baseline should be saved with more iterations than the default, e.g. --warmup 5
+ * --iterations 15, so its error margins are narrow enough to catch a regression.
+ */
+public class BenchmarkRunner {
+
+    // Times are in milliseconds per iteration
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_MILLIS = 300;
+
+    // A case is a regression when it is this much slower than its baseline, beyond the error margins
+    private static final double REGRESSION_THRESHOLD = 0.10;
+
+    // Student's t values for a 99.9% interval by degrees of freedom, one less than the number of
+    // iterations; past the end of the table the last value is used, which overstates the error
+    private static final double[] T_999 = {
+        636.62, 31.60, 12.92, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+        4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+        3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646};
+
+    // Benchmarks add their results here so the JIT cannot remove the measured work
+    static volatile long sink;
+
+    private static final PrintStream CONSOLE = System.out;
+
+    /**
+     * A single benchmark with fixed parameters.
+     */
+    abstract static class Case {
+        private final String name;
+        private final String params;
+
+        Case(String name, String params) {
+            this.name = name;
+            this.params = params;
+        }
+
+        /**
+         * Prepares state that is shared by all invocations.
+         */
+        void setup() {
+        }
+
+        /**
+         * Runs the benchmark once.
+         *
+         * @return The nanoseconds spent in the measured part of the invocation.
+         */
+        abstract long invoke();
+
+        /**
+         * Gets the number of operations performed by one invocation.
+         *
+         * @return The number of operations per invocation.
+         */
+        abstract int operations();
+
+        String key() {
+            return name + "\t" + params;
+        }
+    }
+
+    /**
+     * The measured time per operation of a case.
+     */
+    static final class Result {
+        final String key;
+        final double nanosPerOp;
+        final double error;
+
+        Result(String key, double nanosPerOp, double error) {
+            this.key = key;
+            this.nanosPerOp = nanosPerOp;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = null;
+        Path save = null;
+        Path compare = null;
+        int warmup = WARMUP_ITERATIONS;
+        int iterations = MEASUREMENT_ITERATIONS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter":
+                    filter = args[++i];
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--save":
+                    save = Paths.get(args[++i]);
+                    break;
+                case "--compare":
+                    compare = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (warmup < 0 || iterations < 2) {
+            throw new IllegalArgumentException("Need at least 0 warmup and 2 measurement iterations");
+        }
+
+        List<Result> results = new ArrayList<>();
+        CONSOLE.printf("%-22s %-40s %14s %12s%n", "Benchmark", "Params", "ns/op", "error");
+        List<Case> cases = GameBenchmarks.cases();
+        for (int i = 0; i < cases.size(); i++) {
+            // Drop each case once it has run, so its state does not slow down the cases after it
+            Case benchmark = cases.set(i, null);
+            if (filter != null && !benchmark.key().contains(filter)) {
+                continue;
+            }
+            Result result = run(benchmark, warmup, iterations);
+            results.add(result);
+            String[] key = result.key.split("\t");
+            CONSOLE.printf(Locale.ROOT, "%-22s %-40s %14.1f %12.1f%n", key[0], key[1], result.nanosPerOp, result.error);
+        }
+
+        if (save != null) {
+            save(results, save, warmup, iterations);
+            CONSOLE.println("Saved baseline to " + save);
+        }
+        if (compare != null) {
+            int regressions = compare(results, load(compare));
+            if (regressions > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Warms up and measures one case.
+     *
+     * @param benchmark  The case to run.
+     * @param warmup     The number of warmup iterations.
+     * @param iterations The number of measured iterations, at least two.
+     * @return The measured time per operation.
+     */
+    static Result run(Case benchmark, int warmup, int iterations) {
+        // Start every case from a collected heap, so garbage of the case before is not paid for here
+        System.gc();
+        benchmark.setup();
+        for (int i = 0; i < warmup; i++) {
+            iteration(benchmark);
+        }
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            samples[i] = iteration(benchmark);
+        }
+
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= samples.length;
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        variance /= samples.length - 1;
+        double t = T_999[Math.min(samples.length - 1, T_999.length) - 1];
+        double error = t * Math.sqrt(variance / samples.length);
+        return new Result(benchmark.key(), mean, error);
+    }
+
+    // Invokes the case until the iteration time is used up and returns the time per operation
+    private static double iteration(Case benchmark) {
+        long deadline = System.nanoTime() + ITERATION_MILLIS * 1_000_000;
+        long measured = 0;
+        long operations = 0;
+        do {
+            measured += benchmark.invoke();
+            operations += benchmark.operations();
+        } while (System.nanoTime() < deadline);
+        return (double) measured / operations;
+    }
+
+    private static void save(List<Result> results, Path file, int warmup, int iterations) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# warmup=" + warmup + " iterations=" + iterations + "\n");
+            writer.write("# benchmark\tparams\tns/op\terror\n");
+            for (Result result : results) {
+                writer.write(String.format(Locale.ROOT, "%s\t%.1f\t%.1f%n", result.key, result.nanosPerOp, result.error));
+            }
+        }
+    }
+
+    private static Map<String, Result> load(Path file) throws IOException {
+        Map<String, Result> baseline = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                String key = fields[0] + "\t" + fields[1];
+                baseline.put(key, new Result(key, Double.parseDouble(fields[2]), Double.parseDouble(fields[3])));
+            }
+        }
+        return baseline;
+    }
+
+    // Prints the comparison report and returns the number of regressions
+    private static int compare(List<Result> results, Map<String, Result> baseline) {
+        CONSOLE.println();
+        CONSOLE.printf("%-22s %-40s %14s %14s %9s%n", "Benchmark", "Params", "baseline", "current", "change");
+        int regressions = 0;
+        for (Result result : results) {
+            Result before = baseline.get(result.key);
+            String[] key = result.key.split("\t");
+            if (before == null) {
+                CONSOLE.printf(Locale.ROOT, "%-22s %-40s %14s %14.1f %9s%n", key[0], key[1], "-", result.nanosPerOp, "new");
+                continue;
+            }
+            double change = result.nanosPerOp / before.nanosPerOp - 1;
+            // Only flag slowdowns that the measurement error cannot explain
+            boolean regressed = change > REGRESSION_THRESHOLD
+                    && result.nanosPerOp - result.error > before.nanosPerOp + before.error;
+            if (regressed) {
+                regressions++;
+            }
+            CONSOLE.printf(Locale.ROOT, "%-22s %-40s %14.1f %14.1f %+8.1f%%%s%n", key[0], key[1],
+                    before.nanosPerOp, result.nanosPerOp, change * 100, regressed ? "  REGRESSION" : "");
+        }
+        CONSOLE.println(regressions == 0 ? "No regressions." : regressions + " regression(s) found.");
+        return regressions;
+    }
+}
@@ -0,0 +1,701 @@
+import battle.*;
+import battle.tournament.Entrant;
+import battle.tournament.Tournament;
+import character.*;
+import gear.*;
+import gear.store.GearCatalogLoader;
+import gear.store.OffHeapGearStore;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The benchmark cases run by {@link BenchmarkRunner}: picking an item, running a full draft,
+ * choosing a loadout greedily or with the solver, drafting from and claiming from a shared
+ * pool on several threads, drafting in teams, equipping gear into full slots so it is
+ * combined, comparing characters one pair at a time or through a damage matrix, keeping a
+ * leaderboard ranked, importing a CSV catalog, querying and updating a gear index, finding the
+ * best items of an off-heap store, and playing tournament rounds.
+ * Each case is listed once per combination of its parameters.
+ */
+public class GameBenchmarks {
+
+    // Gear mixes as weights of head, hand and foot gear
+    private static final int[][] MIXES = {{1, 1, 1}, {1, 1, 4}};
+    private static final String[] MIX_NAMES = {"balanced", "footHeavy"};
+
+    private GameBenchmarks() {
+    }
+
+    static List<BenchmarkRunner.Case> cases() {
+        List<BenchmarkRunner.Case> cases = new ArrayList<>();
+        for (int poolSize : new int[] {1_000, 100_000}) {
+            for (int mix = 0; mix < MIXES.length; mix++) {
+                cases.add(pick(poolSize, mix));
+            }
+        }
+        for (int poolSize : new int[] {20, 2_000, 20_000}) {
+            for (int mix = 0; mix < MIXES.length; mix++) {
+                for (int characters : new int[] {2, 8}) {
+                    cases.add(draft(poolSize, mix, characters));
+                }
+            }
+        }
+        cases.add(teamDraft(100_000, 50));
+        for (int poolSize : new int[] {2_000, 200_000}) {
+            cases.add(compactDraft(poolSize));
+        }
+        for (int poolSize : new int[] {1_000, 100_000}) {
+            cases.add(greedyLoadout(poolSize));
+            cases.add(solvedLoadout(poolSize));
+        }
+        for (int threads : new int[] {1, 4}) {
+            cases.add(concurrentDraft(100_000, threads));
+        }
+        for (int threads : new int[] {1, 2, 4, 8}) {
+            cases.add(concurrentClaim(100_000, threads));
+        }
+        for (int chainLength : new int[] {10, 100, 1_000}) {
+            cases.add(equipCombine(chainLength));
+        }
+        for (int characters : new int[] {2, 1_000}) {
+            cases.add(compareCharacters(characters));
+        }
+        cases.add(damageMatrix(10_000));
+        cases.add(leaderboard(1_000_000));
+        cases.add(catalogImport(1_000_000));
+        for (String query : new String[] {"range", "prefixTop", "update"}) {
+            cases.add(gearQuery(1_000_000, query));
+        }
+        cases.add(offHeapTop(10_000_000));
+        cases.add(swissRound(10_000));
+        return cases;
+    }
+
+    // Battle.findBestItem on a full pool, for a character with some slots filled
+    private static BenchmarkRunner.Case pick(int poolSize, int mix) {
+        return new BenchmarkRunner.Case("pick", "poolSize=" + poolSize + ",mix=" + MIX_NAMES[mix]) {
+            private static final int PICKS = 1_000;
+            private Battle battle;
+            private RPGCharacter[] pickers;
+
+            @Override
+            void setup() {
+                BattleConfig config = new BattleConfig(poolSize, 1, 2, 1, 2, 2);
+                List<RPGCharacter> characters = new ArrayList<>();
+                characters.add(config.createCharacter("Player 1", 2, 2));
+                characters.add(config.createCharacter("Player 2", 2, 2));
+                battle = new Battle(characters, createPool(poolSize, MIXES[mix], new Random(poolSize)), config);
+                pickers = new RPGCharacter[] {
+                        characters.get(0), characters.get(1), config.createCharacter("Full", 2, 2)};
+                pickers[1].equip(new HeadGear("adj", "Helmet", 1));
+                for (int i = 0; i < 5; i++) {
+                    pickers[2].equip(i == 0 ? new HeadGear("adj", "Helmet", 1) : new HandGear("adj", "Glove", 1));
+                }
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                long sum = 0;
+                for (int i = 0; i < PICKS; i++) {
+                    sum += battle.findBestItem(pickers[i % pickers.length]).getAttackStat();
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += sum;
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return PICKS;
+            }
+        };
+    }
+
+    // A whole draft, including building the indexed pool, reported per pick
+    private static BenchmarkRunner.Case draft(int poolSize, int mix, int characterCount) {
+        String params = "poolSize=" + poolSize + ",mix=" + MIX_NAMES[mix] + ",characters=" + characterCount;
+        return new BenchmarkRunner.Case("draft", params) {
+            private final int turns = poolSize / characterCount;
+            private final Random rand = new Random(poolSize);
+
+            @Override
+            long invoke() {
+                BattleConfig config = new BattleConfig(turns * characterCount, turns, characterCount, 1, 2, 2);
+                List<RPGCharacter> characters = new ArrayList<>();
+                for (int i = 0; i < characterCount; i++) {
+                    characters.add(config.createCharacter("Player " + (i + 1), 2, 2));
+                }
+                List<Gear> items = createPool(turns * characterCount, MIXES[mix], rand);
+                Battle battle = new Battle(characters, items, config);
+                battle.setListener(BattleListener.NONE);
+                long start = System.nanoTime();
+                battle.startBattle();
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return turns * characterCount;
+            }
+        };
+    }
+
+    // A whole team draft in snake order with team damage, reported per pick
+    private static BenchmarkRunner.Case teamDraft(int poolSize, int teamSize) {
+        return new BenchmarkRunner.Case("teamDraft", "poolSize=" + poolSize + ",teams=" + teamSize + "v" + teamSize) {
+            private final int turns = 10;
+            private final Random rand = new Random(poolSize);
+
+            @Override
+            long invoke() {
+                BattleConfig config = new BattleConfig(poolSize, turns, teamSize * 2, 1, 2, 2);
+                List<RPGCharacter> first = new ArrayList<>();
+                List<RPGCharacter> second = new ArrayList<>();
+                for (int i = 0; i < teamSize; i++) {
+                    first.add(config.createCharacter("A" + i, 2, 2));
+                    second.add(config.createCharacter("B" + i, 2, 2));
+                }
+                TeamBattle battle = new TeamBattle(first, second, createPool(poolSize, MIXES[0], rand), config,
+                        Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+                battle.setListener(BattleListener.NONE);
+                long start = System.nanoTime();
+                BenchmarkRunner.sink += battle.startBattle().getWinningTeam();
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return turns * teamSize * 2;
+            }
+        };
+    }
+
+    // The same draft on the primitive arrays of a GearPool, reported per pick
+    private static BenchmarkRunner.Case compactDraft(int poolSize) {
+        return new BenchmarkRunner.Case("compactDraft", "poolSize=" + poolSize + ",characters=2") {
+            private final BattleConfig config = new BattleConfig(poolSize, poolSize / 2, 2, 1, 2, 2);
+            private GearPool pool;
+
+            @Override
+            void setup() {
+                pool = GearPool.from(createPool(poolSize, MIXES[0], new Random(poolSize)));
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                CompactDraft draft = new CompactDraft(pool, config, new int[] {2, 2}, new int[] {2, 2});
+                BenchmarkRunner.sink += draft.run();
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return poolSize;
+            }
+        };
+    }
+
+    // Ten greedy picks for one character, as Battle makes them; the pool is built once in setup
+    // and the picked items are put back after the timer stops, so only the picks are measured
+    private static BenchmarkRunner.Case greedyLoadout(int poolSize) {
+        return new BenchmarkRunner.Case("greedyLoadout", "poolSize=" + poolSize + ",picks=10") {
+            private final Gear[] picked = new Gear[10];
+            private IndexedGearPool pool;
+
+            @Override
+            void setup() {
+                pool = new IndexedGearPool(createPool(poolSize, MIXES[0], new Random(poolSize)));
+            }
+
+            @Override
+            long invoke() {
+                RPGCharacter character = new RPGCharacterImpl("Player 1", 2, 2);
+                long start = System.nanoTime();
+                for (int i = 0; i < picked.length; i++) {
+                    Gear gear = pool.findBest(character);
+                    pool.remove(gear);
+                    character.equip(gear);
+                    picked[i] = gear;
+                }
+                long elapsed = System.nanoTime() - start;
+                for (Gear gear : picked) {
+                    pool.add(gear);
+                }
+                BenchmarkRunner.sink += character.getTotalAttackStat();
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return 1;
+            }
+        };
+    }
+
+    // The best ten items for one character against a fixed opponent, from LoadoutSolver
+    private static BenchmarkRunner.Case solvedLoadout(int poolSize) {
+        return new BenchmarkRunner.Case("solvedLoadout", "poolSize=" + poolSize + ",picks=10") {
+            private final LoadoutSolver solver = new LoadoutSolver();
+            private final RPGCharacter opponent = new RPGCharacterImpl("Player 2", 40, 30);
+            private List<Gear> items;
+
+            @Override
+            void setup() {
+                items = createPool(poolSize, MIXES[0], new Random(poolSize));
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                Loadout loadout = solver.solve(new RPGCharacterImpl("Player 1", 2, 2), opponent, items, 10);
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += loadout.getMargin();
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return 1;
+            }
+        };
+    }
+
+    // Eight characters draining one shared ConcurrentGearPool with a stripe per thread, reported per pick
+    private static BenchmarkRunner.Case concurrentDraft(int poolSize, int threads) {
+        return new BenchmarkRunner.Case("concurrentDraft", "poolSize=" + poolSize + ",threads=" + threads) {
+            private static final int CHARACTERS = 8;
+            private List<Gear> items;
+            private ExecutorService executor;
+
+            @Override
+            void setup() {
+                items = createPool(poolSize, MIXES[0], new Random(poolSize));
+                executor = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            @Override
+            long invoke() {
+                ConcurrentGearPool pool = new ConcurrentGearPool(items, threads);
+                List<RPGCharacter> characters = new ArrayList<>();
+                for (int i = 0; i < CHARACTERS; i++) {
+                    characters.add(new RPGCharacterImpl("Player " + (i + 1), 2, 2));
+                }
+                ConcurrentDraft draft = new ConcurrentDraft(pool, characters, poolSize / CHARACTERS);
+                long start = System.nanoTime();
+                try {
+                    BenchmarkRunner.sink += draft.run(executor).getWinner();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return poolSize;
+            }
+        };
+    }
+
+    // Threads claiming from one shared ConcurrentGearPool, with a stripe per thread, until it is
+    // empty, with nothing else per claim, so the contention on the pool itself is measured;
+    // reported per claim
+    private static BenchmarkRunner.Case concurrentClaim(int poolSize, int threads) {
+        return new BenchmarkRunner.Case("concurrentClaim", "poolSize=" + poolSize + ",threads=" + threads) {
+            private List<Gear> items;
+            private ExecutorService executor;
+
+            @Override
+            void setup() {
+                items = createPool(poolSize, MIXES[0], new Random(poolSize));
+                executor = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            @Override
+            long invoke() {
+                ConcurrentGearPool pool = new ConcurrentGearPool(items, threads);
+                CountDownLatch ready = new CountDownLatch(threads);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Integer>> claims = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    // Each thread claims for a character of its own with different base stats
+                    RPGCharacter character = new RPGCharacterImpl("Player " + (i + 1), i, i % 3);
+                    claims.add(executor.submit(() -> {
+                        ready.countDown();
+                        go.await();
+                        int claimed = 0;
+                        while (pool.claimBest(character) != null) {
+                            claimed++;
+                        }
+                        return claimed;
+                    }));
+                }
+                try {
+                    ready.await();
+                    long start = System.nanoTime();
+                    go.countDown();
+                    int claimed = 0;
+                    for (Future<Integer> claim : claims) {
+                        claimed += claim.get();
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    BenchmarkRunner.sink += claimed;
+                    return elapsed;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+
+            @Override
+            int operations() {
+                return poolSize;
+            }
+        };
+    }
+
+    // GearCatalogLoader parsing an in-memory CSV catalog, reported per row
+    private static BenchmarkRunner.Case catalogImport(int rows) {
+        return new BenchmarkRunner.Case("catalogImport", "rows=" + rows) {
+            private final GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.CSV,
+                    (line, message) -> BenchmarkRunner.sink++);
+            private char[] catalog;
+
+            @Override
+            void setup() {
+                StringBuilder csv = new StringBuilder("type,prefix,name,attack,defense\n");
+                Random rand = new Random(rows);
+                for (int i = 0; i < rows; i++) {
+                    int type = rand.nextInt(3);
+                    csv.append(GearType.values()[type]).append(",adj").append(rand.nextInt(1_000))
+                            .append(type == 0 ? ",Helmet,0," : type == 1 ? ",Glove," : ",Boot,")
+                            .append(type == 0 ? "" : rand.nextInt(10) + ",")
+                            .append(type == 1 ? 0 : rand.nextInt(10)).append('\n');
+                }
+                catalog = csv.toString().toCharArray();
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                try {
+                    BenchmarkRunner.sink += loader.load(new CharArrayReader(catalog),
+                            (type, prefix, name, attack, defense) -> BenchmarkRunner.sink += attack);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return rows;
+            }
+        };
+    }
+
+    // GearQueryIndex.find on a foot gear range by attack or the 100 best hand gear with a prefix, or a
+    // remove and index of a random item
+    private static BenchmarkRunner.Case gearQuery(int items, String query) {
+        return new BenchmarkRunner.Case("gearQuery", "items=" + items + ",query=" + query) {
+            private static final int QUERIES = 100;
+            private final Random rand = new Random(items);
+            private GearQueryIndex index;
+
+            @Override
+            void setup() {
+                index = new GearQueryIndex(new GearPool(items, new StringTable()));
+                for (int i = 0; i < items; i++) {
+                    GearType type = GearType.values()[rand.nextInt(3)];
+                    String name = type == GearType.HEAD ? "Helmet" : type == GearType.HAND ? "Glove" : "Boot";
+                    index.add(type, "adj" + rand.nextInt(1_000), name, type == GearType.HEAD ? 0 : rand.nextInt(100),
+                            type == GearType.HAND ? 0 : rand.nextInt(100));
+                }
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    if (query.equals("update")) {
+                        int item = rand.nextInt(items);
+                        index.remove(item);
+                        index.index(item);
+                        continue;
+                    }
+                    GearQuery gearQuery;
+                    if (query.equals("range")) {
+                        gearQuery = new GearQuery(GearType.FOOT);
+                        gearQuery.setAttackRange(3, 7);
+                        gearQuery.setDefenseRange(5 + rand.nextInt(10), Integer.MAX_VALUE);
+                        gearQuery.setOrder(GearQuery.Order.ATTACK);
+                    } else {
+                        gearQuery = new GearQuery(GearType.HAND);
+                        gearQuery.setPrefixStart("adj" + (1 + rand.nextInt(9)) + rand.nextInt(10));
+                        gearQuery.setLimit(100);
+                    }
+                    BenchmarkRunner.sink += index.find(gearQuery).length;
+                }
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return QUERIES;
+            }
+        };
+    }
+
+    // OffHeapGearStore.top for the 100 best foot gear, reported per item scanned
+    private static BenchmarkRunner.Case offHeapTop(int items) {
+        return new BenchmarkRunner.Case("offHeapTop", "items=" + items) {
+            private final OffHeapGearStore store = new OffHeapGearStore();
+
+            @Override
+            void setup() {
+                Random rand = new Random(items);
+                for (int i = 0; i < items; i++) {
+                    GearType type = GearType.values()[rand.nextInt(3)];
+                    String name = type == GearType.HEAD ? "Helmet" : type == GearType.HAND ? "Glove" : "Boot";
+                    store.add(type, "adj" + rand.nextInt(1_000), name, type == GearType.HEAD ? 0 : rand.nextInt(100),
+                            type == GearType.HAND ? 0 : rand.nextInt(100));
+                }
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                BenchmarkRunner.sink += store.top(GearType.FOOT, 100)[0];
+                return System.nanoTime() - start;
+            }
+
+            @Override
+            int operations() {
+                return items;
+            }
+        };
+    }
+
+    // One Swiss round of a Tournament on all cores, reported per match
+    private static BenchmarkRunner.Case swissRound(int entrantCount) {
+        return new BenchmarkRunner.Case("swissRound", "entrants=" + entrantCount) {
+            private final Random rand = new Random(entrantCount);
+            private List<Entrant> entrants;
+            private ExecutorService executor;
+
+            @Override
+            void setup() {
+                entrants = new ArrayList<>();
+                for (int i = 0; i < entrantCount; i++) {
+                    entrants.add(new Entrant("Bot " + i, rand.nextInt(5), rand.nextInt(5)));
+                }
+                executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            @Override
+            long invoke() {
+                Tournament tournament = new Tournament(entrants, BattleConfig.standard(), rand.nextLong());
+                long start = System.nanoTime();
+                try {
+                    tournament.runSwiss(1, executor);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += tournament.getRanking()[0];
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return entrantCount / 2;
+            }
+        };
+    }
+
+    // RPGCharacterImpl.equip with every slot full, so each item is combined into the first slot
+    private static BenchmarkRunner.Case equipCombine(int chainLength) {
+        return new BenchmarkRunner.Case("equipCombine", "chainLength=" + chainLength) {
+            private final Gear[] items = new Gear[chainLength];
+
+            @Override
+            void setup() {
+                Random rand = new Random(chainLength);
+                for (int i = 0; i < chainLength; i++) {
+                    items[i] = new FootGear("adj" + i, "Boot", rand.nextInt(10), rand.nextInt(10));
+                }
+            }
+
+            @Override
+            long invoke() {
+                RPGCharacter character = new RPGCharacterImpl("Player 1", 2, 2);
+                long start = System.nanoTime();
+                for (Gear item : items) {
+                    character.equip(item);
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += character.getTotalAttackStat();
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return chainLength;
+            }
+        };
+    }
+
+    // RPGCharacterImpl.compareTo between neighbouring characters
+    private static BenchmarkRunner.Case compareCharacters(int characterCount) {
+        return new BenchmarkRunner.Case("compareTo", "characters=" + characterCount) {
+            private static final int COMPARES = 10_000;
+            private RPGCharacter[] characters;
+
+            @Override
+            void setup() {
+                Random rand = new Random(characterCount);
+                characters = new RPGCharacter[characterCount];
+                for (int i = 0; i < characterCount; i++) {
+                    characters[i] = new RPGCharacterImpl("Player " + (i + 1), rand.nextInt(10), rand.nextInt(10));
+                    characters[i].equip(new FootGear("adj" + i, "Boot", rand.nextInt(10), rand.nextInt(10)));
+                }
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                long sum = 0;
+                for (int i = 0; i < COMPARES; i++) {
+                    sum += characters[i % characterCount].compareTo(characters[(i + 1) % characterCount]);
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += sum;
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return COMPARES;
+            }
+        };
+    }
+
+    // RPGCharacterImpl.equip on characters of a Leaderboard, which moves the character on every equip
+    private static BenchmarkRunner.Case leaderboard(int characterCount) {
+        return new BenchmarkRunner.Case("leaderboard", "characters=" + characterCount) {
+            private static final int EQUIPS = 100_000;
+            private final Random rand = new Random(characterCount);
+            private RPGCharacter[] characters;
+            private Leaderboard leaderboard;
+
+            @Override
+            void setup() {
+                characters = new RPGCharacter[characterCount];
+                leaderboard = new Leaderboard(Leaderboard.Score.TOTAL);
+                for (int i = 0; i < characterCount; i++) {
+                    characters[i] = new RPGCharacterImpl("Player " + (i + 1), rand.nextInt(100), rand.nextInt(100));
+                    leaderboard.add(characters[i]);
+                }
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                for (int i = 0; i < EQUIPS; i++) {
+                    characters[rand.nextInt(characterCount)].equip(
+                            new FootGear("adj", "Boot", rand.nextInt(10), rand.nextInt(10)));
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += leaderboard.getRank(characters[0]);
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return EQUIPS;
+            }
+        };
+    }
+
+    // RPGCharacterImpl.equip on characters of a DamageMatrix, which updates the matrix on every equip
+    private static BenchmarkRunner.Case damageMatrix(int characterCount) {
+        return new BenchmarkRunner.Case("damageMatrix", "characters=" + characterCount) {
+            private static final int EQUIPS = 1_000;
+            private final Random rand = new Random(characterCount);
+            private RPGCharacter[] characters;
+            private DamageMatrix matrix;
+
+            @Override
+            void setup() {
+                List<RPGCharacter> list = new ArrayList<>();
+                for (int i = 0; i < characterCount; i++) {
+                    list.add(new RPGCharacterImpl("Player " + (i + 1), rand.nextInt(10), rand.nextInt(10)));
+                }
+                characters = list.toArray(new RPGCharacter[0]);
+                matrix = new DamageMatrix(list);
+            }
+
+            @Override
+            long invoke() {
+                long start = System.nanoTime();
+                for (int i = 0; i < EQUIPS; i++) {
+                    characters[rand.nextInt(characterCount)].equip(
+                            new FootGear("adj", "Boot", rand.nextInt(10), rand.nextInt(10)));
+                }
+                long elapsed = System.nanoTime() - start;
+                BenchmarkRunner.sink += matrix.getWins(0);
+                return elapsed;
+            }
+
+            @Override
+            int operations() {
+                return EQUIPS;
+            }
+        };
+    }
+
+    // Builds a pool where the gear types appear in proportion to the given weights
+    static List<Gear> createPool(int poolSize, int[] weights, Random rand) {
+        int total = weights[0] + weights[1] + weights[2];
+        List<Gear> items = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            int roll = rand.nextInt(total);
+            if (roll < weights[0]) {
+                items.add(new HeadGear("adj" + i, "Helmet", rand.nextInt(10)));
+            } else if (roll < weights[0] + weights[1]) {
+                items.add(new HandGear("adj" + i, "Glove", rand.nextInt(10)));
+            } else {
+                items.add(new FootGear("adj" + i, "Boot", rand.nextInt(10), rand.nextInt(10)));
+            }
+        }
+        return items;
+    }
+}
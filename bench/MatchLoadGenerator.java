@@ -0,0 +1,61 @@
+import battle.*;
+import battle.server.*;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load generator for {@link MatchServer}. It submits seeded matches as fast as the server
+ * admits them, waiting whenever the server is full, and reports throughput and the p50, p99
+ * and maximum match latency, measured from submission to result.
+ *
+ * Run with: java -cp out MatchLoadGenerator [matches] [maxInFlight] [timeoutMillis] [poolSize]
+ */
+public class MatchLoadGenerator {
+
+    public static void main(String[] args) throws InterruptedException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long timeoutMillis = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        BattleConfig config = new BattleConfig(poolSize, poolSize / 2, 2, 1, 2, 2);
+
+        long[] latencies = new long[matches];
+        CountDownLatch done = new CountDownLatch(matches);
+        MatchServer server = new MatchServer(maxInFlight, timeoutMillis);
+        long start = System.nanoTime();
+        for (int i = 0; i < matches; i++) {
+            int match = i;
+            long submitted = System.nanoTime();
+            server.submit(new MatchRequest(config, match, 2, 2), 1, TimeUnit.MINUTES)
+                    .whenComplete((result, error) -> {
+                        latencies[match] = error == null ? System.nanoTime() - submitted : -1;
+                        done.countDown();
+                    });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        server.close();
+
+        // Only matches that finished count towards the latency percentiles
+        long[] finished = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        System.out.printf(Locale.ROOT, "Threads: %s, max in flight: %d, pool size: %d%n",
+                server.usesVirtualThreads() ? "virtual" : "platform", maxInFlight, poolSize);
+        System.out.printf(Locale.ROOT, "Matches: %d completed, %d rejected, %d timed out, %d failed%n",
+                server.getCompleted(), server.getRejected(), server.getTimedOut(), server.getFailed());
+        System.out.printf(Locale.ROOT, "Throughput: %.0f matches/s%n", matches / (elapsed / 1e9));
+        if (finished.length > 0) {
+            System.out.printf(Locale.ROOT, "Latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentile(finished, 0.50) / 1e6, percentile(finished, 0.99) / 1e6,
+                    finished[finished.length - 1] / 1e6);
+        }
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
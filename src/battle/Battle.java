@@ -2,159 +2,406 @@ package battle;
 
 import gear.*;
 import character.*;
+import metrics.Metrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 
 /**
- * The battle.Battle class represents a turn-based battle between two RPG characters.
+ * The battle.Battle class represents a turn-based battle between RPG characters.
  * During the battle, characters take turns choosing items from a list of available items,
  * and the winner is determined based on the calculated damage at the end of the battle.
+ * The pool size, number of turns and number of characters are set by a {@link BattleConfig}.
+ *
+ * The characters can also fight as two teams, which is how a {@link TeamBattle} runs: every
+ * character still picks once per turn, but in the {@link PickOrder} of the battle, and the
+ * damage is resolved against the other team as set by the {@link DamageMode}. The order of
+ * every pick is worked out when the battle is constructed, so finding whose pick it is takes
+ * O(1).
+ *
+ * A battle and its characters must be used by one thread at a time. Separate battles can run
+ * on separate threads, and can share frozen gear from a {@link GearCache}; to let several
+ * characters draft from one shared pool at once, use a {@link ConcurrentDraft}.
  */
 public class Battle {
 
-    // RPGCharacter1 and RPGCharacter2 represent the two characters in the battle.
-    private final RPGCharacter RPGCharacter1;
-    private final RPGCharacter RPGCharacter2;
+    /**
+     * The order the characters of a team battle pick in during a turn.
+     */
+    public enum PickOrder {
+
+        /**
+         * The teams take turns, first against first, then second against second, and so on;
+         * every turn is picked in the same order.
+         */
+        ALTERNATING,
+
+        /**
+         * The same order as {@link #ALTERNATING} on odd turns and reversed on even turns, so
+         * whoever picks last in one turn picks first in the next.
+         */
+        SNAKE
+    }
+
+    /**
+     * How the damage of the characters of a team battle is resolved against the other team.
+     */
+    public enum DamageMode {
+
+        /**
+         * Every character attacks every character of the other team.
+         */
+        SUM,
+
+        /**
+         * The characters are matched up by position, first against first and so on, and each
+         * attacks only its opponent. If one team is larger, the smaller team is matched up again
+         * from its first character until every character of the larger team has an opponent.
+         */
+        PAIRWISE
+    }
+
+    // participants holds the characters in the battle, in picking order.
+    private final List<RPGCharacter> participants;
+
+    // availableItems is the pool of items characters can choose from during the battle.
+    private final IndexedGearPool availableItems;
+
+    // config holds the pool size and turn count of the battle.
+    private final BattleConfig config;
+
+    // firstTeamSize is the number of characters in the first team, or 0 if every character fights for itself.
+    private final int firstTeamSize;
 
-    // availableItems is the list of items characters can choose from during the battle.
-    private final List<Gear> availableItems;
+    // damageMode sets how the damage is resolved between the teams, or is null without teams.
+    private final DamageMode damageMode;
+
+    // pickOrder holds the participant making every pick of a team battle, or is null when the
+    // participants pick in the same order on every turn.
+    private final int[] pickOrder;
+
+    // listener receives the events of the battle; by default they are printed to the console.
+    private BattleListener listener = new TextBattleRenderer(System.out);
+
+    // strategies holds how each participant picks its items; by default the greedy rule.
+    private final PickStrategy[] strategies;
+
+    // picksMade counts the picks so far, which fixes whose turn it is.
+    private int picksMade;
+
+    // For every pick so far: the item, its index in the pool, and the slot it filled or -1 if it was combined.
+    private final Gear[] pickedGear;
+    private final int[] pickedItems;
+    private final int[] pickedSlots;
+
+    // The gear each pick was combined into, kept from the first snapshot on, as only then can picks be rolled back.
+    private Gear[] combinedInto;
+
+    // state is the persistent state of the draft, kept up to date from the first snapshot on.
+    private DraftState state;
+
+    // context is what the strategies see of the battle, moved on to every pick.
+    private final PickContext context;
 
     /**
-     * Constructs a battle.Battle object with two RPG characters and a list of available items.
+     * Constructs a battle.Battle object with two RPG characters and a list of available items,
+     * using the standard configuration of 20 items and 10 turns.
      *
      * @param RPGCharacter1  The first RPG character participating in the battle.
      * @param RPGCharacter2  The second RPG character participating in the battle.
      * @param availableItems The list of available items that characters can choose from during the battle.
      */
     public Battle(RPGCharacter RPGCharacter1, RPGCharacter RPGCharacter2, List<Gear> availableItems) {
-        if (availableItems.size() != 20) {
-            throw new IllegalArgumentException("Item Error: Make sure you create enough items to pick up: 20 items");
-        }
-        this.RPGCharacter1 = RPGCharacter1;
-        this.RPGCharacter2 = RPGCharacter2;
-        this.availableItems = new ArrayList<>(availableItems);
+        this(Arrays.asList(RPGCharacter1, RPGCharacter2), availableItems, BattleConfig.standard());
     }
 
     /**
-     * Starts the battle, where characters take turns choosing items for a specified number of turns.
-     * After the turns, the winner is determined based on the calculated damage.
+     * Constructs a battle.Battle object with any number of RPG characters and a list of available items.
+     *
+     * @param participants   The RPG characters participating in the battle, in picking order.
+     * @param availableItems The list of available items that characters can choose from during the battle.
+     * @param config         The pool size, turn count and number of participants of the battle.
+     * @throws IllegalArgumentException if the number of items or participants does not match the config.
      */
-    public void startBattle() {
-        for (int turn = 1; turn <= 10; turn++) {
-            System.out.println("Turn " + turn + ":");
-            pickItem(RPGCharacter1);
-            pickItem(RPGCharacter2);
-            System.out.println();
+    public Battle(List<RPGCharacter> participants, List<Gear> availableItems, BattleConfig config) {
+        this(participants, availableItems, config, 0, null, null);
+    }
+
+    /**
+     * Constructs a battle, between two teams if the first team is not empty.
+     *
+     * @param participants   The characters of the first team followed by those of the second.
+     * @param availableItems The list of available items that characters can choose from during the battle.
+     * @param config         The pool size, turn count and number of participants of the battle.
+     * @param firstTeamSize  The number of characters in the first team, or 0 if every character fights for itself.
+     * @param pickOrder      The order the teams pick in, or null without teams.
+     * @param damageMode     How the damage is resolved between the teams, or null without teams.
+     * @throws IllegalArgumentException if the number of items or participants does not match the config.
+     */
+    Battle(List<RPGCharacter> participants, List<Gear> availableItems, BattleConfig config, int firstTeamSize,
+           PickOrder pickOrder, DamageMode damageMode) {
+        if (availableItems.size() != config.getPoolSize()) {
+            throw new IllegalArgumentException("Item Error: Make sure you create enough items to pick up: "
+                    + config.getPoolSize() + " items");
+        }
+        if (participants.size() != config.getParticipants()) {
+            throw new IllegalArgumentException("Participant Error: Make sure the battle has "
+                    + config.getParticipants() + " participants");
         }
+        this.participants = new ArrayList<>(participants);
+        this.availableItems = new IndexedGearPool(availableItems);
+        this.config = config;
+        this.firstTeamSize = firstTeamSize;
+        this.damageMode = damageMode;
+        this.pickOrder = pickOrder == null ? null
+                : createPickOrder(firstTeamSize, participants.size() - firstTeamSize, config.getTurns(), pickOrder);
+        this.strategies = new PickStrategy[participants.size()];
+        Arrays.fill(strategies, PickStrategy.GREEDY);
+        int picks = config.getTurns() * participants.size();
+        this.pickedGear = new Gear[picks];
+        this.pickedItems = new int[picks];
+        this.pickedSlots = new int[picks];
+        this.context = new PickContext(this.availableItems, this.participants, 0, 1, config.getTurns());
+        this.context.setBattle(this);
+        this.context.setPickOrder(this.pickOrder);
+    }
 
+    /**
+     * Starts the battle, where characters take turns choosing items for a specified number of turns.
+     * After the turns, the winner is determined based on the calculated damage. A battle that was
+     * rolled back with {@link #rollback} goes on from the pick it was rolled back to.
+     *
+     * @return The result of the battle.
+     */
+    public BattleResult startBattle() {
+        boolean timed = Metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        long allocated = timed ? Metrics.getAllocatedBytes() : 0;
+        playTurns();
 
         // Determine the winner based on damage calculation
-        int damage1 = calculateDamage(RPGCharacter1, RPGCharacter2);
-        int damage2 = calculateDamage(RPGCharacter2, RPGCharacter1);
-
-        System.out.println("Player 1 has " + RPGCharacter1.getTotalAttackStat() +
-                " attack and " + RPGCharacter1.getTotalDefenseStat() + " defense.");
-
-        System.out.println("Player 2 has " + RPGCharacter2.getTotalAttackStat() +
-                " attack and " + RPGCharacter2.getTotalDefenseStat() + " defense.");
+        int[] damages = resolveDamage();
+        BattleResult result = new BattleResult(participants, damages, getWinner(damages));
+        listener.onBattleEnd(result);
+        if (timed) {
+            Metrics.BATTLE.record(System.nanoTime() - start);
+            Metrics.recordAllocationSince(allocated);
+        }
+        return result;
+    }
 
-        System.out.println("Battle ends with " + RPGCharacter1.getName() + " having " + damage1 + " units of damage and " +
-                RPGCharacter2.getName() + " having " + damage2 + " units of damage.");
+    /**
+     * Starts a battle between two teams, as {@link #startBattle} does, but ends it with the
+     * result of the teams.
+     *
+     * @return The result of the team battle.
+     */
+    TeamBattleResult startTeamBattle() {
+        boolean timed = Metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        long allocated = timed ? Metrics.getAllocatedBytes() : 0;
+        playTurns();
+
+        TeamBattleResult result = new TeamBattleResult(participants, firstTeamSize, resolveDamage());
+        listener.onTeamBattleEnd(result);
+        if (timed) {
+            Metrics.BATTLE.record(System.nanoTime() - start);
+            Metrics.recordAllocationSince(allocated);
+        }
+        return result;
+    }
 
-        if (damage1 > damage2) {
-            System.out.println(RPGCharacter1.getName() + " wins!");
-        } else if (damage2 > damage1) {
-            System.out.println(RPGCharacter2.getName() + " wins!");
-        } else {
-            System.out.println("It's a tie!");
+    // Makes every pick that is left, turn by turn
+    private void playTurns() {
+        int count = participants.size();
+        while (picksMade < pickedItems.length) {
+            int turn = picksMade / count + 1;
+            int position = picksMade % count;
+            if (position == 0) {
+                listener.onTurnStart(turn);
+            }
+            pickItem(turn, position);
+            if (position == count - 1) {
+                listener.onTurnEnd(turn);
+            }
         }
     }
 
     /**
      * Represents a single turn in which a character chooses an item to equip.
      *
-     * @param RPGCharacter The RPG character whose turn it is to pick an item.
+     * @param turn     The current turn.
+     * @param position The number of picks already made in this turn.
      */
-    private void pickItem(RPGCharacter RPGCharacter) {
-        // Sort available items based on the specified rules
-        Gear chosenItem = findBestItem(RPGCharacter);
+    private void pickItem(int turn, int position) {
+        boolean timed = Metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        int participant = getPicker(picksMade);
+        RPGCharacter RPGCharacter = participants.get(participant);
 
-        System.out.println(RPGCharacter.getName() + " is picking up " + chosenItem.getClass().getSimpleName() +
-                ": " + chosenItem.getPrefix() + " " + chosenItem.getName() +
-                " -- defense strength: " + chosenItem.getDefenseStat() +
-                ", attack strength: " + chosenItem.getAttackStat());
+        // Let the strategy of the participant choose from the available items
+        context.moveTo(participant, turn, position, picksMade);
+        Gear chosenItem = strategies[participant].pick(context);
+
+        // Remove the chosen item from the available items
+        long item = availableItems.take(chosenItem);
+        if (item < 0) {
+            throw new IllegalStateException("Item Error: " + chosenItem + " is not available to pick up");
+        }
+
+        // Remember where the item goes, so the draft can be rebuilt and, once there is a snapshot, rolled back
+        GearType type = GearType.of(chosenItem);
+        long freeSlots = RPGCharacter.getFreeSlots(type);
+        pickedGear[picksMade] = chosenItem;
+        pickedItems[picksMade] = (int) item;
+        pickedSlots[picksMade] = freeSlots == 0 ? -1 : Long.numberOfTrailingZeros(freeSlots);
+        if (state != null && freeSlots == 0) {
+            combinedInto[picksMade] = RPGCharacter.getEquippedGear(type, 0);
+        }
 
         // Equip the chosen item to the character
         RPGCharacter.equip(chosenItem);
+        picksMade++;
+        if (state != null) {
+            state = state.pick(participant, (int) item);
+        }
+        if (timed) {
+            Metrics.PICK.record(System.nanoTime() - start);
+        }
 
-        // Remove the chosen item from the available items
-        availableItems.remove(chosenItem);
+        listener.onPick(turn, participant, RPGCharacter, chosenItem);
     }
 
     /**
-     * Method   `chooseItem` determines which gear is to be chosen by the character
-     *            during their turn, based on 1) whether that character has an open
-     *            slot for a type of gear, 2) which gear has the highest attack,
-     *            and 3) which gear has the highest defense. The gear chosen is
-     *            equipped to the character and removed from itemsList. If itemsList
-     *            is empty when method is called, throw an IllegalStateException.
-     * @param   'inChar'      --    (RPGCharacter)    the character choosing the item
-     * @returns  Gear         --                      the best gear
+     * Gets a hash of the state of the draft: the remaining items, the loadout of every
+     * participant in picking order, and the number of picks made. Two battles with the same
+     * hash and pick strategies play out the same from here on. The parts of the hash are kept up to date on every
+     * pick, so this takes O(1) per participant.
+     *
+     * @return The hash of the draft state.
      */
-    public Gear findBestItem(RPGCharacter inChar) {
-
+    public long getStateHash() {
+        long hash = GearHash.mix(availableItems.getContentHash() + GearHash.mix(picksMade));
+        for (RPGCharacter participant : participants) {
+            hash = GearHash.mix(hash + participant.getLoadoutHash());
+        }
+        return hash;
+    }
 
-        // Instantiate array lists to hold specific gear types
-        List<Gear> headGearList = new ArrayList<>();
-        List<Gear> handGearList = new ArrayList<>();
-        List<Gear> footGearList = new ArrayList<>();
+    /**
+     * Gets the state of the draft as it is now, which later picks do not change. The first
+     * snapshot of a battle rebuilds the pool and the participants as they were at the start,
+     * ranks the pool and replays the picks made so far; after that the state is kept up to date
+     * on every pick, so a snapshot takes O(1). A battle that is never snapshotted pays for none
+     * of this.
+     *
+     * A snapshot can be used to look ahead with {@link DraftState#pick} without touching the
+     * battle, or passed to {@link #rollback} to go back to it.
+     *
+     * @return The current state of the draft.
+     */
+    public DraftState snapshot() {
+        if (state == null) {
+            // Put the picked items back in the pool and take them off the participants, last pick first
+            Gear[] items = new Gear[availableItems.size() + picksMade];
+            availableItems.fill(items);
+            DraftState.Member[] members = DraftState.members(participants);
+            for (int pick = picksMade - 1; pick >= 0; pick--) {
+                Gear gear = pickedGear[pick];
+                items[pickedItems[pick]] = gear;
+                int participant = getPicker(pick);
+                members[participant] = members[participant].unequip(GearType.of(gear).ordinal(),
+                        gear.getAttackStat(), gear.getDefenseStat(), pickedSlots[pick] >= 0);
+            }
 
-        // Parse through itemsList and copy gear to appropriate lists
-        for (Gear gear : availableItems) {
-            if (gear instanceof HeadGear) {
-                headGearList.add(gear);
-            } else if (gear instanceof HandGear) {
-                handGearList.add(gear);
-            } else {
-                footGearList.add(gear);
+            DraftState replayed = DraftState.root(items, members);
+            for (int pick = 0; pick < picksMade; pick++) {
+                replayed = replayed.pick(getPicker(pick), pickedItems[pick]);
             }
+            combinedInto = new Gear[pickedItems.length];
+            state = replayed;
         }
+        return state;
+    }
 
-        // Instantiate new list from which gear will be chosen
-        List<Gear> candidatesList = new ArrayList<>();
-
-        // If char has open head, hand, or foot slot, add that type's list
-        // to the candidatesList
-
-        if (inChar.hasHeadGearSlot()) {
-            candidatesList.addAll(headGearList);
+    /**
+     * Takes back every pick made after a snapshot of this battle: the items go back into the
+     * pool in their old places, and each character's slots and stats are as they were, so
+     * {@link #startBattle} goes on from there. This takes O(k log n) to undo k picks.
+     *
+     * Undoing relies on the rule of {@link RPGCharacter#equip} that an item fills the first free
+     * slot of its type, or is combined into the first slot when none is free.
+     *
+     * @param snapshot A snapshot taken from this battle, at or before its current pick.
+     * @throws IllegalArgumentException if the snapshot is not an earlier state of this battle.
+     */
+    public void rollback(DraftState snapshot) {
+        if (state == null || snapshot.getPickCount() > picksMade
+                || state.rollback(snapshot.getPickCount()) != snapshot) {
+            throw new IllegalArgumentException("Draft Error: The snapshot is not an earlier state of this battle");
         }
-
-        if (inChar.hasHandGearSlot()) {
-            candidatesList.addAll(handGearList);
+        while (picksMade > snapshot.getPickCount()) {
+            picksMade--;
+            RPGCharacter character = participants.get(getPicker(picksMade));
+            Gear gear = pickedGear[picksMade];
+            GearType type = GearType.of(gear);
+            if (pickedSlots[picksMade] >= 0) {
+                character.unequip(type, pickedSlots[picksMade]);
+            } else {
+                character.swap(type, 0, combinedInto[picksMade]);
+            }
+            combinedInto[picksMade] = null;
+            availableItems.restore(gear, pickedItems[picksMade]);
         }
+        state = snapshot;
+    }
 
-        if (inChar.hasFootGearSlot()) {
-            candidatesList.addAll(footGearList);
-        }
+    /**
+     * Gets the participant that makes a pick.
+     *
+     * @param pick The 0-based number of the pick in the whole battle.
+     * @return The 0-based position of the participant.
+     */
+    public int getPicker(int pick) {
+        return pickOrder != null ? pickOrder[pick] : pick % participants.size();
+    }
 
-        // If char has all slots already filled, add all items in itemsList to
-        // candidatesList
-        if (candidatesList.isEmpty()) {
-            candidatesList.addAll(availableItems);
-        }
+    /**
+     * Sets the listener that receives the events of the battle. By default the battle is
+     * printed to the console; use {@link BattleListener#NONE} to run it silently.
+     *
+     * @param listener The listener of the battle.
+     */
+    public void setListener(BattleListener listener) {
+        this.listener = listener;
+    }
 
-        // Find the gear with the best stats in the candidatesList
-        Gear maxStatsGear = candidatesList.get(0);
-        for (Gear gear : candidatesList) {
-            if (gear.compareTo(maxStatsGear) > 0) {
-                maxStatsGear = gear;
-            }
-        }
-        return maxStatsGear;
+    /**
+     * Sets how a participant picks its items. By default every participant uses
+     * {@link PickStrategy#GREEDY}.
+     *
+     * @param participant The 0-based position of the participant in picking order.
+     * @param strategy    The strategy of the participant.
+     */
+    public void setPickStrategy(int participant, PickStrategy strategy) {
+        strategies[participant] = strategy;
+    }
 
+    /**
+     * Method   `chooseItem` determines which gear is to be chosen by the character
+     *            during their turn, based on 1) whether that character has an open
+     *            slot for a type of gear, 2) which gear has the highest attack,
+     *            and 3) which gear has the highest defense. The items are indexed
+     *            by slot type, so this takes O(log n) rather than a scan of the
+     *            whole itemsList. If itemsList is empty when method is called,
+     *            throw an IllegalStateException.
+     * @param   'inChar'      --    (RPGCharacter)    the character choosing the item
+     * @returns  Gear         --                      the best gear
+     */
+    public Gear findBestItem(RPGCharacter inChar) {
+        return availableItems.findBest(inChar);
     }
 
 
@@ -166,23 +413,213 @@ public class Battle {
      * @return The calculated damage inflicted by the attacker on the defender.
      */
     private int calculateDamage(RPGCharacter attacker, RPGCharacter defender) {
-        int damage = attacker.getTotalAttackStat() - defender.getTotalDefenseStat();
+        return calculateDamage(attacker.getTotalAttackStat(), defender.getTotalDefenseStat());
+    }
+
+    /**
+     * Calculates the damage an attack stat inflicts on a defense stat.
+     *
+     * @param attack  The total attack stat of the attacker.
+     * @param defense The total defense stat of the defender.
+     * @return The calculated damage, which is never negative.
+     */
+    static int calculateDamage(int attack, int defense) {
+        int damage = attack - defense;
         // Ensure damage is non-negative
         return Math.max(0, damage);
     }
 
+    /**
+     * Calculates the damage each participant inflicts on all of the other participants, which is
+     * the sum of {@link #calculateDamage} over every opponent. In a team battle the damage is
+     * resolved against the other team as set by the {@link DamageMode}.
+     *
+     * @return The damage inflicted by each participant, in picking order, or first team first.
+     * @throws ArithmeticException if the damage of a participant does not fit in an int.
+     */
+    public int[] resolveDamage() {
+        boolean timed = Metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        int count = participants.size();
+        int[] attacks = new int[count];
+        int[] defenses = new int[count];
+        for (int i = 0; i < count; i++) {
+            attacks[i] = participants.get(i).getTotalAttackStat();
+            defenses[i] = participants.get(i).getTotalDefenseStat();
+        }
+        int[] damages = damageMode == null ? resolveDamage(attacks, defenses)
+                : resolveDamage(attacks, defenses, firstTeamSize, damageMode);
+        if (timed) {
+            Metrics.DAMAGE.record(System.nanoTime() - start);
+        }
+        return damages;
+    }
+
+    /**
+     * Calculates the damage each participant inflicts on all of the other participants from
+     * their total stats. The defenses are sorted once and summed with prefix sums, so this takes
+     * O(n log n) for n participants instead of O(n^2).
+     *
+     * @param attacks  The total attack stat of each participant.
+     * @param defenses The total defense stat of each participant.
+     * @return The damage inflicted by each participant.
+     * @throws ArithmeticException if the damage of a participant does not fit in an int.
+     */
+    static int[] resolveDamage(int[] attacks, int[] defenses) {
+        long[] totals = damageAgainst(attacks, defenses);
+        int[] damages = new int[attacks.length];
+        for (int i = 0; i < attacks.length; i++) {
+            // The attacker does not damage itself
+            damages[i] = Math.toIntExact(totals[i] - calculateDamage(attacks[i], defenses[i]));
+        }
+        return damages;
+    }
+
+    /**
+     * Calculates the damage each participant inflicts on the other team from their total stats.
+     * In {@link DamageMode#SUM} each team's defenses are sorted once and summed with prefix sums,
+     * so this takes O(n log n) for n participants instead of O(n^2).
+     *
+     * @param attacks       The total attack stat of each participant, first team first.
+     * @param defenses      The total defense stat of each participant, first team first.
+     * @param firstTeamSize The number of characters in the first team.
+     * @param damageMode    How the damage is resolved between the teams.
+     * @return The damage inflicted by each participant.
+     * @throws ArithmeticException if the damage of a participant does not fit in an int.
+     */
+    static int[] resolveDamage(int[] attacks, int[] defenses, int firstTeamSize, DamageMode damageMode) {
+        int count = attacks.length;
+        int secondTeamSize = count - firstTeamSize;
+        int[] damages = new int[count];
+        if (damageMode == DamageMode.SUM) {
+            long[] first = damageAgainst(Arrays.copyOfRange(attacks, 0, firstTeamSize),
+                    Arrays.copyOfRange(defenses, firstTeamSize, count));
+            long[] second = damageAgainst(Arrays.copyOfRange(attacks, firstTeamSize, count),
+                    Arrays.copyOfRange(defenses, 0, firstTeamSize));
+            for (int i = 0; i < firstTeamSize; i++) {
+                damages[i] = Math.toIntExact(first[i]);
+            }
+            for (int i = 0; i < secondTeamSize; i++) {
+                damages[firstTeamSize + i] = Math.toIntExact(second[i]);
+            }
+        } else {
+            int matchups = Math.max(firstTeamSize, secondTeamSize);
+            for (int i = 0; i < matchups; i++) {
+                int first = i % firstTeamSize;
+                int second = firstTeamSize + i % secondTeamSize;
+                damages[first] = Math.addExact(damages[first],
+                        calculateDamage(attacks[first], defenses[second]));
+                damages[second] = Math.addExact(damages[second],
+                        calculateDamage(attacks[second], defenses[first]));
+            }
+        }
+        return damages;
+    }
+
+    /**
+     * Calculates the damage each attack stat inflicts on every one of the defense stats, which is
+     * the sum of {@link #calculateDamage} over the defenses. The defenses are sorted once and
+     * summed with prefix sums, so this takes O((a + d) log d).
+     *
+     * @param attacks  The total attack stat of each attacker.
+     * @param defenses The total defense stat of each defender.
+     * @return The damage inflicted by each attacker on all of the defenders.
+     */
+    static long[] damageAgainst(int[] attacks, int[] defenses) {
+        int[] sortedDefenses = defenses.clone();
+        Arrays.sort(sortedDefenses);
+        long[] prefixSums = new long[sortedDefenses.length + 1];
+        for (int i = 0; i < sortedDefenses.length; i++) {
+            prefixSums[i + 1] = prefixSums[i] + sortedDefenses[i];
+        }
+
+        long[] damages = new long[attacks.length];
+        for (int i = 0; i < attacks.length; i++) {
+            int attack = attacks[i];
+            // Only defenders with lower defense than the attack take damage
+            int weaker = lowerBound(sortedDefenses, attack);
+            damages[i] = (long) attack * weaker - prefixSums[weaker];
+        }
+        return damages;
+    }
+
+    /**
+     * Determines the winner between the first two participants.
+     *
+     * @param damage1 The damage dealt by the first participant.
+     * @param damage2 The damage dealt by the second participant.
+     * @return 1 if the first participant wins, 2 if the second wins, or 0 for a tie.
+     */
     public int getWinner(int damage1, int damage2) {
         if (damage1 > damage2) {
-            System.out.println(RPGCharacter1.getName() + " wins!");
             return 1;
         } else if (damage2 > damage1) {
-            System.out.println(RPGCharacter2.getName() + " wins!");
             return 2;
         } else {
-            System.out.println("It's a tie!");
             return 0;
         }
     }
 
-}
+    /**
+     * Determines the winner among any number of participants.
+     *
+     * @param damages The damage inflicted by each participant, in picking order.
+     * @return The 1-based position of the participant with the most damage, or 0 if the most
+     *         damage is shared by more than one participant.
+     */
+    public static int getWinner(int[] damages) {
+        int winner = 0;
+        int best = Integer.MIN_VALUE;
+        boolean tie = false;
+        for (int i = 0; i < damages.length; i++) {
+            if (damages[i] > best) {
+                best = damages[i];
+                winner = i + 1;
+                tie = false;
+            } else if (damages[i] == best) {
+                tie = true;
+            }
+        }
+        return tie ? 0 : winner;
+    }
+
+    // Lists the participant of every pick: the teams interleaved, and reversed on even turns for a snake
+    private static int[] createPickOrder(int firstTeamSize, int secondTeamSize, int turns, PickOrder order) {
+        int count = firstTeamSize + secondTeamSize;
+        int[] turnOrder = new int[count];
+        int next = 0;
+        for (int i = 0; i < Math.max(firstTeamSize, secondTeamSize); i++) {
+            if (i < firstTeamSize) {
+                turnOrder[next++] = i;
+            }
+            if (i < secondTeamSize) {
+                turnOrder[next++] = firstTeamSize + i;
+            }
+        }
 
+        int[] pickOrder = new int[turns * count];
+        for (int turn = 0; turn < turns; turn++) {
+            boolean reversed = order == PickOrder.SNAKE && turn % 2 == 1;
+            for (int i = 0; i < count; i++) {
+                pickOrder[turn * count + i] = turnOrder[reversed ? count - 1 - i : i];
+            }
+        }
+        return pickOrder;
+    }
+
+    // Index of the first value in the sorted array that is not lower than the key
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
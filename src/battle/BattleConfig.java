@@ -0,0 +1,128 @@
+package battle;
+
+import character.*;
+
+/**
+ * The BattleConfig class holds the size limits of a battle: how many items are in the pool,
+ * how many turns are played, how many characters take part, and how many slots of each gear
+ * type a character has before new gear is combined into an equipped one.
+ */
+public class BattleConfig {
+
+    // The configuration of the original game: 20 items, 10 turns, 2 characters, 1/2/2 slots
+    private static final BattleConfig STANDARD = new BattleConfig(20, 10, 2, 1, 2, 2);
+
+    private final int poolSize;
+    private final int turns;
+    private final int participants;
+    private final int headSlots;
+    private final int handSlots;
+    private final int footSlots;
+
+    /**
+     * Constructs a battle configuration.
+     *
+     * @param poolSize     The number of items in the pool.
+     * @param turns        The number of turns; every participant picks once per turn.
+     * @param participants The number of characters taking part in the battle.
+     * @param headSlots    The number of head gear slots of each character.
+     * @param handSlots    The number of hand gear slots of each character.
+     * @param footSlots    The number of foot gear slots of each character.
+     * @throws IllegalArgumentException if a value is out of range, or if the pool is too small
+     *                                  for every participant to pick on every turn.
+     */
+    public BattleConfig(int poolSize, int turns, int participants, int headSlots, int handSlots, int footSlots) {
+        if (turns < 1 || participants < 2) {
+            throw new IllegalArgumentException("Config Error: A battle needs at least 1 turn and 2 participants");
+        }
+        if (headSlots < 1 || handSlots < 1 || footSlots < 1) {
+            throw new IllegalArgumentException("Config Error: Every gear type needs at least 1 slot");
+        }
+        if ((long) turns * participants > poolSize) {
+            throw new IllegalArgumentException("Config Error: " + poolSize + " items are not enough for "
+                    + participants + " participants to pick for " + turns + " turns");
+        }
+        this.poolSize = poolSize;
+        this.turns = turns;
+        this.participants = participants;
+        this.headSlots = headSlots;
+        this.handSlots = handSlots;
+        this.footSlots = footSlots;
+    }
+
+    /**
+     * Gets the configuration of the original game: 20 items, 10 turns, 2 characters,
+     * and 1 head, 2 hand and 2 foot slots.
+     *
+     * @return The standard battle configuration.
+     */
+    public static BattleConfig standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Creates a character whose slot limits match this configuration.
+     *
+     * @param name            The name of the character.
+     * @param baseAttackStat  The base attack stat of the character.
+     * @param baseDefenseStat The base defense stat of the character.
+     * @return A new character.
+     */
+    public RPGCharacter createCharacter(String name, int baseAttackStat, int baseDefenseStat) {
+        return new RPGCharacterImpl(name, baseAttackStat, baseDefenseStat, headSlots, handSlots, footSlots);
+    }
+
+    /**
+     * Gets the number of items in the pool.
+     *
+     * @return The pool size.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Gets the number of turns.
+     *
+     * @return The number of turns.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Gets the number of characters taking part in the battle.
+     *
+     * @return The number of participants.
+     */
+    public int getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the number of head gear slots of each character.
+     *
+     * @return The number of head gear slots.
+     */
+    public int getHeadSlots() {
+        return headSlots;
+    }
+
+    /**
+     * Gets the number of hand gear slots of each character.
+     *
+     * @return The number of hand gear slots.
+     */
+    public int getHandSlots() {
+        return handSlots;
+    }
+
+    /**
+     * Gets the number of foot gear slots of each character.
+     *
+     * @return The number of foot gear slots.
+     */
+    public int getFootSlots() {
+        return footSlots;
+    }
+}
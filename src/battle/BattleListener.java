@@ -0,0 +1,63 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+/**
+ * The BattleListener interface receives the events of a battle as it runs: the start and end
+ * of every turn, every pick, and the result. Events carry the objects of the battle itself, so
+ * a listener that ignores them costs nothing; formatting is left to listeners that need it.
+ * All methods do nothing by default.
+ */
+public interface BattleListener {
+
+    /**
+     * A listener that ignores every event.
+     */
+    BattleListener NONE = new BattleListener() {
+    };
+
+    /**
+     * Called before the participants pick in a turn.
+     *
+     * @param turn The 1-based turn number.
+     */
+    default void onTurnStart(int turn) {
+    }
+
+    /**
+     * Called after a participant has picked and equipped an item.
+     *
+     * @param turn        The 1-based turn number.
+     * @param participant The 0-based position of the participant in picking order.
+     * @param character   The participant.
+     * @param gear        The picked item.
+     */
+    default void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+    }
+
+    /**
+     * Called after every participant has picked in a turn.
+     *
+     * @param turn The 1-based turn number.
+     */
+    default void onTurnEnd(int turn) {
+    }
+
+    /**
+     * Called once the damage has been resolved and the winner is known.
+     *
+     * @param result The result of the battle.
+     */
+    default void onBattleEnd(BattleResult result) {
+    }
+
+    /**
+     * Called once the damage of a {@link TeamBattle} has been resolved and the winning team is
+     * known. A team battle calls this instead of {@link #onBattleEnd}.
+     *
+     * @param result The result of the team battle.
+     */
+    default void onTeamBattleEnd(TeamBattleResult result) {
+    }
+}
@@ -0,0 +1,224 @@
+package battle;
+
+import gear.GearType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The BattleReplay class holds a battle read back from a {@link BinaryBattleLog}: every pick
+ * in order, the damage of each participant and the winner.
+ *
+ * Logs are read from byte buffers, so a file of many logs written one after the other can be
+ * memory-mapped and scanned with {@link #scan(Path, Consumer)} without reading it on the heap.
+ */
+public class BattleReplay {
+
+    private static final GearType[] TYPES = GearType.values();
+
+    private final int[] turns;
+    private final int[] participants;
+    private final GearType[] types;
+    private final int[] attackStats;
+    private final int[] defenseStats;
+    private final int[] damages;
+    private final int winner;
+
+    private BattleReplay(int[] turns, int[] participants, GearType[] types, int[] attackStats, int[] defenseStats,
+                         int[] damages, int winner) {
+        this.turns = turns;
+        this.participants = participants;
+        this.types = types;
+        this.attackStats = attackStats;
+        this.defenseStats = defenseStats;
+        this.damages = damages;
+        this.winner = winner;
+    }
+
+    /**
+     * Reads one battle log, from its header up to and including its end of battle event. The
+     * buffer is left positioned after the log.
+     *
+     * @param buffer The buffer holding the log.
+     * @return The battle in the log.
+     * @throws IllegalArgumentException if the buffer does not hold a complete log of a known version.
+     */
+    public static BattleReplay read(ByteBuffer buffer) {
+        if (buffer.remaining() < 6 || buffer.getInt() != BinaryBattleLog.MAGIC) {
+            throw new IllegalArgumentException("Log Error: Not a battle log");
+        }
+        short version = buffer.getShort();
+        if (version != BinaryBattleLog.VERSION) {
+            throw new IllegalArgumentException("Log Error: Format version " + version + ", expected "
+                    + BinaryBattleLog.VERSION);
+        }
+
+        int picks = 0;
+        int[] turns = new int[16];
+        int[] participants = new int[16];
+        GearType[] types = new GearType[16];
+        int[] attackStats = new int[16];
+        int[] defenseStats = new int[16];
+        try {
+            while (true) {
+                byte tag = buffer.get();
+                switch (tag) {
+                    case BinaryBattleLog.TURN_START:
+                    case BinaryBattleLog.TURN_END:
+                        buffer.getInt();
+                        break;
+                    case BinaryBattleLog.PICK:
+                        if (picks == turns.length) {
+                            int capacity = picks * 2;
+                            turns = Arrays.copyOf(turns, capacity);
+                            participants = Arrays.copyOf(participants, capacity);
+                            types = Arrays.copyOf(types, capacity);
+                            attackStats = Arrays.copyOf(attackStats, capacity);
+                            defenseStats = Arrays.copyOf(defenseStats, capacity);
+                        }
+                        turns[picks] = buffer.getInt();
+                        participants[picks] = buffer.getShort();
+                        types[picks] = TYPES[buffer.get()];
+                        attackStats[picks] = buffer.getInt();
+                        defenseStats[picks] = buffer.getInt();
+                        picks++;
+                        break;
+                    case BinaryBattleLog.BATTLE_END:
+                        int[] damages = new int[buffer.getShort()];
+                        for (int i = 0; i < damages.length; i++) {
+                            damages[i] = buffer.getInt();
+                        }
+                        int winner = buffer.getShort();
+                        return new BattleReplay(Arrays.copyOf(turns, picks), Arrays.copyOf(participants, picks),
+                                Arrays.copyOf(types, picks), Arrays.copyOf(attackStats, picks),
+                                Arrays.copyOf(defenseStats, picks), damages, winner);
+                    default:
+                        throw new IllegalArgumentException("Log Error: Unknown event tag " + tag);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Log Error: The log ends before the battle does", e);
+        }
+    }
+
+    /**
+     * Reads every battle log in a file, in order. The file is memory-mapped, so only the battle
+     * being visited is on the heap.
+     *
+     * @param path    The file holding the logs, written one after the other.
+     * @param visitor Called with every battle.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file holds something other than complete logs.
+     */
+    public static void scan(Path path, Consumer<? super BattleReplay> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                // Map up to 1 GiB at a time; a log cut off at the end of a window is read again from the next one
+                long length = Math.min(size - position, 1 << 30);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int read = 0;
+                while (window.hasRemaining()) {
+                    int start = window.position();
+                    BattleReplay replay;
+                    try {
+                        replay = read(window);
+                    } catch (IllegalArgumentException e) {
+                        if (read == 0 || position + length == size) {
+                            throw e;
+                        }
+                        window.position(start);
+                        break;
+                    }
+                    visitor.accept(replay);
+                    read++;
+                }
+                position += window.position();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of picks in the battle.
+     *
+     * @return The number of picks.
+     */
+    public int getPickCount() {
+        return turns.length;
+    }
+
+    /**
+     * Gets the turn of a pick.
+     *
+     * @param pick The 0-based index of the pick.
+     * @return The 1-based turn number.
+     */
+    public int getTurn(int pick) {
+        return turns[pick];
+    }
+
+    /**
+     * Gets who made a pick.
+     *
+     * @param pick The 0-based index of the pick.
+     * @return The 0-based position of the participant in picking order.
+     */
+    public int getParticipant(int pick) {
+        return participants[pick];
+    }
+
+    /**
+     * Gets the slot type of a picked item.
+     *
+     * @param pick The 0-based index of the pick.
+     * @return The slot type.
+     */
+    public GearType getType(int pick) {
+        return types[pick];
+    }
+
+    /**
+     * Gets the attack stat of a picked item.
+     *
+     * @param pick The 0-based index of the pick.
+     * @return The attack stat.
+     */
+    public int getAttackStat(int pick) {
+        return attackStats[pick];
+    }
+
+    /**
+     * Gets the defense stat of a picked item.
+     *
+     * @param pick The 0-based index of the pick.
+     * @return The defense stat.
+     */
+    public int getDefenseStat(int pick) {
+        return defenseStats[pick];
+    }
+
+    /**
+     * Gets the damage dealt by every participant.
+     *
+     * @return A copy of the damages in picking order.
+     */
+    public int[] getDamages() {
+        return damages.clone();
+    }
+
+    /**
+     * Gets the position of the winner.
+     *
+     * @return The 1-based position of the winner, or 0 for a tie.
+     */
+    public int getWinner() {
+        return winner;
+    }
+}
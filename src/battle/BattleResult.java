@@ -0,0 +1,85 @@
+package battle;
+
+import character.RPGCharacter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The BattleResult class holds the outcome of a battle: the participants, the damage each of
+ * them dealt, and the winner.
+ */
+public class BattleResult {
+
+    private final List<RPGCharacter> participants;
+    private final int[] damages;
+    private final int winner;
+
+    /**
+     * Constructs a battle result.
+     *
+     * @param participants The participants in picking order.
+     * @param damages      The damage each participant dealt, in picking order.
+     * @param winner       The 1-based position of the winner, or 0 for a tie.
+     */
+    public BattleResult(List<RPGCharacter> participants, int[] damages, int winner) {
+        this.participants = Collections.unmodifiableList(participants);
+        this.damages = damages.clone();
+        this.winner = winner;
+    }
+
+    /**
+     * Gets the participants of the battle.
+     *
+     * @return A read-only list of the participants in picking order.
+     */
+    public List<RPGCharacter> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the damage dealt by a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The damage dealt by the participant.
+     */
+    public int getDamage(int participant) {
+        return damages[participant];
+    }
+
+    /**
+     * Gets the damage dealt by every participant.
+     *
+     * @return A copy of the damages in picking order.
+     */
+    public int[] getDamages() {
+        return damages.clone();
+    }
+
+    /**
+     * Gets the position of the winner.
+     *
+     * @return The 1-based position of the winner, or 0 for a tie.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets the winning character.
+     *
+     * @return The winner, or null for a tie.
+     */
+    public RPGCharacter getWinnerCharacter() {
+        return winner == 0 ? null : participants.get(winner - 1);
+    }
+
+    /**
+     * Checks if the battle ended in a tie.
+     *
+     * @return True for a tie, otherwise false.
+     */
+    public boolean isTie() {
+        return winner == 0;
+    }
+}
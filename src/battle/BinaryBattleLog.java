@@ -0,0 +1,125 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+import gear.GearType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The BinaryBattleLog class writes the events of a battle as compact fixed-size records.
+ * The log starts with a header (magic number and format version); each event starts with a
+ * one-byte tag:
+ *
+ * - TURN_START: turn (int)
+ * - PICK: turn (int), participant (short), gear type (byte), attack (int), defense (int)
+ * - TURN_END: turn (int)
+ * - BATTLE_END: participant count (short), damage of each participant (int), winner (short)
+ *
+ * A {@link TeamBattle} is logged the same way, with its winning team (1 or 2, or 0 for a tie)
+ * as the winner.
+ *
+ * All numbers are big-endian. I/O errors are rethrown as {@link UncheckedIOException}. Logs
+ * are read back with {@link BattleReplay}.
+ */
+public class BinaryBattleLog implements BattleListener, AutoCloseable {
+
+    public static final int MAGIC = 0x52504742; // "RPGB"
+    public static final short VERSION = 1;
+
+    public static final byte TURN_START = 1;
+    public static final byte PICK = 2;
+    public static final byte TURN_END = 3;
+    public static final byte BATTLE_END = 4;
+
+    private final DataOutputStream out;
+
+    /**
+     * Constructs a log that writes to the given stream and writes the header.
+     *
+     * @param out The stream to write the log to.
+     */
+    public BinaryBattleLog(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeShort(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onTurnStart(int turn) {
+        try {
+            out.writeByte(TURN_START);
+            out.writeInt(turn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+        try {
+            out.writeByte(PICK);
+            out.writeInt(turn);
+            out.writeShort(participant);
+            out.writeByte(GearType.of(gear).ordinal());
+            out.writeInt(gear.getAttackStat());
+            out.writeInt(gear.getDefenseStat());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onTurnEnd(int turn) {
+        try {
+            out.writeByte(TURN_END);
+            out.writeInt(turn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onBattleEnd(BattleResult result) {
+        writeBattleEnd(result.getDamages(), result.getWinner());
+    }
+
+    @Override
+    public void onTeamBattleEnd(TeamBattleResult result) {
+        writeBattleEnd(result.getDamages(), result.getWinningTeam());
+    }
+
+    private void writeBattleEnd(int[] damages, int winner) {
+        try {
+            out.writeByte(BATTLE_END);
+            out.writeShort(damages.length);
+            for (int damage : damages) {
+                out.writeInt(damage);
+            }
+            out.writeShort(winner);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     */
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package battle;
+
+import character.*;
+import gear.*;
+
+import java.util.Arrays;
+
+/**
+ * The CompactDraft class runs a battle draft directly on the indices of a {@link GearPool}.
+ * It follows the same rules as {@link Battle}: each participant picks the best item for an
+ * open slot, and once the slots of a type are full, further items of that type are combined
+ * into the first slot.
+ *
+ * All state lives in primitive arrays created up front: a binary max-heap of item indices per
+ * gear type, the equipped slots of each participant, and links between items that were combined
+ * into the same slot. Running the draft allocates nothing per pick, equip or combine. Gear
+ * objects are only created when a loadout is converted back with {@link #getEquippedGear} or
+ * {@link #toCharacter}.
+ */
+public class CompactDraft {
+
+    private static final int NONE = -1;
+    private static final GearType[] TYPES = GearType.values();
+
+    private final GearPool pool;
+    private final BattleConfig config;
+    private final int[] slotLimits;
+
+    // Max-heaps of remaining item indices, one per gear type
+    private final int[][] heaps;
+    private final int[] heapSizes;
+
+    // Participant state
+    private final int[] totalAttackStats;
+    private final int[] totalDefenseStats;
+    private final int[][] filledSlots;
+    private final int[][][] slots;
+    private final int[][][] slotTails;
+
+    // Items combined into the same slot are linked in equip order
+    private final int[] combinedNext;
+
+    // The item picked at every pick, in order
+    private final int[] picks;
+    private int pickCount;
+
+    /**
+     * Constructs a draft over a pool.
+     *
+     * @param pool             The items to draft from.
+     * @param config           The turn count, number of participants and slot limits.
+     * @param baseAttackStats  The base attack stat of each participant, in picking order.
+     * @param baseDefenseStats The base defense stat of each participant, in picking order.
+     * @throws IllegalArgumentException if the pool size or number of participants does not match the config.
+     */
+    public CompactDraft(GearPool pool, BattleConfig config, int[] baseAttackStats, int[] baseDefenseStats) {
+        if (pool.size() != config.getPoolSize()) {
+            throw new IllegalArgumentException("Item Error: Make sure you create enough items to pick up: "
+                    + config.getPoolSize() + " items");
+        }
+        int participants = config.getParticipants();
+        if (baseAttackStats.length != participants || baseDefenseStats.length != participants) {
+            throw new IllegalArgumentException("Participant Error: Make sure the battle has "
+                    + participants + " participants");
+        }
+        this.pool = pool;
+        this.config = config;
+        this.slotLimits = new int[] {config.getHeadSlots(), config.getHandSlots(), config.getFootSlots()};
+
+        int[] typeCounts = new int[TYPES.length];
+        for (int i = 0; i < pool.size(); i++) {
+            typeCounts[pool.getType(i).ordinal()]++;
+        }
+        heaps = new int[TYPES.length][];
+        heapSizes = new int[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) {
+            heaps[t] = new int[typeCounts[t]];
+        }
+        for (int i = 0; i < pool.size(); i++) {
+            int t = pool.getType(i).ordinal();
+            heaps[t][heapSizes[t]++] = i;
+        }
+        for (int t = 0; t < TYPES.length; t++) {
+            for (int i = heapSizes[t] / 2 - 1; i >= 0; i--) {
+                siftDown(heaps[t], heapSizes[t], i);
+            }
+        }
+
+        totalAttackStats = baseAttackStats.clone();
+        totalDefenseStats = baseDefenseStats.clone();
+        filledSlots = new int[participants][TYPES.length];
+        slots = new int[participants][TYPES.length][];
+        slotTails = new int[participants][TYPES.length][];
+        for (int p = 0; p < participants; p++) {
+            for (int t = 0; t < TYPES.length; t++) {
+                slots[p][t] = new int[slotLimits[t]];
+                slotTails[p][t] = new int[slotLimits[t]];
+            }
+        }
+        combinedNext = new int[pool.size()];
+        Arrays.fill(combinedNext, NONE);
+        picks = new int[config.getTurns() * participants];
+    }
+
+    /**
+     * Runs every turn of the draft.
+     *
+     * @return The 1-based position of the winner, or 0 for a tie.
+     */
+    public int run() {
+        while (pickCount < picks.length) {
+            pick(pickCount % config.getParticipants());
+        }
+        return Battle.getWinner(resolveDamage());
+    }
+
+    /**
+     * Lets a participant pick the best item for them and equips it.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The index of the picked item.
+     * @throws IllegalStateException if every pick of the draft has been made.
+     */
+    public int pick(int participant) {
+        if (pickCount == picks.length) {
+            throw new IllegalStateException("Item Error: Every pick of the draft has been made");
+        }
+        int type = findBestType(participant);
+        int[] heap = heaps[type];
+        int item = heap[0];
+        heap[0] = heap[--heapSizes[type]];
+        siftDown(heap, heapSizes[type], 0);
+        equip(participant, type, item);
+        picks[pickCount++] = item;
+        return item;
+    }
+
+    /**
+     * Calculates the damage each participant inflicts on the others, as {@link Battle#resolveDamage()}.
+     *
+     * @return The damage inflicted by each participant.
+     */
+    public int[] resolveDamage() {
+        return Battle.resolveDamage(totalAttackStats, totalDefenseStats);
+    }
+
+    /**
+     * Gets the total attack stat of a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The total attack stat.
+     */
+    public int getTotalAttackStat(int participant) {
+        return totalAttackStats[participant];
+    }
+
+    /**
+     * Gets the total defense stat of a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The total defense stat.
+     */
+    public int getTotalDefenseStat(int participant) {
+        return totalDefenseStats[participant];
+    }
+
+    /**
+     * Gets the number of picks made so far.
+     *
+     * @return The number of picks.
+     */
+    public int getPickCount() {
+        return pickCount;
+    }
+
+    /**
+     * Gets the index of the item picked at a pick.
+     *
+     * @param pick The 0-based number of the pick.
+     * @return The index of the picked item in the pool.
+     */
+    public int getPick(int pick) {
+        if (pick < 0 || pick >= pickCount) {
+            throw new IndexOutOfBoundsException("Pick " + pick + " has not been made");
+        }
+        return picks[pick];
+    }
+
+    /**
+     * Builds the gear in one slot of a participant, combining every item that went into it.
+     *
+     * @param participant The 0-based position of the participant.
+     * @param type        The slot type.
+     * @param slot        The 0-based slot number.
+     * @return The equipped gear, or null if the slot is empty.
+     */
+    public Gear getEquippedGear(int participant, GearType type, int slot) {
+        int t = type.ordinal();
+        if (slot >= filledSlots[participant][t]) {
+            return null;
+        }
+        int item = slots[participant][t][slot];
+        Gear gear = pool.toGear(item);
+        for (int next = combinedNext[item]; next != NONE; next = combinedNext[next]) {
+            gear = gear.combine(pool.toGear(next));
+        }
+        return gear;
+    }
+
+    /**
+     * Creates a character that has equipped the same items as a participant, in the same order.
+     *
+     * @param participant     The 0-based position of the participant.
+     * @param name            The name of the character.
+     * @param baseAttackStat  The base attack stat the participant started with.
+     * @param baseDefenseStat The base defense stat the participant started with.
+     * @return A new character.
+     */
+    public RPGCharacter toCharacter(int participant, String name, int baseAttackStat, int baseDefenseStat) {
+        RPGCharacter character = config.createCharacter(name, baseAttackStat, baseDefenseStat);
+        int participants = config.getParticipants();
+        for (int pick = participant; pick < pickCount; pick += participants) {
+            character.equip(pool.toGear(picks[pick]));
+        }
+        return character;
+    }
+
+    // Open slot types are tried in type order and a later type only wins with a strictly
+    // better item; without an open slot the whole pool is searched, as in IndexedGearPool
+    private int findBestType(int participant) {
+        int best = NONE;
+        for (int t = 0; t < TYPES.length; t++) {
+            if (heapSizes[t] > 0 && filledSlots[participant][t] < slotLimits[t]
+                    && (best == NONE || pool.compare(heaps[t][0], heaps[best][0]) > 0)) {
+                best = t;
+            }
+        }
+        if (best != NONE) {
+            return best;
+        }
+        for (int t = 0; t < TYPES.length; t++) {
+            if (heapSizes[t] > 0 && (best == NONE || isBetter(heaps[t][0], heaps[best][0]))) {
+                best = t;
+            }
+        }
+        if (best == NONE) {
+            throw new IllegalStateException("Item Error: There are no items left to pick up");
+        }
+        return best;
+    }
+
+    private void equip(int participant, int type, int item) {
+        int filled = filledSlots[participant][type];
+        if (filled < slotLimits[type]) {
+            slots[participant][type][filled] = item;
+            slotTails[participant][type][filled] = item;
+            filledSlots[participant][type]++;
+        } else {
+            // Combine into the first slot by linking the item after the last one combined there
+            combinedNext[slotTails[participant][type][0]] = item;
+            slotTails[participant][type][0] = item;
+        }
+        totalAttackStats[participant] += pool.getAttackStat(item);
+        totalDefenseStats[participant] += pool.getDefenseStat(item);
+    }
+
+    // Better stats first; equal stats go to the item added to the pool first
+    private boolean isBetter(int first, int second) {
+        int result = pool.compare(first, second);
+        return result > 0 || (result == 0 && first < second);
+    }
+
+    private void siftDown(int[] heap, int size, int index) {
+        int item = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isBetter(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isBetter(heap[child], item)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+}
@@ -0,0 +1,107 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The ConcurrentDraft class lets several characters draft from one shared
+ * {@link ConcurrentGearPool} at the same time. Every character drafts on its own task and is
+ * only touched by that task's thread, so characters need no locking; the pool makes sure that
+ * no item goes to two characters.
+ *
+ * Unlike {@link Battle}, participants do not take turns. Which character gets a contested item
+ * depends on thread timing, so a concurrent draft is not repeatable, but it always hands out
+ * every item at most once.
+ */
+public class ConcurrentDraft {
+
+    private final ConcurrentGearPool pool;
+    private final List<RPGCharacter> participants;
+    private final int picksPerParticipant;
+    private final List<List<Gear>> picks = new ArrayList<>();
+
+    /**
+     * Constructs a concurrent draft.
+     *
+     * @param pool                The shared pool to draft from.
+     * @param participants        The characters drafting, each used by one thread only.
+     * @param picksPerParticipant The number of items each character tries to pick.
+     * @throws IllegalArgumentException if there are no participants or the number of picks is negative.
+     */
+    public ConcurrentDraft(ConcurrentGearPool pool, List<RPGCharacter> participants, int picksPerParticipant) {
+        if (participants.isEmpty()) {
+            throw new IllegalArgumentException("Participant Error: A draft needs at least one participant");
+        }
+        if (picksPerParticipant < 0) {
+            throw new IllegalArgumentException("Number of picks must be non-negative.");
+        }
+        this.pool = pool;
+        this.participants = new ArrayList<>(participants);
+        this.picksPerParticipant = picksPerParticipant;
+    }
+
+    /**
+     * Runs the draft, with one task per participant, and waits for every task to finish.
+     * A participant stops early if the pool runs out of items.
+     *
+     * @param executor The executor that runs the drafting tasks.
+     * @return The damage each participant inflicts on the others and the winner.
+     * @throws InterruptedException if the thread is interrupted while waiting for the draft.
+     */
+    public BattleResult run(ExecutorService executor) throws InterruptedException {
+        List<Future<List<Gear>>> futures = new ArrayList<>(participants.size());
+        for (RPGCharacter character : participants) {
+            futures.add(executor.submit(draftTask(character)));
+        }
+
+        picks.clear();
+        int[] attacks = new int[participants.size()];
+        int[] defenses = new int[participants.size()];
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                picks.add(Collections.unmodifiableList(futures.get(i).get()));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Draft Error: " + participants.get(i).getName()
+                        + " failed to draft", e.getCause());
+            }
+            // Waiting on the future makes the character's updates visible to this thread
+            attacks[i] = participants.get(i).getTotalAttackStat();
+            defenses[i] = participants.get(i).getTotalDefenseStat();
+        }
+        int[] damages = Battle.resolveDamage(attacks, defenses);
+        return new BattleResult(participants, damages, Battle.getWinner(damages));
+    }
+
+    /**
+     * Gets the items a participant picked in the last run, in the order they were picked.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return A read-only list of the picked items.
+     */
+    public List<Gear> getPicks(int participant) {
+        return picks.get(participant);
+    }
+
+    private Callable<List<Gear>> draftTask(RPGCharacter character) {
+        return () -> {
+            List<Gear> picked = new ArrayList<>(picksPerParticipant);
+            for (int i = 0; i < picksPerParticipant; i++) {
+                Gear gear = pool.claimBest(character);
+                if (gear == null) {
+                    break;
+                }
+                character.equip(gear);
+                picked.add(gear);
+            }
+            return picked;
+        };
+    }
+}
@@ -0,0 +1,250 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.*;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentGearPool class is an item pool that several characters can draft from at the
+ * same time. Like {@link IndexedGearPool} it keeps the items of each gear slot type ordered best
+ * first, but each type is split into stripes: lock-free skip lists that the items are dealt
+ * into in turn. A claim reads the head of every stripe of the types it may take, chooses the
+ * best one and polls that stripe with a single atomic operation, so every occurrence of an item
+ * is handed to exactly one caller.
+ *
+ * When the heads of several stripes have the same stats, a thread takes the one nearest its
+ * own stripe, so threads claiming equal items poll different stripes instead of racing for one
+ * head. A claim still has to beat the others to an item that is strictly better than the rest,
+ * so greedy claimers spread out only as far as the pool holds items of equal stats, and every
+ * claim reads the head of every stripe, which costs more as stripes are added.
+ *
+ * The pool itself does not touch the characters. A character must only be used by the thread
+ * that drafts for it, as {@link ConcurrentDraft} does.
+ */
+public class ConcurrentGearPool {
+
+    private static final int TYPES = GearType.values().length;
+
+    // The stripes of each slot type, type by type; each is ordered best item first
+    private final ConcurrentSkipListSet<Entry>[] stripes;
+    private final int stripeMask;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs an empty gear pool with a stripe per type for each available processor,
+     * rounded up to a power of two.
+     */
+    public ConcurrentGearPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an empty gear pool.
+     *
+     * @param stripes The number of stripes per slot type, rounded up to a power of two. With
+     *                one stripe, claims follow the order of {@link IndexedGearPool} exactly.
+     * @throws IllegalArgumentException if the number of stripes is not positive.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentGearPool(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Pool Error: The number of stripes must be positive");
+        }
+        int count = Integer.highestOneBit(Math.min(stripes, 1 << 20) * 2 - 1);
+        this.stripes = new ConcurrentSkipListSet[TYPES * count];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ConcurrentSkipListSet<>(ConcurrentGearPool::compareEntries);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Constructs a gear pool holding the given items, in iteration order.
+     *
+     * @param items The items to add to the pool.
+     */
+    public ConcurrentGearPool(Collection<? extends Gear> items) {
+        this();
+        addAll(items);
+    }
+
+    /**
+     * Constructs a gear pool holding the given items, in iteration order.
+     *
+     * @param items   The items to add to the pool.
+     * @param stripes The number of stripes per slot type, rounded up to a power of two.
+     * @throws IllegalArgumentException if the number of stripes is not positive.
+     */
+    public ConcurrentGearPool(Collection<? extends Gear> items, int stripes) {
+        this(stripes);
+        addAll(items);
+    }
+
+    /**
+     * Adds an item to the pool. The same instance may be added more than once, and each
+     * occurrence is claimed separately.
+     *
+     * @param gear The item to add.
+     */
+    public void add(Gear gear) {
+        long sequence = nextSequence.getAndIncrement();
+        Entry entry = new Entry(gear, GearType.of(gear), (int) sequence & stripeMask, sequence);
+        stripe(entry.type.ordinal(), entry.stripe).add(entry);
+        size.increment();
+    }
+
+    /**
+     * Gets the number of stripes per slot type.
+     *
+     * @return The number of stripes.
+     */
+    public int getStripeCount() {
+        return stripeMask + 1;
+    }
+
+    /**
+     * Removes and returns the item a character should pick, using the same rules as
+     * {@link IndexedGearPool#findBest(RPGCharacter)}. With more than one stripe, an item of
+     * equal stats added later may be taken before an earlier one, so when every slot is filled
+     * and two types tie, the order can differ from that pool. If another thread claims the
+     * chosen item first, the next item of its stripe is taken instead; if that stripe has run
+     * out, the choice is made again.
+     *
+     * @param character The character choosing the item.
+     * @return The claimed item, or null if the pool is empty.
+     */
+    public Gear claimBest(RPGCharacter character) {
+        int open = (character.hasHeadGearSlot() ? 1 << GearType.HEAD.ordinal() : 0)
+                | (character.hasHandGearSlot() ? 1 << GearType.HAND.ordinal() : 0)
+                | (character.hasFootGearSlot() ? 1 << GearType.FOOT.ordinal() : 0);
+        int home = (int) Thread.currentThread().getId() & stripeMask;
+        while (true) {
+            Entry entry = open == 0 ? null : findBest(open, true, home);
+            if (entry == null) {
+                // No open slot can be filled, so every item in the pool is a candidate
+                entry = findBest((1 << TYPES) - 1, false, home);
+                if (entry == null) {
+                    return null;
+                }
+            }
+            // If another thread took the chosen item, the next one of its stripe is as good a pick
+            Entry claimed = stripe(entry.type.ordinal(), entry.stripe).pollFirst();
+            if (claimed != null) {
+                size.decrement();
+                return claimed.gear;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of items in the pool. While items are being claimed the result is only
+     * an estimate.
+     *
+     * @return The number of items in the pool.
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * Checks if the pool has no items left.
+     *
+     * @return True if the pool is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    private void addAll(Collection<? extends Gear> items) {
+        for (Gear gear : items) {
+            add(gear);
+        }
+    }
+
+    private ConcurrentSkipListSet<Entry> stripe(int type, int stripe) {
+        return stripes[type * (stripeMask + 1) + stripe];
+    }
+
+    // Finds the best head among the stripes of the given types, or null if they are all empty.
+    // Within a type, equal heads go to the stripe nearest home. Between types, equal heads go to
+    // the earlier type for an open slot, or else to the type whose equal items came first.
+    private Entry findBest(int types, boolean openSlot, int home) {
+        Entry best = null;
+        long bestEarliest = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if ((types & 1 << t) == 0) {
+                continue;
+            }
+            Entry candidate = null;
+            long earliest = 0;
+            for (int i = 0; i <= stripeMask; i++) {
+                Entry head = head(stripe(t, (home + i) & stripeMask));
+                if (head == null) {
+                    continue;
+                }
+                int result = candidate == null ? 1 : head.gear.compareTo(candidate.gear);
+                if (result > 0) {
+                    candidate = head;
+                    earliest = head.sequence;
+                } else if (result == 0) {
+                    earliest = Math.min(earliest, head.sequence);
+                }
+            }
+            if (candidate == null) {
+                continue;
+            }
+            int result = best == null ? 1 : candidate.gear.compareTo(best.gear);
+            if (result > 0 || (result == 0 && !openSlot && earliest < bestEarliest)) {
+                best = candidate;
+                bestEarliest = earliest;
+            }
+        }
+        return best;
+    }
+
+    // Gets the first entry of a stripe without an iterator, or null if it is empty
+    private static Entry head(ConcurrentSkipListSet<Entry> stripe) {
+        if (stripe.isEmpty()) {
+            return null;
+        }
+        try {
+            return stripe.first();
+        } catch (NoSuchElementException e) {
+            // Emptied by another thread since the check
+            return null;
+        }
+    }
+
+    // Orders entries best first, then by insertion order
+    private static int compareEntries(Entry a, Entry b) {
+        int result = b.gear.compareTo(a.gear);
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * A single occurrence of an item in the pool.
+     */
+    private static final class Entry {
+        private final Gear gear;
+        private final GearType type;
+        private final int stripe;
+        private final long sequence;
+
+        private Entry(Gear gear, GearType type, int stripe, long sequence) {
+            this.gear = gear;
+            this.type = type;
+            this.stripe = stripe;
+            this.sequence = sequence;
+        }
+    }
+}
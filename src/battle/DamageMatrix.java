@@ -0,0 +1,279 @@
+package battle;
+
+import character.RPGCharacter;
+import character.StatsListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The DamageMatrix class holds the damage every character of a group would deal to every
+ * other one in a battle between the two, by the rule of {@link Battle#calculateDamage}, and who
+ * would win each of those battles. For every character it keeps the total damage it deals and
+ * takes against the whole group, and how many of the others it beats, loses to and draws with.
+ *
+ * A matrix of 10,000 characters would take 400 MB as ints, while any entry follows from two
+ * stats in O(1), so the matrix keeps only the attack and defense stats in primitive arrays and
+ * works out entries when asked. The totals are kept up to date: the matrix listens to the
+ * characters, and when one of them changes gear only its row and column are taken out of the
+ * totals and put back with the new stats, which takes O(n) instead of O(n^2).
+ *
+ * The loops over the stats are counted loops over int arrays without branches, which the JIT
+ * can compile to SIMD instructions.
+ *
+ * A matrix is not safe to use from several threads, and the characters must change gear on the
+ * thread that uses the matrix.
+ */
+public class DamageMatrix {
+
+    private final List<RPGCharacter> characters;
+    private final int[] attacks;
+    private final int[] defenses;
+    private final long[] damageDealt;
+    private final long[] damageTaken;
+    private final int[] wins;
+    private final int[] losses;
+
+    // The listener added to every character
+    private final StatsListener[] listeners;
+
+    /**
+     * Constructs the matrix of a group of characters and starts listening to them, next to any
+     * other {@link StatsListener} they have. The totals are built in O(n^2).
+     *
+     * @param characters The characters.
+     */
+    public DamageMatrix(List<RPGCharacter> characters) {
+        this.characters = new ArrayList<>(characters);
+        int count = characters.size();
+        attacks = new int[count];
+        defenses = new int[count];
+        damageDealt = new long[count];
+        damageTaken = new long[count];
+        wins = new int[count];
+        losses = new int[count];
+        for (int i = 0; i < count; i++) {
+            attacks[i] = characters.get(i).getTotalAttackStat();
+            defenses[i] = characters.get(i).getTotalDefenseStat();
+        }
+
+        for (int i = 0; i < count; i++) {
+            account(i, 0, i);
+            account(i, i + 1, count);
+        }
+
+        listeners = new StatsListener[count];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            listeners[i] = character -> update(index);
+            this.characters.get(i).addStatsListener(listeners[i]);
+        }
+    }
+
+    /**
+     * Reads the stats of a character again and updates the totals of everyone in O(n). This is
+     * called by the characters whenever their gear changes.
+     *
+     * @param index The index of the character.
+     */
+    public void update(int index) {
+        RPGCharacter character = characters.get(index);
+        int attack = character.getTotalAttackStat();
+        int defense = character.getTotalDefenseStat();
+        if (attack == attacks[index] && defense == defenses[index]) {
+            return;
+        }
+
+        int count = attacks.length;
+        int oldAttack = attacks[index];
+        int oldDefense = defenses[index];
+        attacks[index] = attack;
+        defenses[index] = defense;
+        replace(index, oldAttack, oldDefense, 0, index);
+        replace(index, oldAttack, oldDefense, index + 1, count);
+    }
+
+    /**
+     * Stops listening to the characters. Their other listeners are kept, and the matrix keeps
+     * the stats it has.
+     */
+    public void detach() {
+        for (int i = 0; i < listeners.length; i++) {
+            characters.get(i).removeStatsListener(listeners[i]);
+        }
+    }
+
+    /**
+     * Gets the number of characters.
+     *
+     * @return The size of the matrix.
+     */
+    public int getSize() {
+        return attacks.length;
+    }
+
+    /**
+     * Gets a character.
+     *
+     * @param index The index of the character.
+     * @return The character.
+     */
+    public RPGCharacter getCharacter(int index) {
+        return characters.get(index);
+    }
+
+    /**
+     * Gets the damage one character deals to another.
+     *
+     * @param attacker The index of the attacker.
+     * @param defender The index of the defender.
+     * @return The damage, or 0 if both are the same character.
+     */
+    public int getDamage(int attacker, int defender) {
+        return attacker == defender ? 0 : Battle.calculateDamage(attacks[attacker], defenses[defender]);
+    }
+
+    /**
+     * Gets who wins a battle between two characters.
+     *
+     * @param first  The index of the first character.
+     * @param second The index of the second character.
+     * @return A positive number if the first deals more damage, negative if the second does,
+     *         and 0 for a draw.
+     */
+    public int getOutcome(int first, int second) {
+        return Integer.compare(getDamage(first, second), getDamage(second, first));
+    }
+
+    /**
+     * Fills in the damage a character deals to every character.
+     *
+     * @param attacker The index of the attacker.
+     * @param row      The array to fill, with one element per character.
+     */
+    public void getDamageRow(int attacker, int[] row) {
+        int attack = attacks[attacker];
+        for (int j = 0; j < defenses.length; j++) {
+            row[j] = Math.max(0, attack - defenses[j]);
+        }
+        row[attacker] = 0;
+    }
+
+    /**
+     * Fills in the damage every character deals to a character.
+     *
+     * @param defender The index of the defender.
+     * @param column   The array to fill, with one element per character.
+     */
+    public void getDamageColumn(int defender, int[] column) {
+        int defense = defenses[defender];
+        for (int j = 0; j < attacks.length; j++) {
+            column[j] = Math.max(0, attacks[j] - defense);
+        }
+        column[defender] = 0;
+    }
+
+    /**
+     * Gets the total damage a character deals to all of the others.
+     *
+     * @param index The index of the character.
+     * @return The damage dealt.
+     */
+    public long getDamageDealt(int index) {
+        return damageDealt[index];
+    }
+
+    /**
+     * Gets the total damage a character takes from all of the others.
+     *
+     * @param index The index of the character.
+     * @return The damage taken.
+     */
+    public long getDamageTaken(int index) {
+        return damageTaken[index];
+    }
+
+    /**
+     * Gets the number of other characters a character beats.
+     *
+     * @param index The index of the character.
+     * @return The number of wins.
+     */
+    public int getWins(int index) {
+        return wins[index];
+    }
+
+    /**
+     * Gets the number of other characters a character loses to.
+     *
+     * @param index The index of the character.
+     * @return The number of losses.
+     */
+    public int getLosses(int index) {
+        return losses[index];
+    }
+
+    /**
+     * Gets the number of other characters a character draws with.
+     *
+     * @param index The index of the character.
+     * @return The number of draws.
+     */
+    public int getDraws(int index) {
+        return attacks.length - 1 - wins[index] - losses[index];
+    }
+
+    // Adds the battles of character k against characters from..to-1 to the totals of k
+    private void account(int k, int from, int to) {
+        int attack = attacks[k];
+        int defense = defenses[k];
+        long dealt = 0;
+        long taken = 0;
+        int won = 0;
+        int lost = 0;
+        for (int j = from; j < to; j++) {
+            int made = Math.max(0, attack - defenses[j]);
+            int received = Math.max(0, attacks[j] - defense);
+            dealt += made;
+            taken += received;
+            // 1 when the difference is negative, without a branch
+            won += (received - made) >>> 31;
+            lost += (made - received) >>> 31;
+        }
+        damageDealt[k] += dealt;
+        damageTaken[k] += taken;
+        wins[k] += won;
+        losses[k] += lost;
+    }
+
+    // Replaces the battles of character k with its old stats against characters from..to-1 by
+    // its battles with its new stats, in the totals of both sides, in one pass
+    private void replace(int k, int oldAttack, int oldDefense, int from, int to) {
+        int attack = attacks[k];
+        int defense = defenses[k];
+        long dealt = 0;
+        long taken = 0;
+        int won = 0;
+        int lost = 0;
+        for (int j = from; j < to; j++) {
+            int oldMade = Math.max(0, oldAttack - defenses[j]);
+            int oldReceived = Math.max(0, attacks[j] - oldDefense);
+            int made = Math.max(0, attack - defenses[j]);
+            int received = Math.max(0, attacks[j] - defense);
+            int wonChange = ((received - made) >>> 31) - ((oldReceived - oldMade) >>> 31);
+            int lostChange = ((made - received) >>> 31) - ((oldMade - oldReceived) >>> 31);
+            dealt += made - oldMade;
+            taken += received - oldReceived;
+            won += wonChange;
+            lost += lostChange;
+            damageDealt[j] += received - oldReceived;
+            damageTaken[j] += made - oldMade;
+            wins[j] += lostChange;
+            losses[j] += wonChange;
+        }
+        damageDealt[k] += dealt;
+        damageTaken[k] += taken;
+        wins[k] += won;
+        losses[k] += lost;
+    }
+}
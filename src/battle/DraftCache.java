@@ -0,0 +1,253 @@
+package battle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The DraftCache class stores the outcome of draft states under their 64-bit state hash, such
+ * as {@link Battle#getStateHash()}, so a state that is reached again does not have to be played
+ * out again.
+ *
+ * The cache is bounded and safe to share between threads. Keys are spread over a number of
+ * stripes, each a small LRU map behind its own lock, so threads working on different states
+ * rarely wait for each other. When a stripe is full, its least recently used entry is evicted.
+ * Hits, misses and evictions are counted, and the memory held by the cache is estimated from
+ * the number of entries and an optional size of each value.
+ *
+ * Keys are hashes, so two different states could in principle share a key; with 64-bit hashes
+ * this is rare enough to ignore for simulations, but callers that need certainty should store
+ * the full state in the value and compare it.
+ *
+ * @param <V> The type of the stored outcomes.
+ */
+public class DraftCache<V> {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    // Rough heap cost of one entry: the map entry with its links, the boxed key and the stripe's table slot
+    private static final long ENTRY_BYTES = 64;
+
+    private final Stripe<V>[] stripes;
+    private final int capacity;
+    private final ToLongFunction<? super V> valueBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a cache with the default number of stripes, which does not count the memory
+     * held by the values themselves.
+     *
+     * @param capacity The most entries the cache holds.
+     */
+    public DraftCache(int capacity) {
+        this(capacity, DEFAULT_STRIPES, value -> 0);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity   The most entries the cache holds.
+     * @param stripes    The number of independently locked parts, rounded up to a power of two
+     *                   and lowered if needed so that every part holds at least one entry.
+     * @param valueBytes Estimates the memory held by a value, in bytes.
+     * @throws IllegalArgumentException if the capacity or the number of stripes is not positive.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DraftCache(int capacity, int stripes, ToLongFunction<? super V> valueBytes) {
+        if (capacity < 1 || stripes < 1) {
+            throw new IllegalArgumentException("Cache Error: The capacity and number of stripes must be positive");
+        }
+        // Round up to a power of two, but never past the capacity, so every stripe holds an entry
+        int count = Math.min(Integer.highestOneBit(Math.min(stripes, 1 << 30) * 2 - 1),
+                Integer.highestOneBit(capacity));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the capacity so the stripes add up to it exactly
+            this.stripes[i] = new Stripe<>(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+        this.capacity = capacity;
+        this.valueBytes = valueBytes;
+    }
+
+    /**
+     * Gets the outcome stored for a state.
+     *
+     * @param key The state hash.
+     * @return The stored outcome, or null if there is none.
+     */
+    public V get(long key) {
+        Stripe<V> stripe = stripe(key);
+        V value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Stores the outcome of a state, evicting the least recently used entry of its stripe if
+     * the stripe is full.
+     *
+     * @param key   The state hash.
+     * @param value The outcome.
+     */
+    public void put(long key, V value) {
+        Stripe<V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+            if (stripe.evicted) {
+                stripe.evicted = false;
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Gets the outcome stored for a state, computing and storing it if there is none. The
+     * computation runs without holding a lock, so two threads that miss the same state at the
+     * same time may both compute it.
+     *
+     * @param key     The state hash.
+     * @param compute Computes the outcome from the key.
+     * @return The stored or computed outcome.
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> compute) {
+        V value = get(key);
+        if (value == null) {
+            value = compute.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entry. The counters are kept.
+     */
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the most entries the cache holds.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of lookups that found an outcome.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found nothing.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted to make room.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the share of lookups that found an outcome.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Estimates the memory held by the cache: a fixed cost per entry plus the estimated size of
+     * every value.
+     *
+     * @return The estimated memory in bytes.
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.size() * ENTRY_BYTES;
+                for (V value : stripe.values()) {
+                    bytes += valueBytes.applyAsLong(value);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DraftCache: %d/%d entries, hit rate %.1f%%, %d hits, %d misses, %d evictions, ~%d KiB",
+                size(), capacity, getHitRate() * 100, getHits(), getMisses(), getEvictions(),
+                estimateMemoryBytes() / 1024);
+    }
+
+    private Stripe<V> stripe(long key) {
+        // The keys are hashes already, so the high bits pick the stripe
+        return stripes[(int) (key >>> 32 ^ key) & (stripes.length - 1)];
+    }
+
+    /**
+     * One part of the cache: an access-ordered map that drops its eldest entry when full.
+     */
+    private static final class Stripe<V> extends LinkedHashMap<Long, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private boolean evicted;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+            evicted = size() > capacity;
+            return evicted;
+        }
+    }
+}
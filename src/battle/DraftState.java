@@ -0,0 +1,487 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The DraftState class is an immutable state of a draft: which items of the pool are taken,
+ * and the total stats and filled slots of every participant. Picking an item returns a new
+ * state and leaves this one as it was, so a lookahead can branch from any state, and going
+ * back to an earlier state is a matter of keeping a reference to it.
+ *
+ * States share their structure. The items, their stats and their ranking are built once for the
+ * root and shared by every state that follows from it; the taken items are kept in a persistent
+ * bit trie whose untouched branches are shared, and every state points to its parent. A pick
+ * copies one path of the trie and the small per-participant records, so it takes O(log n + p)
+ * time and memory for n items and p participants, independent of how many states exist, and a
+ * branch costs memory in proportion to the picks made on it.
+ *
+ * Items are known by their 0-based index in the list the root was built from.
+ */
+public final class DraftState {
+
+    // A leaf of the trie holds LEAF_WORDS longs, so 2^LEAF_BITS items
+    private static final int LEAF_WORDS = 32;
+    private static final int LEAF_BITS = 11;
+
+    // Every inner node of the trie has 2^NODE_BITS children
+    private static final int NODE_BITS = 5;
+    private static final int NODE_SIZE = 1 << NODE_BITS;
+
+    private static final GearType[] TYPES = GearType.values();
+
+    private final Pool pool;
+    private final DraftState parent;
+    private final int pickCount;
+    private final int lastPicker;
+    private final int lastItem;
+
+    // The taken items, as a trie of Object[] inner nodes and long[] leaves; null means none taken
+    private final Object taken;
+
+    // The position in each type's ranking of its best item that is not taken
+    private final int[] cursors;
+
+    private final Member[] members;
+
+    private DraftState(Pool pool, DraftState parent, int pickCount, int lastPicker, int lastItem, Object taken,
+                       int[] cursors, Member[] members) {
+        this.pool = pool;
+        this.parent = parent;
+        this.pickCount = pickCount;
+        this.lastPicker = lastPicker;
+        this.lastItem = lastItem;
+        this.taken = taken;
+        this.cursors = cursors;
+        this.members = members;
+    }
+
+    /**
+     * Creates the state of a draft that has not started. The items are ranked once, which takes
+     * O(n log n); every state that follows shares the ranking.
+     *
+     * @param items        The items of the pool.
+     * @param participants The characters in the draft, in picking order, with the gear they
+     *                     have now.
+     * @return The root state.
+     */
+    public static DraftState of(List<? extends Gear> items, List<RPGCharacter> participants) {
+        return root(items.toArray(new Gear[0]), members(participants));
+    }
+
+    /**
+     * Creates the root state from items and participant records.
+     *
+     * @param items   The items of the pool, which must not be changed afterwards.
+     * @param members The records of the participants.
+     * @return The root state.
+     */
+    static DraftState root(Gear[] items, Member[] members) {
+        Pool pool = new Pool(items);
+        return new DraftState(pool, null, 0, -1, -1, null, new int[TYPES.length], members);
+    }
+
+    /**
+     * Records the stats and filled slots of characters as they are now.
+     *
+     * @param participants The characters.
+     * @return One record per character.
+     */
+    static Member[] members(List<RPGCharacter> participants) {
+        Member[] members = new Member[participants.size()];
+        for (int i = 0; i < members.length; i++) {
+            RPGCharacter character = participants.get(i);
+            int[] used = new int[TYPES.length];
+            int[] slots = new int[TYPES.length];
+            for (GearType type : TYPES) {
+                slots[type.ordinal()] = character.getSlotCount(type);
+                used[type.ordinal()] = slots[type.ordinal()] - Long.bitCount(character.getFreeSlots(type));
+            }
+            members[i] = new Member(character.getTotalAttackStat(), character.getTotalDefenseStat(), used, slots);
+        }
+        return members;
+    }
+
+    /**
+     * Picks an item for a participant. This state does not change.
+     *
+     * @param participant The 0-based position of the participant.
+     * @param item        The index of the item.
+     * @return The state after the pick.
+     * @throws IllegalArgumentException if the item is already taken.
+     */
+    public DraftState pick(int participant, int item) {
+        if (isTaken(item)) {
+            throw new IllegalArgumentException("Draft Error: Item " + item + " is already taken");
+        }
+        Object nextTaken = set(taken, pool.levels, item);
+
+        // Move the cursor of the item's type past every taken item at the front of its ranking
+        int type = pool.types[item];
+        int[] nextCursors = cursors;
+        if (pool.rankOf[item] == cursors[type]) {
+            nextCursors = cursors.clone();
+            int[] ranking = pool.rankings[type];
+            int cursor = cursors[type] + 1;
+            while (cursor < ranking.length && get(nextTaken, pool.levels, ranking[cursor])) {
+                cursor++;
+            }
+            nextCursors[type] = cursor;
+        }
+
+        Member[] nextMembers = members.clone();
+        nextMembers[participant] = members[participant].equip(type, pool.attacks[item], pool.defenses[item]);
+        return new DraftState(pool, this, pickCount + 1, participant, item, nextTaken, nextCursors, nextMembers);
+    }
+
+    /**
+     * Finds the item a participant would pick by the greedy rule of {@link IndexedGearPool#findBest}:
+     * the best item for an open slot, or the best item of the whole pool if no open slot can be
+     * filled. Ties go to the item that comes first in the pool.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The index of the item, or -1 if every item is taken.
+     */
+    public int findBest(int participant) {
+        Member member = members[participant];
+        int best = -1;
+        for (GearType type : TYPES) {
+            int top = top(type.ordinal());
+            if (top >= 0 && member.used[type.ordinal()] < member.slots[type.ordinal()]
+                    && (best == -1 || compareItems(top, best) > 0)) {
+                best = top;
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+
+        // No open slot can be filled, so every item is a candidate
+        for (GearType type : TYPES) {
+            int top = top(type.ordinal());
+            if (top >= 0 && (best == -1 || pool.rankCompare(top, best) < 0)) {
+                best = top;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the best items of a slot type that are not taken.
+     *
+     * @param type  The slot type.
+     * @param limit The most items to return.
+     * @return The indices of up to limit items, best first.
+     */
+    public int[] best(GearType type, int limit) {
+        int[] ranking = pool.rankings[type.ordinal()];
+        int[] result = new int[Math.min(limit, ranking.length)];
+        int count = 0;
+        for (int i = cursors[type.ordinal()]; i < ranking.length && count < result.length; i++) {
+            if (!get(taken, pool.levels, ranking[i])) {
+                result[count++] = ranking[i];
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Checks if an item is taken.
+     *
+     * @param item The index of the item.
+     * @return True if the item was picked in this state or one before it, otherwise false.
+     */
+    public boolean isTaken(int item) {
+        if (item < 0 || item >= pool.items.length) {
+            throw new IndexOutOfBoundsException("Draft Error: There is no item " + item);
+        }
+        return get(taken, pool.levels, item);
+    }
+
+    /**
+     * Gets an item.
+     *
+     * @param item The index of the item.
+     * @return The item.
+     */
+    public Gear getItem(int item) {
+        return pool.items[item];
+    }
+
+    /**
+     * Gets the number of items in the pool, taken or not.
+     *
+     * @return The number of items.
+     */
+    public int getItemCount() {
+        return pool.items.length;
+    }
+
+    /**
+     * Gets the number of items that are not taken.
+     *
+     * @return The number of available items.
+     */
+    public int getAvailableCount() {
+        return pool.items.length - pickCount;
+    }
+
+    /**
+     * Gets the number of participants.
+     *
+     * @return The number of participants.
+     */
+    public int getParticipantCount() {
+        return members.length;
+    }
+
+    /**
+     * Gets the number of picks made since the root state.
+     *
+     * @return The number of picks.
+     */
+    public int getPickCount() {
+        return pickCount;
+    }
+
+    /**
+     * Gets the participant that made the pick leading to this state.
+     *
+     * @return The 0-based position of the participant, or -1 for the root state.
+     */
+    public int getLastPicker() {
+        return lastPicker;
+    }
+
+    /**
+     * Gets the item picked to reach this state.
+     *
+     * @return The index of the item, or -1 for the root state.
+     */
+    public int getLastItem() {
+        return lastItem;
+    }
+
+    /**
+     * Gets the state before the last pick.
+     *
+     * @return The parent state, or null for the root state.
+     */
+    public DraftState getParent() {
+        return parent;
+    }
+
+    /**
+     * Goes back to the state after the given number of picks. This takes O(k) to undo k picks
+     * and allocates nothing.
+     *
+     * @param picks The number of picks of the earlier state.
+     * @return The earlier state, on the path from the root to this one.
+     * @throws IllegalArgumentException if picks is negative or more than the picks of this state.
+     */
+    public DraftState rollback(int picks) {
+        if (picks < 0 || picks > pickCount) {
+            throw new IllegalArgumentException("Draft Error: Cannot roll back " + pickCount + " picks to " + picks);
+        }
+        DraftState state = this;
+        while (state.pickCount > picks) {
+            state = state.parent;
+        }
+        return state;
+    }
+
+    /**
+     * Goes back to the start of a turn, when every participant picks once per turn.
+     *
+     * @param turn The 1-based turn number.
+     * @return The state before the first pick of that turn.
+     * @throws IllegalArgumentException if that turn has not started yet.
+     */
+    public DraftState rollbackToTurn(int turn) {
+        return rollback((turn - 1) * members.length);
+    }
+
+    /**
+     * Gets the total attack stat of a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The total attack stat.
+     */
+    public int getTotalAttackStat(int participant) {
+        return members[participant].attack;
+    }
+
+    /**
+     * Gets the total defense stat of a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The total defense stat.
+     */
+    public int getTotalDefenseStat(int participant) {
+        return members[participant].defense;
+    }
+
+    /**
+     * Checks if a participant has a slot of a type that is not filled yet.
+     *
+     * @param participant The 0-based position of the participant.
+     * @param type        The slot type.
+     * @return True if the next item of that type goes into an empty slot, false if it is combined.
+     */
+    public boolean hasOpenSlot(int participant, GearType type) {
+        Member member = members[participant];
+        return member.used[type.ordinal()] < member.slots[type.ordinal()];
+    }
+
+    /**
+     * Calculates the damage each participant would inflict on all of the others in this state,
+     * as in {@link Battle#resolveDamage()}.
+     *
+     * @return The damage inflicted by each participant, in picking order.
+     */
+    public int[] resolveDamage() {
+        int[] attacks = new int[members.length];
+        int[] defenses = new int[members.length];
+        for (int i = 0; i < members.length; i++) {
+            attacks[i] = members[i].attack;
+            defenses[i] = members[i].defense;
+        }
+        return Battle.resolveDamage(attacks, defenses);
+    }
+
+    // The best item of a type that is not taken, or -1
+    private int top(int type) {
+        int[] ranking = pool.rankings[type];
+        return cursors[type] < ranking.length ? ranking[cursors[type]] : -1;
+    }
+
+    // Compares items by stats only, as Gear.compareTo does
+    private int compareItems(int a, int b) {
+        int result = Integer.compare(pool.attacks[a], pool.attacks[b]);
+        return result != 0 ? result : Integer.compare(pool.defenses[a], pool.defenses[b]);
+    }
+
+    // Returns a copy of the trie with the item's bit set, sharing every branch off its path
+    private static Object set(Object node, int level, int item) {
+        if (level == 0) {
+            long[] words = node == null ? new long[LEAF_WORDS] : ((long[]) node).clone();
+            words[(item >>> 6) & (LEAF_WORDS - 1)] |= 1L << item;
+            return words;
+        }
+        Object[] children = node == null ? new Object[NODE_SIZE] : ((Object[]) node).clone();
+        int child = (item >>> (LEAF_BITS + NODE_BITS * (level - 1))) & (NODE_SIZE - 1);
+        children[child] = set(children[child], level - 1, item);
+        return children;
+    }
+
+    private static boolean get(Object node, int level, int item) {
+        for (; level > 0 && node != null; level--) {
+            node = ((Object[]) node)[(item >>> (LEAF_BITS + NODE_BITS * (level - 1))) & (NODE_SIZE - 1)];
+        }
+        return node != null && (((long[]) node)[(item >>> 6) & (LEAF_WORDS - 1)] & (1L << item)) != 0;
+    }
+
+    /**
+     * The stats and filled slots of one participant in a state.
+     */
+    static final class Member {
+        private final int attack;
+        private final int defense;
+        private final int[] used;
+        private final int[] slots;
+
+        private Member(int attack, int defense, int[] used, int[] slots) {
+            this.attack = attack;
+            this.defense = defense;
+            this.used = used;
+            this.slots = slots;
+        }
+
+        // An item fills an open slot or is combined into the first one; the totals grow either way
+        private Member equip(int type, int itemAttack, int itemDefense) {
+            int[] nextUsed = used;
+            if (used[type] < slots[type]) {
+                nextUsed = used.clone();
+                nextUsed[type]++;
+            }
+            return new Member(attack + itemAttack, defense + itemDefense, nextUsed, slots);
+        }
+
+        // The record before an item was equipped, given whether the item filled a slot
+        Member unequip(int type, int itemAttack, int itemDefense, boolean filled) {
+            int[] previousUsed = used;
+            if (filled) {
+                previousUsed = used.clone();
+                previousUsed[type]--;
+            }
+            return new Member(attack - itemAttack, defense - itemDefense, previousUsed, slots);
+        }
+    }
+
+    /**
+     * The items of a draft and their ranking, shared by every state of the draft.
+     */
+    private static final class Pool {
+        private final Gear[] items;
+        private final int[] attacks;
+        private final int[] defenses;
+        private final int[] types;
+
+        // The items of each type, best first and then in pool order, and the position of every item in its ranking
+        private final int[][] rankings = new int[TYPES.length][];
+        private final int[] rankOf;
+
+        // The number of inner levels of the trie above the leaves
+        private final int levels;
+
+        private Pool(Gear[] items) {
+            this.items = items;
+            int count = items.length;
+            attacks = new int[count];
+            defenses = new int[count];
+            types = new int[count];
+            rankOf = new int[count];
+            int[] typeCounts = new int[TYPES.length];
+            for (int i = 0; i < count; i++) {
+                attacks[i] = items[i].getAttackStat();
+                defenses[i] = items[i].getDefenseStat();
+                types[i] = GearType.of(items[i]).ordinal();
+                typeCounts[types[i]]++;
+            }
+
+            for (int type = 0; type < TYPES.length; type++) {
+                Integer[] order = new Integer[typeCounts[type]];
+                int next = 0;
+                for (int i = 0; i < count; i++) {
+                    if (types[i] == type) {
+                        order[next++] = i;
+                    }
+                }
+                Arrays.sort(order, this::rankCompare);
+                rankings[type] = new int[order.length];
+                for (int rank = 0; rank < order.length; rank++) {
+                    rankings[type][rank] = order[rank];
+                    rankOf[order[rank]] = rank;
+                }
+            }
+
+            int depth = 0;
+            for (long capacity = 1L << LEAF_BITS; capacity < count; capacity <<= NODE_BITS) {
+                depth++;
+            }
+            levels = depth;
+        }
+
+        // Orders items best first, then by their position in the pool
+        private int rankCompare(int a, int b) {
+            int result = Integer.compare(attacks[b], attacks[a]);
+            if (result == 0) {
+                result = Integer.compare(defenses[b], defenses[a]);
+            }
+            return result != 0 ? result : Integer.compare(a, b);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.*;
+import metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The IndexedGearPool class holds the items that are still available in a battle.
+ * Items are kept in one sorted set per gear slot type, ordered from best to worst by
+ * {@link Gear#compareTo(Gear)}, so the best item of a slot type can be found and removed
+ * in O(log n) instead of scanning the whole pool on every pick.
+ *
+ * Items with equal stats are ordered by the order in which they were added to the pool,
+ * which keeps picks identical to a linear scan over the original item list.
+ */
+public class IndexedGearPool {
+
+    // One sorted set per slot type, best item first
+    private final Map<GearType, TreeSet<Entry>> slots = new EnumMap<>(GearType.class);
+
+    // Maps each gear instance to its earliest entry, so removal does not need a scan
+    private final Map<Gear, Entry> entries = new IdentityHashMap<>();
+
+    private long nextSequence;
+    private int size;
+
+    // The sum of GearHash.of over every item in the pool
+    private long contentHash;
+
+    /**
+     * Constructs an empty gear pool.
+     */
+    public IndexedGearPool() {
+        for (GearType type : GearType.values()) {
+            slots.put(type, new TreeSet<>(IndexedGearPool::compareEntries));
+        }
+    }
+
+    /**
+     * Constructs a gear pool holding the given items, in iteration order.
+     *
+     * @param items The items to add to the pool.
+     */
+    public IndexedGearPool(Collection<? extends Gear> items) {
+        this();
+        for (Gear gear : items) {
+            add(gear);
+        }
+    }
+
+    /**
+     * Adds an item to the pool. The same instance may be added more than once.
+     *
+     * @param gear The item to add.
+     */
+    public void add(Gear gear) {
+        Entry entry = new Entry(gear, GearType.of(gear), nextSequence++);
+        Entry first = entries.get(gear);
+        if (first == null) {
+            entries.put(gear, entry);
+            entry.last = entry;
+        } else {
+            // Keep duplicates of the same instance chained in insertion order
+            first.last.next = entry;
+            first.last = entry;
+        }
+        slots.get(entry.type).add(entry);
+        size++;
+        contentHash += GearHash.of(gear);
+    }
+
+    /**
+     * Removes one occurrence of the given item from the pool, the earliest one added.
+     *
+     * @param gear The item to remove.
+     * @return True if the item was in the pool, otherwise false.
+     */
+    public boolean remove(Gear gear) {
+        return take(gear) >= 0;
+    }
+
+    /**
+     * Removes one occurrence of the given item from the pool, the earliest one added, and tells
+     * which one it was. For a pool built from a list, this is the index of the item in the list.
+     *
+     * @param gear The item to remove.
+     * @return The number of items added to the pool before it, or -1 if the item was not in the pool.
+     */
+    long take(Gear gear) {
+        Entry entry = entries.get(gear);
+        if (entry == null) {
+            return -1;
+        }
+        if (entry.next == null) {
+            entries.remove(gear);
+        } else {
+            entry.next.last = entry.last;
+            entries.put(gear, entry.next);
+        }
+        slots.get(entry.type).remove(entry);
+        size--;
+        contentHash -= GearHash.of(gear);
+        return entry.sequence;
+    }
+
+    /**
+     * Puts back an item taken with {@link #take}, in the same place as before. Items must be put
+     * back in the reverse order they were taken, so the pool ends up as it was.
+     *
+     * @param gear     The item to put back.
+     * @param sequence The value {@link #take} returned for it.
+     */
+    void restore(Gear gear, long sequence) {
+        Entry entry = new Entry(gear, GearType.of(gear), sequence);
+        Entry first = entries.get(gear);
+        if (first == null) {
+            entry.last = entry;
+        } else {
+            // The item was taken before every occurrence still in the pool, so it goes first
+            entry.next = first;
+            entry.last = first.last;
+        }
+        entries.put(gear, entry);
+        slots.get(entry.type).add(entry);
+        size++;
+        contentHash += GearHash.of(gear);
+    }
+
+    /**
+     * Puts every item in the pool in an array, at the index {@link #take} would return for it.
+     * Places of items that were taken are left as they are.
+     *
+     * @param items The array, large enough for every item ever added.
+     */
+    void fill(Gear[] items) {
+        for (TreeSet<Entry> entries : slots.values()) {
+            for (Entry entry : entries) {
+                items[(int) entry.sequence] = entry.gear;
+            }
+        }
+    }
+
+    /**
+     * Gets the best item of a slot type without removing it.
+     *
+     * @param type The slot type.
+     * @return The best item of that type, or null if there is none.
+     */
+    public Gear peekBest(GearType type) {
+        TreeSet<Entry> slot = slots.get(type);
+        return slot.isEmpty() ? null : slot.first().gear;
+    }
+
+    /**
+     * Gets the best items of a slot type without removing them.
+     *
+     * @param type  The slot type.
+     * @param limit The most items to return.
+     * @return A new list of up to limit items of that type, best first.
+     */
+    public List<Gear> best(GearType type, int limit) {
+        List<Gear> result = new ArrayList<>(Math.min(limit, slots.get(type).size()));
+        for (Entry entry : slots.get(type)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.gear);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the item a character should pick, based on 1) whether the character has an
+     * open slot for a type of gear, 2) which gear has the highest attack, and 3) which
+     * gear has the highest defense. If the character has no open slot for any type that
+     * is still in the pool, the best item of the whole pool is chosen.
+     *
+     * @param character The character choosing the item.
+     * @return The best item for the character.
+     * @throws IllegalStateException if the pool is empty.
+     */
+    public Gear findBest(RPGCharacter character) {
+        if (!Metrics.isEnabled()) {
+            return chooseBest(character);
+        }
+        long start = System.nanoTime();
+        Gear best = chooseBest(character);
+        Metrics.FIND_BEST.record(System.nanoTime() - start);
+        return best;
+    }
+
+    // The body of findBest, without the metrics
+    private Gear chooseBest(RPGCharacter character) {
+        if (size == 0) {
+            throw new IllegalStateException("Item Error: There are no items left to pick up");
+        }
+        Entry best = null;
+        best = betterOpenSlot(best, GearType.HEAD, character.hasHeadGearSlot());
+        best = betterOpenSlot(best, GearType.HAND, character.hasHandGearSlot());
+        best = betterOpenSlot(best, GearType.FOOT, character.hasFootGearSlot());
+        if (best != null) {
+            return best.gear;
+        }
+
+        // No open slot can be filled, so every item in the pool is a candidate
+        for (TreeSet<Entry> slot : slots.values()) {
+            if (!slot.isEmpty() && (best == null || compareEntries(slot.first(), best) < 0)) {
+                best = slot.first();
+            }
+        }
+        return best.gear;
+    }
+
+    /**
+     * Gets the number of items in the pool.
+     *
+     * @return The number of items in the pool.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of items of a slot type in the pool.
+     *
+     * @param type The slot type.
+     * @return The number of items of that type.
+     */
+    public int size(GearType type) {
+        return slots.get(type).size();
+    }
+
+    /**
+     * Checks if the pool has no items left.
+     *
+     * @return True if the pool is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets a hash of the items in the pool, which only depends on the slot types and stats of
+     * the items and not on their order. It is updated in O(1) on every add and remove.
+     *
+     * @return The hash of the pool contents.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns the items in the pool, grouped by slot type and ordered best first.
+     *
+     * @return A new list holding the items in the pool.
+     */
+    public List<Gear> toList() {
+        List<Gear> result = new ArrayList<>(size);
+        for (TreeSet<Entry> slot : slots.values()) {
+            for (Entry entry : slot) {
+                result.add(entry.gear);
+            }
+        }
+        return result;
+    }
+
+    // Keeps the current best unless the open slot type holds a strictly better item,
+    // so ties go to the earlier slot type
+    private Entry betterOpenSlot(Entry best, GearType type, boolean open) {
+        TreeSet<Entry> slot = slots.get(type);
+        if (!open || slot.isEmpty()) {
+            return best;
+        }
+        Entry top = slot.first();
+        if (best == null || top.gear.compareTo(best.gear) > 0) {
+            return top;
+        }
+        return best;
+    }
+
+    // Orders entries best first, then by insertion order
+    private static int compareEntries(Entry a, Entry b) {
+        int result = b.gear.compareTo(a.gear);
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * A single occurrence of an item in the pool.
+     */
+    private static final class Entry {
+        private final Gear gear;
+        private final GearType type;
+        private final long sequence;
+        private Entry next;
+        private Entry last;
+
+        private Entry(Gear gear, GearType type, long sequence) {
+            this.gear = gear;
+            this.type = type;
+            this.sequence = sequence;
+        }
+    }
+}
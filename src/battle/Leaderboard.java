@@ -0,0 +1,496 @@
+package battle;
+
+import character.RPGCharacter;
+import character.StatsListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Leaderboard class ranks characters by a {@link Score}, highest first; characters with the
+ * same score are ranked in the order they were added. It answers who is in the top K, what rank
+ * a character has, and who is between two ranks or two scores, without sorting the characters.
+ *
+ * The characters are kept in an order-statistic treap: a binary search tree balanced by random
+ * priorities, where every node also counts the nodes below it, so finding the character at a
+ * rank or the rank of a character takes O(log n). The nodes are parallel primitive arrays
+ * indexed by the slot of a character, which keeps millions of characters compact.
+ *
+ * The leaderboard listens to its characters, and when the gear of one changes it is rescored
+ * and moved in O(log n), plus the cost of the score. Several leaderboards, or a leaderboard and
+ * a {@link DamageMatrix}, can follow the same characters.
+ *
+ * A leaderboard is not safe to use from several threads, and the characters must change gear on
+ * the thread that uses the leaderboard.
+ */
+public class Leaderboard {
+
+    /**
+     * How the leaderboard scores a character; a higher score ranks higher.
+     */
+    public interface Score {
+
+        /**
+         * The total attack stat.
+         */
+        Score ATTACK = RPGCharacter::getTotalAttackStat;
+
+        /**
+         * The total defense stat.
+         */
+        Score DEFENSE = RPGCharacter::getTotalDefenseStat;
+
+        /**
+         * The total attack and defense stats added together.
+         */
+        Score TOTAL = character -> (long) character.getTotalAttackStat() + character.getTotalDefenseStat();
+
+        /**
+         * Scores a character.
+         *
+         * @param character The character.
+         * @return The score of the character.
+         */
+        long score(RPGCharacter character);
+
+        /**
+         * Gets a score that counts how a character does against a reference group, by the rule of
+         * {@link Battle#calculateDamage}: 2 points for every member it deals more damage to than it
+         * takes, and 1 point for every draw. Divided by twice the size of the group this is the
+         * expected win rate of the character. The stats of the group are read once, here, and a
+         * character is scored in O(m) for a group of m.
+         *
+         * @param reference The reference group.
+         * @return The score.
+         */
+        static Score winRate(List<RPGCharacter> reference) {
+            int[] attacks = new int[reference.size()];
+            int[] defenses = new int[reference.size()];
+            for (int j = 0; j < attacks.length; j++) {
+                attacks[j] = reference.get(j).getTotalAttackStat();
+                defenses[j] = reference.get(j).getTotalDefenseStat();
+            }
+            return character -> {
+                int attack = character.getTotalAttackStat();
+                int defense = character.getTotalDefenseStat();
+                long points = 0;
+                for (int j = 0; j < attacks.length; j++) {
+                    int made = Math.max(0, attack - defenses[j]);
+                    int received = Math.max(0, attacks[j] - defense);
+                    points += 1 + Integer.signum(made - received);
+                }
+                return points;
+            };
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Slot 0 is the empty tree, so the size of a missing child is size[0] = 0
+    private static final int NONE = 0;
+
+    private final Score score;
+    private final Map<RPGCharacter, Integer> slots = new IdentityHashMap<>();
+    private final StatsListener listener = this::update;
+
+    // The nodes of the treap, indexed by slot; a free slot is chained to the next one by left
+    private RPGCharacter[] characters;
+    private long[] scores;
+    private long[] addedAt;
+    private int[] priorities;
+    private int[] left;
+    private int[] right;
+    private int[] size;
+
+    private int root = NONE;
+    private int slotCount = 1;
+    private int freeSlot = NONE;
+    private long addCount;
+
+    // The two trees left by split
+    private int splitBefore;
+    private int splitAfter;
+
+    /**
+     * Constructs an empty leaderboard.
+     *
+     * @param score How the characters are scored.
+     */
+    public Leaderboard(Score score) {
+        this.score = score;
+        characters = new RPGCharacter[INITIAL_CAPACITY];
+        scores = new long[INITIAL_CAPACITY];
+        addedAt = new long[INITIAL_CAPACITY];
+        priorities = new int[INITIAL_CAPACITY];
+        left = new int[INITIAL_CAPACITY];
+        right = new int[INITIAL_CAPACITY];
+        size = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructs a leaderboard of a group of characters.
+     *
+     * @param score      How the characters are scored.
+     * @param characters The characters.
+     * @throws IllegalArgumentException if a character is in the group twice.
+     */
+    public Leaderboard(Score score, List<RPGCharacter> characters) {
+        this(score);
+        for (RPGCharacter character : characters) {
+            add(character);
+        }
+    }
+
+    /**
+     * Adds a character in O(log n) and starts listening to it, next to any other
+     * {@link StatsListener} it has.
+     *
+     * @param character The character.
+     * @throws IllegalArgumentException if the character is already on the leaderboard.
+     */
+    public void add(RPGCharacter character) {
+        if (slots.containsKey(character)) {
+            throw new IllegalArgumentException("Participant Error: " + character.getName()
+                    + " is already on the leaderboard");
+        }
+        int slot = newSlot();
+        characters[slot] = character;
+        scores[slot] = score.score(character);
+        addedAt[slot] = addCount++;
+        slots.put(character, slot);
+        root = insert(root, slot);
+        character.addStatsListener(listener);
+    }
+
+    /**
+     * Removes a character in O(log n) and stops listening to it. Its other listeners are kept.
+     *
+     * @param character The character.
+     * @return true if the character was on the leaderboard.
+     */
+    public boolean remove(RPGCharacter character) {
+        Integer slot = slots.remove(character);
+        if (slot == null) {
+            return false;
+        }
+        root = remove(root, slot);
+        character.removeStatsListener(listener);
+        characters[slot] = null;
+        left[slot] = freeSlot;
+        freeSlot = slot;
+        return true;
+    }
+
+    /**
+     * Scores a character again and moves it to its new rank in O(log n). This is called by the
+     * characters whenever their gear changes.
+     *
+     * @param character The character.
+     * @throws IllegalArgumentException if the character is not on the leaderboard.
+     */
+    public void update(RPGCharacter character) {
+        int slot = slotOf(character);
+        long newScore = score.score(character);
+        if (newScore == scores[slot]) {
+            return;
+        }
+        root = remove(root, slot);
+        scores[slot] = newScore;
+        left[slot] = NONE;
+        right[slot] = NONE;
+        size[slot] = 1;
+        root = insert(root, slot);
+    }
+
+    /**
+     * Stops listening to the characters. Their other listeners are kept, and the leaderboard
+     * keeps the scores it has.
+     */
+    public void detach() {
+        for (RPGCharacter character : slots.keySet()) {
+            character.removeStatsListener(listener);
+        }
+    }
+
+    /**
+     * Gets the number of characters.
+     *
+     * @return The size of the leaderboard.
+     */
+    public int getSize() {
+        return size[root];
+    }
+
+    /**
+     * Checks if a character is on the leaderboard.
+     *
+     * @param character The character.
+     * @return true if the character is on the leaderboard.
+     */
+    public boolean contains(RPGCharacter character) {
+        return slots.containsKey(character);
+    }
+
+    /**
+     * Gets the score of a character as of its last update.
+     *
+     * @param character The character.
+     * @return The score.
+     * @throws IllegalArgumentException if the character is not on the leaderboard.
+     */
+    public long getScore(RPGCharacter character) {
+        return scores[slotOf(character)];
+    }
+
+    /**
+     * Gets the rank of a character in O(log n).
+     *
+     * @param character The character.
+     * @return The 1-based rank, 1 for the highest score.
+     * @throws IllegalArgumentException if the character is not on the leaderboard.
+     */
+    public int getRank(RPGCharacter character) {
+        int slot = slotOf(character);
+        int rank = 1;
+        int node = root;
+        while (node != slot) {
+            if (isBefore(slot, node)) {
+                node = left[node];
+            } else {
+                rank += size[left[node]] + 1;
+                node = right[node];
+            }
+        }
+        return rank + size[left[slot]];
+    }
+
+    /**
+     * Gets the character at a rank in O(log n).
+     *
+     * @param rank The 1-based rank.
+     * @return The character.
+     * @throws IllegalArgumentException if the rank is not between 1 and the size of the leaderboard.
+     */
+    public RPGCharacter get(int rank) {
+        if (rank < 1 || rank > getSize()) {
+            throw new IllegalArgumentException("Participant Error: There is no rank " + rank);
+        }
+        int index = rank - 1;
+        int node = root;
+        while (true) {
+            int before = size[left[node]];
+            if (index < before) {
+                node = left[node];
+            } else if (index == before) {
+                return characters[node];
+            } else {
+                index -= before + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Gets the characters with the highest scores, in O(log n + k).
+     *
+     * @param k The number of characters.
+     * @return The first k characters, or all of them if there are fewer, highest first.
+     */
+    public List<RPGCharacter> getTop(int k) {
+        return getRange(1, k);
+    }
+
+    /**
+     * Gets the characters between two ranks, in O(log n + k) for k characters.
+     *
+     * @param fromRank The first 1-based rank, included.
+     * @param toRank   The last 1-based rank, included.
+     * @return The characters, highest first; empty if no ranks are in the range.
+     */
+    public List<RPGCharacter> getRange(int fromRank, int toRank) {
+        int from = Math.max(fromRank, 1) - 1;
+        int to = Math.min(toRank, getSize());
+        List<RPGCharacter> range = new ArrayList<>(Math.max(0, to - from));
+        collect(root, 0, from, to, range);
+        return range;
+    }
+
+    /**
+     * Gets the characters with a score between two scores, in O(log n + k) for k characters.
+     *
+     * @param minScore The lowest score, included.
+     * @param maxScore The highest score, included.
+     * @return The characters, highest first.
+     */
+    public List<RPGCharacter> getScoreRange(long minScore, long maxScore) {
+        if (minScore > maxScore) {
+            return new ArrayList<>();
+        }
+        int last = minScore == Long.MIN_VALUE ? getSize() : countAbove(minScore - 1);
+        return getRange(countAbove(maxScore) + 1, last);
+    }
+
+    /**
+     * Counts the characters with a higher score than a score, in O(log n). The best rank a
+     * character with that score could have is one more.
+     *
+     * @param score The score.
+     * @return The number of characters with a higher score.
+     */
+    public int countAbove(long score) {
+        int count = 0;
+        int node = root;
+        while (node != NONE) {
+            if (scores[node] > score) {
+                count += size[left[node]] + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    private int slotOf(RPGCharacter character) {
+        Integer slot = slots.get(character);
+        if (slot == null) {
+            throw new IllegalArgumentException("Participant Error: " + character.getName()
+                    + " is not on the leaderboard");
+        }
+        return slot;
+    }
+
+    private int newSlot() {
+        int slot;
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = left[slot];
+        } else {
+            if (slotCount == characters.length) {
+                int capacity = characters.length * 2;
+                characters = Arrays.copyOf(characters, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                addedAt = Arrays.copyOf(addedAt, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                size = Arrays.copyOf(size, capacity);
+            }
+            slot = slotCount++;
+            priorities[slot] = priority(slot);
+        }
+        left[slot] = NONE;
+        right[slot] = NONE;
+        size[slot] = 1;
+        return slot;
+    }
+
+    // Scrambles the slot number, as in MurmurHash3, for a priority that looks random but is repeatable
+    private static int priority(int slot) {
+        int h = slot;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // Whether slot a ranks before slot b: a higher score, or the same score and added first
+    private boolean isBefore(int a, int b) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : addedAt[a] < addedAt[b];
+    }
+
+    private void pull(int node) {
+        size[node] = size[left[node]] + size[right[node]] + 1;
+    }
+
+    private int insert(int node, int slot) {
+        if (node == NONE) {
+            return slot;
+        }
+        if (priorities[slot] > priorities[node]) {
+            split(node, slot);
+            left[slot] = splitBefore;
+            right[slot] = splitAfter;
+            pull(slot);
+            return slot;
+        }
+        if (isBefore(slot, node)) {
+            left[node] = insert(left[node], slot);
+        } else {
+            right[node] = insert(right[node], slot);
+        }
+        pull(node);
+        return node;
+    }
+
+    private int remove(int node, int slot) {
+        if (node == slot) {
+            return merge(left[node], right[node]);
+        }
+        if (isBefore(slot, node)) {
+            left[node] = remove(left[node], slot);
+        } else {
+            right[node] = remove(right[node], slot);
+        }
+        pull(node);
+        return node;
+    }
+
+    // Splits a tree into the nodes that rank before slot and those after, into splitBefore and splitAfter
+    private void split(int node, int slot) {
+        if (node == NONE) {
+            splitBefore = NONE;
+            splitAfter = NONE;
+        } else if (isBefore(node, slot)) {
+            split(right[node], slot);
+            right[node] = splitBefore;
+            pull(node);
+            splitBefore = node;
+        } else {
+            split(left[node], slot);
+            left[node] = splitAfter;
+            pull(node);
+            splitAfter = node;
+        }
+    }
+
+    // Joins two trees where every node of the first ranks before every node of the second
+    private int merge(int first, int second) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        if (priorities[first] > priorities[second]) {
+            right[first] = merge(right[first], second);
+            pull(first);
+            return first;
+        }
+        left[second] = merge(first, left[second]);
+        pull(second);
+        return second;
+    }
+
+    // Adds the nodes of a tree with 0-based ranks from..to-1 in order; offset is the rank of its first node
+    private void collect(int node, int offset, int from, int to, List<RPGCharacter> range) {
+        if (node == NONE || offset >= to) {
+            return;
+        }
+        int rank = offset + size[left[node]];
+        if (from < rank) {
+            collect(left[node], offset, from, to, range);
+        }
+        if (rank >= from && rank < to) {
+            range.add(characters[node]);
+        }
+        if (rank + 1 < to) {
+            collect(right[node], rank + 1, from, to, range);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Loadout class is a set of items chosen for a character by a {@link LoadoutSolver},
+ * together with the stats and damage the character ends up with against the opponent.
+ */
+public class Loadout {
+
+    private final List<Gear> items;
+    private final int attackStat;
+    private final int defenseStat;
+    private final int damageDealt;
+    private final int damageTaken;
+    private final boolean exact;
+
+    /**
+     * Constructs a loadout.
+     *
+     * @param items       The chosen items.
+     * @param attackStat  The total attack stat of the character with the items equipped.
+     * @param defenseStat The total defense stat of the character with the items equipped.
+     * @param damageDealt The damage the character inflicts on the opponent.
+     * @param damageTaken The damage the opponent inflicts on the character.
+     * @param exact       Whether the loadout is known to be optimal.
+     */
+    public Loadout(List<Gear> items, int attackStat, int defenseStat, int damageDealt, int damageTaken, boolean exact) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.attackStat = attackStat;
+        this.defenseStat = defenseStat;
+        this.damageDealt = damageDealt;
+        this.damageTaken = damageTaken;
+        this.exact = exact;
+    }
+
+    /**
+     * Gets the chosen items.
+     *
+     * @return A read-only list of the items.
+     */
+    public List<Gear> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the total attack stat of the character with the items equipped.
+     *
+     * @return The total attack stat.
+     */
+    public int getAttackStat() {
+        return attackStat;
+    }
+
+    /**
+     * Gets the total defense stat of the character with the items equipped.
+     *
+     * @return The total defense stat.
+     */
+    public int getDefenseStat() {
+        return defenseStat;
+    }
+
+    /**
+     * Gets the damage the character inflicts on the opponent.
+     *
+     * @return The damage dealt.
+     */
+    public int getDamageDealt() {
+        return damageDealt;
+    }
+
+    /**
+     * Gets the damage the opponent inflicts on the character.
+     *
+     * @return The damage taken.
+     */
+    public int getDamageTaken() {
+        return damageTaken;
+    }
+
+    /**
+     * Gets the damage dealt minus the damage taken, which decides who wins the battle.
+     *
+     * @return The damage margin.
+     */
+    public int getMargin() {
+        return damageDealt - damageTaken;
+    }
+
+    /**
+     * Checks whether the loadout is known to be optimal. A solver that had to cut its search
+     * short returns the best loadout it found, which is not marked exact.
+     *
+     * @return True if no other loadout has a better margin.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Equips every item of the loadout on a character. Items beyond the slot limits are
+     * combined, as with {@link RPGCharacter#equip(Gear)}.
+     *
+     * @param character The character to equip.
+     */
+    public void applyTo(RPGCharacter character) {
+        for (Gear gear : items) {
+            character.equip(gear);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Loadout of " + items.size() + " items: attack " + attackStat + ", defense " + defenseStat
+                + ", damage dealt " + damageDealt + ", damage taken " + damageTaken + (exact ? "" : " (approximate)");
+    }
+}
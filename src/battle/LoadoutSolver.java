@@ -0,0 +1,274 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The LoadoutSolver class finds the items a character should take from a pool to beat one
+ * opponent, instead of picking greedily one item at a time like {@link Battle#findBestItem}.
+ * The chosen loadout maximises the damage dealt minus the damage taken, and among equal
+ * margins the damage dealt.
+ *
+ * Once the slots of a type are full, further items of that type are combined into the first
+ * slot and keep all of their stats, so the slot limits never cost stats: only the number of
+ * picks and the stats of the items matter. The solver works in two steps.
+ * <ol>
+ *     <li>Pruning: an item for which at least k other items are as good in both attack and
+ *     defense can always be swapped for one of them when taking k items, so it is dropped.
+ *     This k-skyline is found with one sort and a sweep, and is small even for pools of
+ *     100k items.</li>
+ *     <li>Search: a knapsack over the remaining items keeps, for every number of items taken,
+ *     the Pareto frontier of (attack, defense) sums. Defense beyond the opponent's attack is
+ *     worth nothing, so it is capped there, which bounds the frontier. If a frontier still grows
+ *     past the state limit it is thinned out and the result is marked as not exact.</li>
+ * </ol>
+ */
+public class LoadoutSolver {
+
+    private static final int DEFAULT_MAX_STATES = 4096;
+
+    // Attack and defense are packed into one long for sorting; stats are non-negative ints
+    private static final int STAT_BITS = 31;
+    private static final long STAT_MASK = (1L << STAT_BITS) - 1;
+
+    private final int maxStates;
+
+    /**
+     * Constructs a solver with the default limit on search states.
+     */
+    public LoadoutSolver() {
+        this(DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Constructs a solver.
+     *
+     * @param maxStates The most (attack, defense) states kept for each number of items taken.
+     * @throws IllegalArgumentException if the limit is lower than 2.
+     */
+    public LoadoutSolver(int maxStates) {
+        if (maxStates < 2) {
+            throw new IllegalArgumentException("The solver needs at least 2 states per item count");
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Finds the best items for a character to take against an opponent. The current total stats
+     * of both characters are the starting point, so gear they already wear is counted.
+     *
+     * @param character The character to choose items for.
+     * @param opponent  The opponent.
+     * @param pool      The items to choose from.
+     * @param picks     The number of items the character may take.
+     * @return The best loadout, holding min(picks, pool size) items.
+     * @throws IllegalArgumentException if the number of picks is negative.
+     */
+    public Loadout solve(RPGCharacter character, RPGCharacter opponent, Collection<? extends Gear> pool, int picks) {
+        if (picks < 0) {
+            throw new IllegalArgumentException("Number of picks must be non-negative.");
+        }
+        picks = Math.min(picks, pool.size());
+        int baseAttack = character.getTotalAttackStat();
+        int baseDefense = character.getTotalDefenseStat();
+        int opponentAttack = opponent.getTotalAttackStat();
+        int opponentDefense = opponent.getTotalDefenseStat();
+
+        List<Gear> items = prune(pool, picks);
+        long defenseCap = Math.max(0, (long) opponentAttack - baseDefense);
+        boolean exact = true;
+
+        // frontiers[c] holds the Pareto frontier of taking c of the items seen so far
+        Frontier[] frontiers = new Frontier[picks + 1];
+        frontiers[0] = Frontier.EMPTY;
+        for (int i = 0; i < items.size(); i++) {
+            Gear gear = items.get(i);
+            for (int count = Math.min(i + 1, picks); count >= 1; count--) {
+                Frontier taken = frontiers[count - 1].add(i, gear.getAttackStat(), gear.getDefenseStat(), defenseCap);
+                Frontier merged = Frontier.merge(frontiers[count], taken);
+                if (merged.size > maxStates) {
+                    merged = merged.thin(maxStates);
+                    exact = false;
+                }
+                frontiers[count] = merged;
+            }
+        }
+
+        // Every stat is non-negative, so taking all the picks is never worse
+        Frontier last = frontiers[picks];
+        int best = 0;
+        long bestMargin = Long.MIN_VALUE;
+        long bestDealt = Long.MIN_VALUE;
+        for (int s = 0; s < last.size; s++) {
+            long dealt = Math.max(0, baseAttack + last.attack[s] - opponentDefense);
+            long taken = Math.max(0, opponentAttack - baseDefense - last.defense[s]);
+            if (dealt - taken > bestMargin || (dealt - taken == bestMargin && dealt > bestDealt)) {
+                best = s;
+                bestMargin = dealt - taken;
+                bestDealt = dealt;
+            }
+        }
+
+        List<Gear> chosen = new ArrayList<>(picks);
+        for (Node node = last.trace[best]; node != null; node = node.previous) {
+            chosen.add(items.get(node.item));
+        }
+        int attack = baseAttack;
+        int defense = baseDefense;
+        for (Gear gear : chosen) {
+            attack += gear.getAttackStat();
+            defense += gear.getDefenseStat();
+        }
+        return new Loadout(chosen, attack, defense, Battle.calculateDamage(attack, opponentDefense),
+                Battle.calculateDamage(opponentAttack, defense), exact);
+    }
+
+    // Keeps the items that fewer than k other items match or beat in both stats, in pool order
+    private static List<Gear> prune(Collection<? extends Gear> pool, int k) {
+        List<Gear> kept = new ArrayList<>();
+        if (k == 0) {
+            return kept;
+        }
+        long[] keys = new long[pool.size()];
+        int n = 0;
+        for (Gear gear : pool) {
+            keys[n++] = key(gear);
+        }
+        Arrays.sort(keys);
+
+        // Walk from the highest attack down; the heap holds the k best defenses seen so far
+        Map<Long, Integer> keptCounts = new HashMap<>();
+        PriorityQueue<Integer> bestDefenses = new PriorityQueue<>(k);
+        for (int i = n - 1; i >= 0; i--) {
+            int defense = (int) (keys[i] & STAT_MASK);
+            if (bestDefenses.size() == k && bestDefenses.peek() >= defense) {
+                continue;
+            }
+            keptCounts.merge(keys[i], 1, Integer::sum);
+            bestDefenses.add(defense);
+            if (bestDefenses.size() > k) {
+                bestDefenses.poll();
+            }
+        }
+
+        for (Gear gear : pool) {
+            Integer count = keptCounts.get(key(gear));
+            if (count != null && count > 0) {
+                kept.add(gear);
+                keptCounts.put(key(gear), count - 1);
+            }
+        }
+        return kept;
+    }
+
+    private static long key(Gear gear) {
+        return ((long) gear.getAttackStat() << STAT_BITS) | gear.getDefenseStat();
+    }
+
+    /**
+     * A link in the list of items that make up a state, shared between states.
+     */
+    private static final class Node {
+        private final int item;
+        private final Node previous;
+
+        private Node(int item, Node previous) {
+            this.item = item;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * A Pareto frontier of (attack, defense) sums, ordered by attack from high to low, so the
+     * defense rises strictly along it.
+     */
+    private static final class Frontier {
+        private static final Frontier EMPTY = new Frontier(new long[] {0}, new long[] {0}, new Node[] {null}, 1);
+
+        private final long[] attack;
+        private final long[] defense;
+        private final Node[] trace;
+        private final int size;
+
+        private Frontier(long[] attack, long[] defense, Node[] trace, int size) {
+            this.attack = attack;
+            this.defense = defense;
+            this.trace = trace;
+            this.size = size;
+        }
+
+        // Every state with one more item; the order by attack is kept
+        private Frontier add(int item, int itemAttack, int itemDefense, long defenseCap) {
+            long[] newAttack = new long[size];
+            long[] newDefense = new long[size];
+            Node[] newTrace = new Node[size];
+            for (int s = 0; s < size; s++) {
+                newAttack[s] = attack[s] + itemAttack;
+                newDefense[s] = Math.min(defenseCap, defense[s] + itemDefense);
+                newTrace[s] = new Node(item, trace[s]);
+            }
+            return new Frontier(newAttack, newDefense, newTrace, size);
+        }
+
+        // Merges two frontiers and drops every dominated state
+        private static Frontier merge(Frontier first, Frontier second) {
+            if (first == null) {
+                return second.prune();
+            }
+            int capacity = first.size + second.size;
+            long[] attack = new long[capacity];
+            long[] defense = new long[capacity];
+            Node[] trace = new Node[capacity];
+            int size = 0;
+            long maxDefense = Long.MIN_VALUE;
+            int i = 0;
+            int j = 0;
+            while (i < first.size || j < second.size) {
+                Frontier from;
+                int s;
+                if (j == second.size || (i < first.size && (first.attack[i] > second.attack[j]
+                        || (first.attack[i] == second.attack[j] && first.defense[i] >= second.defense[j])))) {
+                    from = first;
+                    s = i++;
+                } else {
+                    from = second;
+                    s = j++;
+                }
+                if (from.defense[s] > maxDefense) {
+                    attack[size] = from.attack[s];
+                    defense[size] = from.defense[s];
+                    trace[size] = from.trace[s];
+                    size++;
+                    maxDefense = from.defense[s];
+                }
+            }
+            return new Frontier(attack, defense, trace, size);
+        }
+
+        private Frontier prune() {
+            return merge(new Frontier(new long[0], new long[0], new Node[0], 0), this);
+        }
+
+        // Keeps limit states spread evenly along the frontier, including both ends
+        private Frontier thin(int limit) {
+            long[] newAttack = new long[limit];
+            long[] newDefense = new long[limit];
+            Node[] newTrace = new Node[limit];
+            for (int s = 0; s < limit; s++) {
+                int from = (int) ((long) s * (size - 1) / (limit - 1));
+                newAttack[s] = attack[from];
+                newDefense[s] = defense[from];
+                newTrace[s] = trace[from];
+            }
+            return new Frontier(newAttack, newDefense, newTrace, limit);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package battle;
+
+import character.RPGCharacter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The PickContext class is what a {@link PickStrategy} can see of a battle when it picks: the
+ * items still available, every participant, and where the battle is in its turns.
+ *
+ * A battle keeps one context and moves it on to every pick, so a strategy must not hold on to
+ * the context after {@link PickStrategy#pick} returns.
+ */
+public class PickContext {
+
+    private final IndexedGearPool pool;
+    private final List<RPGCharacter> participants;
+    private final int turns;
+    private int participant;
+    private int turn;
+    private int position;
+
+    // The battle this context comes from, if any
+    private Battle battle;
+
+    // The participant making every pick of the battle, if the participants do not pick in the
+    // same order on every turn, and the number of this pick
+    private int[] pickOrder;
+    private int pick;
+
+    /**
+     * Constructs a pick context.
+     *
+     * @param pool         The items still available.
+     * @param participants The characters in the battle, in picking order.
+     * @param participant  The 0-based position of the participant that is picking.
+     * @param turn         The 1-based turn number.
+     * @param turns        The number of turns in the battle.
+     */
+    public PickContext(IndexedGearPool pool, List<RPGCharacter> participants, int participant, int turn, int turns) {
+        this(pool, participants, participant, turn, turns, participant);
+    }
+
+    /**
+     * Constructs a pick context for a battle where the participants do not pick in the same
+     * order on every turn, such as a {@link TeamBattle}.
+     *
+     * @param pool         The items still available.
+     * @param participants The characters in the battle.
+     * @param participant  The 0-based position of the participant that is picking.
+     * @param turn         The 1-based turn number.
+     * @param turns        The number of turns in the battle.
+     * @param position     The 0-based number of picks already made in this turn.
+     */
+    public PickContext(IndexedGearPool pool, List<RPGCharacter> participants, int participant, int turn, int turns,
+                       int position) {
+        this.pool = pool;
+        this.participants = Collections.unmodifiableList(participants);
+        this.participant = participant;
+        this.turn = turn;
+        this.turns = turns;
+        this.position = position;
+    }
+
+    /**
+     * Sets the battle the context comes from, which lets a strategy take a snapshot.
+     *
+     * @param battle The battle.
+     */
+    void setBattle(Battle battle) {
+        this.battle = battle;
+    }
+
+    /**
+     * Sets the order the participants pick in, for a battle where it is not the same on every
+     * turn.
+     *
+     * @param pickOrder The participant making every pick of the battle.
+     */
+    void setPickOrder(int[] pickOrder) {
+        this.pickOrder = pickOrder;
+    }
+
+    /**
+     * Moves the context on to another pick of the same battle.
+     *
+     * @param participant The 0-based position of the participant that is picking.
+     * @param turn        The 1-based turn number.
+     * @param position    The 0-based number of picks already made in this turn.
+     * @param pick        The 0-based number of this pick in the whole battle.
+     */
+    void moveTo(int participant, int turn, int position, int pick) {
+        this.participant = participant;
+        this.turn = turn;
+        this.position = position;
+        this.pick = pick;
+    }
+
+    /**
+     * Gets the state of the draft before this pick, for a strategy that looks ahead. See
+     * {@link Battle#snapshot()}.
+     *
+     * @return The current state of the draft.
+     * @throws IllegalStateException if the context does not come from a {@link Battle}.
+     */
+    public DraftState getSnapshot() {
+        if (battle == null) {
+            throw new IllegalStateException("Draft Error: This pick does not come from a battle");
+        }
+        return battle.snapshot();
+    }
+
+    /**
+     * Gets the items still available. The pool must not be changed.
+     *
+     * @return The available items.
+     */
+    public IndexedGearPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets every character in the battle, in picking order.
+     *
+     * @return A read-only list of the participants.
+     */
+    public List<RPGCharacter> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the position of the participant that is picking.
+     *
+     * @return The 0-based position of the participant.
+     */
+    public int getParticipant() {
+        return participant;
+    }
+
+    /**
+     * Gets the participant that makes this pick or one of the picks after it.
+     *
+     * @param ahead The number of picks after this one, 0 for this pick.
+     * @return The 0-based position of the participant.
+     * @throws IndexOutOfBoundsException if the battle ends before that pick.
+     */
+    public int getPicker(int ahead) {
+        if (ahead < 0 || ahead >= getRemainingPicks()) {
+            throw new IndexOutOfBoundsException("Pick " + ahead + " out of range for " + getRemainingPicks()
+                    + " remaining picks");
+        }
+        return pickOrder != null ? pickOrder[pick + ahead] : (participant + ahead) % participants.size();
+    }
+
+    /**
+     * Gets the character that is picking.
+     *
+     * @return The picking character.
+     */
+    public RPGCharacter getCharacter() {
+        return participants.get(participant);
+    }
+
+    /**
+     * Gets the current turn.
+     *
+     * @return The 1-based turn number.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Gets the number of picks left in the battle, including this one.
+     *
+     * @return The number of picks left.
+     */
+    public int getRemainingPicks() {
+        return (turns - turn) * participants.size() + participants.size() - position;
+    }
+}
@@ -0,0 +1,25 @@
+package battle;
+
+import gear.Gear;
+
+/**
+ * The PickStrategy interface decides which item a participant takes from the pool on its
+ * turn. A battle asks the strategy of the participant whose turn it is, then removes the
+ * chosen item from the pool and equips it.
+ */
+public interface PickStrategy {
+
+    /**
+     * The original rule of the game: an item for an open slot first, then the highest attack,
+     * then the highest defense. See {@link IndexedGearPool#findBest}.
+     */
+    PickStrategy GREEDY = context -> context.getPool().findBest(context.getCharacter());
+
+    /**
+     * Chooses the item to pick. The strategy must not change the pool or the characters.
+     *
+     * @param context The state of the battle at this pick.
+     * @return An item that is in the pool.
+     */
+    Gear pick(PickContext context);
+}
@@ -0,0 +1,502 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SearchPickStrategy class picks items by looking ahead over the picks that follow,
+ * instead of only at the item in front of it. It runs an alpha-beta search over the picks in
+ * the order of the battle, as told by {@link PickContext#getPicker(int)}, in which the picking
+ * participant maximises its score and every other participant minimises it. A leaf is scored
+ * with {@link Battle#calculateDamage}: the damage the picker deals minus the most damage any
+ * other participant deals, so denying an opponent a strong item counts as much as taking a
+ * strong item.
+ *
+ * To answer within its time budget the search
+ * <ul>
+ *     <li>only considers the best few items of every slot type, taken from the rankings of the
+ *     {@link IndexedGearPool}, and tries them in ranking order after the best move found so far;</li>
+ *     <li>deepens iteratively and returns the best move of the deepest search that finished;</li>
+ *     <li>remembers searched positions in a transposition table keyed by a Zobrist hash of who
+ *     took which item. Each thread that picks with the strategy keeps one table for all of its
+ *     picks, and a new pick only moves the table on to a new generation, which turns the entries
+ *     of earlier picks into misses;</li>
+ *     <li>searches the first root move alone and the others in parallel on a fork-join pool,
+ *     sharing the best score found so far as their lower bound.</li>
+ * </ul>
+ */
+public class SearchPickStrategy implements PickStrategy {
+
+    private static final int DEFAULT_WIDTH = 4;
+    private static final int DEFAULT_MAX_DEPTH = 32;
+    private static final int TABLE_BITS = 16;
+
+    // How often the search looks at the clock, in nodes
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private static final long INFINITY = Long.MAX_VALUE / 2;
+    private static final byte EXACT = 0;
+    private static final byte LOWER_BOUND = 1;
+    private static final byte UPPER_BOUND = 2;
+    private static final GearType[] TYPES = GearType.values();
+
+    private final long budgetNanos;
+    private final int width;
+    private final int maxDepth;
+    private final ForkJoinPool pool;
+
+    // The transposition table of every thread that picks, shared with the threads of its search
+    private final ThreadLocal<Table> tables = ThreadLocal.withInitial(Table::new);
+
+    private volatile int lastDepth;
+
+    /**
+     * Constructs a search strategy that runs on the common fork-join pool.
+     *
+     * @param budgetMillis The time each pick may take.
+     */
+    public SearchPickStrategy(long budgetMillis) {
+        this(budgetMillis, DEFAULT_WIDTH, DEFAULT_MAX_DEPTH, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a search strategy.
+     *
+     * @param budgetMillis The time each pick may take.
+     * @param width        The number of best items of each slot type that are tried at every pick.
+     * @param maxDepth     The most picks to look ahead, including this one.
+     * @param pool         The pool that searches the root moves in parallel.
+     * @throws IllegalArgumentException if the budget, width or depth is not positive.
+     */
+    public SearchPickStrategy(long budgetMillis, int width, int maxDepth, ForkJoinPool pool) {
+        if (budgetMillis < 1 || width < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException("The budget, width and depth of a search must be positive");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.width = width;
+        this.maxDepth = maxDepth;
+        this.pool = pool;
+    }
+
+    /**
+     * Picks the item with the best score after looking ahead as far as the budget allows.
+     *
+     * @param context The state of the battle at this pick.
+     * @return The chosen item.
+     */
+    @Override
+    public Gear pick(PickContext context) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int depthLimit = Math.min(maxDepth, context.getRemainingPicks());
+        Search root = new Search(context, width, width + depthLimit, depthLimit);
+        if (root.itemCount == 0) {
+            return PickStrategy.GREEDY.pick(context);
+        }
+        Table table = tables.get();
+        table.nextGeneration();
+
+        int bestMove = -1;
+        lastDepth = 0;
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            try {
+                // The first iteration always finishes so there is a move to return
+                bestMove = searchRoot(root, depth, bestMove, table, depth == 1 ? Long.MAX_VALUE : deadline);
+                lastDepth = depth;
+            } catch (TimeoutSignal e) {
+                break;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        return root.items[bestMove];
+    }
+
+    /**
+     * Gets the depth of the last search that finished, for the most recent pick.
+     *
+     * @return The number of picks looked ahead.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    private int searchRoot(Search root, int depth, int previousBest, Table table, long deadline) {
+        int[] moves = root.moves(previousBest);
+        if (moves.length == 1) {
+            return moves[0];
+        }
+
+        // Search the first move alone to get a good bound for the others
+        Search first = root.copy(table, deadline);
+        first.take(moves[0]);
+        long firstValue = first.minimax(depth - 1, -INFINITY, INFINITY);
+        AtomicLong alpha = new AtomicLong(firstValue);
+
+        // The bound each move was searched with; a value at or below it is only an upper bound
+        long[] searchedAlpha = new long[moves.length];
+        List<Future<Long>> futures = new ArrayList<>(moves.length - 1);
+        for (int m = 1; m < moves.length; m++) {
+            int move = moves[m];
+            int index = m;
+            futures.add(pool.submit(() -> {
+                Search search = root.copy(table, deadline);
+                search.take(move);
+                long bound = alpha.get();
+                searchedAlpha[index] = bound;
+                long value = search.minimax(depth - 1, bound, INFINITY);
+                alpha.accumulateAndGet(value, Math::max);
+                return value;
+            }));
+        }
+
+        int best = moves[0];
+        long bestValue = firstValue;
+        TimeoutSignal timeout = null;
+        for (int m = 1; m < moves.length; m++) {
+            try {
+                long value = futures.get(m - 1).get();
+                if (value <= searchedAlpha[m] && value > bestValue) {
+                    // The bound came from a move collected later, so the real value is not known yet
+                    Search search = root.copy(table, deadline);
+                    search.take(moves[m]);
+                    value = search.minimax(depth - 1, -INFINITY, INFINITY);
+                }
+                if (value > bestValue) {
+                    best = moves[m];
+                    bestValue = value;
+                }
+            } catch (TimeoutSignal e) {
+                timeout = e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutSignal) {
+                    timeout = (TimeoutSignal) e.getCause();
+                } else {
+                    throw new IllegalStateException("Search Error: The search of a root move failed", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timeout = TimeoutSignal.INSTANCE;
+            }
+        }
+        if (timeout != null) {
+            throw timeout;
+        }
+        return best;
+    }
+
+    /**
+     * The state of one search: the candidate items, who has taken which, and the total stats
+     * of every participant. Each thread of a parallel search works on its own copy.
+     */
+    private static final class Search {
+        private final Gear[] items;
+        private final int itemCount;
+        private final int[] itemAttack;
+        private final int[] itemDefense;
+        // Candidate items of every slot type, best first
+        private final int[][] ranking;
+        // Random keys per item and participant for the Zobrist hash
+        private final long[][] zobrist;
+        private final int width;
+        private final int rootParticipant;
+        private final int participantCount;
+        // The participant making the pick at every ply
+        private final int[] movers;
+
+        private final boolean[] taken;
+        private final int[] attack;
+        private final int[] defense;
+        private final int[] history;
+        private int ply;
+        private long hash;
+
+        private TableEntry[] table;
+        private int generation;
+        private long deadline;
+        private long nodes;
+
+        private Search(PickContext context, int width, int perType, int depth) {
+            this.width = width;
+            List<Gear> candidates = new ArrayList<>();
+            ranking = new int[TYPES.length][];
+            for (GearType type : TYPES) {
+                List<Gear> best = context.getPool().best(type, perType);
+                ranking[type.ordinal()] = new int[best.size()];
+                for (int i = 0; i < best.size(); i++) {
+                    ranking[type.ordinal()][i] = candidates.size();
+                    candidates.add(best.get(i));
+                }
+            }
+            items = candidates.toArray(new Gear[0]);
+            itemCount = items.length;
+            itemAttack = new int[itemCount];
+            itemDefense = new int[itemCount];
+            for (int i = 0; i < itemCount; i++) {
+                itemAttack[i] = items[i].getAttackStat();
+                itemDefense[i] = items[i].getDefenseStat();
+            }
+
+            List<RPGCharacter> participants = context.getParticipants();
+            participantCount = participants.size();
+            rootParticipant = context.getParticipant();
+            movers = new int[depth];
+            for (int ply = 0; ply < depth; ply++) {
+                movers[ply] = context.getPicker(ply);
+            }
+            attack = new int[participantCount];
+            defense = new int[participantCount];
+            for (int p = 0; p < participantCount; p++) {
+                attack[p] = participants.get(p).getTotalAttackStat();
+                defense[p] = participants.get(p).getTotalDefenseStat();
+            }
+            SplittableRandom rand = new SplittableRandom(itemCount);
+            zobrist = new long[itemCount][participantCount];
+            for (long[] keys : zobrist) {
+                for (int p = 0; p < participantCount; p++) {
+                    keys[p] = rand.nextLong();
+                }
+            }
+            taken = new boolean[itemCount];
+            history = new int[itemCount];
+        }
+
+        private Search(Search other, Table table, long deadline) {
+            items = other.items;
+            itemCount = other.itemCount;
+            itemAttack = other.itemAttack;
+            itemDefense = other.itemDefense;
+            ranking = other.ranking;
+            zobrist = other.zobrist;
+            width = other.width;
+            rootParticipant = other.rootParticipant;
+            participantCount = other.participantCount;
+            movers = other.movers;
+            taken = other.taken.clone();
+            attack = other.attack.clone();
+            defense = other.defense.clone();
+            history = other.history.clone();
+            ply = other.ply;
+            hash = other.hash;
+            this.table = table.entries;
+            this.generation = table.generation;
+            this.deadline = deadline;
+        }
+
+        private Search copy(Table table, long deadline) {
+            return new Search(this, table, deadline);
+        }
+
+        private int mover() {
+            return movers[ply];
+        }
+
+        private void take(int item) {
+            int p = mover();
+            taken[item] = true;
+            attack[p] += itemAttack[item];
+            defense[p] += itemDefense[item];
+            hash ^= zobrist[item][p];
+            history[ply++] = item;
+        }
+
+        private void undo() {
+            int item = history[--ply];
+            int p = mover();
+            taken[item] = false;
+            attack[p] -= itemAttack[item];
+            defense[p] -= itemDefense[item];
+            hash ^= zobrist[item][p];
+        }
+
+        // The best few untaken items of each type, ranked, with the preferred move first.
+        // Items of a type with the same stats lead to the same positions, so only one is tried
+        private int[] moves(int preferred) {
+            int[][] perType = new int[TYPES.length][];
+            int total = 0;
+            for (int t = 0; t < TYPES.length; t++) {
+                int[] chosen = new int[width];
+                int count = 0;
+                int previous = -1;
+                for (int item : ranking[t]) {
+                    if (count == width) {
+                        break;
+                    }
+                    if (taken[item] || (previous >= 0 && itemAttack[item] == itemAttack[previous]
+                            && itemDefense[item] == itemDefense[previous])) {
+                        continue;
+                    }
+                    chosen[count++] = item;
+                    previous = item;
+                }
+                perType[t] = Arrays.copyOf(chosen, count);
+                total += count;
+            }
+
+            int[] moves = new int[total];
+            int size = 0;
+            if (preferred >= 0 && !taken[preferred] && contains(perType, preferred)) {
+                moves[size++] = preferred;
+            }
+            // Interleave the rankings: the best of each type, then the second best, and so on
+            for (int rank = 0; size < total; rank++) {
+                for (int[] typeMoves : perType) {
+                    if (rank < typeMoves.length && typeMoves[rank] != preferred) {
+                        moves[size++] = typeMoves[rank];
+                    }
+                }
+            }
+            return moves;
+        }
+
+        private long minimax(int depth, long alpha, long beta) {
+            if (++nodes % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                throw TimeoutSignal.INSTANCE;
+            }
+            if (depth == 0) {
+                return evaluate();
+            }
+
+            int index = (int) (hash & (table.length - 1));
+            TableEntry entry = table[index];
+            int preferred = -1;
+            if (entry != null && entry.key == hash && entry.generation == generation) {
+                preferred = entry.bestMove;
+                if (entry.depth >= depth) {
+                    if (entry.flag == EXACT) {
+                        return entry.value;
+                    } else if (entry.flag == LOWER_BOUND) {
+                        alpha = Math.max(alpha, entry.value);
+                    } else {
+                        beta = Math.min(beta, entry.value);
+                    }
+                    if (alpha >= beta) {
+                        return entry.value;
+                    }
+                }
+            }
+
+            int[] moves = moves(preferred);
+            if (moves.length == 0) {
+                return evaluate();
+            }
+            long alphaStart = alpha;
+            long betaStart = beta;
+            boolean maximizing = mover() == rootParticipant;
+            long best = maximizing ? -INFINITY : INFINITY;
+            int bestMove = moves[0];
+            for (int move : moves) {
+                take(move);
+                long value = minimax(depth - 1, alpha, beta);
+                undo();
+                if (maximizing ? value > best : value < best) {
+                    best = value;
+                    bestMove = move;
+                }
+                if (maximizing) {
+                    alpha = Math.max(alpha, best);
+                } else {
+                    beta = Math.min(beta, best);
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            byte flag = best <= alphaStart ? UPPER_BOUND : best >= betaStart ? LOWER_BOUND : EXACT;
+            table[index] = new TableEntry(hash, generation, depth, best, flag, bestMove);
+            return best;
+        }
+
+        // The damage the root participant deals minus the most damage any other participant deals
+        private long evaluate() {
+            long rootDamage = 0;
+            long otherDamage = Long.MIN_VALUE;
+            for (int p = 0; p < participantCount; p++) {
+                long damage = 0;
+                for (int q = 0; q < participantCount; q++) {
+                    if (q != p) {
+                        damage += Battle.calculateDamage(attack[p], defense[q]);
+                    }
+                }
+                if (p == rootParticipant) {
+                    rootDamage = damage;
+                } else {
+                    otherDamage = Math.max(otherDamage, damage);
+                }
+            }
+            return rootDamage - otherDamage;
+        }
+
+        private static boolean contains(int[][] perType, int item) {
+            for (int[] typeMoves : perType) {
+                for (int move : typeMoves) {
+                    if (move == item) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The transposition table of one picking thread. Only entries of the current generation,
+     * which is the current pick, are used.
+     */
+    private static final class Table {
+        private final TableEntry[] entries = new TableEntry[1 << TABLE_BITS];
+        private int generation;
+
+        private void nextGeneration() {
+            if (++generation == 0) {
+                // Entries from 2^32 picks ago would match again
+                Arrays.fill(entries, null);
+            }
+        }
+    }
+
+    /**
+     * A searched position in the transposition table. Entries are immutable, so threads can
+     * replace them in the shared table without locking; a lost update only costs a re-search.
+     */
+    private static final class TableEntry {
+        private final long key;
+        private final int generation;
+        private final int depth;
+        private final long value;
+        private final byte flag;
+        private final int bestMove;
+
+        private TableEntry(long key, int generation, int depth, long value, byte flag, int bestMove) {
+            this.key = key;
+            this.generation = generation;
+            this.depth = depth;
+            this.value = value;
+            this.flag = flag;
+            this.bestMove = bestMove;
+        }
+    }
+
+    /**
+     * Thrown to abandon a search when the time budget runs out.
+     */
+    private static final class TimeoutSignal extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private static final TimeoutSignal INSTANCE = new TimeoutSignal();
+
+        private TimeoutSignal() {
+            super(null, null, false, false);
+        }
+    }
+}
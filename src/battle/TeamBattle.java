@@ -0,0 +1,124 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TeamBattle class represents a battle between two teams of RPG characters that draft
+ * from one shared pool. Every character picks once per turn, in the {@link Battle.PickOrder}
+ * of the battle, and at the end the damage of each character is resolved against the other
+ * team as set by the {@link Battle.DamageMode}. The team that deals the most damage in total
+ * wins.
+ *
+ * The draft itself is a {@link Battle} with a team pick order, so a team battle has the same
+ * state hash, snapshots and rollback, and a greedy pick takes O(log n) however large the pool
+ * is. This class adds the view of the teams.
+ *
+ * A team battle and its characters must be used by one thread at a time.
+ */
+public class TeamBattle {
+
+    // battle runs the draft and resolves the damage between the teams.
+    private final Battle battle;
+
+    // firstTeamSize is the number of characters in the first team.
+    private final int firstTeamSize;
+
+    /**
+     * Constructs a team battle.
+     *
+     * @param firstTeam      The characters of the first team.
+     * @param secondTeam     The characters of the second team.
+     * @param availableItems The list of available items that characters can choose from during the battle.
+     * @param config         The pool size, turn count and number of participants of the battle; the
+     *                       participants are the characters of both teams.
+     * @param pickOrder      The order the characters pick in.
+     * @param damageMode     How the damage is resolved between the teams.
+     * @throws IllegalArgumentException if a team is empty, or if the number of items or participants
+     *                                  does not match the config.
+     */
+    public TeamBattle(List<RPGCharacter> firstTeam, List<RPGCharacter> secondTeam, List<Gear> availableItems,
+                      BattleConfig config, Battle.PickOrder pickOrder, Battle.DamageMode damageMode) {
+        if (firstTeam.isEmpty() || secondTeam.isEmpty()) {
+            throw new IllegalArgumentException("Participant Error: Every team needs at least 1 character");
+        }
+        List<RPGCharacter> participants = new ArrayList<>(firstTeam);
+        participants.addAll(secondTeam);
+        this.battle = new Battle(participants, availableItems, config, firstTeam.size(), pickOrder, damageMode);
+        this.firstTeamSize = firstTeam.size();
+    }
+
+    /**
+     * Starts the battle, where characters take turns choosing items for a specified number of turns.
+     * After the turns, the damage is resolved and the winning team determined. A battle that was
+     * rolled back goes on from the pick it was rolled back to.
+     *
+     * @return The result of the battle.
+     */
+    public TeamBattleResult startBattle() {
+        return battle.startTeamBattle();
+    }
+
+    /**
+     * Calculates the damage each participant inflicts on the other team, as set by the damage mode.
+     *
+     * @return The damage inflicted by each participant, first team first.
+     * @throws ArithmeticException if the damage of a participant does not fit in an int.
+     */
+    public int[] resolveDamage() {
+        return battle.resolveDamage();
+    }
+
+    /**
+     * Gets the draft of the team battle, for its state hash, snapshots and rollback.
+     *
+     * @return The battle that runs the draft.
+     */
+    public Battle getBattle() {
+        return battle;
+    }
+
+    /**
+     * Gets the participant that makes a pick.
+     *
+     * @param pick The 0-based number of the pick in the whole battle.
+     * @return The 0-based position of the participant, first team first.
+     */
+    public int getPicker(int pick) {
+        return battle.getPicker(pick);
+    }
+
+    /**
+     * Gets the team of a participant.
+     *
+     * @param participant The 0-based position of the participant, first team first.
+     * @return 1 for the first team or 2 for the second.
+     */
+    public int getTeam(int participant) {
+        return participant < firstTeamSize ? 1 : 2;
+    }
+
+    /**
+     * Sets the listener that receives the events of the battle. By default the battle is
+     * printed to the console; use {@link BattleListener#NONE} to run it silently.
+     *
+     * @param listener The listener of the battle.
+     */
+    public void setListener(BattleListener listener) {
+        battle.setListener(listener);
+    }
+
+    /**
+     * Sets how a participant picks its items. By default every participant uses
+     * {@link PickStrategy#GREEDY}.
+     *
+     * @param participant The 0-based position of the participant, first team first.
+     * @param strategy    The strategy of the participant.
+     */
+    public void setPickStrategy(int participant, PickStrategy strategy) {
+        battle.setPickStrategy(participant, strategy);
+    }
+}
@@ -0,0 +1,109 @@
+package battle;
+
+import character.RPGCharacter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The TeamBattleResult class holds the outcome of a {@link TeamBattle}: the characters of both
+ * teams, the damage each of them dealt, the total damage of each team, and the winning team.
+ */
+public class TeamBattleResult {
+
+    private final List<RPGCharacter> participants;
+    private final int firstTeamSize;
+    private final int[] damages;
+    private final long[] teamDamages = new long[2];
+    private final int winningTeam;
+
+    /**
+     * Constructs a team battle result.
+     *
+     * @param participants  The characters of the first team followed by those of the second.
+     * @param firstTeamSize The number of characters in the first team.
+     * @param damages       The damage each participant dealt, first team first.
+     */
+    public TeamBattleResult(List<RPGCharacter> participants, int firstTeamSize, int[] damages) {
+        this.participants = Collections.unmodifiableList(participants);
+        this.firstTeamSize = firstTeamSize;
+        this.damages = damages.clone();
+        for (int i = 0; i < damages.length; i++) {
+            teamDamages[i < firstTeamSize ? 0 : 1] += damages[i];
+        }
+        if (teamDamages[0] > teamDamages[1]) {
+            winningTeam = 1;
+        } else if (teamDamages[1] > teamDamages[0]) {
+            winningTeam = 2;
+        } else {
+            winningTeam = 0;
+        }
+    }
+
+    /**
+     * Gets the participants of the battle.
+     *
+     * @return A read-only list of the characters of the first team followed by those of the second.
+     */
+    public List<RPGCharacter> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the characters of a team.
+     *
+     * @param team 1 for the first team or 2 for the second.
+     * @return A read-only list of the characters of the team.
+     */
+    public List<RPGCharacter> getTeam(int team) {
+        return team == 1 ? participants.subList(0, firstTeamSize)
+                : participants.subList(firstTeamSize, participants.size());
+    }
+
+    /**
+     * Gets the damage dealt by a participant.
+     *
+     * @param participant The 0-based position of the participant, first team first.
+     * @return The damage dealt by the participant.
+     */
+    public int getDamage(int participant) {
+        return damages[participant];
+    }
+
+    /**
+     * Gets the damage dealt by every participant.
+     *
+     * @return A copy of the damages, first team first.
+     */
+    public int[] getDamages() {
+        return damages.clone();
+    }
+
+    /**
+     * Gets the total damage dealt by a team.
+     *
+     * @param team 1 for the first team or 2 for the second.
+     * @return The sum of the damage of the characters of the team.
+     */
+    public long getTeamDamage(int team) {
+        return teamDamages[team - 1];
+    }
+
+    /**
+     * Gets the winning team.
+     *
+     * @return 1 if the first team wins, 2 if the second wins, or 0 for a tie.
+     */
+    public int getWinningTeam() {
+        return winningTeam;
+    }
+
+    /**
+     * Checks if the battle ended in a tie.
+     *
+     * @return True for a tie, otherwise false.
+     */
+    public boolean isTie() {
+        return winningTeam == 0;
+    }
+}
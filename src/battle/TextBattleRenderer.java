@@ -0,0 +1,119 @@
+package battle;
+
+import character.RPGCharacter;
+import gear.Gear;
+
+import java.io.PrintStream;
+
+/**
+ * The TextBattleRenderer class prints a battle in the same text format the battle used to
+ * write to the console. Lines are collected in a buffer and written in blocks, so a long
+ * battle does not pay for a synchronized console write on every event.
+ */
+public class TextBattleRenderer implements BattleListener {
+
+    // The buffer is written out once it grows past this many characters
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final PrintStream out;
+
+    // Starts small and grows as text is written, so a renderer that never prints, like the default
+    // listener of a battle that is given another one, costs next to nothing
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Constructs a renderer that writes to the given stream.
+     *
+     * @param out The stream to write the battle to.
+     */
+    public TextBattleRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onTurnStart(int turn) {
+        buffer.append("Turn ").append(turn).append(":\n");
+    }
+
+    @Override
+    public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+        buffer.append(character.getName()).append(" is picking up ").append(gear.getClass().getSimpleName())
+                .append(": ").append(gear.getPrefix()).append(' ').append(gear.getName())
+                .append(" -- defense strength: ").append(gear.getDefenseStat())
+                .append(", attack strength: ").append(gear.getAttackStat()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onTurnEnd(int turn) {
+        buffer.append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onBattleEnd(BattleResult result) {
+        int count = result.getParticipants().size();
+        for (int i = 0; i < count; i++) {
+            RPGCharacter participant = result.getParticipants().get(i);
+            buffer.append("Player ").append(i + 1).append(" has ").append(participant.getTotalAttackStat())
+                    .append(" attack and ").append(participant.getTotalDefenseStat()).append(" defense.\n");
+        }
+
+        buffer.append("Battle ends with ");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                buffer.append(i == count - 1 ? " and " : ", ");
+            }
+            buffer.append(result.getParticipants().get(i).getName()).append(" having ")
+                    .append(result.getDamage(i)).append(" units of damage");
+        }
+        buffer.append(".\n");
+
+        if (result.isTie()) {
+            buffer.append("It's a tie!\n");
+        } else {
+            buffer.append(result.getWinnerCharacter().getName()).append(" wins!\n");
+        }
+        flush();
+    }
+
+    @Override
+    public void onTeamBattleEnd(TeamBattleResult result) {
+        for (int team = 1; team <= 2; team++) {
+            long attack = 0;
+            long defense = 0;
+            for (RPGCharacter member : result.getTeam(team)) {
+                attack += member.getTotalAttackStat();
+                defense += member.getTotalDefenseStat();
+            }
+            buffer.append("Team ").append(team).append(" has ").append(attack).append(" attack and ")
+                    .append(defense).append(" defense.\n");
+        }
+
+        buffer.append("Battle ends with Team 1 having ").append(result.getTeamDamage(1))
+                .append(" units of damage and Team 2 having ").append(result.getTeamDamage(2))
+                .append(" units of damage.\n");
+
+        if (result.isTie()) {
+            buffer.append("It's a tie!\n");
+        } else {
+            buffer.append("Team ").append(result.getWinningTeam()).append(" wins!\n");
+        }
+        flush();
+    }
+
+    /**
+     * Writes any buffered text to the stream.
+     */
+    public void flush() {
+        out.append(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+
+    private void flushIfFull() {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package battle.server;
+
+import battle.*;
+import character.RPGCharacter;
+import gear.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MatchRequest class describes one match for a {@link MatchServer}: either the characters
+ * and item pool to use, or a seed from which a random pool and fresh characters are generated.
+ * A request builds its battle only when the server runs it, so a seeded request is cheap to
+ * queue.
+ */
+public class MatchRequest {
+
+    private final BattleConfig config;
+    private final List<RPGCharacter> participants;
+    private final List<Gear> items;
+    private final long seed;
+    private final int baseAttackStat;
+    private final int baseDefenseStat;
+
+    /**
+     * Constructs a request for a match between the given characters over the given items.
+     * The characters must not be used elsewhere while the match runs.
+     *
+     * @param participants The characters in the match, in picking order.
+     * @param items        The pool of items to pick from.
+     * @param config       The configuration of the match.
+     */
+    public MatchRequest(List<RPGCharacter> participants, List<Gear> items, BattleConfig config) {
+        this.config = config;
+        this.participants = new ArrayList<>(participants);
+        this.items = new ArrayList<>(items);
+        this.seed = 0;
+        this.baseAttackStat = 0;
+        this.baseDefenseStat = 0;
+    }
+
+    /**
+     * Constructs a request for a match on a random pool generated from a seed.
+     *
+     * @param config          The configuration of the match.
+     * @param seed            The seed of the random pool.
+     * @param baseAttackStat  The base attack stat of every character.
+     * @param baseDefenseStat The base defense stat of every character.
+     */
+    public MatchRequest(BattleConfig config, long seed, int baseAttackStat, int baseDefenseStat) {
+        this.config = config;
+        this.participants = null;
+        this.items = null;
+        this.seed = seed;
+        this.baseAttackStat = baseAttackStat;
+        this.baseDefenseStat = baseDefenseStat;
+    }
+
+    /**
+     * Gets the configuration of the match.
+     *
+     * @return The match configuration.
+     */
+    public BattleConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Checks whether the pool of the match is generated from a seed.
+     *
+     * @return True for a seeded request, false if the characters and items were given.
+     */
+    public boolean isSeeded() {
+        return items == null;
+    }
+
+    /**
+     * Creates the battle for this request.
+     *
+     * @param cache The cache that seeded pools take their frozen items from.
+     * @return A new battle that is ready to start.
+     */
+    Battle createBattle(GearCache cache) {
+        if (!isSeeded()) {
+            return new Battle(participants, items, config);
+        }
+        List<RPGCharacter> characters = new ArrayList<>(config.getParticipants());
+        for (int i = 0; i < config.getParticipants(); i++) {
+            characters.add(config.createCharacter("Player " + (i + 1), baseAttackStat, baseDefenseStat));
+        }
+        return new Battle(characters, new PoolGenerator(seed, cache).generate(0, config.getPoolSize()), config);
+    }
+}
@@ -0,0 +1,291 @@
+package battle.server;
+
+import battle.*;
+import character.RPGCharacter;
+import gear.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MatchServer class hosts many battles at once inside one JVM. Each accepted
+ * {@link MatchRequest} runs on its own task and its result is delivered through a
+ * {@link CompletableFuture}.
+ *
+ * The server bounds the number of matches in flight, queued or running. When the bound is
+ * reached, {@link #submit(MatchRequest)} rejects the request at once, while
+ * {@link #submit(MatchRequest, long, TimeUnit)} makes the caller wait for room, so clients
+ * feel backpressure instead of the server running out of memory. Every match has a deadline,
+ * counted from submission; a battle that passes it stops at its next pick and its future fails
+ * with a {@link TimeoutException}.
+ *
+ * On a JVM with virtual threads every match gets a virtual thread. Otherwise the matches share
+ * a pool with one platform thread per core, which suits battles since they never block.
+ */
+public class MatchServer implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore admission;
+    private final int maxInFlight;
+    private final long timeoutNanos;
+
+    // Seeded matches share frozen gear
+    private final GearCache gearCache = new GearCache();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a server on virtual threads, or on a platform thread pool if virtual threads
+     * are not available.
+     *
+     * @param maxInFlight   The maximum number of matches queued or running at the same time.
+     * @param timeoutMillis The time each match has to finish, from submission.
+     */
+    public MatchServer(int maxInFlight, long timeoutMillis) {
+        this(maxInFlight, timeoutMillis, null);
+    }
+
+    /**
+     * Constructs a server that runs its matches on the given executor.
+     *
+     * @param maxInFlight   The maximum number of matches queued or running at the same time.
+     * @param timeoutMillis The time each match has to finish, from submission.
+     * @param executor      The executor that runs the matches, or null for the default one.
+     *                      The server shuts it down when it is closed.
+     * @throws IllegalArgumentException if the limit or the timeout is not positive.
+     */
+    public MatchServer(int maxInFlight, long timeoutMillis, ExecutorService executor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Server Error: At least one match must be allowed in flight");
+        }
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Server Error: The match timeout must be positive");
+        }
+        ExecutorService virtualExecutor = executor == null ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtualExecutor != null;
+        if (executor == null) {
+            executor = virtualExecutor != null ? virtualExecutor : newPlatformThreadExecutor();
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.admission = new Semaphore(maxInFlight);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Submits a match if the server has room for it.
+     *
+     * @param request The match to run.
+     * @return The result of the match; it fails with a {@link RejectedExecutionException} if the
+     *         server is full or closed, or with a {@link TimeoutException} if the match is too slow.
+     */
+    public CompletableFuture<BattleResult> submit(MatchRequest request) {
+        if (closed || !admission.tryAcquire()) {
+            return reject();
+        }
+        return start(request);
+    }
+
+    /**
+     * Submits a match, waiting for room if the server is full.
+     *
+     * @param request The match to run.
+     * @param wait    The longest time to wait for room.
+     * @param unit    The unit of the wait.
+     * @return The result of the match; it fails with a {@link RejectedExecutionException} if
+     *         there was no room in time or the server is closed, or with a
+     *         {@link TimeoutException} if the match is too slow.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public CompletableFuture<BattleResult> submit(MatchRequest request, long wait, TimeUnit unit)
+            throws InterruptedException {
+        if (closed || !admission.tryAcquire(wait, unit)) {
+            return reject();
+        }
+        return start(request);
+    }
+
+    /**
+     * Checks whether the matches run on virtual threads.
+     *
+     * @return True if every match gets a virtual thread.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Gets the number of matches that are queued or running.
+     *
+     * @return The number of matches in flight.
+     */
+    public int getInFlight() {
+        return maxInFlight - admission.availablePermits();
+    }
+
+    /**
+     * Gets the number of matches that finished with a result.
+     *
+     * @return The number of completed matches.
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Gets the number of matches that were turned away because the server was full or closed.
+     *
+     * @return The number of rejected matches.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of matches that did not finish before their deadline.
+     *
+     * @return The number of timed out matches.
+     */
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Gets the number of matches that failed with an error, such as an invalid request.
+     *
+     * @return The number of failed matches.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops accepting matches and waits for the accepted ones to finish or time out. If the thread
+     * is interrupted while waiting, the matches still running are cancelled and the thread keeps
+     * its interrupt status.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutNanos + TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<BattleResult> start(MatchRequest request) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        CompletableFuture<BattleResult> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(request, deadline, result));
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            return reject();
+        }
+        // Callers get their timeout even while the match is still waiting for a thread
+        result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+        result.whenComplete((battleResult, error) -> {
+            if (error == null) {
+                completed.increment();
+            } else if (error instanceof TimeoutException) {
+                timedOut.increment();
+            } else {
+                failed.increment();
+            }
+        });
+        return result;
+    }
+
+    private void run(MatchRequest request, long deadline, CompletableFuture<BattleResult> result) {
+        try {
+            if (result.isDone()) {
+                return;
+            }
+            Battle battle = request.createBattle(gearCache);
+            battle.setListener(new DeadlineListener(deadline));
+            result.complete(battle.startBattle());
+        } catch (DeadlineExceededException e) {
+            result.completeExceptionally(new TimeoutException("Match Error: The match did not finish within "
+                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms"));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private CompletableFuture<BattleResult> reject() {
+        rejected.increment();
+        CompletableFuture<BattleResult> result = new CompletableFuture<>();
+        result.completeExceptionally(new RejectedExecutionException(closed
+                ? "Server Error: The server is closed"
+                : "Server Error: Too many matches in flight, the limit is " + maxInFlight));
+        return result;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21 on
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "match-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops a battle at its next pick once the match deadline has passed or its thread has
+     * been interrupted.
+     */
+    private static final class DeadlineListener implements BattleListener {
+        private final long deadline;
+
+        private DeadlineListener(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+            if (System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted()) {
+                throw new DeadlineExceededException();
+            }
+        }
+    }
+
+    /**
+     * Thrown from inside a battle to abandon it.
+     */
+    private static final class DeadlineExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private DeadlineExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
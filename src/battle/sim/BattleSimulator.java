@@ -0,0 +1,246 @@
+package battle.sim;
+
+import battle.*;
+import character.*;
+import gear.*;
+import metrics.Metrics;
+import metrics.MetricsReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BattleSimulator class runs many randomized battles in parallel and aggregates their
+ * outcome into {@link SimulationStats}. Each battle gets a freshly generated item pool, built
+ * from frozen gear in a {@link GearCache} so that identical items in different pools, and on
+ * different threads, are the same instance.
+ *
+ * The range of battles is split recursively on a fork-join pool. Battle number i fights over
+ * pool number i of a {@link PoolGenerator}, which depends only on the seed and i, so each
+ * battle is the same no matter which thread runs it and the same seed always gives the same
+ * stats.
+ *
+ * A result cache can be turned on with {@link #enableResultCache(int)}. Battles are then keyed
+ * by their starting {@link Battle#getStateHash() state hash}, and a battle whose items and
+ * characters play the same as an earlier one is recorded from the stored outcome instead of
+ * being fought again.
+ */
+public class BattleSimulator {
+
+    // Ranges of at most this many battles are run on one thread
+    private static final int BATCH_SIZE = 256;
+
+    private final BattleConfig config;
+    private final int baseAttackStat;
+    private final int baseDefenseStat;
+    private final ForkJoinPool pool;
+    private final GearCache gearCache = new GearCache();
+    private volatile DraftCache<Outcome> resultCache;
+
+    /**
+     * Constructs a simulator that uses all available cores.
+     *
+     * @param config          The configuration of every simulated battle.
+     * @param baseAttackStat  The base attack stat of every character.
+     * @param baseDefenseStat The base defense stat of every character.
+     */
+    public BattleSimulator(BattleConfig config, int baseAttackStat, int baseDefenseStat) {
+        this(config, baseAttackStat, baseDefenseStat, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a simulator that runs on the given fork-join pool.
+     *
+     * @param config          The configuration of every simulated battle.
+     * @param baseAttackStat  The base attack stat of every character.
+     * @param baseDefenseStat The base defense stat of every character.
+     * @param pool            The pool that runs the battles.
+     */
+    public BattleSimulator(BattleConfig config, int baseAttackStat, int baseDefenseStat, ForkJoinPool pool) {
+        this.config = config;
+        this.baseAttackStat = baseAttackStat;
+        this.baseDefenseStat = baseDefenseStat;
+        this.pool = pool;
+    }
+
+    /**
+     * Turns on the result cache, replacing any earlier one. Must not be called while a
+     * simulation is running.
+     *
+     * @param capacity The most battle outcomes kept.
+     * @return The cache, for its hit rate and memory metrics.
+     */
+    public DraftCache<?> enableResultCache(int capacity) {
+        DraftCache<Outcome> cache = new DraftCache<>(capacity, 4 * pool.getParallelism(), Outcome::estimateBytes);
+        resultCache = cache;
+        return cache;
+    }
+
+    /**
+     * Gets the result cache.
+     *
+     * @return The cache, or null if it is turned off.
+     */
+    public DraftCache<?> getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Runs a number of randomized battles and aggregates their outcome.
+     *
+     * @param battles The number of battles to run.
+     * @param seed    The seed of the random item pools.
+     * @return The aggregated stats of all battles.
+     */
+    public SimulationStats run(long battles, long seed) {
+        if (battles < 0) {
+            throw new IllegalArgumentException("Number of battles must be non-negative.");
+        }
+        return pool.invoke(new BatchTask(0, battles, new PoolGenerator(seed, gearCache)));
+    }
+
+    /**
+     * Runs a single battle on a random pool and records it.
+     *
+     * @param items The item pool of the battle.
+     * @param stats The stats to record the battle in.
+     */
+    private void runBattle(List<Gear> items, SimulationStats stats) {
+        List<RPGCharacter> participants = new ArrayList<>(config.getParticipants());
+        for (int i = 0; i < config.getParticipants(); i++) {
+            participants.add(config.createCharacter("Player " + (i + 1), baseAttackStat, baseDefenseStat));
+        }
+        Battle battle = new Battle(participants, items, config);
+        DraftCache<Outcome> cache = resultCache;
+        if (cache == null) {
+            battle.setListener(new BattleListener() {
+                @Override
+                public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+                    stats.recordPick(participant, GearType.of(gear));
+                }
+            });
+            BattleResult result = battle.startBattle();
+            stats.recordBattle(result.getDamages(), result.getWinner());
+            return;
+        }
+        cache.computeIfAbsent(battle.getStateHash(), key -> fight(battle)).replay(stats);
+    }
+
+    /**
+     * Fights a battle and keeps what the stats need from it.
+     *
+     * @param battle The battle to fight.
+     * @return The outcome of the battle.
+     */
+    private static Outcome fight(Battle battle) {
+        List<GearType> types = new ArrayList<>();
+        List<Integer> pickers = new ArrayList<>();
+        battle.setListener(new BattleListener() {
+            @Override
+            public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+                pickers.add(participant);
+                types.add(GearType.of(gear));
+            }
+        });
+        BattleResult result = battle.startBattle();
+        byte[] participants = new byte[pickers.size()];
+        for (int i = 0; i < participants.length; i++) {
+            participants[i] = pickers.get(i).byteValue();
+        }
+        return new Outcome(result.getDamages(), result.getWinner(), participants, types.toArray(new GearType[0]));
+    }
+
+
+    /**
+     * The stored outcome of a battle: the damage and winner, and who picked which type of item
+     * in order, so the battle can be recorded again without being fought.
+     */
+    private static final class Outcome {
+        private final int[] damages;
+        private final int winner;
+        private final byte[] pickParticipants;
+        private final GearType[] pickTypes;
+
+        private Outcome(int[] damages, int winner, byte[] pickParticipants, GearType[] pickTypes) {
+            this.damages = damages;
+            this.winner = winner;
+            this.pickParticipants = pickParticipants;
+            this.pickTypes = pickTypes;
+        }
+
+        private void replay(SimulationStats stats) {
+            for (int i = 0; i < pickTypes.length; i++) {
+                stats.recordPick(pickParticipants[i], pickTypes[i]);
+            }
+            stats.recordBattle(damages, winner);
+        }
+
+        private long estimateBytes() {
+            // The object and its three arrays, each with a 16-byte header
+            return 32 + 16 + 4L * damages.length + 16 + pickParticipants.length + 16 + 4L * pickTypes.length;
+        }
+    }
+
+    /**
+     * Runs the battles in a range, splitting it in half until it is small enough.
+     */
+    private final class BatchTask extends RecursiveTask<SimulationStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final PoolGenerator generator;
+
+        private BatchTask(long from, long to, PoolGenerator generator) {
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= BATCH_SIZE) {
+                SimulationStats stats = new SimulationStats(config.getParticipants());
+                for (long i = from; i < to; i++) {
+                    runBattle(generator.generate(i, config.getPoolSize()), stats);
+                }
+                return stats;
+            }
+            long middle = (from + to) >>> 1;
+            BatchTask left = new BatchTask(from, middle, generator);
+            BatchTask right = new BatchTask(middle, to, generator);
+            left.fork();
+            SimulationStats stats = right.compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    /**
+     * Runs a simulation from the command line and prints the stats. With
+     * {@code -Drpg.metrics=true} the metrics are also registered in JMX, reported every ten
+     * seconds while the simulation runs, and once more at the end.
+     *
+     * @param args The number of battles and the seed, both optional.
+     */
+    public static void main(String[] args) {
+        long battles = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 5004;
+        MetricsReporter reporter = new MetricsReporter(System.out, MetricsReporter.Format.TEXT);
+        if (Metrics.isEnabled()) {
+            Metrics.registerMBean();
+            reporter.start(10, TimeUnit.SECONDS);
+        }
+        long start = System.nanoTime();
+        SimulationStats stats = new BattleSimulator(BattleConfig.standard(), 2, 2).run(battles, seed);
+        System.out.print(stats);
+        System.out.printf("Took %.1f s%n", (System.nanoTime() - start) / 1e9);
+        if (Metrics.isEnabled()) {
+            reporter.close();
+            reporter.report();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package battle.sim;
+
+import gear.GearType;
+
+import java.util.Arrays;
+
+/**
+ * The SimulationStats class aggregates the outcome of many simulated battles: win and tie
+ * counts, a histogram of the damage every participant dealt, and how many items of each gear
+ * type each participant picked. Stats are merged rather than stored per battle, so memory use
+ * does not grow with the number of battles.
+ */
+public class SimulationStats {
+
+    // Damage values at or above this go into the last bucket of the histogram
+    public static final int HISTOGRAM_SIZE = 256;
+
+    private final long[] wins;
+    private long ties;
+    private long battles;
+    private final long[] damageHistogram = new long[HISTOGRAM_SIZE + 1];
+    private long damageTotal;
+    private final long[][] picksByType;
+
+    /**
+     * Constructs empty stats for battles with the given number of participants.
+     *
+     * @param participants The number of characters in each battle.
+     */
+    public SimulationStats(int participants) {
+        this.wins = new long[participants];
+        this.picksByType = new long[participants][GearType.values().length];
+    }
+
+    /**
+     * Records the outcome of one battle.
+     *
+     * @param damages The damage each participant dealt.
+     * @param winner  The 1-based position of the winner, or 0 for a tie.
+     */
+    void recordBattle(int[] damages, int winner) {
+        battles++;
+        if (winner == 0) {
+            ties++;
+        } else {
+            wins[winner - 1]++;
+        }
+        for (int damage : damages) {
+            damageHistogram[Math.min(damage, HISTOGRAM_SIZE)]++;
+            damageTotal += damage;
+        }
+    }
+
+    /**
+     * Records a picked item.
+     *
+     * @param participant The 0-based position of the participant who picked the item.
+     * @param type        The gear type of the item.
+     */
+    void recordPick(int participant, GearType type) {
+        picksByType[participant][type.ordinal()]++;
+    }
+
+    /**
+     * Adds the counts of other stats to these stats.
+     *
+     * @param other The stats to add.
+     */
+    void merge(SimulationStats other) {
+        battles += other.battles;
+        ties += other.ties;
+        damageTotal += other.damageTotal;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        for (int i = 0; i < damageHistogram.length; i++) {
+            damageHistogram[i] += other.damageHistogram[i];
+        }
+        for (int i = 0; i < picksByType.length; i++) {
+            for (int j = 0; j < picksByType[i].length; j++) {
+                picksByType[i][j] += other.picksByType[i][j];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of simulated battles.
+     *
+     * @return The number of battles.
+     */
+    public long getBattles() {
+        return battles;
+    }
+
+    /**
+     * Gets the number of battles won by a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The number of wins.
+     */
+    public long getWins(int participant) {
+        return wins[participant];
+    }
+
+    /**
+     * Gets the number of battles that ended in a tie.
+     *
+     * @return The number of ties.
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Gets the share of battles won by a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @return The win rate between 0 and 1.
+     */
+    public double getWinRate(int participant) {
+        return battles == 0 ? 0 : (double) wins[participant] / battles;
+    }
+
+    /**
+     * Gets the share of battles that ended in a tie.
+     *
+     * @return The tie rate between 0 and 1.
+     */
+    public double getTieRate() {
+        return battles == 0 ? 0 : (double) ties / battles;
+    }
+
+    /**
+     * Gets the mean damage dealt by a participant in a battle.
+     *
+     * @return The mean damage.
+     */
+    public double getMeanDamage() {
+        long samples = battles * wins.length;
+        return samples == 0 ? 0 : (double) damageTotal / samples;
+    }
+
+    /**
+     * Gets how often participants dealt each amount of damage. The last bucket counts every
+     * damage of {@link #HISTOGRAM_SIZE} or more.
+     *
+     * @return A copy of the damage histogram.
+     */
+    public long[] getDamageHistogram() {
+        return damageHistogram.clone();
+    }
+
+    /**
+     * Gets the number of picked items of a gear type.
+     *
+     * @param type The gear type.
+     * @return The number of picks by all participants.
+     */
+    public long getPicks(GearType type) {
+        long picks = 0;
+        for (int i = 0; i < picksByType.length; i++) {
+            picks += getPicks(i, type);
+        }
+        return picks;
+    }
+
+    /**
+     * Gets the number of items of a gear type picked by a participant.
+     *
+     * @param participant The 0-based position of the participant.
+     * @param type        The gear type.
+     * @return The number of picks by that participant.
+     */
+    public long getPicks(int participant, GearType type) {
+        return picksByType[participant][type.ordinal()];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SimulationStats)) {
+            return false;
+        }
+        SimulationStats stats = (SimulationStats) other;
+        return battles == stats.battles && ties == stats.ties && damageTotal == stats.damageTotal
+                && Arrays.equals(wins, stats.wins) && Arrays.equals(damageHistogram, stats.damageHistogram)
+                && Arrays.deepEquals(picksByType, stats.picksByType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(battles) * 31 + Arrays.hashCode(wins);
+    }
+
+    /**
+     * Returns a summary of the win rates, damage and picks.
+     *
+     * @return A string summary of the stats.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("Battles: ").append(battles).append('\n');
+        for (int i = 0; i < wins.length; i++) {
+            result.append(String.format("Player %d wins: %.4f%n", i + 1, getWinRate(i)));
+        }
+        result.append(String.format("Ties: %.4f%n", getTieRate()));
+        result.append(String.format("Mean damage: %.2f%n", getMeanDamage()));
+        for (int i = 0; i < wins.length; i++) {
+            result.append("Player ").append(i + 1).append(" picks:");
+            for (GearType type : GearType.values()) {
+                result.append(' ').append(type).append('=').append(getPicks(i, type));
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package battle.tournament;
+
+import battle.BattleConfig;
+import battle.PickStrategy;
+import character.RPGCharacter;
+
+/**
+ * The Entrant class describes a player in a {@link Tournament}: a name, the base stats of its
+ * character and the strategy it picks items with. Every match starts the entrant with a fresh
+ * character, so nothing carries over between matches.
+ *
+ * Matches run in parallel, so an entrant's strategy may be used by several matches at the same
+ * time and must be safe to share between threads.
+ */
+public class Entrant {
+
+    private final String name;
+    private final int baseAttackStat;
+    private final int baseDefenseStat;
+    private final PickStrategy strategy;
+
+    /**
+     * Constructs an entrant that picks greedily.
+     *
+     * @param name            The name of the entrant.
+     * @param baseAttackStat  The base attack stat of its character.
+     * @param baseDefenseStat The base defense stat of its character.
+     */
+    public Entrant(String name, int baseAttackStat, int baseDefenseStat) {
+        this(name, baseAttackStat, baseDefenseStat, PickStrategy.GREEDY);
+    }
+
+    /**
+     * Constructs an entrant.
+     *
+     * @param name            The name of the entrant.
+     * @param baseAttackStat  The base attack stat of its character.
+     * @param baseDefenseStat The base defense stat of its character.
+     * @param strategy        The strategy the entrant picks items with.
+     */
+    public Entrant(String name, int baseAttackStat, int baseDefenseStat, PickStrategy strategy) {
+        this.name = name;
+        this.baseAttackStat = baseAttackStat;
+        this.baseDefenseStat = baseDefenseStat;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the name of the entrant.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the base attack stat of the entrant's character.
+     *
+     * @return The base attack stat.
+     */
+    public int getBaseAttackStat() {
+        return baseAttackStat;
+    }
+
+    /**
+     * Gets the base defense stat of the entrant's character.
+     *
+     * @return The base defense stat.
+     */
+    public int getBaseDefenseStat() {
+        return baseDefenseStat;
+    }
+
+    /**
+     * Gets the strategy the entrant picks items with.
+     *
+     * @return The pick strategy.
+     */
+    public PickStrategy getPickStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Creates a fresh character for a match.
+     *
+     * @param config The configuration of the match, which gives the slot counts.
+     * @return A new character with no gear.
+     */
+    public RPGCharacter createCharacter(BattleConfig config) {
+        return config.createCharacter(name, baseAttackStat, baseDefenseStat);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,153 @@
+package battle.tournament;
+
+import java.util.Arrays;
+
+/**
+ * The Ratings class keeps two skill ratings for every entrant of a tournament, both starting
+ * at {@value #INITIAL_RATING}:
+ *
+ * - Elo, updated right after every match by the difference between the actual and the
+ *   expected score, scaled by a K factor.
+ * - Glicko, which also tracks how uncertain each rating is as a rating deviation. Matches are
+ *   collected over a rating period, normally one round, and applied together when the period
+ *   ends; an entrant with a high deviation moves faster, and the deviation shrinks as it plays
+ *   and grows again between periods.
+ *
+ * Results must be recorded from one thread.
+ */
+public class Ratings {
+
+    public static final double INITIAL_RATING = 1500;
+    public static final double INITIAL_DEVIATION = 350;
+
+    private static final double DEFAULT_K_FACTOR = 24;
+    private static final double DEFAULT_DEVIATION_GROWTH = 30;
+
+    // Glicko's q = ln(10) / 400
+    private static final double Q = Math.log(10) / 400;
+
+    private final double kFactor;
+    private final double deviationGrowth;
+    private final double[] elo;
+    private final double[] glicko;
+    private final double[] deviation;
+
+    // Sums over the matches of the current rating period
+    private final double[] informationSums;
+    private final double[] surpriseSums;
+
+    /**
+     * Constructs ratings with a K factor of 24 and a deviation growth of 30 per period.
+     *
+     * @param count The number of entrants.
+     */
+    public Ratings(int count) {
+        this(count, DEFAULT_K_FACTOR, DEFAULT_DEVIATION_GROWTH);
+    }
+
+    /**
+     * Constructs ratings.
+     *
+     * @param count           The number of entrants.
+     * @param kFactor         The most an Elo rating moves in one match.
+     * @param deviationGrowth How much a Glicko rating deviation grows between periods.
+     */
+    public Ratings(int count, double kFactor, double deviationGrowth) {
+        this.kFactor = kFactor;
+        this.deviationGrowth = deviationGrowth;
+        elo = new double[count];
+        glicko = new double[count];
+        deviation = new double[count];
+        informationSums = new double[count];
+        surpriseSums = new double[count];
+        Arrays.fill(elo, INITIAL_RATING);
+        Arrays.fill(glicko, INITIAL_RATING);
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+    }
+
+    /**
+     * Records the result of a match. The Elo ratings change at once; the Glicko ratings change
+     * when the period ends.
+     *
+     * @param first  The index of the first entrant.
+     * @param second The index of the second entrant.
+     * @param score  The score of the first entrant: 1 for a win, 0.5 for a draw and 0 for a loss.
+     */
+    public void record(int first, int second, double score) {
+        double expected = getExpectedScore(first, second);
+        double change = kFactor * (score - expected);
+        elo[first] += change;
+        elo[second] -= change;
+
+        collect(first, second, score);
+        collect(second, first, 1 - score);
+    }
+
+    /**
+     * Ends the rating period: applies the collected matches to the Glicko ratings and lets
+     * every deviation grow for the next period.
+     */
+    public void endPeriod() {
+        for (int i = 0; i < glicko.length; i++) {
+            if (informationSums[i] > 0) {
+                double precision = 1 / (deviation[i] * deviation[i]) + Q * Q * informationSums[i];
+                glicko[i] += Q / precision * surpriseSums[i];
+                deviation[i] = Math.sqrt(1 / precision);
+                informationSums[i] = 0;
+                surpriseSums[i] = 0;
+            }
+            deviation[i] = Math.min(Math.sqrt(deviation[i] * deviation[i] + deviationGrowth * deviationGrowth),
+                    INITIAL_DEVIATION);
+        }
+    }
+
+    /**
+     * Gets the score the first entrant is expected to get against the second, from their Elo
+     * ratings.
+     *
+     * @param first  The index of the first entrant.
+     * @param second The index of the second entrant.
+     * @return The expected score between 0 and 1.
+     */
+    public double getExpectedScore(int first, int second) {
+        return 1 / (1 + Math.pow(10, (elo[second] - elo[first]) / 400));
+    }
+
+    /**
+     * Gets the Elo rating of an entrant.
+     *
+     * @param entrant The index of the entrant.
+     * @return The Elo rating.
+     */
+    public double getElo(int entrant) {
+        return elo[entrant];
+    }
+
+    /**
+     * Gets the Glicko rating of an entrant, as of the end of the last period.
+     *
+     * @param entrant The index of the entrant.
+     * @return The Glicko rating.
+     */
+    public double getGlicko(int entrant) {
+        return glicko[entrant];
+    }
+
+    /**
+     * Gets the Glicko rating deviation of an entrant, as of the end of the last period.
+     *
+     * @param entrant The index of the entrant.
+     * @return The rating deviation.
+     */
+    public double getDeviation(int entrant) {
+        return deviation[entrant];
+    }
+
+    // Adds one match to the player's sums, against the opponent's rating at the start of the period
+    private void collect(int player, int opponent, double score) {
+        double weight = 1 / Math.sqrt(1 + 3 * Q * Q * deviation[opponent] * deviation[opponent] / (Math.PI * Math.PI));
+        double expected = 1 / (1 + Math.pow(10, -weight * (glicko[player] - glicko[opponent]) / 400));
+        informationSums[player] += weight * weight * expected * (1 - expected);
+        surpriseSums[player] += weight * (score - expected);
+    }
+}
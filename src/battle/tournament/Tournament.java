@@ -0,0 +1,406 @@
+package battle.tournament;
+
+import battle.Battle;
+import battle.BattleConfig;
+import battle.BattleListener;
+import battle.BattleResult;
+import character.RPGCharacter;
+import gear.GearCache;
+import gear.PoolGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The Tournament class plays many one-on-one battles between a fixed list of entrants and
+ * keeps their scores and {@link Ratings}. Three formats can be run, and run one after another
+ * on the same tournament to add up:
+ *
+ * - Round-robin: everyone plays everyone once, in rounds built with the circle method.
+ * - Swiss: a number of rounds where entrants with similar scores are paired, avoiding rematches.
+ * - Elimination: single-elimination brackets seeded by rating, until one entrant is left.
+ *
+ * Every match is a full draft over a fresh pool from a {@link PoolGenerator}, where match
+ * number i always gets pool number i, so the same seed replays the same tournament. The winner
+ * is the entrant that deals more damage, as in {@link Battle}; if the damage is equal,
+ * {@link RPGCharacter#compareTo} decides by how far each attack fell short, and only if that is
+ * equal too the match is a draw. A win is worth 1 point and a draw half a point.
+ *
+ * The matches of a round are independent, so they are split into batches and run in parallel
+ * on an executor. Results are then applied in match order on the calling thread, so ratings do
+ * not depend on which batch finished first. An entrant without an opponent in a round gets a
+ * bye, which counts as a win but does not change its ratings.
+ */
+public class Tournament {
+
+    // Matches per task submitted to the executor
+    private static final int BATCH_SIZE = 64;
+
+    // Outcomes of a match for the first entrant
+    private static final byte LOSS = 0;
+    private static final byte DRAW = 1;
+    private static final byte WIN = 2;
+
+    private final List<Entrant> entrants;
+    private final BattleConfig config;
+    private final PoolGenerator generator;
+    private final Ratings ratings;
+
+    // Points are kept in halves so draws stay exact
+    private final int[] halfPoints;
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] losses;
+    private final boolean[] hadBye;
+    private final Set<Long> playedPairs = new HashSet<>();
+    private long matchCount;
+    // The number of the next match slot, which also numbers its pool; byes use a slot too
+    private long nextMatch;
+
+    /**
+     * Constructs a tournament.
+     *
+     * @param entrants The entrants, at least two.
+     * @param config   The configuration of every match, which must have two participants.
+     * @param seed     The seed of the match pools.
+     * @throws IllegalArgumentException if there are fewer than two entrants or the config is not for two participants.
+     */
+    public Tournament(List<Entrant> entrants, BattleConfig config, long seed) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("Tournament Error: A tournament needs at least 2 entrants");
+        }
+        if (config.getParticipants() != 2) {
+            throw new IllegalArgumentException("Tournament Error: Matches must have 2 participants, not "
+                    + config.getParticipants());
+        }
+        this.entrants = Collections.unmodifiableList(new ArrayList<>(entrants));
+        this.config = config;
+        this.generator = new PoolGenerator(seed, new GearCache());
+        this.ratings = new Ratings(entrants.size());
+        int count = entrants.size();
+        halfPoints = new int[count];
+        wins = new int[count];
+        draws = new int[count];
+        losses = new int[count];
+        hadBye = new boolean[count];
+    }
+
+    /**
+     * Plays a round-robin: every entrant plays every other entrant once. Each round is one
+     * Glicko rating period.
+     *
+     * @param executor The executor that runs the matches.
+     * @throws InterruptedException if interrupted while waiting for the matches.
+     */
+    public void runRoundRobin(ExecutorService executor) throws InterruptedException {
+        // Circle method: entrant 0 stays in place and the others rotate, with -1 as the bye
+        int count = entrants.size();
+        int[] circle = new int[count + count % 2];
+        for (int i = 0; i < circle.length; i++) {
+            circle[i] = i < count ? i : -1;
+        }
+        int half = circle.length / 2;
+        for (int round = 0; round < circle.length - 1; round++) {
+            int[] firsts = new int[half];
+            int[] seconds = new int[half];
+            for (int i = 0; i < half; i++) {
+                // Alternate sides so nobody always picks first
+                boolean swap = (round + i) % 2 == 1;
+                firsts[i] = circle[swap ? circle.length - 1 - i : i];
+                seconds[i] = circle[swap ? i : circle.length - 1 - i];
+            }
+            playRound(firsts, seconds, executor);
+            int last = circle[circle.length - 1];
+            System.arraycopy(circle, 1, circle, 2, circle.length - 2);
+            circle[1] = last;
+        }
+    }
+
+    /**
+     * Plays Swiss rounds. Before every round the entrants are ranked by points and then
+     * rating, and each entrant is paired with the next one below it that it has not played
+     * yet. With an odd number of entrants, the lowest-ranked entrant that has not had a bye
+     * gets one. Each round is one Glicko rating period.
+     *
+     * @param rounds   The number of rounds.
+     * @param executor The executor that runs the matches.
+     * @throws InterruptedException if interrupted while waiting for the matches.
+     */
+    public void runSwiss(int rounds, ExecutorService executor) throws InterruptedException {
+        for (int round = 0; round < rounds; round++) {
+            int[] ranking = getRanking();
+            boolean[] paired = new boolean[ranking.length];
+            if (ranking.length % 2 == 1) {
+                int bye = ranking.length - 1;
+                while (bye > 0 && hadBye[ranking[bye]]) {
+                    bye--;
+                }
+                paired[bye] = true;
+                giveBye(ranking[bye]);
+            }
+
+            int[] firsts = new int[ranking.length / 2];
+            int[] seconds = new int[ranking.length / 2];
+            int matches = 0;
+            for (int i = 0; i < ranking.length; i++) {
+                if (paired[i]) {
+                    continue;
+                }
+                int opponent = -1;
+                for (int j = i + 1; j < ranking.length; j++) {
+                    if (!paired[j] && (opponent < 0 || !hasPlayed(ranking[i], ranking[j]))) {
+                        opponent = j;
+                        if (!hasPlayed(ranking[i], ranking[j])) {
+                            break;
+                        }
+                    }
+                }
+                paired[i] = true;
+                paired[opponent] = true;
+                firsts[matches] = ranking[i];
+                seconds[matches] = ranking[opponent];
+                matches++;
+            }
+            playRound(firsts, seconds, executor);
+        }
+    }
+
+    /**
+     * Plays a single-elimination bracket among all entrants. In every round the remaining
+     * entrants are seeded by rating and the best plays the worst, the second best the second
+     * worst, and so on; the best seed gets a bye when the number is odd. The winner of a match
+     * goes on, and a draw sends the better seed on. Each round is one Glicko rating period.
+     *
+     * @param executor The executor that runs the matches.
+     * @return The index of the champion.
+     * @throws InterruptedException if interrupted while waiting for the matches.
+     */
+    public int runElimination(ExecutorService executor) throws InterruptedException {
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            remaining.add(i);
+        }
+        while (remaining.size() > 1) {
+            remaining.sort((a, b) -> compareRank(a, b));
+            List<Integer> next = new ArrayList<>();
+            int low = 0;
+            int high = remaining.size() - 1;
+            if (remaining.size() % 2 == 1) {
+                giveBye(remaining.get(0));
+                next.add(remaining.get(0));
+                low++;
+            }
+            int[] firsts = new int[(high - low + 1) / 2];
+            int[] seconds = new int[firsts.length];
+            for (int i = 0; i < firsts.length; i++) {
+                firsts[i] = remaining.get(low + i);
+                seconds[i] = remaining.get(high - i);
+            }
+            byte[] outcomes = playRound(firsts, seconds, executor);
+            for (int i = 0; i < outcomes.length; i++) {
+                next.add(outcomes[i] == LOSS ? seconds[i] : firsts[i]);
+            }
+            remaining = next;
+        }
+        return remaining.get(0);
+    }
+
+    /**
+     * Gets the entrants.
+     *
+     * @return A read-only list of the entrants.
+     */
+    public List<Entrant> getEntrants() {
+        return entrants;
+    }
+
+    /**
+     * Gets the ratings of the entrants.
+     *
+     * @return The ratings, indexed like the entrants.
+     */
+    public Ratings getRatings() {
+        return ratings;
+    }
+
+    /**
+     * Gets the points of an entrant: 1 per win or bye and 0.5 per draw.
+     *
+     * @param entrant The index of the entrant.
+     * @return The points.
+     */
+    public double getPoints(int entrant) {
+        return halfPoints[entrant] / 2.0;
+    }
+
+    /**
+     * Gets the number of matches an entrant won, not counting byes.
+     *
+     * @param entrant The index of the entrant.
+     * @return The number of wins.
+     */
+    public int getWins(int entrant) {
+        return wins[entrant];
+    }
+
+    /**
+     * Gets the number of matches an entrant drew.
+     *
+     * @param entrant The index of the entrant.
+     * @return The number of draws.
+     */
+    public int getDraws(int entrant) {
+        return draws[entrant];
+    }
+
+    /**
+     * Gets the number of matches an entrant lost.
+     *
+     * @param entrant The index of the entrant.
+     * @return The number of losses.
+     */
+    public int getLosses(int entrant) {
+        return losses[entrant];
+    }
+
+    /**
+     * Gets the number of matches played so far.
+     *
+     * @return The number of matches.
+     */
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * Ranks the entrants by points, then Elo rating, then their order in the list.
+     *
+     * @return The indices of the entrants, best first.
+     */
+    public int[] getRanking() {
+        Integer[] order = new Integer[entrants.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Integer.compare(halfPoints[b], halfPoints[a]);
+            return result != 0 ? result : compareRank(a, b);
+        });
+        int[] ranking = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ranking[i] = order[i];
+        }
+        return ranking;
+    }
+
+    /**
+     * Plays one round of matches in parallel, then applies the results in match order and
+     * ends the rating period.
+     *
+     * @return The outcome of every match for its first entrant.
+     */
+    private byte[] playRound(int[] firsts, int[] seconds, ExecutorService executor) throws InterruptedException {
+        long firstMatch = nextMatch;
+        byte[] outcomes = new byte[firsts.length];
+        List<Callable<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < firsts.length; from += BATCH_SIZE) {
+            int start = from;
+            int end = Math.min(from + BATCH_SIZE, firsts.length);
+            batches.add(() -> {
+                for (int i = start; i < end; i++) {
+                    if (firsts[i] >= 0 && seconds[i] >= 0) {
+                        outcomes[i] = play(firsts[i], seconds[i], firstMatch + i);
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(batches)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Tournament Error: A match failed", e.getCause());
+            }
+        }
+
+        // Waiting on the futures makes the outcomes visible to this thread
+        for (int i = 0; i < firsts.length; i++) {
+            if (firsts[i] < 0 || seconds[i] < 0) {
+                giveBye(Math.max(firsts[i], seconds[i]));
+                continue;
+            }
+            record(firsts[i], seconds[i], outcomes[i]);
+            matchCount++;
+        }
+        nextMatch += firsts.length;
+        ratings.endPeriod();
+        return outcomes;
+    }
+
+    /**
+     * Plays one match.
+     *
+     * @return The outcome for the first entrant.
+     */
+    private byte play(int first, int second, long match) {
+        List<RPGCharacter> characters = new ArrayList<>(2);
+        characters.add(entrants.get(first).createCharacter(config));
+        characters.add(entrants.get(second).createCharacter(config));
+        Battle battle = new Battle(characters, generator.generate(match, config.getPoolSize()), config);
+        battle.setPickStrategy(0, entrants.get(first).getPickStrategy());
+        battle.setPickStrategy(1, entrants.get(second).getPickStrategy());
+        battle.setListener(BattleListener.NONE);
+        BattleResult result = battle.startBattle();
+
+        int winner = result.getWinner();
+        if (winner == 0) {
+            winner = Integer.signum(characters.get(0).compareTo(characters.get(1)));
+            return winner > 0 ? WIN : winner < 0 ? LOSS : DRAW;
+        }
+        return winner == 1 ? WIN : LOSS;
+    }
+
+    private void record(int first, int second, byte outcome) {
+        playedPairs.add(pairKey(first, second));
+        halfPoints[first] += outcome;
+        halfPoints[second] += WIN - outcome;
+        if (outcome == WIN) {
+            wins[first]++;
+            losses[second]++;
+        } else if (outcome == LOSS) {
+            losses[first]++;
+            wins[second]++;
+        } else {
+            draws[first]++;
+            draws[second]++;
+        }
+        ratings.record(first, second, outcome / 2.0);
+    }
+
+    private void giveBye(int entrant) {
+        hadBye[entrant] = true;
+        halfPoints[entrant] += WIN;
+    }
+
+    private boolean hasPlayed(int first, int second) {
+        return playedPairs.contains(pairKey(first, second));
+    }
+
+    private static long pairKey(int first, int second) {
+        return ((long) Math.min(first, second) << 32) | Math.max(first, second);
+    }
+
+    // Orders by Elo rating, best first, then by position in the list
+    private int compareRank(int first, int second) {
+        int result = Double.compare(ratings.getElo(second), ratings.getElo(first));
+        return result != 0 ? result : Integer.compare(first, second);
+    }
+}
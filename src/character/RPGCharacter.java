@@ -2,7 +2,7 @@ package character;
 
 import gear.*;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The RPGCharacter interface represents a character in a role-playing game (RPG).
@@ -19,6 +19,58 @@ public interface RPGCharacter {
      */
     void equip(Gear equipment);
 
+    /**
+     * Removes the gear in a slot and takes its stats off the totals.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @return The removed gear, or null if the slot was empty.
+     */
+    Gear unequip(GearType type, int slot);
+
+    /**
+     * Puts a piece of gear in a slot, replacing whatever was there, and updates the totals.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @param gear The gear to put in the slot.
+     * @return The replaced gear, or null if the slot was empty.
+     */
+    Gear swap(GearType type, int slot, Gear gear);
+
+    /**
+     * Gets the gear in a slot.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @return The gear in the slot, or null if it is empty.
+     */
+    Gear getEquippedGear(GearType type, int slot);
+
+    /**
+     * Gets the number of slots of a type.
+     *
+     * @param type The slot type.
+     * @return The number of slots.
+     */
+    int getSlotCount(GearType type);
+
+    /**
+     * Gets the free slots of a type as a bitmask, where bit i is set if slot i is free.
+     *
+     * @param type The slot type.
+     * @return The bitmask of free slots.
+     */
+    long getFreeSlots(GearType type);
+
+    /**
+     * Gets a hash of the character's base stats and equipped gear, for recognising a loadout
+     * that was seen before.
+     *
+     * @return The hash of the loadout.
+     */
+    long getLoadoutHash();
+
     /**
      * Gets the base attack statistic of the character.
      *
@@ -61,6 +113,23 @@ public interface RPGCharacter {
      */
     void setName(String name);
 
+    /**
+     * Adds a listener that is told whenever the gear of the character changes. Listeners are
+     * told in the order they were added.
+     *
+     * @param listener The listener.
+     */
+    void addStatsListener(StatsListener listener);
+
+    /**
+     * Removes a listener added with {@link #addStatsListener(StatsListener)}. Other listeners
+     * are kept.
+     *
+     * @param listener The listener, compared by identity.
+     * @return true if the listener had been added.
+     */
+    boolean removeStatsListener(StatsListener listener);
+
     /**
      * Checks if the character has an available hand gear slot.
      *
@@ -100,16 +169,16 @@ public interface RPGCharacter {
     /**
      * Gets the list of equipped foot gears.
      *
-     * @return The list of equipped foot gears.
+     * @return A read-only list of the equipped foot gears.
      */
-    ArrayList<FootGear> getEquippedFootGears();
+    List<FootGear> getEquippedFootGears();
 
     /**
      * Gets the list of equipped hand gears.
      *
-     * @return The list of equipped hand gears.
+     * @return A read-only list of the equipped hand gears.
      */
-    ArrayList<HandGear> getEquippedHandGears();
+    List<HandGear> getEquippedHandGears();
 
     /**
      * Gets the equipped head gear.
@@ -1,18 +1,37 @@
 package character;
 
 import gear.*;
+import metrics.Metrics;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Implementation of the RPGCharacter interface representing a character in a role-playing game (RPG).
+ *
+ * Equipped gear is kept in a fixed-size array of slots per gear type, with a bitmask of the free
+ * slots of each type. Equipping, unequipping and swapping gear touch a single slot and update the
+ * cached total stats by the difference, so all of them, and the slot checks, take O(1) time.
+ * The lists of equipped gear are read-only views of the slots.
  */
 public class RPGCharacterImpl implements RPGCharacter {
 
-    // Constants defining the maximum number of gear slots for hand and foot
+    // Constants defining the default number of gear slots for head, hand and foot
+    private static final int Max_Head_Gear_Slot = 1;
     private static final int Max_Hand_Gear_Slot = 2;
     private static final int Max_Foot_Gear_Slot = 2;
 
+    private static final StatsListener[] NO_LISTENERS = new StatsListener[0];
+
+    // The free slots of a type are tracked as the bits of a long
+    private static final int MAX_SLOTS_PER_TYPE = Long.SIZE;
+
+    // Number of gear slots of this character
+    private final int maxHeadGearSlot;
+    private final int maxHandGearSlot;
+    private final int maxFootGearSlot;
+
     // Character attributes
     private String name;
     private final int baseAttackStat;
@@ -20,10 +39,20 @@ public class RPGCharacterImpl implements RPGCharacter {
     private int totalAttackStat;
     private int totalDefenseStat;
 
-    // Equipped gear
-    private HeadGear equippedHeadGear;
-    private ArrayList<HandGear> equippedHandGears;
-    private ArrayList<FootGear> equippedFootGears;
+    // Equipped gear, one array of slots per gear type, and a bit set for every free slot
+    private final Gear[][] slots;
+    private final long[] freeSlots;
+
+    // The sum of GearHash.of over the equipped gear, on top of a hash of the base stats and slots
+    private long loadoutHash;
+
+    // Told whenever the gear changes; the array is replaced rather than changed, as listeners are rarely added
+    private StatsListener[] statsListeners = NO_LISTENERS;
+
+    // Read-only views of the equipped gear
+    private final List<HeadGear> equippedHeadGears;
+    private final List<HandGear> equippedHandGears;
+    private final List<FootGear> equippedFootGears;
 
     /**
      * Constructor for creating an RPGCharacter with a specified name, base attack stat, and base defense stat.
@@ -33,54 +62,187 @@ public class RPGCharacterImpl implements RPGCharacter {
      * @param baseDefenseStat  The base defense stat of the character.
      */
     public RPGCharacterImpl(String name, int baseAttackStat, int baseDefenseStat) {
+        this(name, baseAttackStat, baseDefenseStat, Max_Head_Gear_Slot, Max_Hand_Gear_Slot, Max_Foot_Gear_Slot);
+    }
+
+    /**
+     * Constructor for creating an RPGCharacter with a specified name, base stats, and number of gear slots.
+     * Once all slots of a gear type are filled, further gear of that type is combined into the first slot.
+     *
+     * @param name             The name of the character.
+     * @param baseAttackStat   The base attack stat of the character.
+     * @param baseDefenseStat  The base defense stat of the character.
+     * @param headGearSlots    The number of head gear slots.
+     * @param handGearSlots    The number of hand gear slots.
+     * @param footGearSlots    The number of foot gear slots.
+     */
+    public RPGCharacterImpl(String name, int baseAttackStat, int baseDefenseStat,
+                            int headGearSlots, int handGearSlots, int footGearSlots) {
         if (baseAttackStat < 0 || baseDefenseStat < 0){
             throw  new IllegalArgumentException("Character base stat shoube be higher than 0");
         }
+        if (headGearSlots < 1 || handGearSlots < 1 || footGearSlots < 1) {
+            throw new IllegalArgumentException("Character should have at least 1 slot for each gear type");
+        }
+        if (headGearSlots > MAX_SLOTS_PER_TYPE || handGearSlots > MAX_SLOTS_PER_TYPE
+                || footGearSlots > MAX_SLOTS_PER_TYPE) {
+            throw new IllegalArgumentException("Character should have at most " + MAX_SLOTS_PER_TYPE
+                    + " slots for each gear type");
+        }
         this.name = name;
         this.baseAttackStat = baseAttackStat;
         this.baseDefenseStat = baseDefenseStat;
-        this.equippedFootGears = new ArrayList<>(Max_Foot_Gear_Slot);
-        this.equippedHandGears = new ArrayList<>(Max_Hand_Gear_Slot);
+        this.maxHeadGearSlot = headGearSlots;
+        this.maxHandGearSlot = handGearSlots;
+        this.maxFootGearSlot = footGearSlots;
+        this.slots = new Gear[][] {new Gear[headGearSlots], new Gear[handGearSlots], new Gear[footGearSlots]};
+        this.freeSlots = new long[] {allSlots(headGearSlots), allSlots(handGearSlots), allSlots(footGearSlots)};
+        this.equippedHeadGears = new SlotView<>(GearType.HEAD);
+        this.equippedHandGears = new SlotView<>(GearType.HAND);
+        this.equippedFootGears = new SlotView<>(GearType.FOOT);
         totalAttackStat = baseAttackStat;
         totalDefenseStat = baseDefenseStat;
+        loadoutHash = GearHash.mix(GearHash.mix(((long) baseAttackStat << 32) | baseDefenseStat)
+                + ((long) headGearSlots << 16 | (long) handGearSlots << 8 | footGearSlots));
     }
 
     /**
      * Equips the character with a piece of gear. The gear is equipped based on the type of gear and available slots.
-     * If no slots are available, the gear is combined with the existing gear.
+     * If no slots are available, the gear is combined with the existing gear. The slot type is the one of
+     * {@link GearType#of}, so gear without a slot type is equipped as foot gear. Gear that is not a HeadGear,
+     * HandGear or FootGear of its slot type, such as a view of a store, is equipped as a copy.
      *
      * @param equipment The gear to be equipped.
      */
     @Override
     public void equip(Gear equipment) {
-        // If gear is headgear
-        if (equipment instanceof HeadGear) {
-            if (hasHeadGearSlot()) {
-                equippedHeadGear = (HeadGear) equipment;
-            } else {
-                equippedHeadGear = (HeadGear) equippedHeadGear.combine(equipment);
-            }
-        }
-        // If gear is handgear
-        if (equipment instanceof HandGear) {
-            if (hasHandGearSlot()) {
-                equippedHandGears.add((HandGear) equipment);
-            } else {
-                HandGear newItem = (HandGear) equippedHandGears.get(0).combine(equipment);
-                equippedHandGears.set(0, newItem);
-            }
-        }
-        // If gear is footgear
-        if (equipment instanceof FootGear) {
-            if (hasFootGearSlot()) {
-                equippedFootGears.add((FootGear) equipment);
-            } else {
-                FootGear newItem = (FootGear) equippedFootGears.get(0).combine(equipment);
-                equippedFootGears.set(0, newItem);
-            }
+        boolean timed = Metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        GearType type = GearType.of(equipment);
+        equipment = slotted(type, equipment);
+        int t = type.ordinal();
+        if (freeSlots[t] != 0) {
+            // Fill the first free slot
+            int slot = Long.numberOfTrailingZeros(freeSlots[t]);
+            slots[t][slot] = equipment;
+            freeSlots[t] &= ~(1L << slot);
+            loadoutHash += GearHash.of(equipment);
+        } else {
+            Gear combined = slots[t][0].combine(equipment);
+            loadoutHash += GearHash.of(combined) - GearHash.of(slots[t][0]);
+            slots[t][0] = combined;
         }
         totalDefenseStat += equipment.getDefenseStat();
         totalAttackStat += equipment.getAttackStat();
+        statsChanged();
+        if (timed) {
+            Metrics.EQUIP.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Removes the gear in a slot. The total stats drop by the stats of that gear, including
+     * everything that was combined into it.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @return The removed gear, or null if the slot was empty.
+     * @throws IndexOutOfBoundsException if the character has no such slot.
+     */
+    @Override
+    public Gear unequip(GearType type, int slot) {
+        int t = type.ordinal();
+        Gear removed = slots[t][checkSlot(t, slot)];
+        if (removed != null) {
+            slots[t][slot] = null;
+            freeSlots[t] |= 1L << slot;
+            totalAttackStat -= removed.getAttackStat();
+            totalDefenseStat -= removed.getDefenseStat();
+            loadoutHash -= GearHash.of(removed);
+            statsChanged();
+        }
+        return removed;
+    }
+
+    /**
+     * Puts a piece of gear in a slot, replacing whatever was there. Unlike
+     * {@link #equip(Gear)}, the gear is never combined.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @param gear The gear to put in the slot.
+     * @return The replaced gear, or null if the slot was empty.
+     * @throws IndexOutOfBoundsException if the character has no such slot.
+     * @throws IllegalArgumentException if the gear does not fit the slot type.
+     */
+    @Override
+    public Gear swap(GearType type, int slot, Gear gear) {
+        if (GearType.of(gear) != type) {
+            throw new IllegalArgumentException("Gear Error: " + gear + " does not fit a " + type + " slot");
+        }
+        gear = slotted(type, gear);
+        int t = type.ordinal();
+        Gear replaced = slots[t][checkSlot(t, slot)];
+        slots[t][slot] = gear;
+        freeSlots[t] &= ~(1L << slot);
+        totalAttackStat += gear.getAttackStat();
+        totalDefenseStat += gear.getDefenseStat();
+        loadoutHash += GearHash.of(gear);
+        if (replaced != null) {
+            totalAttackStat -= replaced.getAttackStat();
+            totalDefenseStat -= replaced.getDefenseStat();
+            loadoutHash -= GearHash.of(replaced);
+        }
+        statsChanged();
+        return replaced;
+    }
+
+    /**
+     * Gets the gear in a slot.
+     *
+     * @param type The slot type.
+     * @param slot The 0-based slot number.
+     * @return The gear in the slot, or null if it is empty.
+     * @throws IndexOutOfBoundsException if the character has no such slot.
+     */
+    @Override
+    public Gear getEquippedGear(GearType type, int slot) {
+        int t = type.ordinal();
+        return slots[t][checkSlot(t, slot)];
+    }
+
+    /**
+     * Gets the number of slots of a type.
+     *
+     * @param type The slot type.
+     * @return The number of slots.
+     */
+    @Override
+    public int getSlotCount(GearType type) {
+        return slots[type.ordinal()].length;
+    }
+
+    /**
+     * Gets the free slots of a type as a bitmask, where bit i is set if slot i is free.
+     *
+     * @param type The slot type.
+     * @return The bitmask of free slots.
+     */
+    @Override
+    public long getFreeSlots(GearType type) {
+        return freeSlots[type.ordinal()];
+    }
+
+    /**
+     * Gets a hash of the loadout: the base stats, the slot counts and the type and stats of
+     * the gear in every slot. It does not depend on the name or on the order of the slots, and
+     * is updated in O(1) by every equip, unequip and swap.
+     *
+     * @return The hash of the loadout.
+     */
+    @Override
+    public long getLoadoutHash() {
+        return loadoutHash;
     }
 
     /**
@@ -105,29 +267,30 @@ public class RPGCharacterImpl implements RPGCharacter {
 
 
     /**
-     * Retrieves the currently equipped headgear of the RPGCharacter.
+     * Retrieves the currently equipped headgear of the RPGCharacter. If the character has more
+     * than one head slot, the headgear in the first occupied slot is returned.
      *
-     * @return The HeadGear object representing the equipped headgear.
+     * @return The HeadGear object representing the equipped headgear, or null if there is none.
      */
     public HeadGear getEquippedHeadGear() {
-        return equippedHeadGear;
+        return equippedHeadGears.isEmpty() ? null : equippedHeadGears.get(0);
     }
 
     /**
      * Retrieves the list of currently equipped handgears of the RPGCharacter.
      *
-     * @return An ArrayList of HandGear objects representing the equipped handgears.
+     * @return A read-only view of the equipped handgears, in slot order.
      */
-    public ArrayList<HandGear> getEquippedHandGears() {
+    public List<HandGear> getEquippedHandGears() {
         return equippedHandGears;
     }
 
     /**
      * Retrieves the list of currently equipped footgears of the RPGCharacter.
      *
-     * @return An ArrayList of FootGear objects representing the equipped footgears.
+     * @return A read-only view of the equipped footgears, in slot order.
      */
-    public ArrayList<FootGear> getEquippedFootGears() {
+    public List<FootGear> getEquippedFootGears() {
         return equippedFootGears;
     }
 
@@ -172,6 +335,42 @@ public class RPGCharacterImpl implements RPGCharacter {
         this.name = name;
     }
 
+    /**
+     * Adds a listener that is told whenever the gear of the character changes.
+     *
+     * @param listener The listener.
+     * @throws IllegalArgumentException if the listener is null.
+     */
+    @Override
+    public void addStatsListener(StatsListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null.");
+        }
+        StatsListener[] listeners = Arrays.copyOf(statsListeners, statsListeners.length + 1);
+        listeners[statsListeners.length] = listener;
+        statsListeners = listeners;
+    }
+
+    /**
+     * Removes a listener. If it was added more than once, only the first is removed.
+     *
+     * @param listener The listener, compared by identity.
+     * @return true if the listener had been added.
+     */
+    @Override
+    public boolean removeStatsListener(StatsListener listener) {
+        for (int i = 0; i < statsListeners.length; i++) {
+            if (statsListeners[i] == listener) {
+                StatsListener[] listeners = new StatsListener[statsListeners.length - 1];
+                System.arraycopy(statsListeners, 0, listeners, 0, i);
+                System.arraycopy(statsListeners, i + 1, listeners, i, listeners.length - i);
+                statsListeners = listeners.length == 0 ? NO_LISTENERS : listeners;
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the character has available hand gear slots.
      *
@@ -179,7 +378,7 @@ public class RPGCharacterImpl implements RPGCharacter {
      */
     @Override
     public boolean hasHandGearSlot() {
-        return equippedHandGears.size() < Max_Hand_Gear_Slot;
+        return freeSlots[GearType.HAND.ordinal()] != 0;
     }
 
     /**
@@ -189,7 +388,7 @@ public class RPGCharacterImpl implements RPGCharacter {
      */
     @Override
     public boolean hasHeadGearSlot() {
-        return equippedHeadGear == null;
+        return freeSlots[GearType.HEAD.ordinal()] != 0;
     }
 
     /**
@@ -199,7 +398,7 @@ public class RPGCharacterImpl implements RPGCharacter {
      */
     @Override
     public boolean hasFootGearSlot() {
-        return equippedFootGears.size() < Max_Foot_Gear_Slot;
+        return freeSlots[GearType.FOOT.ordinal()] != 0;
     }
 
 /**
@@ -236,8 +435,10 @@ public int compareTo(RPGCharacter player) {
         result.append("totalDefenseStat=").append(totalDefenseStat).append("\n");
 
         // Check if there is equippedHeadGear and append details
-        if (equippedHeadGear != null) {
-            result.append("equippedHeadGear: ").append(equippedHeadGear).append("\n");
+        if (!equippedHeadGears.isEmpty()) {
+            for (HeadGear headGear : equippedHeadGears) {
+                result.append("equippedHeadGear: ").append(headGear).append("\n");
+            }
         } else {
             result.append("equippedHeadGear: null\n");
         }
@@ -263,4 +464,59 @@ public int compareTo(RPGCharacter player) {
         result.append("**************************************************************");
         return result.toString();
     }
+
+    // The gear to keep in a slot: the slot views hand out gear as its class for the type, so other gear of
+    // that type, such as a view of an off-heap store that can be moved to another item, is copied
+    private static Gear slotted(GearType type, Gear gear) {
+        boolean fits = type == GearType.HEAD ? gear instanceof HeadGear
+                : type == GearType.HAND ? gear instanceof HandGear : gear instanceof FootGear;
+        return fits ? gear : GearKey.of(gear).toGear();
+    }
+
+    private void statsChanged() {
+        for (StatsListener listener : statsListeners) {
+            listener.onStatsChanged(this);
+        }
+    }
+
+    private static long allSlots(int count) {
+        return count == Long.SIZE ? -1L : (1L << count) - 1;
+    }
+
+    private int checkSlot(int type, int slot) {
+        if (slot < 0 || slot >= slots[type].length) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of range for " + slots[type].length + " "
+                    + GearType.values()[type] + " slots");
+        }
+        return slot;
+    }
+
+    /**
+     * A read-only list of the gear in the occupied slots of one type, in slot order.
+     */
+    private final class SlotView<T extends Gear> extends AbstractList<T> {
+        private final int type;
+
+        private SlotView(GearType type) {
+            this.type = type.ordinal();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Gear[] typeSlots = slots[type];
+            int remaining = index;
+            for (int slot = 0; slot < typeSlots.length && remaining >= 0; slot++) {
+                if (typeSlots[slot] != null && remaining-- == 0) {
+                    return (T) typeSlots[slot];
+                }
+            }
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for " + size() + " gears");
+        }
+
+        @Override
+        public int size() {
+            return slots[type].length - Long.bitCount(freeSlots[type]);
+        }
+    }
 }
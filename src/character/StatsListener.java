@@ -0,0 +1,15 @@
+package character;
+
+/**
+ * The StatsListener interface is told when the total stats of a character may have changed:
+ * after gear is equipped, unequipped or swapped.
+ */
+public interface StatsListener {
+
+    /**
+     * Called after the gear of a character has changed.
+     *
+     * @param character The character, with its new totals.
+     */
+    void onStatsChanged(RPGCharacter character);
+}
@@ -1,5 +1,6 @@
 package gear;
 
+import metrics.Metrics;
 
 /**
  * The AbstractGear class represents a generic gear with common properties such as
@@ -9,11 +10,14 @@ package gear;
 public abstract class AbstractGear implements Gear{
 
     // Common properties for all gears
-    private String prefix;
+    private Prefix prefix;
     private String name;
     private int attackStat;
     private int defenseStat;
 
+    // Shared gear from a GearCache is frozen and rejects every setter
+    private boolean frozen;
+
     /**
      * Constructs an AbstractGear with the specified prefix and name.
      *
@@ -21,6 +25,16 @@ public abstract class AbstractGear implements Gear{
      * @param name   The name of the gear.
      */
     public AbstractGear(String prefix, String name) {
+        this(Prefix.of(prefix), name);
+    }
+
+    /**
+     * Constructs an AbstractGear whose prefix may be a combination of other prefixes.
+     *
+     * @param prefix The prefix of the gear.
+     * @param name   The name of the gear.
+     */
+    AbstractGear(Prefix prefix, String name) {
         this.prefix = prefix;
         this.name = name;
     }
@@ -32,17 +46,19 @@ public abstract class AbstractGear implements Gear{
      */
     @Override
     public String getPrefix() {
-        return prefix;
+        return prefix.toString();
     }
 
     /**
      * Set the prefix of the gear.
      *
      * @param prefix The new prefix for the gear.
+     * @throws UnsupportedOperationException if the gear is frozen.
      */
     @Override
     public void setPrefix(String prefix) {
-        this.prefix = prefix;
+        checkMutable();
+        this.prefix = Prefix.of(prefix);
     }
 
     /**
@@ -59,9 +75,11 @@ public abstract class AbstractGear implements Gear{
      * Set the name of the gear.
      *
      * @param name The new name for the gear.
+     * @throws UnsupportedOperationException if the gear is frozen.
      */
     @Override
     public void setName(String name) {
+        checkMutable();
         this.name = name;
     }
 
@@ -78,8 +96,10 @@ public abstract class AbstractGear implements Gear{
      * Set the defense stat of the gear.
      *
      * @param defenseStat The new defense stat for the gear.
+     * @throws UnsupportedOperationException if the gear is frozen.
      */
     public void setDefenseStat(int defenseStat) {
+        checkMutable();
         this.defenseStat = defenseStat;
     }
 
@@ -96,11 +116,37 @@ public abstract class AbstractGear implements Gear{
      * Set the attack stat of the gear.
      *
      * @param attackStat The new attack stat for the gear.
+     * @throws UnsupportedOperationException if the gear is frozen.
      */
     public void setAttackStat(int attackStat) {
+        checkMutable();
         this.attackStat = attackStat;
     }
 
+    /**
+     * Checks whether the gear is frozen. Frozen gear never changes, so one instance can be
+     * shared by any number of pools, characters and threads.
+     *
+     * @return True if the gear is frozen, false otherwise.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Freezes the gear so that every later call to a setter fails.
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Gear Error: " + this
+                    + " is shared and cannot be changed, use GearKey.toGear() for a mutable copy");
+        }
+    }
+
     /**
      * Abstract method for creating a new gear based on the given gear.
      *
@@ -116,7 +162,25 @@ public abstract class AbstractGear implements Gear{
      * @return The new gear created by combining the current gear with the provided gear.
      */
     public Gear combine(Gear gear) {
-        return createGear(gear);
+        if (!Metrics.isEnabled()) {
+            return createGear(gear);
+        }
+        long start = System.nanoTime();
+        Gear combined = createGear(gear);
+        Metrics.COMBINE.record(System.nanoTime() - start);
+        return combined;
+    }
+
+    /**
+     * Joins the prefix of this gear and the prefix of another gear without copying either.
+     * The joined text is only built when {@link #getPrefix()} is called.
+     *
+     * @param gear The gear whose prefix goes after this one.
+     * @return The combined prefix.
+     */
+    Prefix combinePrefix(Gear gear) {
+        Prefix other = gear instanceof AbstractGear ? ((AbstractGear) gear).prefix : Prefix.of(gear.getPrefix());
+        return prefix.join(other);
     }
 
     /**
@@ -126,7 +190,7 @@ public abstract class AbstractGear implements Gear{
      */
     @Override
     public String toString() {
-        return prefix + " " + name;
+        return getPrefix() + " " + name;
     }
 
     @Override
@@ -16,6 +16,18 @@ public class FootGear extends AbstractGear {
      * @throws IllegalArgumentException if attack or defense stats are negative.
      */
     public FootGear(String prefix, String name, int attack, int defense) {
+        this(Prefix.of(prefix), name, attack, defense);
+    }
+
+    /**
+     * Constructs a FootGear whose prefix may be a combination of other prefixes.
+     *
+     * @param prefix  The combined prefix of the foot gear.
+     * @param name    The name of the foot gear.
+     * @param attack  The attack stat of the foot gear.
+     * @param defense The defense stat of the foot gear.
+     */
+    FootGear(Prefix prefix, String name, int attack, int defense) {
         super(prefix, name);
 
         // Validate that attack and defense stats are non-negative
@@ -28,6 +40,16 @@ public class FootGear extends AbstractGear {
         this.setDefenseStat(defense);
     }
 
+    /**
+     * Gets the slot type of the gear.
+     *
+     * @return {@link GearType#FOOT}.
+     */
+    @Override
+    public GearType getType() {
+        return GearType.FOOT;
+    }
+
     /**
      * Creates a new foot gear by combining the current foot gear with the provided gear.
      *
@@ -37,7 +59,7 @@ public class FootGear extends AbstractGear {
     @Override
     public Gear createGear(Gear gear) {
         // Combine the prefixes and calculate the new attack and defense stats
-        String newPrefix = this.getPrefix() + ", " + gear.getPrefix();
+        Prefix newPrefix = combinePrefix(gear);
         int newDefenseStat = this.getDefenseStat() + gear.getDefenseStat();
         int newAttackStat = this.getAttackStat() + gear.getAttackStat();
 
@@ -18,6 +18,7 @@ public interface Gear{
      * Sets the prefix of the gear.
      *
      * @param prefix The new prefix for the gear.
+     * @throws UnsupportedOperationException if the gear is shared and cannot be changed.
      */
     void setPrefix(String prefix);
 
@@ -32,6 +33,7 @@ public interface Gear{
      * Sets the name of the gear.
      *
      * @param name The new name for the gear.
+     * @throws UnsupportedOperationException if the gear is shared and cannot be changed.
      */
     void setName(String name);
 
@@ -49,6 +51,16 @@ public interface Gear{
      */
     int getDefenseStat();
 
+    /**
+     * Gets the slot type of the gear.
+     *
+     * @return The slot type of the gear, or null for gear of another kind, which
+     *         {@link GearType#of} treats as foot gear.
+     */
+    default GearType getType() {
+        return null;
+    }
+
     /**
      * Combines the current gear with another gear.
      *
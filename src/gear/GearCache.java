@@ -0,0 +1,89 @@
+package gear;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The GearCache class hands out shared, frozen gear. Every {@link GearKey} maps to a single
+ * instance, so identical items in any number of pools are one object. Frozen gear cannot be
+ * changed, which makes it safe to share between battles running on different threads.
+ *
+ * The cache is thread-safe. It only grows, so a pool generator should use a cache whose
+ * lifetime matches the runs it serves, or {@link #clear()} it between runs.
+ */
+public class GearCache {
+
+    private static final GearCache SHARED = new GearCache();
+
+    private final ConcurrentMap<GearKey, Gear> items = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the cache that is shared by the whole program.
+     *
+     * @return The shared cache.
+     */
+    public static GearCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the shared gear with the given values, creating it on first use.
+     *
+     * @param type    The slot type of the gear.
+     * @param prefix  The prefix of the gear.
+     * @param name    The name of the gear.
+     * @param attack  The attack stat of the gear.
+     * @param defense The defense stat of the gear.
+     * @return The frozen gear.
+     * @throws IllegalArgumentException if a stat is negative or not allowed for the type.
+     */
+    public Gear get(GearType type, String prefix, String name, int attack, int defense) {
+        return get(new GearKey(type, prefix, name, attack, defense));
+    }
+
+    /**
+     * Gets the shared gear for a key, creating it on first use.
+     *
+     * @param key The values of the gear.
+     * @return The frozen gear.
+     */
+    public Gear get(GearKey key) {
+        Gear gear = items.get(key);
+        if (gear == null) {
+            gear = items.computeIfAbsent(key, GearCache::create);
+        }
+        return gear;
+    }
+
+    /**
+     * Gets the shared gear with the same values as a piece of gear.
+     *
+     * @param gear The gear to look up.
+     * @return The frozen gear equal to the given one.
+     */
+    public Gear intern(Gear gear) {
+        return get(GearKey.of(gear));
+    }
+
+    /**
+     * Gets the number of distinct items in the cache.
+     *
+     * @return The number of items.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Removes every item from the cache. Gear handed out before stays valid and frozen.
+     */
+    public void clear() {
+        items.clear();
+    }
+
+    private static Gear create(GearKey key) {
+        AbstractGear gear = (AbstractGear) key.toGear();
+        gear.freeze();
+        return gear;
+    }
+}
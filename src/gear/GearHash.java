@@ -0,0 +1,55 @@
+package gear;
+
+/**
+ * The GearHash class hashes gear by the values that decide a battle: its slot type and its
+ * stats. Prefixes and names are left out, so two items that play the same get the same hash.
+ *
+ * The hashes are meant to be summed. A sum of item hashes is the same in any order, counts an
+ * item that appears twice twice, and is updated in O(1) by adding or subtracting one item,
+ * which makes it a cheap fingerprint of a pool or a loadout.
+ */
+public final class GearHash {
+
+    // The increment of the SplitMix64 generator
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    private GearHash() {
+    }
+
+    /**
+     * Hashes a piece of gear.
+     *
+     * @param gear The gear.
+     * @return The hash of its type and stats.
+     */
+    public static long of(Gear gear) {
+        return of(GearType.of(gear), gear.getAttackStat(), gear.getDefenseStat());
+    }
+
+    /**
+     * Hashes an item from its type and stats.
+     *
+     * @param type    The slot type.
+     * @param attack  The attack stat.
+     * @param defense The defense stat.
+     * @return The hash of the item.
+     */
+    public static long of(GearType type, int attack, int defense) {
+        // The odd constant keeps items whose packed values are multiples of each other from
+        // getting hashes that are multiples too, which would let different pools sum the same
+        return mix(((long) type.ordinal() << 62) ^ ((long) attack << 31) ^ (defense & 0xffffffffL) ^ GAMMA);
+    }
+
+    /**
+     * Spreads the bits of a value over the whole long, so that close values get unrelated hashes.
+     * This is the finalizer of the SplitMix64 generator.
+     *
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,56 @@
+package gear;
+
+/**
+ * The GearKey record holds every value that defines a piece of gear: its slot type, prefix,
+ * name, attack stat and defense stat. Two items with equal keys are interchangeable, which is
+ * what lets a {@link GearCache} share one instance between them.
+ *
+ * @param type    The slot type of the gear.
+ * @param prefix  The prefix of the gear.
+ * @param name    The name of the gear.
+ * @param attack  The attack stat of the gear.
+ * @param defense The defense stat of the gear.
+ */
+public record GearKey(GearType type, String prefix, String name, int attack, int defense) {
+
+    /**
+     * Constructs a key. Head gear has no attack and hand gear has no defense, as with the
+     * gear classes.
+     *
+     * @throws IllegalArgumentException if the type is missing, or a stat is negative or not allowed for the type.
+     */
+    public GearKey {
+        if (type == null) {
+            throw new IllegalArgumentException("Gear type must not be null.");
+        }
+        type.validateStats(attack, defense);
+    }
+
+    /**
+     * Creates the key of an existing piece of gear.
+     *
+     * @param gear The gear.
+     * @return The key holding the values of the gear.
+     */
+    public static GearKey of(Gear gear) {
+        return new GearKey(GearType.of(gear), gear.getPrefix(), gear.getName(),
+                gear.getAttackStat(), gear.getDefenseStat());
+    }
+
+    /**
+     * Creates a new, mutable piece of gear with the values of this key. This is the way to get
+     * a copy of shared gear that can be changed with its setters.
+     *
+     * @return A new HeadGear, HandGear or FootGear.
+     */
+    public Gear toGear() {
+        switch (type) {
+            case HEAD:
+                return new HeadGear(prefix, name, defense);
+            case HAND:
+                return new HandGear(prefix, name, attack);
+            default:
+                return new FootGear(prefix, name, attack, defense);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package gear;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The GearPool class stores a large number of gear items as parallel primitive arrays instead
+ * of one object per item. Each item is identified by its index and keeps its slot type, attack
+ * and defense stats, and the ids of its prefix and name in a shared {@link StringTable}.
+ *
+ * Items can be turned back into regular {@link Gear} objects with {@link #toGear(int)} or the
+ * {@link #asGearList()} view, for callers that work with the gear classes.
+ */
+public class GearPool {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final GearType[] TYPES = GearType.values();
+
+    private final StringTable strings;
+    private byte[] types;
+    private int[] attackStats;
+    private int[] defenseStats;
+    private int[] prefixIds;
+    private int[] nameIds;
+    private int size;
+
+    /**
+     * Constructs an empty pool with its own string table.
+     */
+    public GearPool() {
+        this(DEFAULT_CAPACITY, new StringTable());
+    }
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param capacity The number of items the pool can hold before it has to grow.
+     * @param strings  The string table for prefixes and names, which may be shared between pools.
+     */
+    public GearPool(int capacity, StringTable strings) {
+        capacity = Math.max(capacity, 1);
+        this.strings = strings;
+        this.types = new byte[capacity];
+        this.attackStats = new int[capacity];
+        this.defenseStats = new int[capacity];
+        this.prefixIds = new int[capacity];
+        this.nameIds = new int[capacity];
+    }
+
+    /**
+     * Creates a pool holding the given items, in list order.
+     *
+     * @param items The items to store.
+     * @return A new pool.
+     */
+    public static GearPool from(List<? extends Gear> items) {
+        GearPool pool = new GearPool(items.size(), new StringTable());
+        for (Gear gear : items) {
+            pool.add(gear);
+        }
+        return pool;
+    }
+
+    /**
+     * Adds a copy of a gear item to the pool.
+     *
+     * @param gear The item to add.
+     * @return The index of the new item.
+     */
+    public int add(Gear gear) {
+        return add(GearType.of(gear), gear.getPrefix(), gear.getName(), gear.getAttackStat(), gear.getDefenseStat());
+    }
+
+    /**
+     * Adds an item to the pool. Head gear has no attack and hand gear has no defense, as with
+     * the gear classes.
+     *
+     * @param type    The slot type of the item.
+     * @param prefix  The prefix of the item.
+     * @param name    The name of the item.
+     * @param attack  The attack stat of the item.
+     * @param defense The defense stat of the item.
+     * @return The index of the new item.
+     * @throws IllegalArgumentException if a stat is negative or not allowed for the slot type.
+     */
+    public int add(GearType type, String prefix, String name, int attack, int defense) {
+        type.validateStats(attack, defense);
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        attackStats[size] = attack;
+        defenseStats[size] = defense;
+        prefixIds[size] = strings.intern(prefix);
+        nameIds[size] = strings.intern(name);
+        return size++;
+    }
+
+    /**
+     * Gets the number of items in the pool.
+     *
+     * @return The number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot type of an item.
+     *
+     * @param index The index of the item.
+     * @return The slot type.
+     */
+    public GearType getType(int index) {
+        return TYPES[types[checkIndex(index)]];
+    }
+
+    /**
+     * Gets the attack stat of an item.
+     *
+     * @param index The index of the item.
+     * @return The attack stat.
+     */
+    public int getAttackStat(int index) {
+        return attackStats[checkIndex(index)];
+    }
+
+    /**
+     * Gets the defense stat of an item.
+     *
+     * @param index The index of the item.
+     * @return The defense stat.
+     */
+    public int getDefenseStat(int index) {
+        return defenseStats[checkIndex(index)];
+    }
+
+    /**
+     * Gets the prefix of an item.
+     *
+     * @param index The index of the item.
+     * @return The prefix.
+     */
+    public String getPrefix(int index) {
+        return strings.get(prefixIds[checkIndex(index)]);
+    }
+
+    /**
+     * Gets the name of an item.
+     *
+     * @param index The index of the item.
+     * @return The name.
+     */
+    public String getName(int index) {
+        return strings.get(nameIds[checkIndex(index)]);
+    }
+
+    /**
+     * Gets the id of an item's prefix in the string table.
+     *
+     * @param index The index of the item.
+     * @return The prefix id.
+     */
+    public int getPrefixId(int index) {
+        return prefixIds[checkIndex(index)];
+    }
+
+    /**
+     * Gets the id of an item's name in the string table.
+     *
+     * @param index The index of the item.
+     * @return The name id.
+     */
+    public int getNameId(int index) {
+        return nameIds[checkIndex(index)];
+    }
+
+    /**
+     * Gets the string table holding the prefixes and names of the items.
+     *
+     * @return The string table.
+     */
+    public StringTable getStrings() {
+        return strings;
+    }
+
+    /**
+     * Compares two items the same way as {@link AbstractGear#compareTo(Gear)}: by attack stat,
+     * then by defense stat.
+     *
+     * @param first  The index of the first item.
+     * @param second The index of the second item.
+     * @return A positive value if the first item is better, negative if it is worse, otherwise zero.
+     */
+    public int compare(int first, int second) {
+        checkIndex(first);
+        checkIndex(second);
+        int result = Integer.compare(attackStats[first], attackStats[second]);
+        return result != 0 ? result : Integer.compare(defenseStats[first], defenseStats[second]);
+    }
+
+    /**
+     * Creates a gear object with the values of an item.
+     *
+     * @param index The index of the item.
+     * @return A new HeadGear, HandGear or FootGear.
+     */
+    public Gear toGear(int index) {
+        switch (getType(index)) {
+            case HEAD:
+                return new HeadGear(getPrefix(index), getName(index), defenseStats[index]);
+            case HAND:
+                return new HandGear(getPrefix(index), getName(index), attackStats[index]);
+            default:
+                return new FootGear(getPrefix(index), getName(index), attackStats[index], defenseStats[index]);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the pool. Every call to get creates a new gear object.
+     *
+     * @return A list of the items as gear.
+     */
+    public List<Gear> asGearList() {
+        return new AbstractList<Gear>() {
+            @Override
+            public Gear get(int index) {
+                return toGear(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Item index " + index + " out of range for pool of size " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        attackStats = Arrays.copyOf(attackStats, capacity);
+        defenseStats = Arrays.copyOf(defenseStats, capacity);
+        prefixIds = Arrays.copyOf(prefixIds, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+    }
+}
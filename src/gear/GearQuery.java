@@ -0,0 +1,232 @@
+package gear;
+
+/**
+ * The GearQuery class describes the items to find in a {@link GearQueryIndex}: a slot type,
+ * ranges of attack and defense stats, and the start of the prefix or name, together with the
+ * order of the results and how many to return. Every part left unset matches any item, so a
+ * new query matches the whole index, best items first.
+ */
+public class GearQuery {
+
+    /**
+     * The order of the results of a query.
+     */
+    public enum Order {
+
+        /**
+         * Lowest attack first; equal attacks by lowest defense.
+         */
+        ATTACK,
+
+        /**
+         * Highest attack first; equal attacks by highest defense. This is the order of
+         * {@link AbstractGear#compareTo(Gear)}, best items first.
+         */
+        ATTACK_DESCENDING,
+
+        /**
+         * Lowest defense first; equal defenses by lowest attack.
+         */
+        DEFENSE,
+
+        /**
+         * Highest defense first; equal defenses by highest attack.
+         */
+        DEFENSE_DESCENDING;
+
+        /**
+         * Checks if the results are sorted by attack first.
+         *
+         * @return true for an attack order.
+         */
+        public boolean isByAttack() {
+            return this == ATTACK || this == ATTACK_DESCENDING;
+        }
+
+        /**
+         * Checks if the highest stats come first.
+         *
+         * @return true for a descending order.
+         */
+        public boolean isDescending() {
+            return this == ATTACK_DESCENDING || this == DEFENSE_DESCENDING;
+        }
+    }
+
+    private final GearType type;
+    private int minAttack = 0;
+    private int maxAttack = Integer.MAX_VALUE;
+    private int minDefense = 0;
+    private int maxDefense = Integer.MAX_VALUE;
+    private String prefixStart;
+    private String nameStart;
+    private Order order = Order.ATTACK_DESCENDING;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a query over items of every slot type.
+     */
+    public GearQuery() {
+        this(null);
+    }
+
+    /**
+     * Constructs a query over items of one slot type.
+     *
+     * @param type The slot type, or null for every slot type.
+     */
+    public GearQuery(GearType type) {
+        this.type = type;
+    }
+
+    /**
+     * Sets the range of the attack stat.
+     *
+     * @param min The lowest attack stat, included.
+     * @param max The highest attack stat, included.
+     * @throws IllegalArgumentException if the range is empty.
+     */
+    public void setAttackRange(int min, int max) {
+        if (min > max || max < 0) {
+            throw new IllegalArgumentException("The attack range " + min + " to " + max + " is empty.");
+        }
+        this.minAttack = Math.max(min, 0);
+        this.maxAttack = max;
+    }
+
+    /**
+     * Sets the range of the defense stat.
+     *
+     * @param min The lowest defense stat, included.
+     * @param max The highest defense stat, included.
+     * @throws IllegalArgumentException if the range is empty.
+     */
+    public void setDefenseRange(int min, int max) {
+        if (min > max || max < 0) {
+            throw new IllegalArgumentException("The defense range " + min + " to " + max + " is empty.");
+        }
+        this.minDefense = Math.max(min, 0);
+        this.maxDefense = max;
+    }
+
+    /**
+     * Sets the text the prefix of the items starts with.
+     *
+     * @param prefixStart The start of the prefix, or null for any prefix.
+     */
+    public void setPrefixStart(String prefixStart) {
+        this.prefixStart = prefixStart;
+    }
+
+    /**
+     * Sets the text the name of the items starts with.
+     *
+     * @param nameStart The start of the name, or null for any name.
+     */
+    public void setNameStart(String nameStart) {
+        this.nameStart = nameStart;
+    }
+
+    /**
+     * Sets the order of the results. By default the best items come first.
+     *
+     * @param order The order.
+     */
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    /**
+     * Sets the most results to return.
+     *
+     * @param limit The largest number of results.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit must be non-negative.");
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the slot type of the items.
+     *
+     * @return The slot type, or null for every slot type.
+     */
+    public GearType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the lowest attack stat.
+     *
+     * @return The lowest attack stat, included.
+     */
+    public int getMinAttack() {
+        return minAttack;
+    }
+
+    /**
+     * Gets the highest attack stat.
+     *
+     * @return The highest attack stat, included.
+     */
+    public int getMaxAttack() {
+        return maxAttack;
+    }
+
+    /**
+     * Gets the lowest defense stat.
+     *
+     * @return The lowest defense stat, included.
+     */
+    public int getMinDefense() {
+        return minDefense;
+    }
+
+    /**
+     * Gets the highest defense stat.
+     *
+     * @return The highest defense stat, included.
+     */
+    public int getMaxDefense() {
+        return maxDefense;
+    }
+
+    /**
+     * Gets the text the prefix of the items starts with.
+     *
+     * @return The start of the prefix, or null for any prefix.
+     */
+    public String getPrefixStart() {
+        return prefixStart;
+    }
+
+    /**
+     * Gets the text the name of the items starts with.
+     *
+     * @return The start of the name, or null for any name.
+     */
+    public String getNameStart() {
+        return nameStart;
+    }
+
+    /**
+     * Gets the order of the results.
+     *
+     * @return The order.
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Gets the most results to return.
+     *
+     * @return The largest number of results.
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
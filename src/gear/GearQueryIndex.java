@@ -0,0 +1,644 @@
+package gear;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * The GearQueryIndex class indexes the items of a {@link GearPool} so that a {@link GearQuery}
+ * can be answered without looking at every item: "all foot gear with attack 3 to 7 and defense
+ * of at least 5, by attack", or "the 100 best hand gear whose prefix starts with X". Items can
+ * be added and removed at any time, each in O(log n + B) for blocks of B items.
+ *
+ * For every slot type the items are kept in two sorted columns, one by attack then defense and
+ * one by defense then attack. A column is a list of small sorted blocks, and every block keeps
+ * the lowest and highest value of the other stat among its items, so a scan over a range of the
+ * first stat skips whole blocks that cannot match the range of the second. Prefixes and names
+ * are kept in sorted order with the items that use each of them, so a text filter finds the
+ * matching strings in O(log s) and goes through only the items that have them.
+ *
+ * A query with a limit is answered from the column of its order, so it stops as soon as it has
+ * enough items, unless the items of its text filter are fewer than the scan is expected to go
+ * through. Otherwise it uses whichever of the two columns or the text filter holds the fewest
+ * candidates, and sorts the results when that is not the column of its order.
+ *
+ * An index must be used by one thread at a time, and the pool must only be added to through it.
+ */
+public class GearQueryIndex {
+
+    private static final GearType[] TYPES = GearType.values();
+
+    // The most items in one block of a column
+    private static final int BLOCK_SIZE = 512;
+
+    private final GearPool pool;
+    private final Column[] byAttack = new Column[TYPES.length];
+    private final Column[] byDefense = new Column[TYPES.length];
+    private final BitSet indexed = new BitSet();
+    private int size;
+
+    // Every prefix and name of an indexed item with its id in the string table, sorted
+    private final TreeMap<String, Integer> strings = new TreeMap<>();
+
+    // The items of every prefix and name, by string id
+    private Postings[] byPrefix = new Postings[16];
+    private Postings[] byName = new Postings[16];
+
+    /**
+     * Constructs an index over every item of a pool.
+     *
+     * @param pool The pool.
+     */
+    public GearQueryIndex(GearPool pool) {
+        this.pool = pool;
+        for (int type = 0; type < TYPES.length; type++) {
+            byAttack[type] = new Column();
+            byDefense[type] = new Column();
+        }
+        for (int item = 0; item < pool.size(); item++) {
+            index(item);
+        }
+    }
+
+    /**
+     * Creates an index over a copy of some items, in list order.
+     *
+     * @param items The items.
+     * @return A new index.
+     */
+    public static GearQueryIndex of(List<? extends Gear> items) {
+        return new GearQueryIndex(GearPool.from(items));
+    }
+
+    /**
+     * Adds a copy of a gear item to the pool and the index.
+     *
+     * @param gear The item to add.
+     * @return The index of the new item in the pool.
+     */
+    public int add(Gear gear) {
+        int item = pool.add(gear);
+        index(item);
+        return item;
+    }
+
+    /**
+     * Adds an item to the pool and the index.
+     *
+     * @param type    The slot type of the item.
+     * @param prefix  The prefix of the item.
+     * @param name    The name of the item.
+     * @param attack  The attack stat of the item.
+     * @param defense The defense stat of the item.
+     * @return The index of the new item in the pool.
+     * @throws IllegalArgumentException if a stat is negative or not allowed for the slot type.
+     */
+    public int add(GearType type, String prefix, String name, int attack, int defense) {
+        int item = pool.add(type, prefix, name, attack, defense);
+        index(item);
+        return item;
+    }
+
+    /**
+     * Adds an item of the pool to the index, such as one that was removed before.
+     *
+     * @param item The index of the item in the pool.
+     * @return true if the item was not in the index yet.
+     * @throws IndexOutOfBoundsException if the pool has no such item.
+     */
+    public boolean index(int item) {
+        int type = pool.getType(item).ordinal();
+        if (indexed.get(item)) {
+            return false;
+        }
+        byAttack[type].add(attackKey(item), item);
+        byDefense[type].add(defenseKey(item), item);
+        byPrefix = post(byPrefix, pool.getPrefixId(item), item);
+        byName = post(byName, pool.getNameId(item), item);
+        indexed.set(item);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an item from the index. It stays in the pool and can be indexed again.
+     *
+     * @param item The index of the item in the pool.
+     * @return true if the item was in the index.
+     */
+    public boolean remove(int item) {
+        if (item < 0 || !indexed.get(item)) {
+            return false;
+        }
+        int type = pool.getType(item).ordinal();
+        byAttack[type].remove(attackKey(item), item);
+        byDefense[type].remove(defenseKey(item), item);
+        indexed.clear(item);
+        size--;
+        byPrefix[pool.getPrefixId(item)].remove(indexed);
+        byName[pool.getNameId(item)].remove(indexed);
+        return true;
+    }
+
+    /**
+     * Checks if an item is in the index.
+     *
+     * @param item The index of the item in the pool.
+     * @return true if the item is in the index.
+     */
+    public boolean contains(int item) {
+        return item >= 0 && indexed.get(item);
+    }
+
+    /**
+     * Gets the number of items in the index.
+     *
+     * @return The number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the pool of the index.
+     *
+     * @return The pool.
+     */
+    public GearPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Finds the items that match a query.
+     *
+     * @param query The query.
+     * @return The indexes of the items in the pool, in the order of the query.
+     */
+    public int[] find(GearQuery query) {
+        if (query.getLimit() == 0) {
+            return new int[0];
+        }
+        BitSet prefixes = matching(query.getPrefixStart());
+        BitSet names = matching(query.getNameStart());
+        if ((prefixes != null && prefixes.isEmpty()) || (names != null && names.isEmpty())) {
+            return new int[0];
+        }
+
+        IntBuffer results = new IntBuffer();
+        if (query.getType() != null) {
+            if (!find(query.getType().ordinal(), query, prefixes, names, results)) {
+                sort(results, query.getOrder());
+            }
+        } else {
+            for (int type = 0; type < TYPES.length; type++) {
+                find(type, query, prefixes, names, results);
+            }
+            sort(results, query.getOrder());
+        }
+        return Arrays.copyOf(results.values, Math.min(results.size, query.getLimit()));
+    }
+
+    /**
+     * Finds the items that match a query, as gear.
+     *
+     * @param query The query.
+     * @return New gear objects with the values of the items, in the order of the query.
+     */
+    public List<Gear> findGear(GearQuery query) {
+        int[] items = find(query);
+        List<Gear> gear = new ArrayList<>(items.length);
+        for (int item : items) {
+            gear.add(pool.toGear(item));
+        }
+        return gear;
+    }
+
+    // Adds the items of one slot type that match a query, and tells if they are in the order of the query
+    private boolean find(int type, GearQuery query, BitSet prefixes, BitSet names, IntBuffer results) {
+        GearQuery.Order order = query.getOrder();
+        long attackFrom = key(query.getMinAttack(), query.getMinDefense());
+        long attackTo = key(query.getMaxAttack(), query.getMaxDefense());
+        long defenseFrom = key(query.getMinDefense(), query.getMinAttack());
+        long defenseTo = key(query.getMaxDefense(), query.getMaxAttack());
+        int attackCount = byAttack[type].count(attackFrom, attackTo);
+        int defenseCount = byDefense[type].count(defenseFrom, defenseTo);
+        int ordered = order.isByAttack() ? attackCount : defenseCount;
+
+        // The items of the text filter with the fewest items, if that is fewer than the column holds
+        Postings[] postings = null;
+        BitSet ids = null;
+        int textCount = Integer.MAX_VALUE;
+        if (prefixes != null) {
+            postings = byPrefix;
+            ids = prefixes;
+            textCount = count(byPrefix, prefixes);
+        }
+        if (names != null && count(byName, names) < textCount) {
+            postings = byName;
+            ids = names;
+            textCount = count(byName, names);
+        }
+        // With a limit, a scan of the column of the order stops after about limit items that pass the text filter
+        long scanCount = query.getLimit() == Integer.MAX_VALUE || textCount == Integer.MAX_VALUE ? ordered
+                : Math.min(ordered, (long) query.getLimit() * ordered / Math.max(textCount, 1));
+        if (textCount < Math.min(scanCount, Math.min(attackCount, defenseCount))) {
+            collect(type, query, postings, ids, prefixes, names, results);
+            return false;
+        }
+
+        IntPredicate filter = prefixes == null && names == null ? null : item -> matchesText(item, prefixes, names);
+        if (query.getLimit() == Integer.MAX_VALUE && Math.min(attackCount, defenseCount) < ordered) {
+            // Scanning the other column and sorting is cheaper than scanning the column of the order
+            if (order.isByAttack()) {
+                byDefense[type].scan(defenseFrom, defenseTo, query.getMinAttack(), query.getMaxAttack(), false,
+                        filter, Integer.MAX_VALUE, results);
+            } else {
+                byAttack[type].scan(attackFrom, attackTo, query.getMinDefense(), query.getMaxDefense(), false,
+                        filter, Integer.MAX_VALUE, results);
+            }
+            return false;
+        }
+        if (order.isByAttack()) {
+            byAttack[type].scan(attackFrom, attackTo, query.getMinDefense(), query.getMaxDefense(),
+                    order.isDescending(), filter, query.getLimit(), results);
+        } else {
+            byDefense[type].scan(defenseFrom, defenseTo, query.getMinAttack(), query.getMaxAttack(),
+                    order.isDescending(), filter, query.getLimit(), results);
+        }
+        return true;
+    }
+
+    // Adds the items of one slot type that match a query from the items of the matching strings
+    private void collect(int type, GearQuery query, Postings[] postings, BitSet ids, BitSet prefixes, BitSet names,
+                         IntBuffer results) {
+        BitSet seen = null;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            Postings list = id < postings.length ? postings[id] : null;
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int item = list.items[i];
+                if (!indexed.get(item) || pool.getType(item).ordinal() != type) {
+                    continue;
+                }
+                int attack = pool.getAttackStat(item);
+                int defense = pool.getDefenseStat(item);
+                if (attack < query.getMinAttack() || attack > query.getMaxAttack()
+                        || defense < query.getMinDefense() || defense > query.getMaxDefense()
+                        || !matchesText(item, prefixes, names)) {
+                    continue;
+                }
+                if (list.dead > 0) {
+                    // A removed item that was indexed again can be in the list twice
+                    seen = seen == null ? new BitSet() : seen;
+                    if (seen.get(item)) {
+                        continue;
+                    }
+                    seen.set(item);
+                }
+                results.add(item);
+            }
+        }
+    }
+
+    // Gets the ids of the strings that start with some text, or null to match any string
+    private BitSet matching(String start) {
+        if (start == null) {
+            return null;
+        }
+        BitSet ids = new BitSet();
+        for (int id : strings.subMap(start, true, start + Character.MAX_VALUE, true).values()) {
+            ids.set(id);
+        }
+        return ids;
+    }
+
+    private boolean matchesText(int item, BitSet prefixes, BitSet names) {
+        return (prefixes == null || prefixes.get(pool.getPrefixId(item)))
+                && (names == null || names.get(pool.getNameId(item)));
+    }
+
+    private static int count(Postings[] postings, BitSet ids) {
+        int count = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (id < postings.length && postings[id] != null) {
+                count += postings[id].size - postings[id].dead;
+            }
+        }
+        return count;
+    }
+
+    // Adds an item to the list of a string, making room for the string id if needed
+    private Postings[] post(Postings[] postings, int id, int item) {
+        if (id >= postings.length) {
+            postings = Arrays.copyOf(postings, Math.max(id + 1, postings.length * 2));
+        }
+        if (postings[id] == null) {
+            postings[id] = new Postings();
+            strings.put(pool.getStrings().get(id), id);
+        }
+        postings[id].add(item);
+        return postings;
+    }
+
+    private void sort(IntBuffer results, GearQuery.Order order) {
+        Integer[] boxed = new Integer[results.size];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = results.values[i];
+        }
+        Comparator<Integer> comparator = order.isByAttack()
+                ? Comparator.comparingLong(this::attackKey) : Comparator.comparingLong(this::defenseKey);
+        comparator = comparator.thenComparingInt(Integer::intValue);
+        Arrays.sort(boxed, order.isDescending() ? comparator.reversed() : comparator);
+        for (int i = 0; i < boxed.length; i++) {
+            results.values[i] = boxed[i];
+        }
+    }
+
+    private long attackKey(int item) {
+        return key(pool.getAttackStat(item), pool.getDefenseStat(item));
+    }
+
+    private long defenseKey(int item) {
+        return key(pool.getDefenseStat(item), pool.getAttackStat(item));
+    }
+
+    // Stats are never negative, so the key sorts by the first stat and then by the second
+    private static long key(int first, int second) {
+        return (long) first << 32 | second;
+    }
+
+    // Compares two entries of a column by key, then by item
+    private static int compare(long key, int item, long otherKey, int otherItem) {
+        int result = Long.compare(key, otherKey);
+        return result != 0 ? result : Integer.compare(item, otherItem);
+    }
+
+    /**
+     * The items of one slot type sorted by a key of two stats, in blocks of at most BLOCK_SIZE
+     * items. Every block keeps the range of the second stat of its items.
+     */
+    private static final class Column {
+
+        private Block[] blocks = new Block[4];
+        private int blockCount;
+
+        void add(long key, int item) {
+            if (blockCount == 0) {
+                insertBlock(0, new Block());
+            }
+            int b = findBlock(key, item);
+            Block block = blocks[b];
+            if (block.size == BLOCK_SIZE) {
+                Block upper = block.split();
+                insertBlock(b + 1, upper);
+                if (compare(key, item, upper.keys[0], upper.items[0]) >= 0) {
+                    block = upper;
+                }
+            }
+            block.insert(key, item);
+        }
+
+        void remove(long key, int item) {
+            int b = findBlock(key, item);
+            if (blocks[b].remove(key, item) && blocks[b].size == 0) {
+                blockCount--;
+                System.arraycopy(blocks, b + 1, blocks, b, blockCount - b);
+                blocks[blockCount] = null;
+            }
+        }
+
+        // Counts the entries with keys from..to
+        int count(long from, long to) {
+            if (blockCount == 0 || from > to) {
+                return 0;
+            }
+            int first = findBlock(from, -1);
+            int last = findBlock(to, Integer.MAX_VALUE);
+            if (first == last) {
+                return blocks[first].lowerBound(to, Integer.MAX_VALUE) - blocks[first].lowerBound(from, -1);
+            }
+            int count = blocks[first].size - blocks[first].lowerBound(from, -1)
+                    + blocks[last].lowerBound(to, Integer.MAX_VALUE);
+            for (int b = first + 1; b < last; b++) {
+                count += blocks[b].size;
+            }
+            return count;
+        }
+
+        // Adds up to limit items with keys from..to and the second stat in minOther..maxOther
+        void scan(long from, long to, int minOther, int maxOther, boolean descending, IntPredicate filter,
+                  int limit, IntBuffer results) {
+            if (blockCount == 0 || from > to) {
+                return;
+            }
+            int remaining = limit;
+            if (!descending) {
+                int first = findBlock(from, -1);
+                int start = blocks[first].lowerBound(from, -1);
+                for (int b = first; b < blockCount; b++) {
+                    Block block = blocks[b];
+                    if (block.keys[0] > to) {
+                        return;
+                    }
+                    if (block.maxOther < minOther || block.minOther > maxOther) {
+                        continue;
+                    }
+                    for (int i = b == first ? start : 0; i < block.size; i++) {
+                        long key = block.keys[i];
+                        if (key > to) {
+                            return;
+                        }
+                        int other = (int) key;
+                        if (other >= minOther && other <= maxOther && (filter == null || filter.test(block.items[i]))) {
+                            results.add(block.items[i]);
+                            if (--remaining == 0) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            } else {
+                int last = findBlock(to, Integer.MAX_VALUE);
+                int start = blocks[last].lowerBound(to, Integer.MAX_VALUE) - 1;
+                for (int b = last; b >= 0; b--) {
+                    Block block = blocks[b];
+                    if (block.keys[block.size - 1] < from) {
+                        return;
+                    }
+                    if (block.maxOther < minOther || block.minOther > maxOther) {
+                        continue;
+                    }
+                    for (int i = b == last ? start : block.size - 1; i >= 0; i--) {
+                        long key = block.keys[i];
+                        if (key < from) {
+                            return;
+                        }
+                        int other = (int) key;
+                        if (other >= minOther && other <= maxOther && (filter == null || filter.test(block.items[i]))) {
+                            results.add(block.items[i]);
+                            if (--remaining == 0) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Finds the last block whose first entry is not after the entry, or the first block
+        private int findBlock(long key, int item) {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (compare(blocks[middle].keys[0], blocks[middle].items[0], key, item) <= 0) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        private void insertBlock(int index, Block block) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+            }
+            System.arraycopy(blocks, index, blocks, index + 1, blockCount - index);
+            blocks[index] = block;
+            blockCount++;
+        }
+    }
+
+    /**
+     * A sorted block of a column, with the lowest and highest second stat of its items.
+     */
+    private static final class Block {
+
+        private final long[] keys = new long[BLOCK_SIZE];
+        private final int[] items = new int[BLOCK_SIZE];
+        private int size;
+        private int minOther = Integer.MAX_VALUE;
+        private int maxOther = Integer.MIN_VALUE;
+
+        // Finds the first entry that is not before the entry
+        int lowerBound(long key, int item) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(keys[middle], items[middle], key, item) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        void insert(long key, int item) {
+            int index = lowerBound(key, item);
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(items, index, items, index + 1, size - index);
+            keys[index] = key;
+            items[index] = item;
+            size++;
+            minOther = Math.min(minOther, (int) key);
+            maxOther = Math.max(maxOther, (int) key);
+        }
+
+        boolean remove(long key, int item) {
+            int index = lowerBound(key, item);
+            if (index == size || keys[index] != key || items[index] != item) {
+                return false;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            size--;
+            if ((int) key == minOther || (int) key == maxOther) {
+                updateBounds();
+            }
+            return true;
+        }
+
+        // Moves the upper half of the entries to a new block
+        Block split() {
+            Block upper = new Block();
+            int half = size / 2;
+            upper.size = size - half;
+            System.arraycopy(keys, half, upper.keys, 0, upper.size);
+            System.arraycopy(items, half, upper.items, 0, upper.size);
+            size = half;
+            updateBounds();
+            upper.updateBounds();
+            return upper;
+        }
+
+        private void updateBounds() {
+            minOther = Integer.MAX_VALUE;
+            maxOther = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                minOther = Math.min(minOther, (int) keys[i]);
+                maxOther = Math.max(maxOther, (int) keys[i]);
+            }
+        }
+    }
+
+    /**
+     * The items of one prefix or name, in the order they were indexed. Removed items are left
+     * in the list until they are half of it; dead counts them, together with the second copy
+     * of a removed item that was indexed again.
+     */
+    private static final class Postings {
+
+        private int[] items = new int[4];
+        private int size;
+        private int dead;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        void remove(BitSet indexed) {
+            dead++;
+            if (dead * 2 > size) {
+                BitSet kept = new BitSet();
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    int item = items[i];
+                    if (indexed.get(item) && !kept.get(item)) {
+                        kept.set(item);
+                        items[count++] = item;
+                    }
+                }
+                size = count;
+                dead = 0;
+            }
+        }
+    }
+
+    /**
+     * A growable array of item indexes.
+     */
+    private static final class IntBuffer {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
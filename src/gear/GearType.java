@@ -0,0 +1,56 @@
+package gear;
+
+/**
+ * The GearType enum names the equipment slot a piece of gear occupies.
+ * The declaration order (head, hand, foot) is the order in which gear types are
+ * considered when two candidates have equal stats.
+ */
+public enum GearType {
+    HEAD,
+    HAND,
+    FOOT;
+
+    /**
+     * Determines the slot type of a piece of gear from {@link Gear#getType()}. Gear that
+     * does not name a slot type is treated as foot gear.
+     *
+     * @param gear The gear to classify.
+     * @return The slot type of the gear.
+     */
+    public static GearType of(Gear gear) {
+        GearType type = gear.getType();
+        return type != null ? type : FOOT;
+    }
+
+    /**
+     * Tells why stats are not allowed for gear of this type, if they are not. No stat may be
+     * negative, head gear has no attack and hand gear has no defense, as with the gear classes.
+     *
+     * @param attack  The attack stat.
+     * @param defense The defense stat.
+     * @return The reason the stats are not allowed, or null if they are.
+     */
+    public String checkStats(int attack, int defense) {
+        if (attack < 0 || defense < 0) {
+            return "Attack and defense stats must be non-negative.";
+        }
+        if ((this == HEAD && attack != 0) || (this == HAND && defense != 0)) {
+            return this + " gear cannot have that stat.";
+        }
+        return null;
+    }
+
+    /**
+     * Checks that stats are allowed for gear of this type, as told by {@link #checkStats}.
+     *
+     * @param attack  The attack stat.
+     * @param defense The defense stat.
+     * @throws IllegalArgumentException if the stats are not allowed.
+     */
+    public void validateStats(int attack, int defense) {
+        String error = checkStats(attack, defense);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+}
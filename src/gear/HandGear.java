@@ -15,6 +15,17 @@ public class HandGear extends AbstractGear {
      * @throws IllegalArgumentException if the attack stat is negative.
      */
     public HandGear(String prefix, String name, int attack) {
+        this(Prefix.of(prefix), name, attack);
+    }
+
+    /**
+     * Constructs a HandGear whose prefix may be a combination of other prefixes.
+     *
+     * @param prefix The combined prefix of the hand gear.
+     * @param name   The name of the hand gear.
+     * @param attack The attack stat of the hand gear.
+     */
+    HandGear(Prefix prefix, String name, int attack) {
         super(prefix, name);
 
         // Validate that the attack stat is non-negative
@@ -26,6 +37,16 @@ public class HandGear extends AbstractGear {
         this.setAttackStat(attack);
     }
 
+    /**
+     * Gets the slot type of the gear.
+     *
+     * @return {@link GearType#HAND}.
+     */
+    @Override
+    public GearType getType() {
+        return GearType.HAND;
+    }
+
     /**
      * Creates a new hand gear by combining the current hand gear with the provided gear.
      *
@@ -35,7 +56,7 @@ public class HandGear extends AbstractGear {
     @Override
     public Gear createGear(Gear gear) {
         // Combine the prefixes and calculate the new attack stat
-        String newPrefix = this.getPrefix() + ", " + gear.getPrefix();
+        Prefix newPrefix = combinePrefix(gear);
         int newAttackStat = this.getAttackStat() + gear.getAttackStat();
 
         // Create and return a new HandGear instance
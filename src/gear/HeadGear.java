@@ -15,6 +15,17 @@ public class HeadGear extends AbstractGear {
      * @throws IllegalArgumentException if the defense stat is negative.
      */
     public HeadGear(String prefix, String name, int defense) {
+        this(Prefix.of(prefix), name, defense);
+    }
+
+    /**
+     * Constructs a HeadGear whose prefix may be a combination of other prefixes.
+     *
+     * @param prefix  The combined prefix of the head gear.
+     * @param name    The name of the head gear.
+     * @param defense The defense stat of the head gear.
+     */
+    HeadGear(Prefix prefix, String name, int defense) {
         super(prefix, name);
 
         // Validate that the defense stat is non-negative
@@ -26,6 +37,16 @@ public class HeadGear extends AbstractGear {
         this.setDefenseStat(defense);
     }
 
+    /**
+     * Gets the slot type of the gear.
+     *
+     * @return {@link GearType#HEAD}.
+     */
+    @Override
+    public GearType getType() {
+        return GearType.HEAD;
+    }
+
     /**
      * Creates a new head gear by combining the current head gear with the provided gear.
      *
@@ -35,7 +56,7 @@ public class HeadGear extends AbstractGear {
     @Override
     public Gear createGear(Gear gear) {
         // Combine the prefixes and calculate the new defense stat
-        String newPrefix = this.getPrefix() + ", " + gear.getPrefix();
+        Prefix newPrefix = combinePrefix(gear);
         int newDefenseStat = this.getDefenseStat() + gear.getDefenseStat();
 
         // Create and return a new HeadGear instance
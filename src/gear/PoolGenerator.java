@@ -0,0 +1,204 @@
+package gear;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * The PoolGenerator class generates random item pools from an explicit seed, so that any pool,
+ * and the battle fought over it, can be generated again later.
+ *
+ * Every item is generated from its own random stream, derived from the seed, the number of
+ * its pool and its index in the pool. An item therefore does not depend on the items before
+ * it: pools can be generated lazily, in any order, or split between threads, and the result
+ * is always the same for the same seed.
+ *
+ * The slot type of an item is drawn with configurable weights, and its stats from configurable
+ * distributions. Head gear only draws a defense stat and hand gear only an attack stat.
+ */
+public class PoolGenerator {
+
+    /**
+     * The StatDistribution interface draws a stat value.
+     */
+    @FunctionalInterface
+    public interface StatDistribution {
+
+        /**
+         * Draws a stat value.
+         *
+         * @param rand The random stream of the item.
+         * @return A non-negative stat value.
+         */
+        int sample(SplittableRandom rand);
+
+        /**
+         * Creates a distribution where every value from 0 up to a bound is equally likely.
+         *
+         * @param bound The exclusive upper bound.
+         * @return The distribution.
+         */
+        static StatDistribution uniform(int bound) {
+            return rand -> rand.nextInt(bound);
+        }
+
+        /**
+         * Creates a distribution of values from 0 up to a bound where low values are common
+         * and high values are rare: the lower of two uniform draws.
+         *
+         * @param bound The exclusive upper bound.
+         * @return The distribution.
+         */
+        static StatDistribution skewedLow(int bound) {
+            return rand -> Math.min(rand.nextInt(bound), rand.nextInt(bound));
+        }
+    }
+
+    // Stats are drawn from 0 up to this bound by default, as Main always did
+    private static final int DEFAULT_STAT_BOUND = 10;
+
+    private static final String[] NAMES = {"Helmet", "Glove", "Boot"};
+    private static final GearType[] TYPES = GearType.values();
+
+    private final long seed;
+    private final int[] cumulativeWeights;
+    private final StatDistribution attackStats;
+    private final StatDistribution defenseStats;
+    private final GearCache cache;
+
+    /**
+     * Constructs a generator where every slot type is equally likely and stats are drawn
+     * uniformly below 10, which creates a new gear object for every item.
+     *
+     * @param seed The seed of all pools.
+     */
+    public PoolGenerator(long seed) {
+        this(seed, null);
+    }
+
+    /**
+     * Constructs a generator where every slot type is equally likely and stats are drawn
+     * uniformly below 10, which takes frozen items from a cache.
+     *
+     * @param seed  The seed of all pools.
+     * @param cache The cache that frozen items are taken from, or null to create new gear objects.
+     */
+    public PoolGenerator(long seed, GearCache cache) {
+        this(seed, new int[] {1, 1, 1}, StatDistribution.uniform(DEFAULT_STAT_BOUND),
+                StatDistribution.uniform(DEFAULT_STAT_BOUND), cache);
+    }
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed         The seed of all pools.
+     * @param typeWeights  The relative weights of head, hand and foot gear.
+     * @param attackStats  The distribution of attack stats.
+     * @param defenseStats The distribution of defense stats.
+     * @param cache        The cache that frozen items are taken from, or null to create new gear objects.
+     * @throws IllegalArgumentException if there is not one weight per slot type, or the weights are negative or all 0.
+     */
+    public PoolGenerator(long seed, int[] typeWeights, StatDistribution attackStats, StatDistribution defenseStats,
+                         GearCache cache) {
+        if (typeWeights.length != TYPES.length) {
+            throw new IllegalArgumentException("Expected " + TYPES.length + " type weights.");
+        }
+        cumulativeWeights = new int[TYPES.length];
+        int total = 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            if (typeWeights[i] < 0) {
+                throw new IllegalArgumentException("Type weights must be non-negative.");
+            }
+            total += typeWeights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one type weight must be positive.");
+        }
+        this.seed = seed;
+        this.attackStats = attackStats;
+        this.defenseStats = defenseStats;
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the seed of all pools.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates one item of a pool. Items are named like the pools Main used to build: "adj"
+     * and the 1-based index as prefix, and Helmet, Glove or Boot as name.
+     *
+     * @param pool  The number of the pool.
+     * @param index The 0-based index of the item in the pool.
+     * @return The item.
+     */
+    public Gear item(long pool, int index) {
+        SplittableRandom rand = new SplittableRandom(
+                GearHash.mix(GearHash.mix(GearHash.mix(seed) + pool) + index));
+        int roll = rand.nextInt(cumulativeWeights[TYPES.length - 1]);
+        int type = 0;
+        while (roll >= cumulativeWeights[type]) {
+            type++;
+        }
+        int attack = TYPES[type] == GearType.HEAD ? 0 : attackStats.sample(rand);
+        int defense = TYPES[type] == GearType.HAND ? 0 : defenseStats.sample(rand);
+        String prefix = "adj" + (index + 1);
+        if (cache != null) {
+            return cache.get(TYPES[type], prefix, NAMES[type], attack, defense);
+        }
+        switch (TYPES[type]) {
+            case HEAD:
+                return new HeadGear(prefix, NAMES[type], defense);
+            case HAND:
+                return new HandGear(prefix, NAMES[type], attack);
+            default:
+                return new FootGear(prefix, NAMES[type], attack, defense);
+        }
+    }
+
+    /**
+     * Generates a pool.
+     *
+     * @param pool The number of the pool.
+     * @param size The number of items in the pool.
+     * @return A new list of the items.
+     */
+    public List<Gear> generate(long pool, int size) {
+        List<Gear> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(item(pool, i));
+        }
+        return items;
+    }
+
+    /**
+     * Streams the items of a pool lazily. The stream can be made parallel, and still holds the
+     * same items in the same order.
+     *
+     * @param pool The number of the pool.
+     * @param size The number of items in the pool.
+     * @return A stream of the items.
+     */
+    public Stream<Gear> stream(long pool, int size) {
+        return IntStream.range(0, size).mapToObj(index -> item(pool, index));
+    }
+
+    /**
+     * Streams pools lazily, starting with pool 0. The stream never ends, so it must be limited.
+     *
+     * @param size The number of items in every pool.
+     * @return A stream of new lists of items.
+     */
+    public Stream<List<Gear>> pools(int size) {
+        return LongStream.iterate(0, pool -> pool + 1).mapToObj(pool -> generate(pool, size));
+    }
+}
@@ -0,0 +1,93 @@
+package gear;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The Prefix class holds the prefix of a gear as an immutable rope. Combining two gears joins
+ * their prefixes with a new node in O(1) instead of copying both strings, and the joined text
+ * is only built when it is asked for. The result is cached, so each prefix is built at most once.
+ *
+ * A prefix of null text stays null on its own, and is joined as "null", as string
+ * concatenation did before prefixes were ropes.
+ */
+final class Prefix {
+
+    private static final String SEPARATOR = ", ";
+    private static final Prefix SEPARATOR_PART = new Prefix(SEPARATOR);
+    private static final String NULL_TEXT = "null";
+
+    // A leaf has text and no children; a joined prefix has two children until it is built
+    private final Prefix left;
+    private final Prefix right;
+    private final long length;
+    private String text;
+
+    private Prefix(String text) {
+        this.left = null;
+        this.right = null;
+        this.length = text == null ? NULL_TEXT.length() : text.length();
+        this.text = text;
+    }
+
+    private Prefix(Prefix left, Prefix right) {
+        this.left = left;
+        this.right = right;
+        this.length = left.length + SEPARATOR.length() + right.length;
+    }
+
+    /**
+     * Creates a prefix holding a single string.
+     *
+     * @param text The prefix text.
+     * @return A new prefix.
+     */
+    static Prefix of(String text) {
+        return new Prefix(text);
+    }
+
+    /**
+     * Joins this prefix and another one, separated by a comma.
+     *
+     * @param other The prefix that goes after this one.
+     * @return A new prefix that shares both parts.
+     */
+    Prefix join(Prefix other) {
+        return new Prefix(this, other);
+    }
+
+    /**
+     * Builds the prefix text, walking the rope with an explicit stack so that long chains of
+     * combines cannot overflow the call stack.
+     *
+     * @return The prefix text, or null if this is a single prefix of null text.
+     */
+    @Override
+    public String toString() {
+        String result = text;
+        if (result != null || left == null) {
+            return result;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Prefix is too long to build: " + length + " characters");
+        }
+
+        StringBuilder builder = new StringBuilder((int) length);
+        Deque<Prefix> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Prefix part = pending.pop();
+            if (part.text != null || part.left == null) {
+                builder.append(part.text != null ? part.text : NULL_TEXT);
+            } else {
+                // Push in reverse order so the left part is built first
+                pending.push(part.right);
+                pending.push(SEPARATOR_PART);
+                pending.push(part.left);
+            }
+        }
+        result = builder.toString();
+        text = result;
+        return result;
+    }
+}
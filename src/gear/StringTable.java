@@ -0,0 +1,51 @@
+package gear;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The StringTable class interns strings as small integer ids, so a prefix or name that is
+ * shared by many items is stored once and each item only keeps its id.
+ */
+public class StringTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Gets the id of a string, adding the string to the table if it is new.
+     *
+     * @param value The string to intern.
+     * @return The id of the string.
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the string with the given id.
+     *
+     * @param id The id of the string.
+     * @return The string.
+     */
+    public String get(int id) {
+        return strings.get(id);
+    }
+
+    /**
+     * Gets the number of distinct strings in the table.
+     *
+     * @return The number of strings.
+     */
+    public int size() {
+        return strings.size();
+    }
+}
@@ -0,0 +1,589 @@
+package gear.store;
+
+import gear.FootGear;
+import gear.Gear;
+import gear.GearType;
+import gear.HandGear;
+import gear.HeadGear;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The GearCatalogLoader class reads gear catalogs maintained outside the code, one item per
+ * line, and hands every valid item to a sink such as a {@link gear.GearPool}, a
+ * {@link GearPoolWriter} or a list that becomes a battle pool. Two formats are read:
+ *
+ * - CSV: the columns type, prefix, name, attack and defense. A header line starting with
+ *   "type" is skipped, and fields may be quoted with double quotes, with "" for a quote.
+ * - JSON lines: one flat object per line with the keys type, prefix and name (strings) and
+ *   attack and defense (integers, 0 when left out). Other keys are ignored.
+ *
+ * Types are HEAD, HAND or FOOT in any case, and blank lines are skipped. Every row is checked
+ * like the gear constructors check their stats: no negative stats, no attack on head gear and
+ * no defense on hand gear. A row that fails is reported to the {@link ErrorHandler} with its
+ * line number and loading goes on with the next line.
+ *
+ * The input is read in fixed-size blocks and parsed in place, so memory use does not grow
+ * with the size of the catalog. Prefixes and names that repeat are taken from a small cache
+ * instead of being created again for every row. A loader keeps state while it loads and must
+ * only be used by one thread at a time.
+ */
+public class GearCatalogLoader {
+
+    /**
+     * The formats a catalog can be written in.
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        /**
+         * Determines the format of a catalog from its file name: .json and .jsonl files are
+         * JSON lines, anything else is CSV.
+         *
+         * @param path The catalog file.
+         * @return The format of the file.
+         */
+        public static Format of(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".json") || name.endsWith(".jsonl") ? JSON_LINES : CSV;
+        }
+    }
+
+    /**
+     * The ItemSink interface receives the valid items of a catalog. It matches
+     * {@link gear.GearPool#add(GearType, String, String, int, int)} and
+     * {@link GearPoolWriter#add(GearType, String, String, int, int)}, so either can be passed
+     * as a method reference.
+     */
+    @FunctionalInterface
+    public interface ItemSink {
+
+        /**
+         * Called for every valid item.
+         *
+         * @param type    The slot type of the item.
+         * @param prefix  The prefix of the item.
+         * @param name    The name of the item.
+         * @param attack  The attack stat of the item.
+         * @param defense The defense stat of the item.
+         */
+        void accept(GearType type, String prefix, String name, int attack, int defense);
+    }
+
+    /**
+     * The ErrorHandler interface receives the rows that could not be loaded.
+     */
+    @FunctionalInterface
+    public interface ErrorHandler {
+
+        /**
+         * Called for every row that is skipped.
+         *
+         * @param line    The 1-based line number of the row.
+         * @param message What is wrong with the row.
+         */
+        void onError(long line, String message);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Number of prefixes and names remembered; a string that misses replaces the one in its slot
+    private static final int STRING_CACHE_SIZE = 4096;
+
+    private static final String[] COLUMNS = {"type", "prefix", "name", "attack", "defense"};
+
+    private final Format format;
+    private final ErrorHandler errors;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final String[] stringCache = new String[STRING_CACHE_SIZE];
+    private char[] line = new char[256];
+    private char[] scratch = new char[64];
+    private int scratchLength;
+    private long itemCount;
+    private long errorCount;
+
+    // The values of the row being parsed
+    private GearType type;
+    private String prefix;
+    private String name;
+    private long attack;
+    private long defense;
+
+    /**
+     * Constructs a loader.
+     *
+     * @param format The format of the catalogs.
+     * @param errors Called for every row that is skipped.
+     */
+    public GearCatalogLoader(Format format, ErrorHandler errors) {
+        this.format = format;
+        this.errors = errors;
+    }
+
+    /**
+     * Creates a sink that turns items into gear objects.
+     *
+     * @param consumer Called with every item as a new HeadGear, HandGear or FootGear.
+     * @return The sink.
+     */
+    public static ItemSink gearSink(Consumer<? super Gear> consumer) {
+        return (type, prefix, name, attack, defense) -> {
+            switch (type) {
+                case HEAD:
+                    consumer.accept(new HeadGear(prefix, name, defense));
+                    break;
+                case HAND:
+                    consumer.accept(new HandGear(prefix, name, attack));
+                    break;
+                default:
+                    consumer.accept(new FootGear(prefix, name, attack, defense));
+            }
+        };
+    }
+
+    /**
+     * Loads a catalog file, which is read as UTF-8.
+     *
+     * @param path The catalog file.
+     * @param sink Called with every valid item, in file order.
+     * @return The number of items loaded.
+     * @throws IOException if the file cannot be read.
+     */
+    public long load(Path path, ItemSink sink) throws IOException {
+        try (Reader in = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return load(in, sink);
+        }
+    }
+
+    /**
+     * Loads a catalog. The reader is read to its end but not closed.
+     *
+     * @param in   The catalog text.
+     * @param sink Called with every valid item, in order.
+     * @return The number of items loaded.
+     * @throws IOException if the reader fails.
+     */
+    public long load(Reader in, ItemSink sink) throws IOException {
+        itemCount = 0;
+        errorCount = 0;
+        long lineNumber = 0;
+        // Characters of a line that started in an earlier block
+        int carry = 0;
+        int read;
+        while ((read = in.read(buffer, 0, buffer.length)) > 0) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                lineNumber++;
+                if (carry > 0) {
+                    carry = append(carry, start, i);
+                    row(line, 0, carry, lineNumber, sink);
+                    carry = 0;
+                } else {
+                    row(buffer, start, i, lineNumber, sink);
+                }
+                start = i + 1;
+            }
+            carry = append(carry, start, read);
+        }
+        if (carry > 0) {
+            row(line, 0, carry, lineNumber + 1, sink);
+        }
+        return itemCount;
+    }
+
+    /**
+     * Gets the number of items loaded by the last load.
+     *
+     * @return The number of items.
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Gets the number of rows skipped by the last load.
+     *
+     * @return The number of rows with errors.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    private int append(int carry, int from, int to) {
+        int length = carry + to - from;
+        if (length > line.length) {
+            line = Arrays.copyOf(line, Math.max(length, line.length * 2));
+        }
+        System.arraycopy(buffer, from, line, carry, to - from);
+        return length;
+    }
+
+    private void row(char[] chars, int from, int to, long lineNumber, ItemSink sink) {
+        if (to > from && chars[to - 1] == '\r') {
+            to--;
+        }
+        from = skipSpaces(chars, from, to);
+        if (from == to) {
+            return;
+        }
+        type = null;
+        prefix = null;
+        name = null;
+        attack = 0;
+        defense = 0;
+        String error = format == Format.CSV ? parseCsv(chars, from, to) : parseJson(chars, from, to);
+        if (error == null) {
+            error = check();
+        }
+        if (error == null) {
+            try {
+                sink.accept(type, prefix, name, (int) attack, (int) defense);
+                itemCount++;
+                return;
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+        }
+        if (!error.isEmpty()) {
+            errorCount++;
+            errors.onError(lineNumber, error);
+        }
+    }
+
+    // The same checks as the gear constructors and GearPool.add
+    private String check() {
+        if (type == null) {
+            return "Missing type.";
+        }
+        if (prefix == null || name == null) {
+            return "Missing prefix or name.";
+        }
+        return type.checkStats((int) attack, (int) defense);
+    }
+
+    /**
+     * Parses a CSV row into the row values.
+     *
+     * @return An error message, an empty message for a header line, or null if the row was parsed.
+     */
+    private String parseCsv(char[] chars, int from, int to) {
+        int position = from;
+        for (int column = 0; column < COLUMNS.length; column++) {
+            if (position > to) {
+                return "Expected " + COLUMNS.length + " columns, found " + column + ".";
+            }
+            int start;
+            int end;
+            char[] text;
+            position = skipSpaces(chars, position, to);
+            if (position < to && chars[position] == '"') {
+                scratchLength = 0;
+                position++;
+                while (true) {
+                    if (position >= to) {
+                        return "Unterminated quote in column " + COLUMNS[column] + ".";
+                    }
+                    char c = chars[position++];
+                    if (c == '"') {
+                        if (position < to && chars[position] == '"') {
+                            position++;
+                        } else {
+                            break;
+                        }
+                    }
+                    addScratch(c);
+                }
+                position = skipSpaces(chars, position, to);
+                if (position < to && chars[position] != ',') {
+                    return "Unexpected text after the quoted " + COLUMNS[column] + ".";
+                }
+                text = scratch;
+                start = 0;
+                end = scratchLength;
+            } else {
+                start = position;
+                while (position < to && chars[position] != ',') {
+                    position++;
+                }
+                end = trimEnd(chars, start, position);
+                text = chars;
+            }
+            position++;
+
+            if (column == 0 && equalsIgnoreCase(text, start, end, "type")) {
+                return "";
+            }
+            String error = setValue(column, text, start, end);
+            if (error != null) {
+                return error;
+            }
+        }
+        if (position <= to) {
+            return "Expected " + COLUMNS.length + " columns, found more.";
+        }
+        return null;
+    }
+
+    /**
+     * Parses a flat JSON object into the row values.
+     *
+     * @return An error message, or null if the row was parsed.
+     */
+    private String parseJson(char[] chars, int from, int to) {
+        int position = from;
+        if (chars[position] != '{') {
+            return "Expected a JSON object.";
+        }
+        position = skipSpaces(chars, position + 1, to);
+        if (position < to && chars[position] == '}') {
+            position++;
+        } else {
+            while (true) {
+                if (position >= to || chars[position] != '"') {
+                    return "Expected a key in quotes.";
+                }
+                position = parseJsonString(chars, position + 1, to);
+                if (position < 0) {
+                    return "Invalid string.";
+                }
+                int column = -1;
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (equalsIgnoreCase(scratch, 0, scratchLength, COLUMNS[i])) {
+                        column = i;
+                    }
+                }
+                position = skipSpaces(chars, position, to);
+                if (position >= to || chars[position] != ':') {
+                    return "Expected ':' after a key.";
+                }
+                position = skipSpaces(chars, position + 1, to);
+                if (position >= to) {
+                    return "Missing value.";
+                }
+
+                String error = null;
+                if (chars[position] == '"') {
+                    position = parseJsonString(chars, position + 1, to);
+                    if (position < 0) {
+                        return "Invalid string.";
+                    }
+                    if (column >= 3) {
+                        return "The " + COLUMNS[column] + " must be a number.";
+                    }
+                    if (column >= 0) {
+                        error = setValue(column, scratch, 0, scratchLength);
+                    }
+                } else {
+                    int start = position;
+                    while (position < to && chars[position] != ',' && chars[position] != '}'
+                            && chars[position] != ' ' && chars[position] != '\t') {
+                        position++;
+                    }
+                    if (column >= 0 && column < 3) {
+                        return "The " + COLUMNS[column] + " must be a string.";
+                    }
+                    if (column >= 0) {
+                        error = setValue(column, chars, start, position);
+                    }
+                }
+                if (error != null) {
+                    return error;
+                }
+
+                position = skipSpaces(chars, position, to);
+                if (position < to && chars[position] == ',') {
+                    position = skipSpaces(chars, position + 1, to);
+                } else if (position < to && chars[position] == '}') {
+                    position++;
+                    break;
+                } else {
+                    return "Expected ',' or '}'.";
+                }
+            }
+        }
+        if (skipSpaces(chars, position, to) != to) {
+            return "Unexpected text after the object.";
+        }
+        return null;
+    }
+
+    /**
+     * Reads a JSON string, whose opening quote has been read, into the scratch buffer.
+     *
+     * @return The position after the closing quote, or -1 if the string is invalid.
+     */
+    private int parseJsonString(char[] chars, int position, int to) {
+        scratchLength = 0;
+        while (position < to) {
+            char c = chars[position++];
+            if (c == '"') {
+                return position;
+            }
+            if (c == '\\') {
+                if (position >= to) {
+                    return -1;
+                }
+                char escaped = chars[position++];
+                switch (escaped) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'u':
+                        if (position + 4 > to) {
+                            return -1;
+                        }
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(chars[position++], 16);
+                            if (digit < 0) {
+                                return -1;
+                            }
+                            code = code * 16 + digit;
+                        }
+                        c = (char) code;
+                        break;
+                    default:
+                        c = escaped;
+                }
+            }
+            addScratch(c);
+        }
+        return -1;
+    }
+
+    private String setValue(int column, char[] text, int start, int end) {
+        switch (column) {
+            case 0:
+                for (GearType candidate : GearType.values()) {
+                    if (equalsIgnoreCase(text, start, end, candidate.name())) {
+                        type = candidate;
+                        return null;
+                    }
+                }
+                return "Unknown gear type '" + new String(text, start, end - start) + "'.";
+            case 1:
+                prefix = string(text, start, end);
+                return null;
+            case 2:
+                name = string(text, start, end);
+                return null;
+            default:
+                long value = parseInt(text, start, end);
+                if (value == Long.MIN_VALUE) {
+                    return "The " + COLUMNS[column] + " '" + new String(text, start, end - start) + "' is not a number.";
+                }
+                if (column == 3) {
+                    attack = value;
+                } else {
+                    defense = value;
+                }
+                return null;
+        }
+    }
+
+    /**
+     * Parses a decimal int.
+     *
+     * @return The value, or Long.MIN_VALUE if the text is not an int.
+     */
+    private static long parseInt(char[] text, int start, int end) {
+        boolean negative = start < end && text[start] == '-';
+        int position = negative ? start + 1 : start;
+        if (position == end) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = text[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                return Long.MIN_VALUE;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Gets a string with the given characters, reusing the cached one if it is the same.
+     */
+    private String string(char[] text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+        String cached = stringCache[slot];
+        if (cached != null && cached.length() == end - start) {
+            boolean same = true;
+            for (int i = 0; i < cached.length() && same; i++) {
+                same = cached.charAt(i) == text[start + i];
+            }
+            if (same) {
+                return cached;
+            }
+        }
+        String value = new String(text, start, end - start);
+        stringCache[slot] = value;
+        return value;
+    }
+
+    private void addScratch(char c) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        }
+        scratch[scratchLength++] = c;
+    }
+
+    private static boolean equalsIgnoreCase(char[] text, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toUpperCase(text[start + i]) != Character.toUpperCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(char[] chars, int position, int to) {
+        while (position < to && (chars[position] == ' ' || chars[position] == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int trimEnd(char[] chars, int from, int to) {
+        while (to > from && (chars[to - 1] == ' ' || chars[to - 1] == '\t')) {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,320 @@
+package gear.store;
+
+import gear.FootGear;
+import gear.Gear;
+import gear.GearPool;
+import gear.GearType;
+import gear.HandGear;
+import gear.HeadGear;
+import gear.StringTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The GearPoolReader class reads pools written by a {@link GearPoolWriter}. The records and
+ * the directory are memory-mapped rather than read, so a corpus of many gigabytes can be
+ * scanned without loading it on the heap: only the string table is read into memory, and the
+ * operating system pages the records in as they are used.
+ *
+ * A single mapping cannot be larger than 2 GiB, so the records are mapped in chunks that each
+ * hold a whole number of records. Reads use absolute positions, so one reader can be shared by
+ * threads that scan different pools.
+ */
+public class GearPoolReader implements AutoCloseable {
+
+    private static final GearType[] TYPES = GearType.values();
+
+    // Records per mapped chunk, so a chunk stays below 1 GiB
+    private static final int CHUNK_RECORDS = (1 << 30) / GearPoolWriter.RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final MappedByteBuffer directory;
+    private final String[] strings;
+    private final int poolCount;
+    private final long itemCount;
+
+    /**
+     * Opens a pool file.
+     *
+     * @param path The file to read.
+     * @throws IOException if the file cannot be read, or is not a complete pool file of a known version.
+     */
+    public GearPoolReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(GearPoolWriter.HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < GearPoolWriter.HEADER_SIZE || header.getInt() != GearPoolWriter.MAGIC) {
+                throw new IOException("Store Error: " + path + " is not a pool file");
+            }
+            short version = header.getShort();
+            if (version != GearPoolWriter.VERSION) {
+                throw new IOException("Store Error: " + path + " has format version " + version
+                        + ", expected " + GearPoolWriter.VERSION);
+            }
+            if (header.getShort() != GearPoolWriter.RECORD_SIZE) {
+                throw new IOException("Store Error: " + path + " has an unexpected record size");
+            }
+            poolCount = header.getInt();
+            header.getInt();
+            itemCount = header.getLong();
+            long directoryOffset = header.getLong();
+            long stringOffset = header.getLong();
+            if (directoryOffset != GearPoolWriter.HEADER_SIZE + itemCount * GearPoolWriter.RECORD_SIZE
+                    || stringOffset != directoryOffset + (long) poolCount * Long.BYTES
+                    || stringOffset > channel.size()) {
+                throw new IOException("Store Error: " + path + " is incomplete or was not closed");
+            }
+
+            chunks = new MappedByteBuffer[(int) ((itemCount + CHUNK_RECORDS - 1) / CHUNK_RECORDS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = (long) i * CHUNK_RECORDS;
+                long records = Math.min(CHUNK_RECORDS, itemCount - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        GearPoolWriter.HEADER_SIZE + first * GearPoolWriter.RECORD_SIZE,
+                        records * GearPoolWriter.RECORD_SIZE);
+            }
+            directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, (long) poolCount * Long.BYTES);
+            strings = readStrings(channel.map(FileChannel.MapMode.READ_ONLY, stringOffset,
+                    channel.size() - stringOffset));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of pools in the file.
+     *
+     * @return The number of pools.
+     */
+    public int getPoolCount() {
+        return poolCount;
+    }
+
+    /**
+     * Gets the number of items in the file, over all pools.
+     *
+     * @return The number of items.
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Gets the index of the first item of a pool.
+     *
+     * @param pool The index of the pool.
+     * @return The index of its first item in the file.
+     */
+    public long getPoolStart(int pool) {
+        checkPool(pool);
+        return directory.getLong(pool * Long.BYTES);
+    }
+
+    /**
+     * Gets the number of items in a pool.
+     *
+     * @param pool The index of the pool.
+     * @return The number of items.
+     */
+    public int getPoolSize(int pool) {
+        long end = pool + 1 < poolCount ? getPoolStart(pool + 1) : itemCount;
+        return (int) (end - getPoolStart(pool));
+    }
+
+    /**
+     * Gets the slot type of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return The slot type.
+     */
+    public GearType getType(long item) {
+        return TYPES[chunk(item).get(offset(item))];
+    }
+
+    /**
+     * Gets the attack stat of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return The attack stat.
+     */
+    public int getAttackStat(long item) {
+        return chunk(item).getInt(offset(item) + 4);
+    }
+
+    /**
+     * Gets the defense stat of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return The defense stat.
+     */
+    public int getDefenseStat(long item) {
+        return chunk(item).getInt(offset(item) + 8);
+    }
+
+    /**
+     * Gets the prefix of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return The prefix.
+     */
+    public String getPrefix(long item) {
+        return strings[chunk(item).getInt(offset(item) + 12)];
+    }
+
+    /**
+     * Gets the name of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return The name.
+     */
+    public String getName(long item) {
+        return strings[chunk(item).getInt(offset(item) + 16)];
+    }
+
+    /**
+     * Creates a gear object with the values of an item.
+     *
+     * @param item The index of the item in the file.
+     * @return A new HeadGear, HandGear or FootGear.
+     */
+    public Gear getItem(long item) {
+        switch (getType(item)) {
+            case HEAD:
+                return new HeadGear(getPrefix(item), getName(item), getDefenseStat(item));
+            case HAND:
+                return new HandGear(getPrefix(item), getName(item), getAttackStat(item));
+            default:
+                return new FootGear(getPrefix(item), getName(item), getAttackStat(item), getDefenseStat(item));
+        }
+    }
+
+    /**
+     * Reads a pool as gear objects.
+     *
+     * @param pool The index of the pool.
+     * @return A new list of the items of the pool, in order.
+     */
+    public List<Gear> readPool(int pool) {
+        long start = getPoolStart(pool);
+        int size = getPoolSize(pool);
+        List<Gear> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(getItem(start + i));
+        }
+        return items;
+    }
+
+    /**
+     * Reads a pool into a {@link GearPool}.
+     *
+     * @param pool    The index of the pool.
+     * @param strings The string table of the new pool, which may be shared between pools.
+     * @return A new pool with the items, in order.
+     */
+    public GearPool readGearPool(int pool, StringTable strings) {
+        long start = getPoolStart(pool);
+        int size = getPoolSize(pool);
+        GearPool items = new GearPool(size, strings);
+        for (long item = start; item < start + size; item++) {
+            items.add(getType(item), getPrefix(item), getName(item), getAttackStat(item), getDefenseStat(item));
+        }
+        return items;
+    }
+
+    /**
+     * Visits every item of every pool in file order, without creating gear objects.
+     *
+     * @param visitor The visitor to call for every item.
+     */
+    public void scan(ItemVisitor visitor) {
+        long item = 0;
+        for (int pool = 0; pool < poolCount; pool++) {
+            long end = pool + 1 < poolCount ? getPoolStart(pool + 1) : itemCount;
+            for (; item < end; item++) {
+                ByteBuffer chunk = chunk(item);
+                int offset = offset(item);
+                visitor.visit(pool, item, TYPES[chunk.get(offset)], chunk.getInt(offset + 4), chunk.getInt(offset + 8));
+            }
+        }
+    }
+
+    /**
+     * Closes the file. The mappings stay valid until they are garbage collected, but the
+     * reader must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The ItemVisitor interface receives the items of a pool file during a scan.
+     */
+    @FunctionalInterface
+    public interface ItemVisitor {
+
+        /**
+         * Called for every item.
+         *
+         * @param pool    The index of the pool the item belongs to.
+         * @param item    The index of the item in the file.
+         * @param type    The slot type of the item.
+         * @param attack  The attack stat of the item.
+         * @param defense The defense stat of the item.
+         */
+        void visit(int pool, long item, GearType type, int attack, int defense);
+    }
+
+    private ByteBuffer chunk(long item) {
+        if (item < 0 || item >= itemCount) {
+            throw new IndexOutOfBoundsException("Item index " + item + " out of range for " + itemCount + " items");
+        }
+        return chunks[(int) (item / CHUNK_RECORDS)];
+    }
+
+    private static int offset(long item) {
+        return (int) (item % CHUNK_RECORDS) * GearPoolWriter.RECORD_SIZE;
+    }
+
+    private void checkPool(int pool) {
+        if (pool < 0 || pool >= poolCount) {
+            throw new IndexOutOfBoundsException("Pool index " + pool + " out of range for " + poolCount + " pools");
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer table) throws IOException {
+        if (table.remaining() < Integer.BYTES) {
+            throw new IOException("Store Error: The string table is missing");
+        }
+        String[] strings = new String[table.getInt()];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = table.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            table.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+}
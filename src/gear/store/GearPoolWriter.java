@@ -0,0 +1,255 @@
+package gear.store;
+
+import gear.Gear;
+import gear.GearPool;
+import gear.GearType;
+import gear.StringTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The GearPoolWriter class writes any number of item pools to one file, so they can be shared
+ * and replayed later with a {@link GearPoolReader}. The file has four parts:
+ *
+ * - Header: magic number (int), format version (short), record size (short), pool count (int),
+ *   reserved (int), item count (long), directory offset (long), string table offset (long)
+ * - Records: one fixed-size record per item, pools one after the other: gear type (byte),
+ *   three reserved bytes, attack (int), defense (int), prefix id (int), name id (int)
+ * - Directory: the index of the first record of every pool (long)
+ * - String table: the number of strings (int), then each string as its length in bytes (int)
+ *   followed by its UTF-8 bytes
+ *
+ * All numbers are big-endian, as in {@link battle.BinaryBattleLog}. Because the records have a
+ * fixed size, the reader can find any item from its index without reading the items before it.
+ * Prefixes and names are stored once in the string table and the records only keep their ids.
+ *
+ * The header is written with zero counts first and filled in when the writer is closed, so a
+ * file whose writer was not closed is rejected by the reader. I/O errors are rethrown as
+ * {@link UncheckedIOException}.
+ */
+public class GearPoolWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x52504750; // "RPGP"
+    public static final short VERSION = 1;
+
+    public static final int HEADER_SIZE = 40;
+    public static final int RECORD_SIZE = 20;
+
+    // Records are gathered in a buffer of this many bytes before they are written
+    private static final int BUFFER_SIZE = RECORD_SIZE * 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringTable strings = new StringTable();
+    private long[] poolStarts = new long[16];
+    private int poolCount;
+    private long itemCount;
+    private boolean closed;
+
+    /**
+     * Constructs a writer that creates the file, or replaces it if it exists.
+     *
+     * @param path The file to write.
+     * @throws UncheckedIOException if the file cannot be created.
+     */
+    public GearPoolWriter(Path path) {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            // Placeholder header, filled in by close
+            channel.write(ByteBuffer.allocate(HEADER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a pool of items.
+     *
+     * @param items The items of the pool, in order.
+     * @return The index of the pool in the file.
+     * @throws IllegalArgumentException if an item has no prefix or name; nothing is written then.
+     */
+    public int write(List<? extends Gear> items) {
+        for (Gear gear : items) {
+            checkStrings(gear.getPrefix(), gear.getName());
+        }
+        int pool = startPool();
+        for (Gear gear : items) {
+            writeRecord(GearType.of(gear), gear.getAttackStat(), gear.getDefenseStat(),
+                    strings.intern(gear.getPrefix()), strings.intern(gear.getName()));
+        }
+        return pool;
+    }
+
+    /**
+     * Writes a pool of items stored as a {@link GearPool}.
+     *
+     * @param items The items of the pool, in index order.
+     * @return The index of the pool in the file.
+     */
+    public int write(GearPool items) {
+        int pool = startPool();
+        for (int i = 0; i < items.size(); i++) {
+            writeRecord(items.getType(i), items.getAttackStat(i), items.getDefenseStat(i),
+                    strings.intern(items.getPrefix(i)), strings.intern(items.getName(i)));
+        }
+        return pool;
+    }
+
+    /**
+     * Starts a new, empty pool. Items added with {@link #add} go to this pool until the next
+     * one is started, so a pool can be written one item at a time without holding it in memory.
+     *
+     * @return The index of the pool in the file.
+     */
+    public int newPool() {
+        return startPool();
+    }
+
+    /**
+     * Adds an item to the pool started last. Head gear has no attack and hand gear has no
+     * defense, as with the gear classes.
+     *
+     * @param type    The slot type of the item.
+     * @param prefix  The prefix of the item.
+     * @param name    The name of the item.
+     * @param attack  The attack stat of the item.
+     * @param defense The defense stat of the item.
+     * @throws IllegalStateException if no pool has been started.
+     * @throws IllegalArgumentException if the prefix or name is missing, or a stat is negative or
+     *                                  not allowed for the slot type.
+     */
+    public void add(GearType type, String prefix, String name, int attack, int defense) {
+        if (poolCount == 0 || closed) {
+            throw new IllegalStateException("Store Error: Start a pool before adding items");
+        }
+        checkStrings(prefix, name);
+        type.validateStats(attack, defense);
+        writeRecord(type, attack, defense, strings.intern(prefix), strings.intern(name));
+    }
+
+    /**
+     * Gets the number of pools written so far.
+     *
+     * @return The number of pools.
+     */
+    public int getPoolCount() {
+        return poolCount;
+    }
+
+    /**
+     * Gets the number of items written so far, over all pools.
+     *
+     * @return The number of items.
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Writes the directory, the string table and the header, and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // The channel is closed even if writing the end of the file fails
+        try (FileChannel file = channel) {
+            flush();
+            long directoryOffset = channel.position();
+            ByteBuffer directory = ByteBuffer.allocate(poolCount * Long.BYTES);
+            for (int i = 0; i < poolCount; i++) {
+                directory.putLong(poolStarts[i]);
+            }
+            directory.flip();
+            writeFully(directory);
+
+            long stringOffset = channel.position();
+            writeStrings();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putInt(poolCount).putInt(0)
+                    .putLong(itemCount).putLong(directoryOffset).putLong(stringOffset);
+            header.flip();
+            file.position(0);
+            writeFully(header);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int startPool() {
+        if (closed) {
+            throw new IllegalStateException("Store Error: The writer is closed");
+        }
+        if (poolCount == poolStarts.length) {
+            poolStarts = Arrays.copyOf(poolStarts, poolCount * 2);
+        }
+        poolStarts[poolCount] = itemCount;
+        return poolCount++;
+    }
+
+    // A missing string would only fail when the string table is written, after the whole file
+    private static void checkStrings(String prefix, String name) {
+        if (prefix == null || name == null) {
+            throw new IllegalArgumentException("Prefix and name must not be null.");
+        }
+    }
+
+    private void writeRecord(GearType type, int attack, int defense, int prefixId, int nameId) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        buffer.put((byte) type.ordinal()).put((byte) 0).putShort((short) 0)
+                .putInt(attack).putInt(defense).putInt(prefixId).putInt(nameId);
+        itemCount++;
+    }
+
+    private void writeStrings() throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(strings.size());
+        count.flip();
+        writeFully(count);
+        for (int i = 0; i < strings.size(); i++) {
+            byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                flush();
+            }
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                // Longer than the buffer, so it is written on its own
+                ByteBuffer large = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+                large.flip();
+                writeFully(large);
+            } else {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+        flush();
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
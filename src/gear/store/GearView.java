@@ -0,0 +1,139 @@
+package gear.store;
+
+import gear.Gear;
+import gear.GearType;
+
+/**
+ * The GearView class is a {@link Gear} that reads an item of an {@link OffHeapGearStore}
+ * instead of holding its values. Stats are read from the record on every call and the prefix
+ * and name are decoded when they are asked for, so a view copies nothing. A view can be moved
+ * to another item with {@link #moveTo(long)}, so one object is enough to go through a whole
+ * store.
+ *
+ * A view cannot be changed through its setters, and combining it creates gear on the heap, as
+ * {@link #toGear()} does. A view must be used by one thread at a time.
+ */
+public class GearView implements Gear {
+
+    private final OffHeapGearStore store;
+    private long item;
+
+    /**
+     * Constructs a view of an item.
+     *
+     * @param store The store.
+     * @param item  The index of the item.
+     */
+    GearView(OffHeapGearStore store, long item) {
+        this.store = store;
+        this.item = item;
+    }
+
+    /**
+     * Points the view at another item of the store.
+     *
+     * @param item The index of the item.
+     * @return This view.
+     */
+    public GearView moveTo(long item) {
+        this.item = item;
+        return this;
+    }
+
+    /**
+     * Gets the index of the item the view points at.
+     *
+     * @return The index of the item.
+     */
+    public long getItem() {
+        return item;
+    }
+
+    /**
+     * Gets the slot type of the item.
+     *
+     * @return The slot type.
+     */
+    @Override
+    public GearType getType() {
+        return store.getType(item);
+    }
+
+    @Override
+    public String getPrefix() {
+        return store.getPrefix(item);
+    }
+
+    /**
+     * Views cannot be changed.
+     *
+     * @param prefix The new prefix for the gear.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void setPrefix(String prefix) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getName() {
+        return store.getName(item);
+    }
+
+    /**
+     * Views cannot be changed.
+     *
+     * @param name The new name for the gear.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void setName(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getAttackStat() {
+        return store.getAttackStat(item);
+    }
+
+    @Override
+    public int getDefenseStat() {
+        return store.getDefenseStat(item);
+    }
+
+    /**
+     * Combines a copy of the item with another gear.
+     *
+     * @param other The other gear to combine with.
+     * @return A new gear on the heap.
+     */
+    @Override
+    public Gear combine(Gear other) {
+        return toGear().combine(other);
+    }
+
+    /**
+     * Creates a gear object on the heap with the values of the item.
+     *
+     * @return A new HeadGear, HandGear or FootGear.
+     */
+    public Gear toGear() {
+        return store.toGear(item);
+    }
+
+    @Override
+    public int compareTo(Gear other) {
+        int result = Integer.compare(getAttackStat(), other.getAttackStat());
+        return result != 0 ? result : Integer.compare(getDefenseStat(), other.getDefenseStat());
+    }
+
+    @Override
+    public String toString() {
+        return toGear().toString();
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Gear Error: " + this
+                + " is a view of an off-heap store and cannot be changed, use toGear() for a mutable copy");
+    }
+}
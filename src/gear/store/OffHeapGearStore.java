@@ -0,0 +1,345 @@
+package gear.store;
+
+import gear.FootGear;
+import gear.Gear;
+import gear.GearType;
+import gear.HandGear;
+import gear.HeadGear;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OffHeapGearStore class holds a gear catalog outside the Java heap, so its size is not
+ * limited by the heap and the garbage collector never has to trace it. Every item is a record
+ * of {@value #RECORD_SIZE} bytes in direct buffers:
+ *
+ * - attack (int), defense (int), prefix id (int), and the slot type in the top 2 bits with the
+ *   name id in the other 30 (int)
+ *
+ * The records are kept in chunks of {@value #CHUNK_RECORDS} items, so 100 million items take
+ * about 1.6 GB in about a hundred buffers. Prefixes and names are stored once each in an
+ * {@link OffHeapStringTable}, also outside the heap. The heap only holds the chunk objects,
+ * however many items there are, and direct memory is limited by -XX:MaxDirectMemorySize.
+ *
+ * Items are read without creating objects through their index, through {@link #scan} or
+ * {@link #top}, or as {@link Gear} through a {@link GearView}, a flyweight that reads the
+ * record it points to and can be moved to another item. A catalog can be loaded straight into
+ * a store by passing {@code store::add} to a {@link GearCatalogLoader}.
+ *
+ * Items must be added from one thread. Once adding is done, any number of threads may read.
+ */
+public class OffHeapGearStore implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 16;
+    public static final int CHUNK_RECORDS = 1 << 20;
+
+    private static final GearType[] TYPES = GearType.values();
+    private static final int RECORD_INTS = RECORD_SIZE / 4;
+    private static final int NAME_MASK = (1 << 30) - 1;
+
+    private final List<IntBuffer> chunks = new ArrayList<>();
+    private OffHeapStringTable strings = new OffHeapStringTable();
+    private long size;
+
+    /**
+     * Adds a copy of a gear item to the store.
+     *
+     * @param gear The item to add.
+     * @return The index of the new item.
+     */
+    public long add(Gear gear) {
+        return add(GearType.of(gear), gear.getPrefix(), gear.getName(), gear.getAttackStat(), gear.getDefenseStat());
+    }
+
+    /**
+     * Adds an item to the store. Head gear has no attack and hand gear has no defense, as with
+     * the gear classes.
+     *
+     * @param type    The slot type of the item.
+     * @param prefix  The prefix of the item.
+     * @param name    The name of the item.
+     * @param attack  The attack stat of the item.
+     * @param defense The defense stat of the item.
+     * @return The index of the new item.
+     * @throws IllegalArgumentException if a stat is negative or not allowed for the slot type.
+     */
+    public long add(GearType type, String prefix, String name, int attack, int defense) {
+        type.validateStats(attack, defense);
+        int prefixId = strings.intern(prefix);
+        int nameId = strings.intern(name);
+        if (nameId > NAME_MASK) {
+            throw new IllegalStateException("Item Error: The store cannot hold more than " + NAME_MASK + " names");
+        }
+        if (size == (long) chunks.size() * CHUNK_RECORDS) {
+            chunks.add(OffHeapStringTable.allocate(CHUNK_RECORDS * RECORD_SIZE).asIntBuffer());
+        }
+        IntBuffer chunk = chunks.get(chunks.size() - 1);
+        int offset = offset(size);
+        chunk.put(offset, attack);
+        chunk.put(offset + 1, defense);
+        chunk.put(offset + 2, prefixId);
+        chunk.put(offset + 3, type.ordinal() << 30 | nameId);
+        return size++;
+    }
+
+    /**
+     * Gets the number of items in the store.
+     *
+     * @return The number of items.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot type of an item.
+     *
+     * @param item The index of the item.
+     * @return The slot type.
+     */
+    public GearType getType(long item) {
+        return TYPES[chunk(item).get(offset(item) + 3) >>> 30];
+    }
+
+    /**
+     * Gets the attack stat of an item.
+     *
+     * @param item The index of the item.
+     * @return The attack stat.
+     */
+    public int getAttackStat(long item) {
+        return chunk(item).get(offset(item));
+    }
+
+    /**
+     * Gets the defense stat of an item.
+     *
+     * @param item The index of the item.
+     * @return The defense stat.
+     */
+    public int getDefenseStat(long item) {
+        return chunk(item).get(offset(item) + 1);
+    }
+
+    /**
+     * Gets the prefix of an item.
+     *
+     * @param item The index of the item.
+     * @return The prefix, decoded from the string table.
+     */
+    public String getPrefix(long item) {
+        return strings.get(chunk(item).get(offset(item) + 2));
+    }
+
+    /**
+     * Gets the name of an item.
+     *
+     * @param item The index of the item.
+     * @return The name, decoded from the string table.
+     */
+    public String getName(long item) {
+        return strings.get(chunk(item).get(offset(item) + 3) & NAME_MASK);
+    }
+
+    /**
+     * Creates a gear object on the heap with the values of an item.
+     *
+     * @param item The index of the item.
+     * @return A new HeadGear, HandGear or FootGear.
+     */
+    public Gear toGear(long item) {
+        switch (getType(item)) {
+            case HEAD:
+                return new HeadGear(getPrefix(item), getName(item), getDefenseStat(item));
+            case HAND:
+                return new HandGear(getPrefix(item), getName(item), getAttackStat(item));
+            default:
+                return new FootGear(getPrefix(item), getName(item), getAttackStat(item), getDefenseStat(item));
+        }
+    }
+
+    /**
+     * Creates a view of an item. The view reads the store and copies nothing, and it can be
+     * moved to other items to go through many of them with one object.
+     *
+     * @param item The index of the item.
+     * @return A new view.
+     */
+    public GearView view(long item) {
+        return new GearView(this, item);
+    }
+
+    /**
+     * Visits every item of a slot type in index order, without creating objects.
+     *
+     * @param type    The slot type, or null for every slot type.
+     * @param visitor The visitor to call for every item.
+     */
+    public void scan(GearType type, ItemVisitor visitor) {
+        long item = 0;
+        for (IntBuffer chunk : chunks) {
+            int records = (int) Math.min(CHUNK_RECORDS, size - item);
+            for (int i = 0, offset = 0; i < records; i++, offset += RECORD_INTS) {
+                GearType itemType = TYPES[chunk.get(offset + 3) >>> 30];
+                if (type == null || itemType == type) {
+                    visitor.visit(item + i, itemType, chunk.get(offset), chunk.get(offset + 1));
+                }
+            }
+            item += records;
+        }
+    }
+
+    /**
+     * Finds the best items of a slot type in one pass, as compared by
+     * {@link gear.AbstractGear#compareTo(Gear)}: highest attack first, then highest defense,
+     * then lowest index. The k best so far are kept in a heap, so this takes O(n log k) at most
+     * and O(n) when few items make it into the heap.
+     *
+     * @param type The slot type, or null for every slot type.
+     * @param k    The number of items.
+     * @return The indexes of the k best items, or all of them if there are fewer, best first.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public long[] top(GearType type, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of items must be non-negative.");
+        }
+        // The heap holds the worst of the k best at its root; a key is attack then defense
+        long[] keys = new long[k];
+        long[] items = new long[k];
+        int count = 0;
+        int typeBits = type == null ? -1 : type.ordinal();
+        long item = 0;
+        for (IntBuffer chunk : chunks) {
+            int records = (int) Math.min(CHUNK_RECORDS, size - item);
+            for (int i = 0, offset = 0; i < records && k > 0; i++, offset += RECORD_INTS) {
+                if (typeBits >= 0 && chunk.get(offset + 3) >>> 30 != typeBits) {
+                    continue;
+                }
+                long key = (long) chunk.get(offset) << 32 | chunk.get(offset + 1);
+                if (count < k) {
+                    keys[count] = key;
+                    items[count] = item + i;
+                    siftUp(keys, items, count++);
+                } else if (key > keys[0]) {
+                    keys[0] = key;
+                    items[0] = item + i;
+                    siftDown(keys, items, count);
+                }
+            }
+            item += records;
+        }
+
+        long[] best = new long[count];
+        for (int i = count - 1; i >= 0; i--) {
+            best[i] = items[0];
+            keys[0] = keys[i];
+            items[0] = items[i];
+            siftDown(keys, items, i);
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of distinct prefixes and names in the store.
+     *
+     * @return The number of strings.
+     */
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    /**
+     * Gets the number of bytes the store has allocated outside the heap.
+     *
+     * @return The number of bytes.
+     */
+    public long getOffHeapBytes() {
+        return (long) chunks.size() * CHUNK_RECORDS * RECORD_SIZE + strings.getOffHeapBytes();
+    }
+
+    /**
+     * Empties the store and drops its buffers, so their memory is freed once they are garbage
+     * collected. Views of the store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        chunks.clear();
+        strings = new OffHeapStringTable();
+        size = 0;
+    }
+
+    /**
+     * The ItemVisitor interface receives the items of a store during a scan.
+     */
+    @FunctionalInterface
+    public interface ItemVisitor {
+
+        /**
+         * Called for every item.
+         *
+         * @param item    The index of the item.
+         * @param type    The slot type of the item.
+         * @param attack  The attack stat of the item.
+         * @param defense The defense stat of the item.
+         */
+        void visit(long item, GearType type, int attack, int defense);
+    }
+
+    // Whether the heap entry at a is worse than the one at b: a lower key, or the same key and a later item
+    private static boolean isWorse(long[] keys, long[] items, int a, int b) {
+        return keys[a] != keys[b] ? keys[a] < keys[b] : items[a] > items[b];
+    }
+
+    private static void siftUp(long[] keys, long[] items, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isWorse(keys, items, index, parent)) {
+                return;
+            }
+            swap(keys, items, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] keys, long[] items, int count) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            if (left < count && isWorse(keys, items, left, worst)) {
+                worst = left;
+            }
+            if (left + 1 < count && isWorse(keys, items, left + 1, worst)) {
+                worst = left + 1;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(keys, items, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] keys, long[] items, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+    }
+
+    private IntBuffer chunk(long item) {
+        if (item < 0 || item >= size) {
+            throw new IndexOutOfBoundsException("Item index " + item + " out of range for " + size + " items");
+        }
+        return chunks.get((int) (item / CHUNK_RECORDS));
+    }
+
+    private static int offset(long item) {
+        return (int) (item % CHUNK_RECORDS) * RECORD_INTS;
+    }
+}
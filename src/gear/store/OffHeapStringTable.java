@@ -0,0 +1,239 @@
+package gear.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OffHeapStringTable class interns strings as ids like {@link gear.StringTable}, but keeps
+ * every string and the table that finds them in direct buffers outside the Java heap:
+ *
+ * - Text: each string as its length in bytes (int) followed by its UTF-8 bytes, in blocks of
+ *   {@value #BLOCK_SIZE} bytes; a string never crosses a block.
+ * - Offsets: the position of every string in the text (long), by id, in chunks of
+ *   {@value #OFFSET_CHUNK} strings.
+ * - Hash table: open addressing with linear probing, holding id + 1 per slot (int), or 0 for
+ *   an empty slot, in chunks of {@value #TABLE_CHUNK} slots. It is doubled when it is half
+ *   full.
+ *
+ * No buffer holds more than a chunk, so the int positions within a buffer cannot overflow.
+ * The table holds at most {@value #MAX_STRINGS} strings, which keeps it half empty within
+ * 2^31 slots.
+ *
+ * A small cache on the heap remembers the last strings seen in each of its slots, so strings
+ * that repeat are not encoded and hashed again. Strings must be added from one thread.
+ */
+class OffHeapStringTable {
+
+    static final int BLOCK_SIZE = 1 << 20;
+
+    private static final int OFFSET_CHUNK_BITS = 17;
+    private static final int TABLE_CHUNK_BITS = 18;
+    static final int OFFSET_CHUNK = 1 << OFFSET_CHUNK_BITS;
+    static final int TABLE_CHUNK = 1 << TABLE_CHUNK_BITS;
+    static final int MAX_STRINGS = (1 << 30) - 1;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    // Number of strings remembered on the heap; a string that misses replaces the one in its slot
+    private static final int CACHE_SIZE = 1024;
+
+    private final List<ByteBuffer> blocks = new ArrayList<>();
+    private final List<ByteBuffer> offsets = new ArrayList<>();
+    private ByteBuffer[] table = allocateTable(INITIAL_CAPACITY * 2);
+    private int tableMask = INITIAL_CAPACITY * 2 - 1;
+    private int size;
+
+    // The position in the last block where the next string goes
+    private int blockPosition = BLOCK_SIZE;
+
+    private final String[] cachedStrings = new String[CACHE_SIZE];
+    private final int[] cachedIds = new int[CACHE_SIZE];
+
+    /**
+     * Gets the id of a string, adding the string to the table if it is new.
+     *
+     * @param value The string to intern.
+     * @return The id of the string.
+     * @throws IllegalArgumentException if the string takes more than a block.
+     * @throws IllegalStateException if the string is new and the table already holds
+     *                               {@value #MAX_STRINGS} strings.
+     */
+    int intern(String value) {
+        int cacheSlot = (value.hashCode() ^ (value.hashCode() >>> 16)) & (CACHE_SIZE - 1);
+        if (value.equals(cachedStrings[cacheSlot])) {
+            return cachedIds[cacheSlot];
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int slot = hash(bytes) & tableMask;
+        int entry;
+        while ((entry = getSlot(slot)) != 0) {
+            if (matches(entry - 1, bytes)) {
+                return remember(cacheSlot, value, entry - 1);
+            }
+            slot = (slot + 1) & tableMask;
+        }
+
+        if (size == MAX_STRINGS) {
+            throw new IllegalStateException("Store Error: The string table cannot hold more than " + MAX_STRINGS
+                    + " strings");
+        }
+        int id = append(bytes);
+        putSlot(slot, id + 1);
+        if (size * 2 > tableMask) {
+            rehash();
+        }
+        return remember(cacheSlot, value, id);
+    }
+
+    /**
+     * Gets the string with the given id, decoded from its bytes.
+     *
+     * @param id The id of the string.
+     * @return The string.
+     */
+    String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("String id " + id + " out of range for " + size + " strings");
+        }
+        return new String(bytes(id), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the number of distinct strings in the table.
+     *
+     * @return The number of strings.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes the table has allocated outside the heap.
+     *
+     * @return The number of bytes.
+     */
+    long getOffHeapBytes() {
+        long bytes = (long) blocks.size() * BLOCK_SIZE + (long) table.length * table[0].capacity();
+        for (ByteBuffer chunk : offsets) {
+            bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+
+    private int remember(int cacheSlot, String value, int id) {
+        cachedStrings[cacheSlot] = value;
+        cachedIds[cacheSlot] = id;
+        return id;
+    }
+
+    private int append(byte[] bytes) {
+        if (bytes.length > BLOCK_SIZE - 4) {
+            throw new IllegalArgumentException("Strings must be shorter than " + (BLOCK_SIZE - 4) + " bytes.");
+        }
+        if (blockPosition + 4 + bytes.length > BLOCK_SIZE) {
+            blocks.add(allocate(BLOCK_SIZE));
+            blockPosition = 0;
+        }
+        ByteBuffer block = blocks.get(blocks.size() - 1);
+        block.putInt(blockPosition, bytes.length);
+        block.put(blockPosition + 4, bytes);
+
+        putOffset(size, (long) (blocks.size() - 1) * BLOCK_SIZE + blockPosition);
+        blockPosition += 4 + bytes.length;
+        return size++;
+    }
+
+    private boolean matches(int id, byte[] bytes) {
+        long offset = getOffset(id);
+        ByteBuffer block = blocks.get((int) (offset / BLOCK_SIZE));
+        int position = (int) (offset % BLOCK_SIZE);
+        if (block.getInt(position) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (block.get(position + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        long capacity = ((long) tableMask + 1) * 2;
+        table = allocateTable(capacity);
+        tableMask = (int) (capacity - 1);
+        for (int id = 0; id < size; id++) {
+            int slot = hash(bytes(id)) & tableMask;
+            while (getSlot(slot) != 0) {
+                slot = (slot + 1) & tableMask;
+            }
+            putSlot(slot, id + 1);
+        }
+    }
+
+    // The UTF-8 bytes of the string with the given id
+    private byte[] bytes(int id) {
+        long offset = getOffset(id);
+        ByteBuffer block = blocks.get((int) (offset / BLOCK_SIZE));
+        int position = (int) (offset % BLOCK_SIZE);
+        byte[] bytes = new byte[block.getInt(position)];
+        block.get(position + 4, bytes);
+        return bytes;
+    }
+
+    private long getOffset(int id) {
+        return offsets.get(id >>> OFFSET_CHUNK_BITS).getLong((id & OFFSET_CHUNK - 1) * 8);
+    }
+
+    private void putOffset(int id, long offset) {
+        int chunk = id >>> OFFSET_CHUNK_BITS;
+        int index = id & OFFSET_CHUNK - 1;
+        if (chunk == offsets.size()) {
+            // The first chunk starts small, so a table of a few strings stays small
+            offsets.add(allocate(chunk == 0 ? INITIAL_CAPACITY * 8 : OFFSET_CHUNK * 8));
+        } else if (index * 8 == offsets.get(chunk).capacity()) {
+            offsets.set(chunk, copy(offsets.get(chunk), index * 8 * 2));
+        }
+        offsets.get(chunk).putLong(index * 8, offset);
+    }
+
+    private int getSlot(int slot) {
+        return table[slot >>> TABLE_CHUNK_BITS].getInt((slot & TABLE_CHUNK - 1) * 4);
+    }
+
+    private void putSlot(int slot, int entry) {
+        table[slot >>> TABLE_CHUNK_BITS].putInt((slot & TABLE_CHUNK - 1) * 4, entry);
+    }
+
+    // A hash table of the given number of slots, a power of two, in chunks of at most TABLE_CHUNK slots
+    private static ByteBuffer[] allocateTable(long capacity) {
+        int chunkSlots = (int) Math.min(capacity, TABLE_CHUNK);
+        ByteBuffer[] chunks = new ByteBuffer[(int) (capacity / chunkSlots)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = allocate(chunkSlots * 4);
+        }
+        return chunks;
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 0;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer, int capacity) {
+        ByteBuffer copy = allocate(capacity);
+        copy.put(0, buffer, 0, buffer.capacity());
+        return copy;
+    }
+
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+}
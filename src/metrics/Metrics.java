@@ -0,0 +1,290 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Metrics class holds the measurements taken on the hot paths of a battle: a latency
+ * histogram each for finding the best item, making a pick, equipping, combining gear and
+ * resolving damage, and the bytes each thread allocates while it runs a battle. The number of
+ * picks and combines per second follows from the counts of their histograms.
+ *
+ * Metrics are off unless the JVM is started with {@code -Drpg.metrics=true} or
+ * {@link #setEnabled} is called. While they are off, an instrumented method only reads one
+ * volatile flag, so the cost is close to nothing.
+ *
+ * The measurements can be read through the histograms themselves, through JMX once
+ * {@link #registerMBean} has been called, or as text or JSON from a {@link MetricsReporter}.
+ */
+public final class Metrics {
+
+    /**
+     * The name the metrics are registered under in JMX.
+     */
+    public static final String OBJECT_NAME = "rpg:type=Metrics";
+
+    public static final LatencyHistogram FIND_BEST = new LatencyHistogram("findBest");
+    public static final LatencyHistogram PICK = new LatencyHistogram("pick");
+    public static final LatencyHistogram EQUIP = new LatencyHistogram("equip");
+    public static final LatencyHistogram COMBINE = new LatencyHistogram("combine");
+    public static final LatencyHistogram DAMAGE = new LatencyHistogram("resolveDamage");
+    public static final LatencyHistogram BATTLE = new LatencyHistogram("battle");
+
+    private static final List<LatencyHistogram> HISTOGRAMS = Collections.unmodifiableList(
+            Arrays.asList(FIND_BEST, PICK, EQUIP, COMBINE, DAMAGE, BATTLE));
+
+    private static volatile boolean enabled = Boolean.getBoolean("rpg.metrics");
+
+    // The time of the last reset, which rates are counted from
+    private static volatile long resetNanos = System.nanoTime();
+
+    /**
+     * The name the bytes allocated by threads that have ended are reported under.
+     */
+    public static final String EXITED_THREADS = "(exited threads)";
+
+    // Allocated bytes by live thread; each thread caches its own counter so recording needs no
+    // lookup. The counters of threads that have ended are folded into one, so the map does not
+    // grow with every pool that comes and goes.
+    private static final Map<Thread, LongAdder> ALLOCATED_BY_THREAD = new ConcurrentHashMap<>();
+    private static final LongAdder ALLOCATED_BY_EXITED = new LongAdder();
+    private static final ThreadLocal<LongAdder> THREAD_ALLOCATED = ThreadLocal.withInitial(() -> {
+        pruneExitedThreads();
+        LongAdder allocated = new LongAdder();
+        ALLOCATED_BY_THREAD.put(Thread.currentThread(), allocated);
+        return allocated;
+    });
+
+    private Metrics() {
+    }
+
+    /**
+     * Checks if metrics are being recorded.
+     *
+     * @return True if metrics are on, otherwise false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording of metrics on or off. Values recorded so far are kept.
+     *
+     * @param on True to record metrics, false to stop.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Gets every latency histogram.
+     *
+     * @return A read-only list of the histograms.
+     */
+    public static List<LatencyHistogram> getHistograms() {
+        return HISTOGRAMS;
+    }
+
+    /**
+     * Gets the number of bytes the current thread has allocated so far, to pass to
+     * {@link #recordAllocationSince} later.
+     *
+     * @return The allocated bytes, or -1 if the JVM does not measure them.
+     */
+    public static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = ThreadBean.THREADS;
+        return threads == null ? -1 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Adds the bytes the current thread has allocated since an earlier reading to its total.
+     *
+     * @param before The reading of {@link #getAllocatedBytes} taken earlier on this thread.
+     */
+    public static void recordAllocationSince(long before) {
+        long after = getAllocatedBytes();
+        if (before >= 0 && after >= before) {
+            THREAD_ALLOCATED.get().add(after - before);
+        }
+    }
+
+    /**
+     * Gets the bytes allocated during battles by every thread that ran one.
+     *
+     * Threads that have ended are counted together under {@value #EXITED_THREADS}.
+     *
+     * @return The allocated bytes by thread name and id, sorted by name.
+     */
+    public static Map<String, Long> getAllocatedBytesByThread() {
+        pruneExitedThreads();
+        Map<String, Long> bytes = new TreeMap<>();
+        ALLOCATED_BY_THREAD.forEach((thread, allocated) ->
+                bytes.put(thread.getName() + "#" + thread.getId(), allocated.sum()));
+        long exited = ALLOCATED_BY_EXITED.sum();
+        if (exited > 0) {
+            bytes.put(EXITED_THREADS, exited);
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the bytes allocated during battles by all threads together.
+     *
+     * @return The allocated bytes.
+     */
+    public static long getAllocatedBytesTotal() {
+        long total = ALLOCATED_BY_EXITED.sum();
+        for (LongAdder allocated : ALLOCATED_BY_THREAD.values()) {
+            total += allocated.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of nanoseconds since the metrics were last reset, or since the class was loaded.
+     *
+     * @return The elapsed nanoseconds.
+     */
+    public static long getElapsedNanos() {
+        return System.nanoTime() - resetNanos;
+    }
+
+    /**
+     * Clears every histogram and allocation count.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        for (LongAdder allocated : ALLOCATED_BY_THREAD.values()) {
+            allocated.reset();
+        }
+        ALLOCATED_BY_EXITED.reset();
+        resetNanos = System.nanoTime();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under {@value #OBJECT_NAME}, so they
+     * can be read with any JMX client. Registering again does nothing.
+     *
+     * @return The name the metrics are registered under.
+     * @throws IllegalStateException if the metrics cannot be registered.
+     */
+    public static ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                try {
+                    server.registerMBean(new MBean(), name);
+                } catch (InstanceAlreadyExistsException e) {
+                    // Another thread registered them first
+                }
+            }
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics Error: Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    // Moves the counters of threads that have ended into the shared one; a thread that has ended
+    // records nothing more, so its count is final
+    private static void pruneExitedThreads() {
+        for (Map.Entry<Thread, LongAdder> entry : ALLOCATED_BY_THREAD.entrySet()) {
+            if (!entry.getKey().isAlive() && ALLOCATED_BY_THREAD.remove(entry.getKey(), entry.getValue())) {
+                ALLOCATED_BY_EXITED.add(entry.getValue().sum());
+            }
+        }
+    }
+
+    // Holds the thread bean, if this JVM can measure the bytes a thread allocates; it is only
+    // looked up once metrics are used, so a run without metrics does not load JMX
+    private static class ThreadBean {
+
+        static final com.sun.management.ThreadMXBean THREADS = lookup();
+
+        private static com.sun.management.ThreadMXBean lookup() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+            return null;
+        }
+    }
+
+    // The JMX view of the metrics
+    private static class MBean implements MetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            Metrics.setEnabled(on);
+        }
+
+        @Override
+        public long getPicks() {
+            return PICK.getCount();
+        }
+
+        @Override
+        public long getCombines() {
+            return COMBINE.getCount();
+        }
+
+        @Override
+        public double getPicksPerSecond() {
+            return PICK.getCount() * 1e9 / Math.max(1, getElapsedNanos());
+        }
+
+        @Override
+        public double getCombinesPerSecond() {
+            return COMBINE.getCount() * 1e9 / Math.max(1, getElapsedNanos());
+        }
+
+        @Override
+        public Map<String, Long> getLatencyNanos() {
+            Map<String, Long> latencies = new TreeMap<>();
+            for (LatencyHistogram histogram : HISTOGRAMS) {
+                latencies.put(histogram.getName() + ".p50", histogram.getValueAtPercentile(50));
+                latencies.put(histogram.getName() + ".p99", histogram.getValueAtPercentile(99));
+                latencies.put(histogram.getName() + ".max", histogram.getMax());
+            }
+            return latencies;
+        }
+
+        @Override
+        public Map<String, Long> getAllocatedBytesByThread() {
+            return Metrics.getAllocatedBytesByThread();
+        }
+
+        @Override
+        public String getJson() {
+            return MetricsReporter.format(MetricsReporter.Format.JSON, getElapsedNanos(), MetricsReporter.counts(),
+                    null);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
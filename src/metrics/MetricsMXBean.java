@@ -0,0 +1,79 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * The MetricsMXBean interface is how {@link Metrics} are seen through JMX. Rates are counted
+ * from the last reset.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Checks if metrics are being recorded.
+     *
+     * @return True if metrics are on, otherwise false.
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns recording of metrics on or off.
+     *
+     * @param on True to record metrics, false to stop.
+     */
+    void setEnabled(boolean on);
+
+    /**
+     * Gets the number of picks made.
+     *
+     * @return The number of picks.
+     */
+    long getPicks();
+
+    /**
+     * Gets the number of times gear was combined.
+     *
+     * @return The number of combines.
+     */
+    long getCombines();
+
+    /**
+     * Gets the number of picks made per second.
+     *
+     * @return The pick rate.
+     */
+    double getPicksPerSecond();
+
+    /**
+     * Gets the number of times gear was combined per second.
+     *
+     * @return The combine rate.
+     */
+    double getCombinesPerSecond();
+
+    /**
+     * Gets the median, 99th percentile and largest latency of every histogram, keyed like
+     * {@code pick.p99}.
+     *
+     * @return The latencies in nanoseconds.
+     */
+    Map<String, Long> getLatencyNanos();
+
+    /**
+     * Gets the bytes allocated during battles by every thread that ran one.
+     *
+     * @return The allocated bytes by thread name.
+     */
+    Map<String, Long> getAllocatedBytesByThread();
+
+    /**
+     * Gets every metric as one JSON object.
+     *
+     * @return The metrics in JSON.
+     */
+    String getJson();
+
+    /**
+     * Clears every metric.
+     */
+    void reset();
+}
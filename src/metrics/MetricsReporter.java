@@ -0,0 +1,193 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MetricsReporter class writes the {@link Metrics} to a stream as text or as one line of
+ * JSON, either when {@link #report} is called or periodically on a background thread. Every
+ * report gives the counts and percentiles since the last reset, and the rates since the
+ * previous report.
+ */
+public class MetricsReporter implements AutoCloseable {
+
+    /**
+     * The format of a report.
+     */
+    public enum Format {
+        TEXT, JSON
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final PrintStream out;
+    private final Format format;
+    private ScheduledExecutorService scheduler;
+
+    // The histogram counts and the time of the previous report, which rates are counted from
+    private long[] lastCounts;
+    private long lastNanos = System.nanoTime();
+
+    /**
+     * Constructs a reporter.
+     *
+     * @param out    The stream to write the reports to.
+     * @param format The format of the reports.
+     */
+    public MetricsReporter(PrintStream out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Starts writing a report every period on a daemon thread, until the reporter is closed.
+     *
+     * @param period The time between reports.
+     * @param unit   The unit of the period.
+     * @throws IllegalStateException if the reporter was already started.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Metrics Error: The reporter is already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+    }
+
+    /**
+     * Writes a report now.
+     *
+     * @return The text of the report.
+     */
+    public synchronized String report() {
+        long now = System.nanoTime();
+        long[] counts = counts();
+        String report = format(format, now - lastNanos, counts, lastCounts);
+        lastCounts = counts;
+        lastNanos = now;
+        out.print(report);
+        out.flush();
+        return report;
+    }
+
+    /**
+     * Stops the periodic reports.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Formats the metrics.
+     *
+     * @param format         The format of the report.
+     * @param intervalNanos  The time the rates are counted over.
+     * @param counts         The counts of the histograms now, from {@link #counts()}.
+     * @param previousCounts The counts at the start of the interval, or null to count from 0.
+     * @return The report, ending with a line break.
+     */
+    static String format(Format format, long intervalNanos, long[] counts, long[] previousCounts) {
+        List<LatencyHistogram> histograms = Metrics.getHistograms();
+        double seconds = Math.max(1, intervalNanos) / 1e9;
+        StringBuilder report = new StringBuilder(1024);
+        if (format == Format.JSON) {
+            report.append("{\"intervalSeconds\":").append(decimal(seconds)).append(",\"histograms\":{");
+        } else {
+            report.append("Metrics over ").append(decimal(seconds)).append(" s (latencies in ns)\n");
+        }
+
+        for (int i = 0; i < histograms.size(); i++) {
+            LatencyHistogram histogram = histograms.get(i);
+            long count = counts[i];
+            double rate = (count - (previousCounts == null ? 0 : previousCounts[i])) / seconds;
+            if (format == Format.JSON) {
+                report.append(i > 0 ? "," : "").append('"').append(histogram.getName()).append("\":{\"count\":")
+                        .append(count).append(",\"rate\":").append(decimal(rate))
+                        .append(",\"mean\":").append(decimal(histogram.getMean()));
+                for (int p = 0; p < PERCENTILES.length; p++) {
+                    report.append(",\"").append(PERCENTILE_NAMES[p]).append("\":")
+                            .append(histogram.getValueAtPercentile(PERCENTILES[p]));
+                }
+                report.append(",\"max\":").append(histogram.getMax()).append('}');
+            } else {
+                report.append(String.format(Locale.ROOT, "%-14s count=%d rate=%.1f/s mean=%.0f", histogram.getName(),
+                        count, rate, histogram.getMean()));
+                for (int p = 0; p < PERCENTILES.length; p++) {
+                    report.append(' ').append(PERCENTILE_NAMES[p]).append('=')
+                            .append(histogram.getValueAtPercentile(PERCENTILES[p]));
+                }
+                report.append(" max=").append(histogram.getMax()).append('\n');
+            }
+        }
+
+        Map<String, Long> threads = Metrics.getAllocatedBytesByThread();
+        long total = 0;
+        for (long bytes : threads.values()) {
+            total += bytes;
+        }
+        if (format == Format.JSON) {
+            report.append("},\"allocatedBytes\":{\"total\":").append(total).append(",\"threads\":{");
+            boolean first = true;
+            for (Map.Entry<String, Long> thread : threads.entrySet()) {
+                report.append(first ? "" : ",");
+                appendJsonString(report, thread.getKey());
+                report.append(':').append(thread.getValue());
+                first = false;
+            }
+            report.append("}}}\n");
+        } else {
+            report.append("allocated      total=").append(total).append(" bytes\n");
+            for (Map.Entry<String, Long> thread : threads.entrySet()) {
+                report.append("  ").append(thread.getKey()).append(' ').append(thread.getValue()).append(" bytes\n");
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Gets the count of every histogram, in the order of {@link Metrics#getHistograms()}.
+     *
+     * @return The counts.
+     */
+    static long[] counts() {
+        List<LatencyHistogram> histograms = Metrics.getHistograms();
+        long[] counts = new long[histograms.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histograms.get(i).getCount();
+        }
+        return counts;
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    // Thread names are chosen by whoever created the thread, so quotes and control characters are escaped
+    private static void appendJsonString(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
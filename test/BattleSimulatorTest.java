@@ -0,0 +1,60 @@
+import battle.BattleConfig;
+import battle.DraftCache;
+import battle.sim.BattleSimulator;
+import battle.sim.SimulationStats;
+import gear.GearType;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BattleSimulatorTest {
+
+    @Test
+    public void testSameSeedGivesSameStats() {
+        BattleConfig config = BattleConfig.standard();
+        SimulationStats serial = new BattleSimulator(config, 2, 2, new ForkJoinPool(1)).run(2_000, 42);
+        SimulationStats parallel = new BattleSimulator(config, 2, 2, new ForkJoinPool(4)).run(2_000, 42);
+
+        assertEquals(serial, parallel);
+    }
+
+    @Test
+    public void testCountsAddUp() {
+        BattleConfig config = BattleConfig.standard();
+        SimulationStats stats = new BattleSimulator(config, 2, 2).run(1_000, 7);
+
+        assertEquals(1_000, stats.getBattles());
+        assertEquals(1_000, stats.getWins(0) + stats.getWins(1) + stats.getTies());
+
+        long picks = 0;
+        for (GearType type : GearType.values()) {
+            picks += stats.getPicks(type);
+        }
+        assertEquals(1_000L * config.getTurns() * config.getParticipants(), picks);
+
+        long damages = 0;
+        for (long count : stats.getDamageHistogram()) {
+            damages += count;
+        }
+        assertEquals(1_000L * config.getParticipants(), damages);
+    }
+
+    @Test
+    public void testResultCacheGivesSameStats() {
+        // Pools of two items repeat often enough that some battles are replays
+        BattleConfig config = new BattleConfig(2, 1, 2, 1, 1, 1);
+        SimulationStats plain = new BattleSimulator(config, 2, 2, new ForkJoinPool(1)).run(2_000, 11);
+
+        BattleSimulator simulator = new BattleSimulator(config, 2, 2, new ForkJoinPool(2));
+        DraftCache<?> cache = simulator.enableResultCache(1_000);
+        SimulationStats cached = simulator.run(2_000, 11);
+
+        assertEquals(plain, cached);
+        assertEquals(2_000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.estimateMemoryBytes() > 0);
+    }
+}
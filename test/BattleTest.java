@@ -1,14 +1,20 @@
-import battle.Battle;
+import battle.*;
 import character.*;
 import gear.*;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class BattleTest {
 
@@ -60,6 +66,86 @@ public class BattleTest {
         assertEquals(2, battle.getWinner(damage1, damage2));
 
     }
+    @Test
+    public void testBattleResultObject() {
+        Battle battle = new Battle(character1, character2, availableItems);
+        battle.setListener(BattleListener.NONE);
+
+        BattleResult result = battle.startBattle();
+
+        assertEquals(2, result.getWinner());
+        assertSame(character2, result.getWinnerCharacter());
+        assertEquals(character1.getTotalAttackStat() - character2.getTotalDefenseStat(), result.getDamage(0));
+    }
+
+    @Test
+    public void testTextRendererOutput() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Battle battle = new Battle(character1, character2, availableItems);
+        battle.setListener(new TextBattleRenderer(new PrintStream(out)));
+        battle.startBattle();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals("Turn 1:", lines[0]);
+        assertEquals("Player1 is picking up FootGear: adj4 Boots -- defense strength: 1, attack strength: 8", lines[1]);
+        assertEquals("Player2 wins!", lines[lines.length - 1]);
+    }
+
+    @Test
+    public void testBinaryLogRecordsEveryPick() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Battle battle = new Battle(character1, character2, availableItems);
+        battle.setListener(new BinaryBattleLog(out));
+        battle.startBattle();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(BinaryBattleLog.MAGIC, in.readInt());
+        assertEquals(BinaryBattleLog.VERSION, in.readShort());
+        int picks = 0;
+        byte tag;
+        while ((tag = in.readByte()) != BinaryBattleLog.BATTLE_END) {
+            if (tag == BinaryBattleLog.PICK) {
+                picks++;
+                in.skipBytes(4 + 2 + 1 + 4 + 4);
+            } else {
+                in.skipBytes(4);
+            }
+        }
+        assertEquals(20, picks);
+        assertEquals(2, in.readShort());
+        in.skipBytes(8);
+        assertEquals(2, in.readShort());
+    }
+
+    @Test
+    public void testMultiParticipantBattle() {
+        BattleConfig config = new BattleConfig(20, 5, 4, 1, 2, 2);
+        List<RPGCharacter> participants = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            participants.add(config.createCharacter("Player" + i, i, 1));
+        }
+        Battle battle = new Battle(participants, availableItems, config);
+        battle.startBattle();
+
+        // Every participant picks once per turn
+        int[] damages = battle.resolveDamage();
+        for (int i = 0; i < participants.size(); i++) {
+            int expected = 0;
+            for (int j = 0; j < participants.size(); j++) {
+                if (i != j) {
+                    expected += Math.max(0, participants.get(i).getTotalAttackStat()
+                            - participants.get(j).getTotalDefenseStat());
+                }
+            }
+            assertEquals(expected, damages[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPoolTooSmallForConfig() {
+        new BattleConfig(20, 11, 2, 1, 2, 2);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidItemList() {
         availableItems.remove(0);
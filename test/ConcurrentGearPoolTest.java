@@ -0,0 +1,121 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentGearPoolTest {
+
+    @Test
+    public void testSingleThreadMatchesIndexedPool() {
+        List<Gear> items = sharedItems(300, 3);
+        ConcurrentGearPool concurrent = new ConcurrentGearPool(items, 1);
+        IndexedGearPool indexed = new IndexedGearPool(items);
+        RPGCharacter first = new RPGCharacterImpl("A", 2, 2);
+        RPGCharacter second = new RPGCharacterImpl("B", 2, 2);
+
+        for (int i = 0; i < items.size(); i++) {
+            RPGCharacter character = i % 2 == 0 ? first : second;
+            Gear expected = indexed.findBest(character);
+            indexed.remove(expected);
+            assertSame(expected, concurrent.claimBest(character));
+            character.equip(expected);
+        }
+        assertTrue(concurrent.isEmpty());
+        assertNull(concurrent.claimBest(first));
+    }
+
+    @Test
+    public void testStripesClaimTheBestItemForAnOpenSlot() {
+        List<Gear> items = sharedItems(300, 4);
+        // The character never fills its slots, so equal items are one instance whichever stripe they come from
+        RPGCharacter character = new RPGCharacterImpl("A", 2, 2);
+        for (int stripes = 2; stripes <= 8; stripes *= 2) {
+            ConcurrentGearPool concurrent = new ConcurrentGearPool(items, stripes);
+            IndexedGearPool indexed = new IndexedGearPool(items);
+            for (int i = 0; i < items.size(); i++) {
+                Gear expected = indexed.findBest(character);
+                indexed.remove(expected);
+                assertSame(expected, concurrent.claimBest(character));
+            }
+            assertTrue(concurrent.isEmpty());
+        }
+    }
+
+    @Test
+    public void testStripeCountIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new ConcurrentGearPool(1).getStripeCount());
+        assertEquals(4, new ConcurrentGearPool(3).getStripeCount());
+        assertEquals(8, new ConcurrentGearPool(8).getStripeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNoStripes() {
+        new ConcurrentGearPool(0);
+    }
+
+    @Test
+    public void testStressNoItemLostOrPickedTwice() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                // Shared gear puts the same instance in the pool many times
+                List<Gear> items = sharedItems(5_000, round);
+                ConcurrentGearPool pool = new ConcurrentGearPool(items, 1 << round % 4);
+                List<RPGCharacter> characters = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    characters.add(new RPGCharacterImpl("Player " + (i + 1), 2, 2));
+                }
+                // More picks than items, so the pool is drained while characters race for it
+                ConcurrentDraft draft = new ConcurrentDraft(pool, characters, 700);
+                draft.run(executor);
+
+                Map<Gear, Integer> remaining = count(items);
+                int picked = 0;
+                for (int i = 0; i < characters.size(); i++) {
+                    for (Gear gear : draft.getPicks(i)) {
+                        Integer left = remaining.get(gear);
+                        assertNotNull("Item picked that was never in the pool", left);
+                        assertTrue("Item picked more often than it was in the pool", left > 0);
+                        remaining.put(gear, left - 1);
+                        picked++;
+                    }
+                }
+                assertEquals(items.size(), picked);
+                assertTrue(pool.isEmpty());
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    // Items with the same type and stats share one frozen instance, so the pool holds it many times
+    private static List<Gear> sharedItems(int count, long seed) {
+        GearCache cache = new GearCache();
+        List<Gear> items = new ArrayList<>(count);
+        for (Gear gear : new PoolGenerator(seed).generate(0, count)) {
+            items.add(cache.get(GearType.of(gear), "adj", gear.getName(), gear.getAttackStat(),
+                    gear.getDefenseStat()));
+        }
+        return items;
+    }
+
+    private static Map<Gear, Integer> count(List<Gear> items) {
+        Map<Gear, Integer> counts = new IdentityHashMap<>();
+        for (Gear gear : items) {
+            counts.merge(gear, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
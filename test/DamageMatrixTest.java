@@ -0,0 +1,112 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DamageMatrixTest {
+
+    @Test
+    public void testTotalsMatchPairwiseBattles() {
+        List<RPGCharacter> characters = Fixtures.characters(40, new Random(1));
+        DamageMatrix matrix = new DamageMatrix(characters);
+        assertMatches(matrix, characters);
+    }
+
+    @Test
+    public void testTotalsFollowGearChanges() {
+        Random rand = new Random(2);
+        List<RPGCharacter> characters = Fixtures.characters(30, rand);
+        DamageMatrix matrix = new DamageMatrix(characters);
+        PoolGenerator generator = new PoolGenerator(2);
+        for (int i = 0; i < 200; i++) {
+            RPGCharacter character = characters.get(rand.nextInt(characters.size()));
+            // Enough gear that slots fill up and later items are combined
+            character.equip(generator.item(0, i));
+            if (i % 25 == 0) {
+                character.unequip(GearType.HAND, 0);
+            }
+        }
+        assertMatches(matrix, characters);
+
+        matrix.detach();
+        long dealt = matrix.getDamageDealt(0);
+        characters.get(0).equip(new HandGear("Sharp", "Glove", 50));
+        assertEquals(dealt, matrix.getDamageDealt(0));
+        matrix.update(0);
+        assertMatches(matrix, characters);
+    }
+
+    @Test
+    public void testMatricesShareCharacters() {
+        List<RPGCharacter> characters = Fixtures.characters(20, new Random(4));
+        DamageMatrix first = new DamageMatrix(characters);
+        DamageMatrix second = new DamageMatrix(characters.subList(5, 20));
+        int[] calls = new int[1];
+        StatsListener counter = character -> calls[0]++;
+        characters.get(7).addStatsListener(counter);
+
+        characters.get(7).equip(new HandGear("Sharp", "Glove", 20));
+        assertMatches(first, characters);
+        assertMatches(second, characters.subList(5, 20));
+
+        // Detaching one matrix leaves the other listeners in place
+        first.detach();
+        characters.get(7).equip(new FootGear("Heavy", "Boot", 3, 9));
+        assertMatches(second, characters.subList(5, 20));
+        assertEquals(2, calls[0]);
+        assertTrue(characters.get(7).removeStatsListener(counter));
+        assertFalse(characters.get(7).removeStatsListener(counter));
+    }
+
+    @Test
+    public void testRowsAndColumns() {
+        List<RPGCharacter> characters = Fixtures.characters(25, new Random(3));
+        DamageMatrix matrix = new DamageMatrix(characters);
+        int[] row = new int[25];
+        int[] column = new int[25];
+        matrix.getDamageRow(4, row);
+        matrix.getDamageColumn(4, column);
+        for (int j = 0; j < 25; j++) {
+            assertEquals(matrix.getDamage(4, j), row[j]);
+            assertEquals(matrix.getDamage(j, 4), column[j]);
+        }
+        assertEquals(0, row[4]);
+    }
+
+    private static void assertMatches(DamageMatrix matrix, List<RPGCharacter> characters) {
+        int count = characters.size();
+        for (int i = 0; i < count; i++) {
+            long dealt = 0;
+            long taken = 0;
+            int wins = 0;
+            int losses = 0;
+            for (int j = 0; j < count; j++) {
+                if (i == j) {
+                    continue;
+                }
+                RPGCharacter first = characters.get(i);
+                RPGCharacter second = characters.get(j);
+                int[] damages = {Math.max(0, first.getTotalAttackStat() - second.getTotalDefenseStat()),
+                        Math.max(0, second.getTotalAttackStat() - first.getTotalDefenseStat())};
+                assertEquals(damages[0], matrix.getDamage(i, j));
+                int winner = Battle.getWinner(damages);
+                assertEquals(winner == 1 ? 1 : winner == 2 ? -1 : 0, Integer.signum(matrix.getOutcome(i, j)));
+                dealt += damages[0];
+                taken += damages[1];
+                wins += winner == 1 ? 1 : 0;
+                losses += winner == 2 ? 1 : 0;
+            }
+            assertEquals(dealt, matrix.getDamageDealt(i));
+            assertEquals(taken, matrix.getDamageTaken(i));
+            assertEquals(wins, matrix.getWins(i));
+            assertEquals(losses, matrix.getLosses(i));
+            assertEquals(count - 1 - wins - losses, matrix.getDraws(i));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DraftCacheTest {
+
+    @Test
+    public void testPoolHashIgnoresOrderAndNames() {
+        List<Gear> items = Arrays.asList(
+                new HeadGear("Shiny", "Helmet", 3),
+                new HandGear("Rusty", "Glove", 5),
+                new FootGear("Swift", "Boot", 2, 4));
+        List<Gear> renamed = Arrays.asList(
+                new FootGear("Old", "Sandal", 2, 4),
+                new HeadGear("Old", "Cap", 3),
+                new HandGear("Old", "Mitt", 5));
+
+        assertEquals(new IndexedGearPool(items).getContentHash(), new IndexedGearPool(renamed).getContentHash());
+        assertNotEquals(new IndexedGearPool(items).getContentHash(),
+                new IndexedGearPool(items.subList(0, 2)).getContentHash());
+    }
+
+    @Test
+    public void testPoolHashCountsDuplicates() {
+        Gear helmet = new HeadGear("Shiny", "Helmet", 3);
+        IndexedGearPool once = new IndexedGearPool(Collections.singletonList(helmet));
+        IndexedGearPool twice = new IndexedGearPool(Arrays.asList(helmet, new HeadGear("Shiny", "Helmet", 3)));
+
+        assertNotEquals(once.getContentHash(), twice.getContentHash());
+        twice.remove(helmet);
+        assertEquals(once.getContentHash(), twice.getContentHash());
+        once.remove(helmet);
+        assertEquals(0, once.getContentHash());
+    }
+
+    @Test
+    public void testLoadoutHashFollowsEquipAndUnequip() {
+        RPGCharacterImpl character = new RPGCharacterImpl("A", 2, 2);
+        long empty = character.getLoadoutHash();
+
+        character.equip(new HandGear("Rusty", "Glove", 5));
+        long gloved = character.getLoadoutHash();
+        assertNotEquals(empty, gloved);
+
+        RPGCharacterImpl other = new RPGCharacterImpl("B", 2, 2);
+        other.equip(new HandGear("Shiny", "Gauntlet", 5));
+        assertEquals(gloved, other.getLoadoutHash());
+
+        character.unequip(GearType.HAND, 0);
+        assertEquals(empty, character.getLoadoutHash());
+        assertNotEquals(empty, new RPGCharacterImpl("C", 2, 3).getLoadoutHash());
+    }
+
+    @Test
+    public void testEqualDraftsHaveEqualStateHash() {
+        Battle first = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2), items());
+        List<Gear> reversed = items();
+        Collections.reverse(reversed);
+        Battle second = new Battle(new RPGCharacterImpl("X", 2, 2), new RPGCharacterImpl("Y", 2, 2), reversed);
+        assertEquals(first.getStateHash(), second.getStateHash());
+
+        Battle stronger = new Battle(new RPGCharacterImpl("A", 3, 2), new RPGCharacterImpl("B", 2, 2), items());
+        assertNotEquals(first.getStateHash(), stronger.getStateHash());
+
+        long before = first.getStateHash();
+        first.startBattle();
+        assertNotEquals(before, first.getStateHash());
+    }
+
+    @Test
+    public void testLoadoutsWithTheSameTotalsHashApart() {
+        // Two gloves of attack 2 and one boot of attack 4 give the same totals but are different drafts
+        RPGCharacterImpl gloves = new RPGCharacterImpl("A", 2, 2);
+        gloves.equip(new HandGear("Rusty", "Glove", 2));
+        gloves.equip(new HandGear("Rusty", "Glove", 2));
+        RPGCharacterImpl boot = new RPGCharacterImpl("A", 2, 2);
+        boot.equip(new FootGear("Swift", "Boot", 4, 0));
+        assertEquals(gloves.getTotalAttackStat(), boot.getTotalAttackStat());
+        assertNotEquals(2 * GearHash.of(GearType.HAND, 2, 0), GearHash.of(GearType.FOOT, 4, 0));
+        assertNotEquals(gloves.getLoadoutHash(), boot.getLoadoutHash());
+
+        Battle first = new Battle(gloves, new RPGCharacterImpl("B", 2, 2), items());
+        Battle second = new Battle(boot, new RPGCharacterImpl("B", 2, 2), items());
+        assertNotEquals(first.getStateHash(), second.getStateHash());
+
+        DraftCache<String> cache = new DraftCache<>(100);
+        cache.put(first.getStateHash(), "gloves");
+        assertNull(cache.get(second.getStateHash()));
+        assertEquals("gloves", cache.get(first.getStateHash()));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        DraftCache<String> cache = new DraftCache<>(2, 1, value -> value.length());
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.get(1));
+        cache.put(3, "three");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testMetrics() {
+        DraftCache<String> cache = new DraftCache<>(100, 4, value -> value.length());
+        assertEquals(0, cache.getHitRate(), 0);
+
+        int[] computed = new int[1];
+        for (int i = 0; i < 4; i++) {
+            assertEquals("seven", cache.computeIfAbsent(7, key -> {
+                computed[0]++;
+                return "seven";
+            }));
+        }
+
+        assertEquals(1, computed[0]);
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.75, cache.getHitRate(), 1e-9);
+        assertTrue(cache.estimateMemoryBytes() >= 5);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    public void testSmallCapacityKeepsEveryStripeUsable() {
+        // 3 entries over 16 stripes rounds down to 2 stripes rather than up to 4 with one left empty
+        for (int capacity = 1; capacity <= 20; capacity++) {
+            DraftCache<String> cache = new DraftCache<>(capacity, 16, value -> 0);
+            for (long key = 0; key < 1_000; key++) {
+                cache.put(key * 0x9e3779b97f4a7c15L, "value");
+                assertNotNull(cache.get(key * 0x9e3779b97f4a7c15L));
+            }
+            assertEquals(capacity, cache.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        new DraftCache<String>(0);
+    }
+
+    private static List<Gear> items() {
+        List<Gear> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new FootGear("adj" + i, "Boot", i % 4, i % 3));
+            items.add(new HandGear("adj" + i, "Glove", i % 5));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,255 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DraftStateTest {
+
+    @Test
+    public void testGreedyPicksMatchBattle() {
+        BattleConfig config = new BattleConfig(2_000, 100, 4, 1, 2, 2);
+        List<RPGCharacter> characters = characters(config);
+        Battle battle = new Battle(characters, new PoolGenerator(8).generate(0, 2_000), config);
+        battle.setListener(BattleListener.NONE);
+        int[] checked = new int[1];
+        for (int i = 0; i < 4; i++) {
+            battle.setPickStrategy(i, context -> {
+                DraftState state = context.getSnapshot();
+                Gear greedy = PickStrategy.GREEDY.pick(context);
+                assertSame(greedy, state.getItem(state.findBest(context.getParticipant())));
+                checked[0]++;
+                return greedy;
+            });
+        }
+        battle.startBattle();
+
+        assertEquals(400, checked[0]);
+        DraftState end = battle.snapshot();
+        assertEquals(1_600, end.getAvailableCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(characters.get(i).getTotalAttackStat(), end.getTotalAttackStat(i));
+            assertEquals(characters.get(i).getTotalDefenseStat(), end.getTotalDefenseStat(i));
+        }
+        assertArrayEquals(battle.resolveDamage(), end.resolveDamage());
+    }
+
+    @Test
+    public void testForksDoNotAffectEachOther() {
+        List<Gear> items = new PoolGenerator(2).generate(0, 100);
+        DraftState root = DraftState.of(items, characters(BattleConfig.standard()));
+        int best = root.findBest(0);
+        DraftState first = root.pick(0, best);
+        DraftState second = root.pick(0, 7).pick(1, best);
+
+        assertFalse(root.isTaken(best));
+        assertTrue(first.isTaken(best));
+        assertFalse(first.isTaken(7));
+        assertTrue(second.isTaken(7));
+        assertEquals(2, root.getTotalAttackStat(0));
+        assertEquals(2 + items.get(best).getAttackStat(), first.getTotalAttackStat(0));
+        assertEquals(2 + items.get(best).getAttackStat(), second.getTotalAttackStat(1));
+        assertNotEquals(best, first.findBest(1));
+        assertSame(root, second.getParent().getParent());
+        assertSame(root, second.rollbackToTurn(1));
+        assertSame(second, second.rollback(2));
+    }
+
+    @Test
+    public void testFindBestCombinesOnceSlotsAreFull() {
+        List<Gear> items = Arrays.asList(new HeadGear("Bold", "Helmet", 5), new HeadGear("Iron", "Helmet", 9),
+                new FootGear("Swift", "Boot", 0, 1));
+        DraftState state = DraftState.of(items, characters(BattleConfig.standard()));
+        assertEquals(1, state.findBest(0));
+        state = state.pick(0, 1);
+        assertFalse(state.hasOpenSlot(0, GearType.HEAD));
+        // The only open slot type left is foot, so the boot beats the better helmet
+        assertEquals(2, state.findBest(0));
+        assertArrayEquals(new int[] {0}, state.best(GearType.HEAD, 5));
+        state = state.pick(0, 2);
+        assertEquals(0, state.findBest(0));
+        assertEquals(-1, state.pick(1, 0).findBest(1));
+    }
+
+    @Test
+    public void testRollbackReplaysTheSameBattle() {
+        List<RPGCharacter> characters = characters(BattleConfig.standard());
+        Battle battle = new Battle(characters, new PoolGenerator(21).generate(0, 20), BattleConfig.standard());
+        DraftState[] saved = new DraftState[1];
+        String[] before = new String[1];
+        long[] hash = new long[1];
+        battle.setListener(new BattleListener() {
+            @Override
+            public void onTurnStart(int turn) {
+                if (turn == 4 && saved[0] == null) {
+                    saved[0] = battle.snapshot();
+                    before[0] = characters.toString();
+                    hash[0] = battle.getStateHash();
+                }
+            }
+        });
+        BattleResult first = battle.startBattle();
+        String after = characters.toString();
+
+        battle.rollback(saved[0]);
+        assertEquals(before[0], characters.toString());
+        assertEquals(hash[0], battle.getStateHash());
+        assertSame(saved[0], battle.snapshot());
+
+        BattleResult second = battle.startBattle();
+        assertEquals(after, characters.toString());
+        assertArrayEquals(first.getDamages(), second.getDamages());
+    }
+
+    @Test
+    public void testLateSnapshotRebuildsTheStart() {
+        // Two runs of the same battle, with a head slot filled before the start: one snapshotted at
+        // the start and kept up to date, the other snapshotted for the first time at turn 6
+        DraftState[] states = new DraftState[2];
+        for (int run = 0; run < 2; run++) {
+            List<RPGCharacter> characters = characters(BattleConfig.standard());
+            characters.get(0).equip(new HeadGear("Old", "Helmet", 3));
+            Battle battle = new Battle(characters, new PoolGenerator(9).generate(0, 20), BattleConfig.standard());
+            int firstSnapshot = run == 0 ? 1 : 6;
+            battle.setListener(new BattleListener() {
+                @Override
+                public void onTurnStart(int turn) {
+                    if (turn == firstSnapshot) {
+                        battle.snapshot();
+                    }
+                }
+            });
+            battle.startBattle();
+            states[run] = battle.snapshot();
+        }
+
+        for (int picks = 0; picks <= 20; picks++) {
+            DraftState eager = states[0].rollback(picks);
+            DraftState late = states[1].rollback(picks);
+            assertEquals(eager.getLastItem(), late.getLastItem());
+            for (int i = 0; i < 2; i++) {
+                assertEquals(eager.getTotalAttackStat(i), late.getTotalAttackStat(i));
+                assertEquals(eager.getTotalDefenseStat(i), late.getTotalDefenseStat(i));
+                for (GearType type : GearType.values()) {
+                    assertEquals(eager.hasOpenSlot(i, type), late.hasOpenSlot(i, type));
+                }
+            }
+        }
+        for (int item = 0; item < 20; item++) {
+            assertEquals(states[0].getItem(item).toString(), states[1].getItem(item).toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRollbackToAnotherBranch() {
+        Battle battle = new Battle(characters(BattleConfig.standard()), new PoolGenerator(4).generate(0, 20),
+                BattleConfig.standard());
+        DraftState start = battle.snapshot();
+        battle.rollback(start.pick(0, start.findBest(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPickTakenItem() {
+        DraftState state = DraftState.of(new PoolGenerator(4).generate(0, 20), characters(BattleConfig.standard()));
+        state.pick(0, 3).pick(1, 3);
+    }
+
+    @Test
+    public void testRollbackOfGearWithoutASlotType() {
+        BattleConfig config = BattleConfig.standard();
+        List<RPGCharacter> characters = characters(config);
+        List<Gear> items = new PoolGenerator(22).generate(0, config.getPoolSize());
+        // Strong charms are picked first, by both characters, and end up combined into a foot slot
+        for (int i = 0; i < 6; i++) {
+            items.set(i, new Charm(40 + i, 30));
+        }
+        Battle battle = new Battle(characters, items, config);
+        DraftState[] saved = new DraftState[1];
+        battle.setListener(new BattleListener() {
+            @Override
+            public void onTurnStart(int turn) {
+                if (turn == 1) {
+                    saved[0] = battle.snapshot();
+                }
+            }
+        });
+        String before = characters.toString();
+        BattleResult first = battle.startBattle();
+        assertEquals(GearType.FOOT, GearType.of(characters.get(0).getEquippedGear(GearType.FOOT, 0)));
+
+        battle.rollback(saved[0]);
+        assertEquals(before, characters.toString());
+        for (RPGCharacter character : characters) {
+            assertEquals(2, character.getTotalAttackStat());
+            assertEquals(2, character.getTotalDefenseStat());
+        }
+        assertArrayEquals(first.getDamages(), battle.startBattle().getDamages());
+    }
+
+    private static List<RPGCharacter> characters(BattleConfig config) {
+        List<RPGCharacter> characters = new ArrayList<>();
+        for (int i = 0; i < config.getParticipants(); i++) {
+            characters.add(config.createCharacter("Player " + (i + 1), 2, 2));
+        }
+        return characters;
+    }
+
+    // Gear of another kind than the gear classes, so it has no slot type of its own
+    private static class Charm implements Gear {
+
+        private final int attack;
+        private final int defense;
+
+        Charm(int attack, int defense) {
+            this.attack = attack;
+            this.defense = defense;
+        }
+
+        @Override
+        public String getPrefix() {
+            return "Lucky";
+        }
+
+        @Override
+        public void setPrefix(String prefix) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getName() {
+            return "Charm";
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getAttackStat() {
+            return attack;
+        }
+
+        @Override
+        public int getDefenseStat() {
+            return defense;
+        }
+
+        @Override
+        public Gear combine(Gear other) {
+            return new FootGear(getPrefix(), getName(), attack, defense).combine(other);
+        }
+
+        @Override
+        public int compareTo(Gear other) {
+            int result = Integer.compare(attack, other.getAttackStat());
+            return result != 0 ? result : Integer.compare(defense, other.getDefenseStat());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import character.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test data shared by several test classes.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates characters named "Player 1" and up, with base stats drawn below 10.
+     *
+     * @param count The number of characters.
+     * @param rand  The random source of the stats.
+     * @return A new, mutable list of the characters.
+     */
+    static List<RPGCharacter> characters(int count, Random rand) {
+        List<RPGCharacter> characters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            characters.add(new RPGCharacterImpl("Player " + (i + 1), rand.nextInt(10), rand.nextInt(10)));
+        }
+        return characters;
+    }
+}
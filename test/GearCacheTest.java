@@ -0,0 +1,76 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GearCacheTest {
+
+    @Test
+    public void testEqualKeysShareOneInstance() {
+        GearCache cache = new GearCache();
+        Gear first = cache.get(GearType.FOOT, "adj1", "Boot", 3, 4);
+        Gear second = cache.get(new GearKey(GearType.FOOT, "adj1", "Boot", 3, 4));
+        Gear other = cache.get(GearType.FOOT, "adj1", "Boot", 3, 5);
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertSame(first, cache.intern(new FootGear("adj1", "Boot", 3, 4)));
+        assertEquals(2, cache.size());
+        assertEquals("adj1 Boot -- attack: 3, defense: 4", first.toString());
+    }
+
+    @Test
+    public void testSharedGearIsFrozen() {
+        Gear helmet = new GearCache().get(GearType.HEAD, "adj1", "Helmet", 0, 2);
+        assertTrue(((AbstractGear) helmet).isFrozen());
+        try {
+            helmet.setName("Hat");
+            fail("Shared gear must not change");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("Helmet", helmet.getName());
+        }
+
+        // The key gives back a mutable copy, and combining still works on shared gear
+        Gear copy = GearKey.of(helmet).toGear();
+        copy.setName("Hat");
+        assertEquals("Hat", copy.getName());
+        assertEquals(4, helmet.combine(helmet).getDefenseStat());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKey() {
+        new GearKey(GearType.HAND, "adj1", "Glove", 3, 1);
+    }
+
+    @Test
+    public void testBattleWithSharedGearMatchesCopies() {
+        GearCache cache = new GearCache();
+        Random rand = new Random(7);
+        List<Gear> shared = new ArrayList<>();
+        List<Gear> copies = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // Few distinct values, so the shared pool holds the same instance many times
+            GearKey key = new GearKey(GearType.FOOT, "adj", "Boot", rand.nextInt(3), rand.nextInt(3));
+            shared.add(cache.get(key));
+            copies.add(key.toGear());
+        }
+
+        Battle sharedBattle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2), shared);
+        sharedBattle.setListener(BattleListener.NONE);
+        Battle copyBattle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2), copies);
+        copyBattle.setListener(BattleListener.NONE);
+
+        BattleResult sharedResult = sharedBattle.startBattle();
+        BattleResult copyResult = copyBattle.startBattle();
+        assertArrayEquals(copyResult.getDamages(), sharedResult.getDamages());
+        assertEquals(copyResult.getWinner(), sharedResult.getWinner());
+        assertTrue(cache.size() <= 9);
+    }
+}
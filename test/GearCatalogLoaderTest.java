@@ -0,0 +1,125 @@
+import battle.*;
+import character.*;
+import gear.*;
+import gear.store.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GearCatalogLoaderTest {
+
+    @Test
+    public void testCsv() throws IOException {
+        String csv = "type,prefix,name,attack,defense\r\n"
+                + "HEAD,Shiny,Helmet,0,4\r\n"
+                + "\r\n"
+                + "hand, Rusty , Glove ,5,0\r\n"
+                + "FOOT,\"Swift, \"\"Old\"\"\",Boot,6,7";
+        List<String> errors = new ArrayList<>();
+        List<Gear> items = new ArrayList<>();
+        GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.CSV,
+                (line, message) -> errors.add(line + ": " + message));
+
+        assertEquals(3, loader.load(new StringReader(csv), GearCatalogLoader.gearSink(items::add)));
+        assertEquals(new ArrayList<String>(), errors);
+        assertEquals("Shiny Helmet -- attack: 0, defense: 4", items.get(0).toString());
+        assertEquals("Rusty Glove -- attack: 5, defense: 0", items.get(1).toString());
+        assertEquals("Swift, \"Old\" Boot -- attack: 6, defense: 7", items.get(2).toString());
+        assertTrue(items.get(2) instanceof FootGear);
+    }
+
+    @Test
+    public void testBadRowsAreReportedAndSkipped() throws IOException {
+        String csv = "HEAD,a,Helmet,0,1\n"
+                + "HEAD,b,Helmet,2,1\n"
+                + "FOOT,c,Boot,-1,1\n"
+                + "BODY,d,Armor,1,1\n"
+                + "HAND,e,Glove,x,0\n"
+                + "HAND,f,Glove,1\n"
+                + "HAND,g,Glove,1,0,9\n"
+                + "FOOT,\"h,Boot,1,1\n"
+                + "HAND,i,Glove,3,0\n";
+        List<Long> lines = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        GearPool pool = new GearPool();
+        GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.CSV, (line, message) -> {
+            lines.add(line);
+            messages.add(message);
+        });
+
+        assertEquals(2, loader.load(new StringReader(csv), pool::add));
+        assertEquals(2, pool.size());
+        assertEquals("i", pool.getPrefix(1));
+        assertEquals(7, loader.getErrorCount());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L), lines);
+        assertEquals("HEAD gear cannot have that stat.", messages.get(0));
+        assertEquals("Attack and defense stats must be non-negative.", messages.get(1));
+        assertTrue(messages.get(2).startsWith("Unknown gear type"));
+    }
+
+    @Test
+    public void testJsonLines() throws IOException {
+        String json = "{\"type\": \"head\", \"prefix\": \"Shiny\", \"name\": \"Helmet\", \"defense\": 4}\n"
+                + "{\"name\":\"Glove\",\"prefix\":\"R\\u00fcsty \\\"Old\\\"\",\"type\":\"HAND\",\"attack\":5,\"rarity\":3}\n"
+                + "{\"type\": \"FOOT\", \"prefix\": \"Swift\", \"name\": \"Boot\", \"attack\": \"6\"}\n"
+                + "{\"type\": \"FOOT\", \"prefix\": \"Swift\", \"name\": \"Boot\", \"attack\": 6, \"defense\": 7}\n"
+                + "not json\n";
+        List<Long> lines = new ArrayList<>();
+        List<Gear> items = new ArrayList<>();
+        GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.JSON_LINES,
+                (line, message) -> lines.add(line));
+
+        assertEquals(3, loader.load(new StringReader(json), GearCatalogLoader.gearSink(items::add)));
+        assertEquals(List.of(3L, 5L), lines);
+        assertEquals(4, items.get(0).getDefenseStat());
+        assertEquals("R\u00fcsty \"Old\" Glove -- attack: 5, defense: 0", items.get(1).toString());
+        assertEquals(7, items.get(2).getDefenseStat());
+    }
+
+    @Test
+    public void testLargeCatalogIntoStoreAndBattle() throws IOException {
+        Path catalog = Files.createTempFile("catalog", ".csv");
+        Path store = Files.createTempFile("pools", ".bin");
+        try {
+            // Long prefixes make rows cross the loader's read blocks
+            StringBuilder csv = new StringBuilder();
+            for (int i = 0; i < 20_000; i++) {
+                csv.append(i % 3 == 0 ? "HEAD" : i % 3 == 1 ? "HAND" : "FOOT").append(',')
+                        .append("adj").append(i % 50).append("x".repeat(i % 17)).append(',')
+                        .append("Item").append(',')
+                        .append(i % 3 == 0 ? 0 : i % 10).append(',')
+                        .append(i % 3 == 1 ? 0 : i % 7).append('\n');
+            }
+            Files.writeString(catalog, csv);
+
+            GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.of(catalog),
+                    (line, message) -> fail("Line " + line + ": " + message));
+            try (GearPoolWriter writer = new GearPoolWriter(store)) {
+                writer.newPool();
+                assertEquals(20_000, loader.load(catalog, writer::add));
+            }
+            try (GearPoolReader reader = new GearPoolReader(store)) {
+                assertEquals(20_000, reader.getPoolSize(0));
+                assertEquals("adj49" + "x".repeat(19_999 % 17), reader.getPrefix(19_999));
+                assertEquals(GearType.HAND, reader.getType(19_999));
+            }
+
+            List<Gear> items = new ArrayList<>();
+            assertEquals(20_000, loader.load(catalog, GearCatalogLoader.gearSink(items::add)));
+            Battle battle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2),
+                    new ArrayList<>(items.subList(0, 20)));
+            assertEquals(2, battle.startBattle().getDamages().length);
+        } finally {
+            Files.delete(catalog);
+            Files.delete(store);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GearPoolTest {
+
+    @Test
+    public void testToGearRoundTrip() {
+        GearPool pool = new GearPool();
+        pool.add(new HeadGear("adj1", "Helmet", 4));
+        pool.add(new HandGear("adj2", "Glove", 5));
+        pool.add(new FootGear("adj1", "Boot", 6, 7));
+
+        Gear foot = pool.toGear(2);
+        assertTrue(foot instanceof FootGear);
+        assertEquals("adj1 Boot -- attack: 6, defense: 7", foot.toString());
+        assertEquals(GearType.HAND, pool.getType(1));
+        assertEquals(4, pool.toGear(0).getDefenseStat());
+
+        // Shared prefixes and names are stored once
+        assertEquals(pool.getPrefixId(0), pool.getPrefixId(2));
+        assertEquals(5, pool.getStrings().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStat() {
+        new GearPool().add(GearType.FOOT, "adj1", "Boot", 1, -1);
+    }
+
+    @Test
+    public void testStatRulesOfEachType() {
+        assertNull(GearType.FOOT.checkStats(3, 4));
+        assertEquals("HEAD gear cannot have that stat.", GearType.HEAD.checkStats(1, 4));
+        assertEquals("HAND gear cannot have that stat.", GearType.HAND.checkStats(1, 4));
+        assertEquals("Attack and defense stats must be non-negative.", GearType.FOOT.checkStats(-1, 0));
+        try {
+            new GearPool().add(GearType.HEAD, "Shiny", "Helmet", 2, 0);
+            fail("Added head gear with an attack stat");
+        } catch (IllegalArgumentException e) {
+            assertEquals(GearType.HEAD.checkStats(2, 0), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCompactDraftMatchesBattle() {
+        Random rand = new Random(5004);
+        for (int round = 0; round < 20; round++) {
+            BattleConfig config = new BattleConfig(60, 20, 3, 1, 2, 2);
+            List<Gear> items = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                switch (rand.nextInt(3)) {
+                    case 0:
+                        items.add(new HeadGear("adj" + i, "Helmet", rand.nextInt(5)));
+                        break;
+                    case 1:
+                        items.add(new HandGear("adj" + i, "Glove", rand.nextInt(5)));
+                        break;
+                    default:
+                        items.add(new FootGear("adj" + i, "Boot", rand.nextInt(5), rand.nextInt(5)));
+                }
+            }
+            List<RPGCharacter> characters = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                characters.add(config.createCharacter("Player" + i, i, 2));
+            }
+            Battle battle = new Battle(characters, items, config);
+            battle.setListener(BattleListener.NONE);
+            BattleResult result = battle.startBattle();
+
+            CompactDraft draft = new CompactDraft(GearPool.from(items), config, new int[] {0, 1, 2}, new int[] {2, 2, 2});
+            assertEquals(result.getWinner(), draft.run());
+            assertArrayEquals(result.getDamages(), draft.resolveDamage());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(characters.get(i).toString(), draft.toCharacter(i, "Player" + i, i, 2).toString());
+                assertEquals(characters.get(i).getEquippedHandGears().get(0).toString(),
+                        draft.getEquippedGear(i, GearType.HAND, 0).toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GearQueryIndexTest {
+
+    private static final String[] PREFIXES = {"Iron", "Ironclad", "Swift", "Sharp", "Shadow", "Bold"};
+    private static final String[] NAMES = {"Helmet", "Glove", "Gauntlet", "Boot", "Boots"};
+
+    @Test
+    public void testFootGearInRangeByAttack() {
+        GearQueryIndex index = GearQueryIndex.of(Arrays.asList(new FootGear("Swift", "Boot", 3, 5),
+                new FootGear("Swift", "Boot", 8, 9), new FootGear("Bold", "Boot", 7, 6),
+                new FootGear("Bold", "Boot", 5, 4), new HandGear("Sharp", "Glove", 5),
+                new FootGear("Iron", "Boot", 4, 5)));
+        GearQuery query = new GearQuery(GearType.FOOT);
+        query.setAttackRange(3, 7);
+        query.setDefenseRange(5, Integer.MAX_VALUE);
+        query.setOrder(GearQuery.Order.ATTACK);
+        assertArrayEquals(new int[] {0, 5, 2}, index.find(query));
+
+        query.setPrefixStart("S");
+        assertEquals("Swift Boot -- attack: 3, defense: 5", index.findGear(query).get(0).toString());
+        assertEquals(1, index.find(query).length);
+    }
+
+    @Test
+    public void testRandomQueriesMatchBruteForce() {
+        Random rand = new Random(1);
+        GearQueryIndex index = new GearQueryIndex(new GearPool());
+        for (int i = 0; i < 5_000; i++) {
+            add(index, rand);
+        }
+        for (int i = 0; i < 300; i++) {
+            GearQuery query = randomQuery(rand);
+            assertArrayEquals(bruteForce(index, query), index.find(query));
+        }
+    }
+
+    @Test
+    public void testRemoveAndIndexAgain() {
+        Random rand = new Random(2);
+        GearQueryIndex index = new GearQueryIndex(new GearPool());
+        for (int i = 0; i < 3_000; i++) {
+            add(index, rand);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                int item = rand.nextInt(index.getPool().size());
+                if (rand.nextBoolean()) {
+                    index.remove(item);
+                } else {
+                    index.index(item);
+                }
+            }
+            for (int i = 0; i < 500; i++) {
+                add(index, rand);
+            }
+            for (int i = 0; i < 60; i++) {
+                GearQuery query = randomQuery(rand);
+                assertArrayEquals(bruteForce(index, query), index.find(query));
+            }
+        }
+
+        int item = index.find(new GearQuery())[0];
+        assertTrue(index.remove(item));
+        assertFalse(index.remove(item));
+        assertFalse(index.contains(item));
+        assertTrue(index.index(item));
+        assertFalse(index.index(item));
+        assertEquals(item, index.find(new GearQuery())[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new GearQuery(GearType.HAND).setAttackRange(5, 4);
+    }
+
+    private static void add(GearQueryIndex index, Random rand) {
+        GearType type = GearType.values()[rand.nextInt(3)];
+        int attack = type == GearType.HEAD ? 0 : rand.nextInt(100);
+        int defense = type == GearType.HAND ? 0 : rand.nextInt(100);
+        index.add(type, PREFIXES[rand.nextInt(PREFIXES.length)], NAMES[rand.nextInt(NAMES.length)], attack, defense);
+    }
+
+    private static GearQuery randomQuery(Random rand) {
+        GearQuery query = rand.nextInt(4) == 0 ? new GearQuery() : new GearQuery(GearType.values()[rand.nextInt(3)]);
+        if (rand.nextBoolean()) {
+            int min = rand.nextInt(100);
+            query.setAttackRange(min, min + rand.nextInt(30));
+        }
+        if (rand.nextBoolean()) {
+            int min = rand.nextInt(100);
+            query.setDefenseRange(min, rand.nextBoolean() ? Integer.MAX_VALUE : min + rand.nextInt(30));
+        }
+        if (rand.nextInt(3) == 0) {
+            query.setPrefixStart(PREFIXES[rand.nextInt(PREFIXES.length)].substring(0, 1 + rand.nextInt(3)));
+        }
+        if (rand.nextInt(4) == 0) {
+            query.setNameStart(rand.nextBoolean() ? "Boot" : "G");
+        }
+        query.setOrder(GearQuery.Order.values()[rand.nextInt(4)]);
+        if (rand.nextBoolean()) {
+            query.setLimit(rand.nextInt(50));
+        }
+        return query;
+    }
+
+    private static int[] bruteForce(GearQueryIndex index, GearQuery query) {
+        GearPool pool = index.getPool();
+        List<Integer> items = new ArrayList<>();
+        for (int item = 0; item < pool.size(); item++) {
+            if (index.contains(item) && (query.getType() == null || pool.getType(item) == query.getType())
+                    && pool.getAttackStat(item) >= query.getMinAttack()
+                    && pool.getAttackStat(item) <= query.getMaxAttack()
+                    && pool.getDefenseStat(item) >= query.getMinDefense()
+                    && pool.getDefenseStat(item) <= query.getMaxDefense()
+                    && (query.getPrefixStart() == null || pool.getPrefix(item).startsWith(query.getPrefixStart()))
+                    && (query.getNameStart() == null || pool.getName(item).startsWith(query.getNameStart()))) {
+                items.add(item);
+            }
+        }
+        Comparator<Integer> byAttack = Comparator.comparingInt(pool::getAttackStat);
+        Comparator<Integer> byDefense = Comparator.comparingInt(pool::getDefenseStat);
+        Comparator<Integer> order = query.getOrder().isByAttack() ? byAttack.thenComparing(byDefense)
+                : byDefense.thenComparing(byAttack);
+        order = order.thenComparingInt(Integer::intValue);
+        items.sort(query.getOrder().isDescending() ? order.reversed() : order);
+        return items.stream().limit(query.getLimit()).mapToInt(Integer::intValue).toArray();
+    }
+}
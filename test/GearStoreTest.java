@@ -0,0 +1,226 @@
+import battle.*;
+import character.*;
+import gear.*;
+import gear.store.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GearStoreTest {
+
+    @Test
+    public void testPoolRoundTrip() throws IOException {
+        List<Gear> first = Arrays.asList(
+                new HeadGear("Shiny", "Helmet", 4),
+                new HandGear("Rusty", "Glove", 5),
+                new FootGear("Shiny", "Boot", 6, 7));
+        List<Gear> second = Arrays.asList(
+                new FootGear("Swift", "Sandal", 0, 9),
+                new HeadGear("Plain", "Cap", 0));
+        Path file = Files.createTempFile("pools", ".bin");
+        try {
+            try (GearPoolWriter writer = new GearPoolWriter(file)) {
+                assertEquals(0, writer.write(first));
+                assertEquals(1, writer.write(Collections.emptyList()));
+                assertEquals(2, writer.write(GearPool.from(second)));
+            }
+
+            try (GearPoolReader reader = new GearPoolReader(file)) {
+                assertEquals(3, reader.getPoolCount());
+                assertEquals(5, reader.getItemCount());
+                assertEquals(0, reader.getPoolSize(1));
+                assertEquals(Collections.emptyList(), reader.readPool(1));
+                assertSameItems(first, reader.readPool(0));
+                assertSameItems(second, reader.readPool(2));
+
+                Gear hand = reader.getItem(1);
+                assertTrue(hand instanceof HandGear);
+                assertEquals("Rusty Glove -- attack: 5, defense: 0", hand.toString());
+
+                GearPool pool = reader.readGearPool(2, new StringTable());
+                assertEquals(GearType.FOOT, pool.getType(0));
+                assertEquals("Sandal", pool.getName(0));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testScanVisitsEveryItem() throws IOException {
+        Random rand = new Random(15);
+        List<List<Gear>> pools = new ArrayList<>();
+        Path file = Files.createTempFile("pools", ".bin");
+        try {
+            try (GearPoolWriter writer = new GearPoolWriter(file)) {
+                for (int i = 0; i < 50; i++) {
+                    List<Gear> items = new PoolGenerator(15).generate(i, rand.nextInt(40));
+                    pools.add(items);
+                    writer.write(items);
+                }
+            }
+
+            List<Gear> expected = new ArrayList<>();
+            pools.forEach(expected::addAll);
+            long[] attack = new long[2];
+            int[] lastPool = {-1};
+            try (GearPoolReader reader = new GearPoolReader(file)) {
+                reader.scan((pool, item, type, atk, def) -> {
+                    Gear gear = expected.get((int) item);
+                    assertEquals(GearType.of(gear), type);
+                    assertEquals(gear.getDefenseStat(), def);
+                    assertTrue(pool >= lastPool[0]);
+                    lastPool[0] = pool;
+                    attack[0] += atk;
+                });
+                for (int i = 0; i < pools.size(); i++) {
+                    assertSameItems(pools.get(i), reader.readPool(i));
+                }
+            }
+            for (Gear gear : expected) {
+                attack[1] += gear.getAttackStat();
+            }
+            assertEquals(attack[1], attack[0]);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsMissingNames() throws IOException {
+        Path file = Files.createTempFile("pools", ".bin");
+        try {
+            try (GearPoolWriter writer = new GearPoolWriter(file)) {
+                writer.newPool();
+                writer.add(GearType.HAND, "Rusty", "Glove", 5, 0);
+                try {
+                    writer.add(GearType.HAND, "Rusty", null, 5, 0);
+                    fail("Added an item without a name");
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Prefix and name must not be null.", e.getMessage());
+                }
+                try {
+                    writer.write(Arrays.asList(new HandGear(null, "Glove", 3)));
+                    fail("Wrote an item without a prefix");
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Prefix and name must not be null.", e.getMessage());
+                }
+            }
+
+            // The file is still complete, without the rejected item
+            try (GearPoolReader reader = new GearPoolReader(file)) {
+                assertEquals(1, reader.getItemCount());
+                assertEquals("Glove", reader.getName(0));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("pools", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3});
+            try {
+                new GearPoolReader(file).close();
+                fail("Read a file that is not a pool file");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("Store Error"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBattleLogRoundTrip() throws IOException {
+        Path file = Files.createTempFile("battles", ".bin");
+        List<BattleResult> results = new ArrayList<>();
+        List<List<Gear>> picks = new ArrayList<>();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (int i = 0; i < 3; i++) {
+                Battle battle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2),
+                        new PoolGenerator(i).generate(0, 20));
+                List<Gear> picked = new ArrayList<>();
+                BinaryBattleLog log = new BinaryBattleLog(bytes);
+                battle.setListener(new BattleListener() {
+                    @Override
+                    public void onTurnStart(int turn) {
+                        log.onTurnStart(turn);
+                    }
+
+                    @Override
+                    public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+                        picked.add(gear);
+                        log.onPick(turn, participant, character, gear);
+                    }
+
+                    @Override
+                    public void onTurnEnd(int turn) {
+                        log.onTurnEnd(turn);
+                    }
+
+                    @Override
+                    public void onBattleEnd(BattleResult result) {
+                        log.onBattleEnd(result);
+                    }
+                });
+                results.add(battle.startBattle());
+                picks.add(picked);
+            }
+            Files.write(file, bytes.toByteArray());
+
+            List<BattleReplay> replays = new ArrayList<>();
+            BattleReplay.scan(file, replays::add);
+            assertEquals(3, replays.size());
+            for (int i = 0; i < 3; i++) {
+                BattleReplay replay = replays.get(i);
+                assertArrayEquals(results.get(i).getDamages(), replay.getDamages());
+                assertEquals(results.get(i).getWinner(), replay.getWinner());
+                assertEquals(20, replay.getPickCount());
+                for (int pick = 0; pick < 20; pick++) {
+                    Gear gear = picks.get(i).get(pick);
+                    assertEquals(GearType.of(gear), replay.getType(pick));
+                    assertEquals(gear.getAttackStat(), replay.getAttackStat(pick));
+                    assertEquals(gear.getDefenseStat(), replay.getDefenseStat(pick));
+                    assertEquals(pick % 2, replay.getParticipant(pick));
+                    assertEquals(pick / 2 + 1, replay.getTurn(pick));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedBattleLog() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Battle battle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2),
+                new PoolGenerator(1).generate(0, 20));
+        battle.setListener(new BinaryBattleLog(bytes));
+        battle.startBattle();
+        BattleReplay.read(ByteBuffer.wrap(bytes.toByteArray(), 0, bytes.size() - 1));
+    }
+
+    private static void assertSameItems(List<Gear> expected, List<Gear> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+}
@@ -54,6 +54,51 @@ public class GearTest {
         assertEquals(8, combinedHeadGear.getDefenseStat());
     }
 
+    @Test
+    public void testLongCombineChain() {
+        // Arrange
+        Gear gear = new HandGear("p0", "Glove", 1);
+        StringBuilder expected = new StringBuilder("p0");
+
+        // Act
+        for (int i = 1; i < 20000; i++) {
+            gear = gear.combine(new HandGear("p" + i, "Glove", 1));
+            expected.append(", p").append(i);
+        }
+
+        // Assert
+        assertEquals(expected.toString(), gear.getPrefix());
+        assertEquals(20000, gear.getAttackStat());
+    }
+
+    @Test
+    public void testCombineCombinedGears() {
+        // Arrange
+        Gear left = new HeadGear("a", "Helmet", 1).combine(new HeadGear("b", "Helmet", 1));
+        Gear right = new HeadGear("c", "Helmet", 1).combine(new HeadGear("d", "Helmet", 1));
+
+        // Act
+        Gear combined = left.combine(right);
+
+        // Assert
+        assertEquals("a, b, c, d", combined.getPrefix());
+        assertEquals("a, b", left.getPrefix());
+        assertEquals(4, combined.getDefenseStat());
+    }
+
+    @Test
+    public void testNullPrefix() {
+        // Arrange
+        Gear gear = new HandGear(null, "Glove", 3);
+
+        // Act
+        Gear combined = gear.combine(new HandGear("Rusty", "Glove", 1));
+
+        // Assert
+        assertNull(gear.getPrefix());
+        assertEquals("null, Rusty", combined.getPrefix());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidFootGear() {
         // Arrange & Act
@@ -0,0 +1,104 @@
+import battle.IndexedGearPool;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedGearPoolTest {
+
+    @Test
+    public void testFindBestPrefersOpenSlot() {
+        List<Gear> items = new ArrayList<>();
+        items.add(new HandGear("adj1", "Sword", 9));
+        items.add(new HeadGear("adj2", "Helmet", 1));
+        IndexedGearPool pool = new IndexedGearPool(items);
+
+        RPGCharacter player = new RPGCharacterImpl("Player1", 1, 1);
+        player.equip(new HandGear("adj3", "Sword", 1));
+        player.equip(new HandGear("adj4", "Sword", 1));
+
+        assertSame(items.get(1), pool.findBest(player));
+    }
+
+    @Test
+    public void testRemoveDuplicateInstance() {
+        Gear boots = new FootGear("adj1", "Boots", 2, 2);
+        IndexedGearPool pool = new IndexedGearPool();
+        pool.add(boots);
+        pool.add(boots);
+
+        assertTrue(pool.remove(boots));
+        assertEquals(1, pool.size(GearType.FOOT));
+        assertTrue(pool.remove(boots));
+        assertFalse(pool.remove(boots));
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFindBestOnEmptyPool() {
+        new IndexedGearPool().findBest(new RPGCharacterImpl("Player1", 1, 1));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random rand = new Random(5004);
+        for (int round = 0; round < 50; round++) {
+            List<Gear> items = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int type = rand.nextInt(3);
+                if (type == 0) {
+                    items.add(new HeadGear("adj" + i, "Helmet", rand.nextInt(4)));
+                } else if (type == 1) {
+                    items.add(new HandGear("adj" + i, "Glove", rand.nextInt(4)));
+                } else {
+                    items.add(new FootGear("adj" + i, "Boot", rand.nextInt(4), rand.nextInt(4)));
+                }
+            }
+            IndexedGearPool pool = new IndexedGearPool(items);
+            RPGCharacter player = new RPGCharacterImpl("Player1", 1, 1);
+            while (!items.isEmpty()) {
+                Gear expected = linearBest(items, player);
+                assertSame(expected, pool.findBest(player));
+                player.equip(expected);
+                items.remove(expected);
+                pool.remove(expected);
+            }
+        }
+    }
+
+    // The original scan over the whole item list, used as the reference result
+    private static Gear linearBest(List<Gear> items, RPGCharacter player) {
+        List<Gear> candidates = new ArrayList<>();
+        for (Gear gear : items) {
+            if (gear instanceof HeadGear && player.hasHeadGearSlot()) {
+                candidates.add(gear);
+            }
+        }
+        for (Gear gear : items) {
+            if (gear instanceof HandGear && player.hasHandGearSlot()) {
+                candidates.add(gear);
+            }
+        }
+        for (Gear gear : items) {
+            if (gear instanceof FootGear && player.hasFootGearSlot()) {
+                candidates.add(gear);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(items);
+        }
+        Gear best = candidates.get(0);
+        for (Gear gear : candidates) {
+            if (gear.compareTo(best) > 0) {
+                best = gear;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,135 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LeaderboardTest {
+
+    @Test
+    public void testRanksMatchSortedOrder() {
+        List<RPGCharacter> characters = Fixtures.characters(500, new Random(1));
+        Leaderboard leaderboard = new Leaderboard(Leaderboard.Score.TOTAL, characters);
+        assertRanked(leaderboard, characters, Leaderboard.Score.TOTAL);
+        assertEquals(characters.size(), leaderboard.getSize());
+        assertEquals(sorted(characters, Leaderboard.Score.TOTAL).subList(0, 10), leaderboard.getTop(10));
+    }
+
+    @Test
+    public void testRanksFollowGearChanges() {
+        Random rand = new Random(2);
+        List<RPGCharacter> characters = Fixtures.characters(300, rand);
+        Leaderboard leaderboard = new Leaderboard(Leaderboard.Score.ATTACK, characters);
+        PoolGenerator generator = new PoolGenerator(2);
+        for (int i = 0; i < 2_000; i++) {
+            RPGCharacter character = characters.get(rand.nextInt(characters.size()));
+            character.equip(generator.item(0, i));
+            if (i % 50 == 0) {
+                character.unequip(GearType.HAND, 0);
+            }
+        }
+        assertRanked(leaderboard, characters, Leaderboard.Score.ATTACK);
+
+        RPGCharacter last = leaderboard.get(characters.size());
+        last.equip(new HandGear("Sharp", "Glove", 10_000));
+        assertEquals(1, leaderboard.getRank(last));
+        assertSame(last, leaderboard.getTop(1).get(0));
+    }
+
+    @Test
+    public void testRangesAndRemoval() {
+        List<RPGCharacter> characters = Fixtures.characters(200, new Random(3));
+        Leaderboard leaderboard = new Leaderboard(Leaderboard.Score.DEFENSE, characters);
+        List<RPGCharacter> expected = new ArrayList<>();
+        for (RPGCharacter character : sorted(characters, Leaderboard.Score.DEFENSE)) {
+            int defense = character.getTotalDefenseStat();
+            if (defense >= 3 && defense <= 6) {
+                expected.add(character);
+            }
+        }
+        assertEquals(expected, leaderboard.getScoreRange(3, 6));
+        assertEquals(sorted(characters, Leaderboard.Score.DEFENSE).subList(49, 60), leaderboard.getRange(50, 60));
+        assertTrue(leaderboard.getRange(300, 400).isEmpty());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(leaderboard.remove(characters.remove(characters.size() - 1)));
+        }
+        RPGCharacter removed = new RPGCharacterImpl("Player 0", 1, 1);
+        assertFalse(leaderboard.remove(removed));
+        characters.add(removed);
+        leaderboard.add(removed);
+        assertRanked(leaderboard, characters, Leaderboard.Score.DEFENSE);
+    }
+
+    @Test
+    public void testBoardsShareCharacters() {
+        Random rand = new Random(5);
+        List<RPGCharacter> characters = Fixtures.characters(100, rand);
+        Leaderboard attack = new Leaderboard(Leaderboard.Score.ATTACK, characters);
+        Leaderboard defense = new Leaderboard(Leaderboard.Score.DEFENSE, characters);
+        PoolGenerator generator = new PoolGenerator(5);
+        for (int i = 0; i < 500; i++) {
+            characters.get(rand.nextInt(characters.size())).equip(generator.item(0, i));
+        }
+        assertRanked(attack, characters, Leaderboard.Score.ATTACK);
+        assertRanked(defense, characters, Leaderboard.Score.DEFENSE);
+
+        // Leaving one board does not stop the other from following the character
+        RPGCharacter character = characters.get(0);
+        attack.remove(character);
+        character.equip(new FootGear("Heavy", "Boot", 500, 500));
+        assertEquals(1, defense.getRank(character));
+        attack.detach();
+        characters.get(1).equip(new HeadGear("Thick", "Helmet", 1_000));
+        assertEquals(1, defense.getRank(characters.get(1)));
+    }
+
+    @Test
+    public void testWinRateAgainstReference() {
+        List<RPGCharacter> reference = new ArrayList<>();
+        reference.add(new RPGCharacterImpl("Weak", 1, 1));
+        reference.add(new RPGCharacterImpl("Strong", 8, 8));
+        Leaderboard.Score score = Leaderboard.Score.winRate(reference);
+        // Beats the weak one and loses to the strong one
+        assertEquals(2, score.score(new RPGCharacterImpl("Middle", 4, 4)));
+        // Draws with both: no damage either way
+        assertEquals(2, score.score(new RPGCharacterImpl("Wall", 0, 8)));
+        assertEquals(3, score.score(new RPGCharacterImpl("Strong", 8, 8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddTwice() {
+        List<RPGCharacter> characters = Fixtures.characters(2, new Random(4));
+        Leaderboard leaderboard = new Leaderboard(Leaderboard.Score.TOTAL, characters);
+        leaderboard.add(characters.get(0));
+    }
+
+    private static void assertRanked(Leaderboard leaderboard, List<RPGCharacter> characters,
+                                     Leaderboard.Score score) {
+        List<RPGCharacter> ranked = leaderboard.getTop(characters.size());
+        assertEquals(characters.size(), ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            RPGCharacter character = ranked.get(i);
+            assertEquals(score.score(character), leaderboard.getScore(character));
+            assertEquals(i + 1, leaderboard.getRank(character));
+            assertSame(character, leaderboard.get(i + 1));
+            if (i > 0) {
+                assertTrue(score.score(ranked.get(i - 1)) >= score.score(character));
+            }
+        }
+    }
+
+    private static List<RPGCharacter> sorted(List<RPGCharacter> characters, Leaderboard.Score score) {
+        List<RPGCharacter> sorted = new ArrayList<>(characters);
+        // A stable sort keeps characters with the same score in the order they were added
+        sorted.sort(Comparator.comparingLong(score::score).reversed());
+        return sorted;
+    }
+}
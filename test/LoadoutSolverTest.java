@@ -0,0 +1,103 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LoadoutSolverTest {
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random rand = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<Gear> pool = randomPool(12, 10, rand);
+            int picks = 1 + rand.nextInt(5);
+            RPGCharacter character = new RPGCharacterImpl("A", rand.nextInt(5), rand.nextInt(5));
+            RPGCharacter opponent = new RPGCharacterImpl("B", rand.nextInt(30), rand.nextInt(30));
+
+            Loadout loadout = new LoadoutSolver().solve(character, opponent, pool, picks);
+
+            assertTrue(loadout.isExact());
+            assertEquals(picks, loadout.getItems().size());
+            assertEquals(bestMargin(character, opponent, pool, picks, 0, 0, 0), loadout.getMargin());
+        }
+    }
+
+    @Test
+    public void testApplyMatchesStats() {
+        List<Gear> pool = randomPool(100_000, 10, new Random(5));
+        RPGCharacter character = new RPGCharacterImpl("A", 2, 2);
+        RPGCharacter opponent = new RPGCharacterImpl("B", 40, 30);
+
+        Loadout loadout = new LoadoutSolver().solve(character, opponent, pool, 10);
+        loadout.applyTo(character);
+
+        assertEquals(10, loadout.getItems().size());
+        assertEquals(loadout.getAttackStat(), character.getTotalAttackStat());
+        assertEquals(loadout.getDefenseStat(), character.getTotalDefenseStat());
+        // Ten items of at most 9 attack cannot beat 92 attack and 42 defense
+        assertTrue(loadout.getMargin() <= 92 - 30);
+    }
+
+    @Test
+    public void testBeatsGreedyPicks() {
+        Random rand = new Random(8);
+        for (int round = 0; round < 50; round++) {
+            List<Gear> pool = randomPool(200, 10, rand);
+            RPGCharacter opponent = new RPGCharacterImpl("B", 10 + rand.nextInt(40), 10 + rand.nextInt(40));
+
+            RPGCharacter greedy = new RPGCharacterImpl("A", 2, 2);
+            IndexedGearPool indexed = new IndexedGearPool(pool);
+            for (int i = 0; i < 10; i++) {
+                Gear gear = indexed.findBest(greedy);
+                indexed.remove(gear);
+                greedy.equip(gear);
+            }
+            int greedyMargin = Math.max(0, greedy.getTotalAttackStat() - opponent.getTotalDefenseStat())
+                    - Math.max(0, opponent.getTotalAttackStat() - greedy.getTotalDefenseStat());
+
+            Loadout loadout = new LoadoutSolver().solve(new RPGCharacterImpl("A", 2, 2), opponent, pool, 10);
+            assertTrue(loadout.getMargin() >= greedyMargin);
+        }
+    }
+
+    // Tries every set of items of the given size
+    private static int bestMargin(RPGCharacter character, RPGCharacter opponent, List<Gear> pool, int picks,
+                                  int from, int attack, int defense) {
+        if (picks == 0) {
+            int dealt = Math.max(0, character.getTotalAttackStat() + attack - opponent.getTotalDefenseStat());
+            int taken = Math.max(0, opponent.getTotalAttackStat() - character.getTotalDefenseStat() - defense);
+            return dealt - taken;
+        }
+        int best = Integer.MIN_VALUE;
+        for (int i = from; i <= pool.size() - picks; i++) {
+            Gear gear = pool.get(i);
+            best = Math.max(best, bestMargin(character, opponent, pool, picks - 1, i + 1,
+                    attack + gear.getAttackStat(), defense + gear.getDefenseStat()));
+        }
+        return best;
+    }
+
+    private static List<Gear> randomPool(int size, int bound, Random rand) {
+        List<Gear> pool = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            switch (rand.nextInt(3)) {
+                case 0:
+                    pool.add(new HeadGear("adj" + i, "Helmet", rand.nextInt(bound)));
+                    break;
+                case 1:
+                    pool.add(new HandGear("adj" + i, "Glove", rand.nextInt(bound)));
+                    break;
+                default:
+                    pool.add(new FootGear("adj" + i, "Boot", rand.nextInt(bound), rand.nextInt(bound)));
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,107 @@
+import battle.*;
+import battle.server.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class MatchServerTest {
+
+    @Test
+    public void testRunsManyMatches() throws Exception {
+        BattleConfig config = BattleConfig.standard();
+        List<CompletableFuture<BattleResult>> results = new ArrayList<>();
+        MatchServer server = new MatchServer(64, 10_000);
+        for (int i = 0; i < 500; i++) {
+            results.add(server.submit(new MatchRequest(config, i, 2, 2), 10, TimeUnit.SECONDS));
+        }
+        for (CompletableFuture<BattleResult> result : results) {
+            assertEquals(2, result.get().getDamages().length);
+        }
+        server.close();
+        assertEquals(500, server.getCompleted());
+        assertEquals(0, server.getRejected());
+        assertEquals(0, server.getInFlight());
+
+        // A seeded match always plays out the same way
+        try (MatchServer single = new MatchServer(1, 10_000)) {
+            BattleResult again = single.submit(new MatchRequest(config, 7, 2, 2)).get();
+            assertArrayEquals(results.get(7).get().getDamages(), again.getDamages());
+        }
+    }
+
+    @Test
+    public void testGivenCharactersAndItems() throws Exception {
+        List<Gear> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new FootGear("adj" + i, "Boot", i % 7, i % 5));
+        }
+        RPGCharacter first = new RPGCharacterImpl("A", 2, 2);
+        RPGCharacter second = new RPGCharacterImpl("B", 2, 2);
+
+        Battle direct = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2), items);
+        direct.setListener(BattleListener.NONE);
+        BattleResult expected = direct.startBattle();
+
+        try (MatchServer server = new MatchServer(1, 10_000)) {
+            MatchRequest request = new MatchRequest(List.of(first, second), items, BattleConfig.standard());
+            assertFalse(request.isSeeded());
+            BattleResult result = server.submit(request).get();
+            assertSame(first, result.getParticipants().get(0));
+            assertArrayEquals(expected.getDamages(), result.getDamages());
+        }
+    }
+
+    @Test
+    public void testRejectsWhenFullAndTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // Occupy the only thread so submitted matches stay queued
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (MatchServer server = new MatchServer(2, 50, executor)) {
+            MatchRequest request = new MatchRequest(BattleConfig.standard(), 1, 2, 2);
+            CompletableFuture<BattleResult> first = server.submit(request);
+            CompletableFuture<BattleResult> second = server.submit(request);
+            CompletableFuture<BattleResult> third = server.submit(request);
+            assertEquals(2, server.getInFlight());
+            assertFailsWith(RejectedExecutionException.class, third);
+
+            assertFailsWith(TimeoutException.class, first);
+            assertFailsWith(TimeoutException.class, second);
+            release.countDown();
+        }
+        assertTrue(executor.isShutdown());
+    }
+
+    private static void assertFailsWith(Class<? extends Throwable> type, CompletableFuture<?> future)
+            throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected " + type.getSimpleName());
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().toString(), type.isInstance(e.getCause()));
+        } catch (TimeoutException e) {
+            fail("The future did not complete");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import battle.*;
+import character.*;
+import gear.*;
+import metrics.*;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        assertEquals(50_000, histogram.getValueAtPercentile(50), 50_000 * 0.04);
+        assertEquals(99_000, histogram.getValueAtPercentile(99), 99_000 * 0.04);
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int value = 0; value < 64; value++) {
+            histogram.record(value);
+        }
+        assertEquals(31, histogram.getValueAtPercentile(50));
+        assertEquals(63, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBattleIsRecordedOnlyWhenEnabled() {
+        Metrics.reset();
+        runBattle();
+        assertEquals(0, Metrics.PICK.getCount());
+
+        Metrics.setEnabled(true);
+        try {
+            runBattle();
+        } finally {
+            Metrics.setEnabled(false);
+        }
+
+        assertEquals(20, Metrics.PICK.getCount());
+        assertEquals(20, Metrics.EQUIP.getCount());
+        assertEquals(20, Metrics.FIND_BEST.getCount());
+        assertEquals(1, Metrics.DAMAGE.getCount());
+        assertEquals(1, Metrics.BATTLE.getCount());
+        // Every pick after a character's slots of that type are full is combined
+        assertTrue(Metrics.COMBINE.getCount() >= 10);
+        if (Metrics.getAllocatedBytes() >= 0) {
+            assertTrue(Metrics.getAllocatedBytesTotal() > 0);
+        }
+        Metrics.reset();
+    }
+
+    @Test
+    public void testReports() throws Exception {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            runBattle();
+        } finally {
+            Metrics.setEnabled(false);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MetricsReporter text = new MetricsReporter(new PrintStream(bytes, true), MetricsReporter.Format.TEXT);
+        String report = text.report();
+        assertEquals(report, bytes.toString());
+        assertTrue(report.contains("pick           count=20 "));
+
+        String json = new MetricsReporter(new PrintStream(new ByteArrayOutputStream()), MetricsReporter.Format.JSON)
+                .report();
+        assertTrue(json.startsWith("{\"intervalSeconds\":"));
+        assertTrue(json.contains("\"combine\":{\"count\":" + Metrics.COMBINE.getCount() + ","));
+        assertTrue(json.endsWith("}}}\n"));
+
+        ObjectName name = Metrics.registerMBean();
+        assertEquals(name, Metrics.registerMBean());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(20L, server.getAttribute(name, "Picks"));
+        assertEquals(Metrics.COMBINE.getCount(), server.getAttribute(name, "Combines"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Picks"));
+    }
+
+    @Test
+    public void testExitedThreadsAreFolded() throws Exception {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            for (int i = 0; i < 3; i++) {
+                Thread thread = new Thread(MetricsTest::runBattle, "short-lived-" + i);
+                thread.start();
+                thread.join();
+            }
+        } finally {
+            Metrics.setEnabled(false);
+        }
+
+        Map<String, Long> threads = Metrics.getAllocatedBytesByThread();
+        for (String thread : threads.keySet()) {
+            assertFalse(thread, thread.startsWith("short-lived-"));
+        }
+        if (Metrics.getAllocatedBytes() >= 0) {
+            assertTrue(threads.get(Metrics.EXITED_THREADS) > 0);
+            assertEquals(Metrics.getAllocatedBytesTotal(), (long) threads.get(Metrics.EXITED_THREADS));
+        }
+        Metrics.reset();
+        assertEquals(0, Metrics.getAllocatedBytesTotal());
+    }
+
+    private static void runBattle() {
+        RPGCharacter first = new RPGCharacterImpl("Player 1", 2, 2);
+        RPGCharacter second = new RPGCharacterImpl("Player 2", 2, 2);
+        Battle battle = new Battle(first, second, new PoolGenerator(3).generate(0, 20));
+        battle.setListener(BattleListener.NONE);
+        battle.startBattle();
+    }
+}
@@ -0,0 +1,168 @@
+import battle.*;
+import character.*;
+import gear.*;
+import gear.store.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OffHeapGearStoreTest {
+
+    @Test
+    public void testViewsMatchHeapGear() {
+        List<Gear> items = Arrays.asList(
+                new HeadGear("Shiny", "Helmet", 4),
+                new HandGear("\u00c9lan", "Glove", 5),
+                new FootGear("Shiny", "Boot", 6, 7));
+        OffHeapGearStore store = new OffHeapGearStore();
+        for (Gear gear : items) {
+            store.add(gear);
+        }
+        assertEquals(3, store.size());
+        assertEquals(5, store.getStringCount());
+
+        GearView view = store.view(0);
+        for (int i = 0; i < items.size(); i++) {
+            Gear gear = items.get(i);
+            view.moveTo(i);
+            assertEquals(GearType.of(gear), view.getType());
+            assertEquals(gear.getPrefix(), view.getPrefix());
+            assertEquals(gear.getName(), view.getName());
+            assertEquals(gear.toString(), view.toString());
+            assertEquals(0, view.compareTo(gear));
+            assertEquals(0, gear.compareTo(view));
+        }
+        assertEquals(items.get(0).combine(items.get(2)).toString(), view.moveTo(0).combine(items.get(2)).toString());
+        assertEquals(items.get(1).toString(), store.toGear(1).toString());
+    }
+
+    @Test
+    public void testViewsKeepTheirSlotType() {
+        OffHeapGearStore store = new OffHeapGearStore();
+        store.add(new HeadGear("Shiny", "Helmet", 4));
+        store.add(new HandGear("Rusty", "Glove", 5));
+        GearView head = store.view(0);
+        GearView hand = store.view(1);
+        assertEquals(GearType.HEAD, GearType.of(head));
+        assertEquals(GearType.HAND, GearType.of(hand));
+
+        RPGCharacter character = new RPGCharacterImpl("Hero", 10, 10);
+        character.equip(head);
+        character.equip(hand);
+        assertEquals(15, character.getTotalAttackStat());
+        assertEquals(14, character.getTotalDefenseStat());
+        assertEquals(head.toString(), character.getEquippedGear(GearType.HEAD, 0).toString());
+        assertEquals(hand.toString(), character.getEquippedHandGears().get(0).toString());
+
+        // Moving a view does not change what the character wears
+        hand.moveTo(0);
+        assertEquals("Rusty", character.getEquippedHandGears().get(0).getPrefix());
+        assertEquals(5, character.unequip(GearType.HAND, 0).getAttackStat());
+        assertEquals(10, character.getTotalAttackStat());
+
+        assertEquals(GearType.HEAD, store.getType(store.add(head)));
+        assertEquals(GearType.HEAD, store.getType(store.add(hand)));
+        assertEquals(GearType.HAND, store.getType(store.add(store.view(1))));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsCannotBeChanged() {
+        OffHeapGearStore store = new OffHeapGearStore();
+        store.add(new HandGear("Rusty", "Glove", 5));
+        store.view(0).setName("Mitten");
+    }
+
+    @Test
+    public void testTopAcrossChunks() {
+        Random rand = new Random(1);
+        OffHeapGearStore store = new OffHeapGearStore();
+        int count = OffHeapGearStore.CHUNK_RECORDS + 50_000;
+        for (int i = 0; i < count; i++) {
+            GearType type = GearType.values()[rand.nextInt(3)];
+            store.add(type, "adj" + rand.nextInt(100), "Item", type == GearType.HEAD ? 0 : rand.nextInt(50),
+                    type == GearType.HAND ? 0 : rand.nextInt(50));
+        }
+
+        for (GearType type : new GearType[] {GearType.FOOT, GearType.HEAD, null}) {
+            // Attack, defense and the inverted index in one number, so sorting puts the best last
+            long[] sorted = new long[count];
+            int[] matched = new int[1];
+            store.scan(type, (item, itemType, attack, defense) -> sorted[matched[0]++] =
+                    (long) attack << 40 | (long) defense << 24 | (0xFFFFFF - item));
+            long[] expected = Arrays.copyOf(sorted, matched[0]);
+            Arrays.sort(expected);
+            long[] top = store.top(type, 100);
+            assertEquals(100, top.length);
+            for (int i = 0; i < top.length; i++) {
+                assertEquals(0xFFFFFF - (expected[expected.length - 1 - i] & 0xFFFFFF), top[i]);
+            }
+        }
+        assertEquals(0, store.top(GearType.HAND, 0).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopOfNegativeCount() {
+        OffHeapGearStore store = new OffHeapGearStore();
+        store.add(new HandGear("Rusty", "Glove", 5));
+        store.top(GearType.HAND, -1);
+    }
+
+    @Test
+    public void testCatalogIntoStore() throws IOException {
+        String csv = "type,prefix,name,attack,defense\n"
+                + "HEAD,Shiny,Helmet,0,4\n"
+                + "HAND,Rusty,Glove,5,0\n"
+                + "FOOT,Shiny,Boot,6,7\n"
+                + "FOOT,Rusty,Boot,-1,7\n";
+        OffHeapGearStore store = new OffHeapGearStore();
+        GearCatalogLoader loader = new GearCatalogLoader(GearCatalogLoader.Format.CSV, (line, message) -> { });
+        assertEquals(3, loader.load(new StringReader(csv), store::add));
+        assertEquals(3, store.size());
+        assertArrayEquals(new long[] {2, 1}, store.top(null, 2));
+        assertEquals("Rusty", store.getPrefix(1));
+    }
+
+    @Test
+    public void testManyStrings() {
+        OffHeapGearStore store = new OffHeapGearStore();
+        for (int i = 0; i < 20_000; i++) {
+            store.add(GearType.HAND, "prefix" + i, "name" + (i % 7), i, 0);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            store.add(GearType.HAND, "prefix" + i, "name" + (i % 7), i, 0);
+        }
+        assertEquals(20_007, store.getStringCount());
+        assertEquals("prefix12345", store.getPrefix(20_000 + 12_345));
+        assertEquals("name4", store.getName(4));
+        assertTrue(store.getOffHeapBytes() > 0);
+
+        store.close();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testStringsAcrossTableChunks() {
+        // Enough strings for several chunks of offsets and a hash table of several chunks
+        OffHeapGearStore store = new OffHeapGearStore();
+        int count = 300_000;
+        for (int i = 0; i < count; i++) {
+            store.add(GearType.HAND, "p" + i, "Glove", i, 0);
+        }
+        // Strings seen long ago are found in the table, not added again
+        for (int i = 0; i < count; i += 997) {
+            assertEquals("p" + i, store.getPrefix(store.add(GearType.HAND, "p" + i, "Glove", 0, 0)));
+        }
+        assertEquals(count + 1, store.getStringCount());
+        for (int i = 0; i < count; i += 7) {
+            assertEquals("p" + i, store.getPrefix(i));
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,86 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PoolGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSamePool() {
+        List<Gear> first = new PoolGenerator(17).generate(3, 200);
+        List<Gear> second = new PoolGenerator(17).generate(3, 200);
+        assertEquals(toStrings(first), toStrings(second));
+        assertNotEquals(toStrings(first), toStrings(new PoolGenerator(18).generate(3, 200)));
+        assertNotEquals(toStrings(first), toStrings(new PoolGenerator(17).generate(4, 200)));
+    }
+
+    @Test
+    public void testItemsDoNotDependOnEachOther() {
+        PoolGenerator generator = new PoolGenerator(5);
+        List<Gear> pool = generator.generate(0, 500);
+
+        assertEquals(pool.get(321).toString(), generator.item(0, 321).toString());
+        assertEquals(toStrings(pool.subList(0, 100)), toStrings(generator.generate(0, 100)));
+        assertEquals(toStrings(pool), generator.stream(0, 500).parallel().map(Gear::toString).collect(Collectors.toList()));
+        assertEquals(toStrings(generator.generate(2, 10)),
+                toStrings(generator.pools(10).skip(2).findFirst().get()));
+    }
+
+    @Test
+    public void testTypeMixAndStats() {
+        int[] counts = new int[3];
+        PoolGenerator balanced = new PoolGenerator(9);
+        for (Gear gear : balanced.generate(0, 30_000)) {
+            counts[GearType.of(gear).ordinal()]++;
+            assertTrue(gear.getAttackStat() < 10 && gear.getDefenseStat() < 10);
+        }
+        for (int count : counts) {
+            assertEquals(10_000, count, 500);
+        }
+
+        PoolGenerator footOnly = new PoolGenerator(9, new int[] {0, 0, 1},
+                PoolGenerator.StatDistribution.uniform(3), PoolGenerator.StatDistribution.skewedLow(100), null);
+        for (Gear gear : footOnly.generate(0, 1_000)) {
+            assertTrue(gear instanceof FootGear);
+            assertTrue(gear.getAttackStat() < 3);
+        }
+    }
+
+    @Test
+    public void testCachedItemsAreShared() {
+        GearCache cache = new GearCache();
+        Gear item = new PoolGenerator(1, cache).item(0, 7);
+        assertTrue(((AbstractGear) item).isFrozen());
+        assertSame(item, new PoolGenerator(1, cache).item(0, 7));
+    }
+
+    @Test
+    public void testSameSeedGivesSameBattle() {
+        assertEquals(battle(42), battle(42));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPositiveWeight() {
+        new PoolGenerator(1, new int[] {0, 0, 0}, PoolGenerator.StatDistribution.uniform(10),
+                PoolGenerator.StatDistribution.uniform(10), null);
+    }
+
+    private static String battle(long seed) {
+        RPGCharacter first = new RPGCharacterImpl("Player 1", 2, 2);
+        RPGCharacter second = new RPGCharacterImpl("Player 2", 2, 2);
+        Battle battle = new Battle(first, second, new PoolGenerator(seed).generate(0, 20));
+        battle.setListener(BattleListener.NONE);
+        BattleResult result = battle.startBattle();
+        return first + "\n" + second + "\n" + result.getWinner();
+    }
+
+    private static List<String> toStrings(List<Gear> items) {
+        return items.stream().map(Gear::toString).collect(Collectors.toList());
+    }
+}
@@ -98,6 +98,44 @@ public class RPGCharacterTest {
         assertEquals(3, player1.getEquippedFootGears().get(0).getDefenseStat());
     }
 
+    @Test
+    public void unequipAndSwap_UpdateTotals() {
+        Gear first = new FootGear("Foot", "Boot1", 1, 2);
+        Gear second = new FootGear("Foot", "Boot2", 3, 4);
+        player1.equip(first);
+        player1.equip(second);
+        assertFalse(player1.hasFootGearSlot());
+
+        assertSame(first, player1.unequip(GearType.FOOT, 0));
+        assertEquals(8, player1.getTotalAttackStat());
+        assertEquals(9, player1.getTotalDefenseStat());
+        assertTrue(player1.hasFootGearSlot());
+        assertEquals(1L, player1.getFreeSlots(GearType.FOOT));
+        assertNull(player1.unequip(GearType.FOOT, 0));
+
+        // The freed slot is filled again before anything is combined
+        Gear third = new FootGear("Foot", "Boot3", 2, 0);
+        player1.equip(third);
+        assertSame(third, player1.getEquippedGear(GearType.FOOT, 0));
+
+        Gear replacement = new FootGear("Foot", "Boot4", 0, 1);
+        assertSame(second, player1.swap(GearType.FOOT, 1, replacement));
+        assertEquals(7, player1.getTotalAttackStat());
+        assertEquals(6, player1.getTotalDefenseStat());
+        assertEquals(2, player1.getEquippedFootGears().size());
+        assertSame(replacement, player1.getEquippedFootGears().get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void swap_WrongType() {
+        player1.swap(GearType.HEAD, 0, new HandGear("Hand", "Glove", 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void equippedGears_ReadOnly() {
+        player1.getEquippedHandGears().add(new HandGear("Hand", "Glove", 1));
+    }
+
     @Test
     public void compareTo_Player1Wins() {
         player1.equip(new HandGear("Hand", "Glove1", 3));
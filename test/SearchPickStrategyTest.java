@@ -0,0 +1,112 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SearchPickStrategyTest {
+
+    @Test
+    public void testExhaustiveSearchFindsBestMove() {
+        assertSearchFindsBestMove(new Random(21), 2, 30);
+    }
+
+    @Test
+    public void testParallelRootMovesFindBestMove() {
+        // More workers than cores, so root moves finish out of order and raise the bound for earlier ones
+        assertSearchFindsBestMove(new Random(8), 8, 40);
+    }
+
+    private static void assertSearchFindsBestMove(Random rand, int threads, int rounds) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // One strategy for every round: the pools are the same size, so their positions hash the same,
+            // and entries left from an earlier pick would give wrong scores
+            SearchPickStrategy strategy = new SearchPickStrategy(10_000, 6, 6, pool);
+            for (int round = 0; round < rounds; round++) {
+                List<Gear> items = new PoolGenerator(rand.nextLong()).generate(0, 6);
+                List<RPGCharacter> participants = Arrays.asList(
+                        new RPGCharacterImpl("A", rand.nextInt(4), rand.nextInt(4)),
+                        new RPGCharacterImpl("B", rand.nextInt(4), rand.nextInt(4)));
+                PickContext context = new PickContext(new IndexedGearPool(items), participants, 0, 1, 3);
+
+                Gear pick = strategy.pick(context);
+                assertEquals(6, strategy.getLastDepth());
+
+                int[] attacks = {participants.get(0).getTotalAttackStat(), participants.get(1).getTotalAttackStat()};
+                int[] defenses = {participants.get(0).getTotalDefenseStat(), participants.get(1).getTotalDefenseStat()};
+                long best = minimax(items, new boolean[items.size()], 0, attacks, defenses);
+
+                boolean[] taken = new boolean[items.size()];
+                taken[indexOf(items, pick)] = true;
+                attacks[0] += pick.getAttackStat();
+                defenses[0] += pick.getDefenseStat();
+                assertEquals(best, minimax(items, taken, 1, attacks, defenses));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBattleWithSearchPlayer() {
+        List<Gear> items = new PoolGenerator(4).generate(0, 20);
+        Battle battle = new Battle(new RPGCharacterImpl("A", 2, 2), new RPGCharacterImpl("B", 2, 2), items);
+        battle.setPickStrategy(0, new SearchPickStrategy(5));
+
+        Map<Gear, Boolean> picked = new IdentityHashMap<>();
+        battle.setListener(new BattleListener() {
+            @Override
+            public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+                assertNull("Item picked twice", picked.put(gear, Boolean.TRUE));
+            }
+        });
+        BattleResult result = battle.startBattle();
+
+        assertEquals(20, picked.size());
+        assertEquals(2, result.getDamages().length);
+    }
+
+    // The best margin the first player can force when the players alternate picks
+    private static long minimax(List<Gear> items, boolean[] taken, int mover, int[] attacks, int[] defenses) {
+        boolean any = false;
+        long best = mover == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        for (int i = 0; i < items.size(); i++) {
+            if (taken[i]) {
+                continue;
+            }
+            any = true;
+            Gear gear = items.get(i);
+            taken[i] = true;
+            attacks[mover] += gear.getAttackStat();
+            defenses[mover] += gear.getDefenseStat();
+            long value = minimax(items, taken, 1 - mover, attacks, defenses);
+            attacks[mover] -= gear.getAttackStat();
+            defenses[mover] -= gear.getDefenseStat();
+            taken[i] = false;
+            best = mover == 0 ? Math.max(best, value) : Math.min(best, value);
+        }
+        if (!any) {
+            return Math.max(0, attacks[0] - defenses[1]) - Math.max(0, attacks[1] - defenses[0]);
+        }
+        return best;
+    }
+
+    private static int indexOf(List<Gear> items, Gear gear) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == gear) {
+                return i;
+            }
+        }
+        throw new AssertionError("Picked item is not in the pool");
+    }
+}
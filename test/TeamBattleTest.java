@@ -0,0 +1,202 @@
+import battle.*;
+import character.*;
+import gear.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TeamBattleTest {
+
+    @Test
+    public void testSnakeOrder() {
+        TeamBattle battle = battle(2, 2, 3, Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+        int[] expected = {0, 2, 1, 3, 3, 1, 2, 0, 0, 2, 1, 3};
+        for (int pick = 0; pick < expected.length; pick++) {
+            assertEquals(expected[pick], battle.getPicker(pick));
+        }
+        assertEquals(1, battle.getTeam(1));
+        assertEquals(2, battle.getTeam(2));
+    }
+
+    @Test
+    public void testUnevenTeamsPickOncePerTurn() {
+        TeamBattle battle = battle(3, 1, 2, Battle.PickOrder.ALTERNATING, Battle.DamageMode.SUM);
+        int[] expected = {0, 3, 1, 2, 0, 3, 1, 2};
+        for (int pick = 0; pick < expected.length; pick++) {
+            assertEquals(expected[pick], battle.getPicker(pick));
+        }
+
+        TeamBattleResult result = battle.startBattle();
+        assertEquals(3, result.getTeam(1).size());
+        assertEquals(1, result.getTeam(2).size());
+    }
+
+    @Test
+    public void testSumDamage() {
+        TeamBattle battle = battle(3, 4, 4, Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+        TeamBattleResult result = battle.startBattle();
+        List<RPGCharacter> first = result.getTeam(1);
+        List<RPGCharacter> second = result.getTeam(2);
+
+        long[] teams = new long[2];
+        for (int i = 0; i < 7; i++) {
+            RPGCharacter attacker = result.getParticipants().get(i);
+            int damage = 0;
+            for (RPGCharacter defender : i < 3 ? second : first) {
+                damage += Math.max(0, attacker.getTotalAttackStat() - defender.getTotalDefenseStat());
+            }
+            assertEquals(damage, result.getDamage(i));
+            teams[i < 3 ? 0 : 1] += damage;
+        }
+        assertEquals(teams[0], result.getTeamDamage(1));
+        assertEquals(teams[1], result.getTeamDamage(2));
+        assertEquals(teams[0] > teams[1] ? 1 : teams[1] > teams[0] ? 2 : 0, result.getWinningTeam());
+    }
+
+    @Test
+    public void testPairwiseDamage() {
+        TeamBattle battle = battle(2, 3, 2, Battle.PickOrder.SNAKE, Battle.DamageMode.PAIRWISE);
+        TeamBattleResult result = battle.startBattle();
+        List<RPGCharacter> all = result.getParticipants();
+
+        // The first team is matched up again from its first character: 0-2, 1-3, 0-4
+        int[] expected = new int[5];
+        int[][] matchups = {{0, 2}, {1, 3}, {0, 4}};
+        for (int[] matchup : matchups) {
+            expected[matchup[0]] += damage(all.get(matchup[0]), all.get(matchup[1]));
+            expected[matchup[1]] += damage(all.get(matchup[1]), all.get(matchup[0]));
+        }
+        assertArrayEquals(expected, result.getDamages());
+    }
+
+    @Test
+    public void testStrategiesAndListener() {
+        TeamBattle battle = battle(2, 2, 2, Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+        List<Integer> pickers = new ArrayList<>();
+        battle.setPickStrategy(3, context -> {
+            assertEquals(3, context.getParticipant());
+            return context.getPool().toList().get(0);
+        });
+        battle.setListener(new BattleListener() {
+            @Override
+            public void onPick(int turn, int participant, RPGCharacter character, Gear gear) {
+                pickers.add(participant);
+            }
+        });
+        battle.startBattle();
+        assertEquals(Arrays.asList(0, 2, 1, 3, 3, 1, 2, 0), pickers);
+    }
+
+    @Test
+    public void testContextKnowsThePickOrder() {
+        TeamBattle battle = battle(2, 3, 2, Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+        PickStrategy search = new SearchPickStrategy(50);
+        int[] pick = new int[1];
+        PickStrategy checked = context -> {
+            for (int ahead = 0; ahead < context.getRemainingPicks(); ahead++) {
+                assertEquals(battle.getPicker(pick[0] + ahead), context.getPicker(ahead));
+            }
+            pick[0]++;
+            return (context.getParticipant() == 0 ? search : PickStrategy.GREEDY).pick(context);
+        };
+        for (int participant = 0; participant < 5; participant++) {
+            battle.setPickStrategy(participant, checked);
+        }
+        battle.startBattle();
+        assertEquals(10, pick[0]);
+    }
+
+    @Test
+    public void testRollbackReplaysInPickOrder() {
+        TeamBattle battle = battle(2, 3, 2, Battle.PickOrder.SNAKE, Battle.DamageMode.PAIRWISE);
+        DraftState[] snapshot = new DraftState[1];
+        long[] hash = new long[1];
+        battle.setPickStrategy(1, context -> {
+            if (snapshot[0] == null) {
+                snapshot[0] = context.getSnapshot();
+                hash[0] = battle.getBattle().getStateHash();
+            }
+            return PickStrategy.GREEDY.pick(context);
+        });
+        TeamBattleResult first = battle.startBattle();
+
+        // Participant 1 makes the third pick of a snake between 2 and 3 characters
+        assertEquals(2, snapshot[0].getPickCount());
+        battle.getBattle().rollback(snapshot[0]);
+        assertEquals(hash[0], battle.getBattle().getStateHash());
+        TeamBattleResult second = battle.startBattle();
+        assertArrayEquals(first.getDamages(), second.getDamages());
+        assertEquals(first.getWinningTeam(), second.getWinningTeam());
+    }
+
+    @Test
+    public void testBinaryLogRoundTrip() {
+        TeamBattle battle = battle(2, 3, 2, Battle.PickOrder.SNAKE, Battle.DamageMode.PAIRWISE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        battle.setListener(new BinaryBattleLog(out));
+        TeamBattleResult result = battle.startBattle();
+
+        BattleReplay replay = BattleReplay.read(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(10, replay.getPickCount());
+        for (int pick = 0; pick < replay.getPickCount(); pick++) {
+            assertEquals(battle.getPicker(pick), replay.getParticipant(pick));
+        }
+        assertArrayEquals(result.getDamages(), replay.getDamages());
+        assertEquals(result.getWinningTeam(), replay.getWinner());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParticipantsMustMatchConfig() {
+        BattleConfig config = new BattleConfig(20, 2, 5, 1, 2, 2);
+        new TeamBattle(team("A", 2, config), team("B", 2, config), new PoolGenerator(1).generate(0, 20), config,
+                Battle.PickOrder.SNAKE, Battle.DamageMode.SUM);
+    }
+
+    @Test
+    public void testDamageTooLargeForAnInt() {
+        for (Battle.DamageMode mode : Battle.DamageMode.values()) {
+            // One attacker hits both defenders for more than half of the int range each
+            BattleConfig config = new BattleConfig(12, 2, 3, 1, 2, 2);
+            TeamBattle battle = new TeamBattle(
+                    Arrays.asList(config.createCharacter("A0", Integer.MAX_VALUE / 2 + 1000, 0)),
+                    team("B", 2, config), new PoolGenerator(7).generate(0, 12), config,
+                    Battle.PickOrder.SNAKE, mode);
+            battle.setListener(BattleListener.NONE);
+            try {
+                battle.startBattle();
+                fail("Expected the damage of " + mode + " to overflow");
+            } catch (ArithmeticException e) {
+                // Expected
+            }
+        }
+    }
+
+    private static TeamBattle battle(int firstSize, int secondSize, int turns, Battle.PickOrder order,
+                                     Battle.DamageMode mode) {
+        int poolSize = (firstSize + secondSize) * turns * 2;
+        BattleConfig config = new BattleConfig(poolSize, turns, firstSize + secondSize, 1, 2, 2);
+        TeamBattle battle = new TeamBattle(team("A", firstSize, config), team("B", secondSize, config),
+                new PoolGenerator(firstSize * 31 + secondSize).generate(0, poolSize), config, order, mode);
+        battle.setListener(BattleListener.NONE);
+        return battle;
+    }
+
+    private static List<RPGCharacter> team(String name, int size, BattleConfig config) {
+        List<RPGCharacter> team = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            team.add(config.createCharacter(name + i, i % 3, (i * 2) % 3));
+        }
+        return team;
+    }
+
+    private static int damage(RPGCharacter attacker, RPGCharacter defender) {
+        return Math.max(0, attacker.getTotalAttackStat() - defender.getTotalDefenseStat());
+    }
+}
@@ -0,0 +1,138 @@
+import battle.*;
+import battle.tournament.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void testRoundRobinPlaysEveryPairOnce() throws InterruptedException {
+        for (int count : new int[] {6, 7}) {
+            Tournament tournament = new Tournament(entrants(count), BattleConfig.standard(), 3);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                tournament.runRoundRobin(executor);
+            } finally {
+                executor.shutdown();
+            }
+
+            assertEquals(count * (count - 1) / 2, tournament.getMatchCount());
+            double points = 0;
+            double elo = 0;
+            for (int i = 0; i < count; i++) {
+                assertEquals(count - 1, tournament.getWins(i) + tournament.getDraws(i) + tournament.getLosses(i));
+                points += tournament.getPoints(i);
+                elo += tournament.getRatings().getElo(i);
+            }
+            // Every match hands out one point, and so does every bye
+            assertEquals(tournament.getMatchCount() + (count % 2 == 1 ? count : 0), points, 1e-9);
+            assertEquals(count * Ratings.INITIAL_RATING, elo, 1e-6);
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesSameResultsOnAnyNumberOfThreads() throws InterruptedException {
+        Tournament serial = new Tournament(entrants(20), BattleConfig.standard(), 11);
+        Tournament parallel = new Tournament(entrants(20), BattleConfig.standard(), 11);
+        ExecutorService one = Executors.newSingleThreadExecutor();
+        ExecutorService four = Executors.newFixedThreadPool(4);
+        try {
+            serial.runSwiss(5, one);
+            parallel.runSwiss(5, four);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        assertArrayEquals(serial.getRanking(), parallel.getRanking());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(serial.getPoints(i), parallel.getPoints(i), 0);
+            assertEquals(serial.getRatings().getGlicko(i), parallel.getRatings().getGlicko(i), 0);
+        }
+    }
+
+    @Test
+    public void testSwissAvoidsRematches() throws InterruptedException {
+        // Every entrant picks once in the first turn of each match, so that pick records the pairing
+        Set<String> pairings = ConcurrentHashMap.newKeySet();
+        List<String> rematches = new CopyOnWriteArrayList<>();
+        List<Entrant> entrants = new ArrayList<>();
+        for (Entrant entrant : entrants(15)) {
+            entrants.add(new Entrant(entrant.getName(), entrant.getBaseAttackStat(), entrant.getBaseDefenseStat(),
+                    context -> {
+                        if (context.getTurn() == 1) {
+                            String pairing = context.getCharacter().getName() + " vs "
+                                    + context.getParticipants().get(1 - context.getParticipant()).getName();
+                            if (!pairings.add(pairing)) {
+                                rematches.add(pairing);
+                            }
+                        }
+                        return PickStrategy.GREEDY.pick(context);
+                    }));
+        }
+        Tournament tournament = new Tournament(entrants, BattleConfig.standard(), 5);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            tournament.runSwiss(4, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(4 * 7, tournament.getMatchCount());
+        for (int i = 0; i < 15; i++) {
+            int played = tournament.getWins(i) + tournament.getDraws(i) + tournament.getLosses(i);
+            assertTrue(played == 3 || played == 4);
+        }
+        assertEquals(2 * 4 * 7, pairings.size());
+        assertEquals(Collections.emptyList(), rematches);
+    }
+
+    @Test
+    public void testStrongestEntrantWins() throws InterruptedException {
+        List<Entrant> entrants = entrants(9);
+        entrants.set(4, new Entrant("Champion", 200, 200));
+        Tournament tournament = new Tournament(entrants, BattleConfig.standard(), 7);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            tournament.runRoundRobin(executor);
+            assertEquals(4, tournament.getRanking()[0]);
+            assertEquals(8, tournament.getWins(4));
+            assertEquals(4, tournament.runElimination(executor));
+        } finally {
+            executor.shutdown();
+        }
+
+        Ratings ratings = tournament.getRatings();
+        for (int i = 0; i < 9; i++) {
+            if (i != 4) {
+                assertTrue(ratings.getElo(4) > ratings.getElo(i));
+                assertTrue(ratings.getGlicko(4) > ratings.getGlicko(i));
+            }
+        }
+        assertTrue(ratings.getDeviation(4) < Ratings.INITIAL_DEVIATION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatchesNeedTwoParticipants() {
+        new Tournament(entrants(4), new BattleConfig(30, 10, 3, 1, 2, 2), 1);
+    }
+
+    private static List<Entrant> entrants(int count) {
+        List<Entrant> entrants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entrants.add(new Entrant("Bot " + i, i % 5, (i * 3) % 5));
+        }
+        return entrants;
+    }
+}